@@ -1,5 +1,7 @@
 package com.blueprinthell.client.network;
 
+import com.blueprinthell.shared.protocol.BinaryCodec;
+import com.blueprinthell.shared.protocol.MessageDecoder;
 import com.blueprinthell.shared.protocol.NetworkProtocol.*;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
@@ -7,6 +9,7 @@ import com.google.gson.GsonBuilder;
 import javax.swing.*;
 import java.io.*;
 import java.net.*;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.util.*;
 import java.util.Timer;
@@ -15,12 +18,16 @@ import java.util.function.Consumer;
 
 /**
  * مدیریت اتصال به سرور و صف آفلاین
+ *
+ * <p>در HELLO قاب دودویی ({@link BinaryCodec}) پیشنهاد می‌شود؛ اگر HELLO_ACK آن را بپذیرد بقیهٔ
+ * اتصال دودویی است، وگرنه خط‌های JSON. {@code -Dblueprinthell.wire=json} پیشنهاد را خاموش می‌کند.
  */
 public class ConnectionManager {
     private static final String CLIENT_VERSION = "1.0.0";
     private static final Path OFFLINE_QUEUE_FILE = Paths.get("data/offline_results.jsonl");
     private static final int HEARTBEAT_INTERVAL_MS = 2000;
     private static final int HEARTBEAT_TIMEOUT_MS = 6000;
+    private static final boolean BINARY_WIRE = !"json".equals(System.getProperty("blueprinthell.wire"));
 
     // Connection state
     public enum ConnectionState {
@@ -31,9 +38,12 @@ public class ConnectionManager {
     }
 
     private Socket socket;
-    private BufferedReader reader;
-    private PrintWriter writer;
+    private InputStream in;
+    private OutputStream out;
+    private final Object writeLock = new Object();
+    private volatile BinaryCodec codec;   // null یعنی خط‌های JSON
     private final Gson gson;
+    private final MessageDecoder decoder;   // فقط ترد دریافت (و connect قبل از شروع آن)
 
     private volatile ConnectionState state;
     private String userId;
@@ -56,6 +66,7 @@ public class ConnectionManager {
     public ConnectionManager(String userId) {
         this.userId = userId != null ? userId : generateUserId();
         this.gson = new GsonBuilder().create();
+        this.decoder = new MessageDecoder(gson);
         this.state = ConnectionState.DISCONNECTED;
         this.messageHandlers = new ConcurrentHashMap<>();
         this.offlineQueue = new ConcurrentLinkedQueue<>();
@@ -81,13 +92,17 @@ public class ConnectionManager {
                 socket = new Socket(host, port);
                 socket.setSoTimeout(HEARTBEAT_TIMEOUT_MS);
 
-                reader = new BufferedReader(new InputStreamReader(socket.getInputStream()));
-                writer = new PrintWriter(new OutputStreamWriter(socket.getOutputStream()), true);
+                in = new BufferedInputStream(socket.getInputStream());
+                out = new BufferedOutputStream(socket.getOutputStream());
 
                 // ارسال Hello
                 Hello hello = new Hello(CLIENT_VERSION, userId);
+                if (BINARY_WIRE) hello.wireFormats = List.of(BinaryCodec.FORMAT);
                 sendMessage(hello);
 
+                // قالب سیمی بقیهٔ اتصال با HELLO_ACK معلوم می‌شود؛ تا آن موقع چیز دیگری نمی‌فرستیم
+                awaitHelloAck();
+
                 // شروع thread دریافت
                 startReceiveThread();
 
@@ -130,8 +145,9 @@ public class ConnectionManager {
         } catch (IOException ignored) {}
 
         socket = null;
-        reader = null;
-        writer = null;
+        in = null;
+        out = null;
+        codec = null;
 
         System.out.println("Disconnected from server");
     }
@@ -140,15 +156,21 @@ public class ConnectionManager {
      * ارسال پیام به سرور
      */
     public void sendMessage(Message message) {
-        if (writer == null) {
+        OutputStream o = out;
+        if (o == null) {
             System.err.println("Cannot send message: not connected");
             return;
         }
 
         try {
-            String json = gson.toJson(message);
-            writer.println(json);
-            writer.flush();
+            BinaryCodec c = codec;
+            byte[] bytes = c != null
+                    ? c.encode(message)
+                    : (gson.toJson(message) + "\n").getBytes(StandardCharsets.UTF_8);
+            synchronized (writeLock) {
+                o.write(bytes);
+                o.flush();
+            }
         } catch (Exception e) {
             notifyError("Failed to send message: " + e.getMessage());
         }
@@ -231,12 +253,35 @@ public class ConnectionManager {
 
     // Private methods
 
+    private void awaitHelloAck() throws IOException {
+        String line;
+        while ((line = BinaryCodec.readLine(in)) != null) {
+            if (line.isEmpty()) continue;
+            Message msg = decoder.decode(line);
+            handleDecoded(msg);
+            if (msg instanceof HelloAck ack) {
+                if (BinaryCodec.FORMAT.equals(ack.wireFormat)) codec = new BinaryCodec(gson);
+                return;
+            }
+        }
+        throw new EOFException("Connection closed before HELLO_ACK");
+    }
+
     private void startReceiveThread() {
+        InputStream input = in;
         receiveThread = new Thread(() -> {
             try {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    handleReceivedMessage(line);
+                while (true) {
+                    BinaryCodec c = codec;
+                    if (c != null) {
+                        byte[] frame = BinaryCodec.readFrame(input);
+                        if (frame == null) break;
+                        handleReceivedFrame(c, frame);
+                    } else {
+                        String line = BinaryCodec.readLine(input);
+                        if (line == null) break;
+                        if (!line.isEmpty()) handleReceivedMessage(line);
+                    }
                 }
             } catch (SocketTimeoutException e) {
                 notifyError("Connection timeout");
@@ -252,10 +297,30 @@ public class ConnectionManager {
         receiveThread.start();
     }
 
+    private void handleReceivedFrame(BinaryCodec c, byte[] frame) {
+        String json = BinaryCodec.jsonPayload(frame);
+        if (json != null) {
+            handleReceivedMessage(json);
+            return;
+        }
+        try {
+            handleDecoded(c.decode(frame));
+        } catch (Exception e) {
+            System.err.println("Failed to handle frame: " + e.getMessage());
+        }
+    }
+
     private void handleReceivedMessage(String json) {
         try {
-            Message msg = gson.fromJson(json, Message.class);
+            handleDecoded(decoder.decode(json));
+        } catch (Exception e) {
+            System.err.println("Failed to handle message: " + e.getMessage());
+        }
+    }
 
+    /* پیام‌ها به کلاس واقعی‌شان دیکد شده‌اند؛ handlerها همان نمونه را می‌گیرند */
+    private void handleDecoded(Message msg) {
+        try {
             // به‌روزرسانی heartbeat
             if (msg.type == MessageType.HEARTBEAT_ACK) {
                 lastHeartbeatReceived = System.currentTimeMillis();
@@ -264,28 +329,20 @@ public class ConnectionManager {
             // پیام‌های خاص
             switch (msg.type) {
                 case HELLO_ACK -> {
-                    HelloAck ack = gson.fromJson(json, HelloAck.class);
+                    HelloAck ack = (HelloAck) msg;
                     System.out.println("Server version: " + ack.serverVersion);
                     System.out.println("MOTD: " + ack.motd);
                 }
                 case ERROR -> {
-                    ErrorMessage err = gson.fromJson(json, ErrorMessage.class);
+                    ErrorMessage err = (ErrorMessage) msg;
                     notifyError("Server error: " + err.code + " - " + err.msg);
                 }
                 case SUBMIT_RESULT_ACK -> {
-                    SubmitResultAck ack = gson.fromJson(json, SubmitResultAck.class);
+                    SubmitResultAck ack = (SubmitResultAck) msg;
                     if (ack.success) {
                         System.out.println("Result submitted successfully: " + ack.resultId);
                     }
                 }
-                case PROFILE -> {
-                    Profile profile = gson.fromJson(json, Profile.class);
-                    // اطلاع به handler
-                    Consumer<Message> handler = messageHandlers.get(MessageType.PROFILE);
-                    if (handler != null) {
-                        handler.accept(profile);
-                    }
-                }
             }
 
             // اطلاع به handler عمومی
@@ -40,6 +40,45 @@ public final class Config {
 
     public static final int BOX_SIZE = 120;
     public static final float STROKE_WIDTH_WIRE = 2f;
+    /** All packets drawn by one canvas (PacketLayerView) instead of one PacketView component each. */
+    public static final boolean BATCHED_PACKET_RENDERING = true;
+    /** Game area drawn by ActiveRenderCanvas on its own thread instead of passive Swing repaints. */
+    public static final boolean ACTIVE_RENDERING = false;
+    /** Boxes, ports and wires rendered once into a cached image and only re-rendered after edits. */
+    public static final boolean STATIC_LAYER_CACHE = true;
+    /** Fixed simulation rate. Replays and timeline checkpoints are recorded in ticks of this rate. */
+    public static final int SIMULATION_HZ = 60;
+    /**
+     * Packets drawn between their last two simulated positions at the display rate, so
+     * SIMULATION_HZ can drop (e.g. to 30) without visible stepping.
+     */
+    public static final boolean RENDER_INTERPOLATION = true;
+
+    /* ---------- دوربین gameArea ---------- */
+    public static final double CAMERA_MIN_ZOOM = 0.25;
+    public static final double CAMERA_MAX_ZOOM = 4.0;
+    /** Zoom factor per mouse-wheel notch. */
+    public static final double CAMERA_ZOOM_STEP = 1.1;
+
+    /* ---------- بازرسم ناحیه‌های کثیف ---------- */
+    /** Dirty rectangles are snapped to square tiles of this size before being merged. */
+    public static final int DIRTY_TILE_PX = 32;
+    /** Extra margin around each dirty rectangle (antialiased edges, sprite rounding). */
+    public static final int DIRTY_PAD_PX = 2;
+    /** Above this many merged regions, their bounding box is repainted instead. */
+    public static final int DIRTY_MAX_RECTS = 24;
+    /** If the regions cover at least this fraction of the area, one plain repaint is cheaper. */
+    public static final double DIRTY_FULL_FRACTION = 0.6;
+
+    /* ---------- LOD تحت بار ---------- */
+    /** Live packets at which rendering drops to the low-detail mode. */
+    public static final int LOD_ENTER_PACKETS = 300;
+    /** Live packets at or below which full detail returns; kept well under the entry threshold. */
+    public static final int LOD_EXIT_PACKETS = 200;
+    /** Minimum ticks spent in a mode before it may switch again. */
+    public static final int LOD_MIN_HOLD_TICKS = 90;
+    /** In low detail, a wire carrying at least this many packets is drawn as one heat strip. */
+    public static final int LOD_HEAT_WIRE_PACKETS = 6;
 
 
     public static final int PACKETS_PER_PORT = 3;
@@ -10,10 +10,12 @@ import com.blueprinthell.controller.persistence.AutoSaveController;
 import com.blueprinthell.controller.persistence.SnapshotManager;
 import com.blueprinthell.controller.persistence.SnapshotService;
 import com.blueprinthell.controller.physics.CollisionController;
+import com.blueprinthell.controller.simulation.InputEventLog;
 import com.blueprinthell.controller.simulation.NetworkController;
 import com.blueprinthell.controller.simulation.SimulationController;
 import com.blueprinthell.controller.simulation.SimulationRegistrar;
 import com.blueprinthell.controller.simulation.TimelineController;
+import com.blueprinthell.controller.simulation.WorldSeed;
 import com.blueprinthell.controller.systems.TeleportTracking;
 import com.blueprinthell.controller.ui.ScreenController;
 import com.blueprinthell.controller.ui.hud.HudController;
@@ -24,6 +26,7 @@ import com.blueprinthell.level.LevelManager;
 import com.blueprinthell.model.*;
 import com.blueprinthell.model.large.LargeGroupRegistry;
 import com.blueprinthell.snapshot.NetworkSnapshot;
+import com.blueprinthell.snapshot.ReplayLog;
 import com.blueprinthell.view.HudView;
 import com.blueprinthell.view.screens.GameScreenView;
 
@@ -139,13 +142,22 @@ public class GameController implements NetworkController {
         this.gameView  = new GameScreenView(hudView);
 
         this.simulationCoreManager.collisionCtrl = new CollisionController(simulationCoreManager.getWires(), simulationCoreManager.getLossModel());
-        this.levelCoreManager.levelBuilder = new LevelBuilder(gameView, simulationCoreManager.getWires(), levelCoreManager.getUsageModel());
+        this.levelCoreManager.levelBuilder = new LevelBuilder(gameView, simulationCoreManager.getWires(), levelCoreManager.getUsageModel(), simulationCoreManager.getEntities());
 
         this.hudCoord = new HudCoordinator(hudView, simulationCoreManager.getScoreModel(), simulationCoreManager.getCoinModel(), simulationCoreManager.getLossModel(), simulationCoreManager.getSimulation(), simulationCoreManager.getTimeline());
 
         simulationCoreManager.getSimulation().setTimelineController(simulationCoreManager.getTimeline());
 
         gameView.setTemporalNavigationListener(this::onNavigateTime);
+        gameView.setReplayListener(new GameScreenView.ReplayListener() {
+            @Override public void onStepTick(int direction) { simulationCoreManager.onStepTick(direction); }
+            @Override public void onExportReplay() { chooseAndExportReplay(); }
+            @Override public void onPlayReplay() { chooseAndPlayReplay(); }
+            @Override public void onExportTimeline() { chooseAndExportTimeline(); }
+            @Override public void onImportTimeline() { chooseAndImportTimeline(); }
+        });
+        InputEventLog.INSTANCE.setTickSource(simulationCoreManager.getSimulation()::getTick);
+        gameView.setTickSource(simulationCoreManager.getSimulation()::getTick);
     }
 
 
@@ -218,6 +230,9 @@ public class GameController implements NetworkController {
     public List<WireModel> getWires()  {
         return simulationCoreManager.getWires();
     }
+    public EntityRegistry getEntities() {
+        return simulationCoreManager.getEntities();
+    }
     public SimulationController getSimulation() {
         return simulationCoreManager.getSimulation();
     }
@@ -271,6 +286,10 @@ public class GameController implements NetworkController {
                if (reg != null) reg.clearTransientState();
                 TeleportTracking.clearAll();
                 snapshotCoreController.restoreState(snap);
+                // هم‌ترازی tick و RNG با checkpoint تا ادامهٔ اجرا قطعی باشد
+                long tick = (snap != null && snap.meta != null) ? snap.meta.tick : 0L;
+                getSimulation().setTick(tick);
+                WorldSeed.rewind(tick);
             }
     public void setScreenController(ScreenController sc) { this.screenController = sc; }
     public void startAutoSave() {
@@ -344,6 +363,83 @@ public class GameController implements NetworkController {
     }
 
 
+    private void chooseAndExportReplay() {
+        JFileChooser fc = new JFileChooser();
+        fc.setSelectedFile(new java.io.File("run.replay.json"));
+        if (fc.showSaveDialog(mainFrame) != JFileChooser.APPROVE_OPTION) return;
+        try {
+            exportReplay(fc.getSelectedFile().toPath());
+        } catch (java.io.IOException ex) {
+            JOptionPane.showMessageDialog(mainFrame, "Replay export failed: " + ex.getMessage());
+        }
+    }
+
+    private void chooseAndPlayReplay() {
+        JFileChooser fc = new JFileChooser();
+        if (fc.showOpenDialog(mainFrame) != JFileChooser.APPROVE_OPTION) return;
+        try {
+            playReplay(fc.getSelectedFile().toPath());
+        } catch (java.io.IOException | RuntimeException ex) {
+            JOptionPane.showMessageDialog(mainFrame, "Replay could not be played: " + ex.getMessage());
+        }
+    }
+
+    private void chooseAndExportTimeline() {
+        JFileChooser fc = new JFileChooser();
+        fc.setSelectedFile(new java.io.File("timeline.bpht"));
+        if (fc.showSaveDialog(mainFrame) != JFileChooser.APPROVE_OPTION) return;
+        try {
+            getTimeline().exportTimeline(fc.getSelectedFile().toPath());
+        } catch (java.io.IOException ex) {
+            JOptionPane.showMessageDialog(mainFrame, "Timeline export failed: " + ex.getMessage());
+        }
+    }
+
+    private void chooseAndImportTimeline() {
+        JFileChooser fc = new JFileChooser();
+        if (fc.showOpenDialog(mainFrame) != JFileChooser.APPROVE_OPTION) return;
+        getSimulation().stop();
+        try {
+            getTimeline().importTimeline(fc.getSelectedFile().toPath());
+        } catch (java.io.IOException | RuntimeException ex) {
+            JOptionPane.showMessageDialog(mainFrame, "Timeline could not be opened: " + ex.getMessage());
+        }
+    }
+
+    /** Writes the current run's seed and recorded inputs as a compact replay file. */
+    public void exportReplay(java.nio.file.Path file) throws java.io.IOException {
+        int lvl = (getLevelManager() != null) ? getLevelManager().getLevelIndex() + 1 : 1;
+        ReplayLog log = InputEventLog.INSTANCE.toReplayLog(lvl);
+        try (java.io.Writer w = java.nio.file.Files.newBufferedWriter(file)) {
+            new com.google.gson.Gson().toJson(log, w);
+        }
+    }
+
+    /**
+     * Restarts the recorded level with the recorded seed and lets the simulation
+     * re-apply the inputs tick by tick.
+     */
+    public void playReplay(java.nio.file.Path file) throws java.io.IOException {
+        ReplayLog log;
+        try (java.io.Reader r = java.nio.file.Files.newBufferedReader(file)) {
+            log = new com.google.gson.Gson().fromJson(r, ReplayLog.class);
+        }
+        if (log == null) return;
+
+        if (getLevelManager() != null) getLevelManager().loadLevel(Math.max(1, log.levelNumber));
+        else startLevel(Math.max(1, log.levelNumber));
+
+        WorldSeed.reseed(log.seed);
+        InputEventLog inputs = InputEventLog.INSTANCE;
+        inputs.load(log);
+        inputs.setReplaying(true);
+        inputs.applyTick(0L); // build-phase inputs (wiring) happen before the first tick
+
+        if (getProducerController() != null) getProducerController().startProduction();
+        getSimulation().start();
+    }
+
+
     public void pauseAutoSave() {
         if (autoSaveController != null) {
             autoSaveController.pause();
@@ -399,7 +495,8 @@ public class GameController implements NetworkController {
                             return 1;
                         }
                     },
-                    largeRegistry
+                    largeRegistry,
+                    getEntities()
             );
             setSnapshotSvc(svc);
         }
@@ -3,10 +3,10 @@ package com.blueprinthell.controller;
 import com.blueprinthell.config.Config;
 import com.blueprinthell.controller.ui.editor.SystemBoxDragController;
 import com.blueprinthell.level.LevelDefinition;
+import com.blueprinthell.model.EntityRegistry;
 import com.blueprinthell.model.SystemBoxModel;
 import com.blueprinthell.model.WireModel;
 import com.blueprinthell.model.WireUsageModel;
-import com.blueprinthell.view.SystemBoxView;
 import com.blueprinthell.view.screens.GameScreenView;
 
 import java.awt.*;
@@ -20,13 +20,16 @@ public final class LevelBuilder {
     private final GameScreenView gameView;
     private final List<WireModel> wires;
     private final WireUsageModel usageModel;
+    private final EntityRegistry entities;
 
     public LevelBuilder(GameScreenView gameView,
                         List<WireModel> wires,
-                        WireUsageModel usageModel) {
+                        WireUsageModel usageModel,
+                        EntityRegistry entities) {
         this.gameView   = gameView;
         this.wires      = wires;
         this.usageModel = usageModel;
+        this.entities   = entities;
     }
 
 
@@ -55,6 +58,7 @@ public final class LevelBuilder {
                 box.setPrimaryKind(spec.kind());
                 newBoxes.add(box);
             }
+            entities.idOf(box); // شناسهٔ عددی به ترتیب specs (پورت‌های تازه هم ثبت می‌شوند)
             ordered.add(box);   // ترتیب همان ترتیب specs می‌شود
         }
 
@@ -66,11 +70,11 @@ public final class LevelBuilder {
         SystemBoxDragController.setDragEnabled(true);
 
         // ــ اتصال دوبارهٔ درگ‌کنترلرها
-        for (Component c : gameView.getGameArea().getComponents()) {
-            if (c instanceof SystemBoxView sbv) {
-                new SystemBoxDragController(sbv.getModel(), sbv, wires, usageModel);
-            }
+        // به مدل بسته می‌شوند تا روی ویویی که دوربین هر بار برای جعبه می‌سازد نصب شوند
+        for (SystemBoxModel box : ordered) {
+            gameView.bindBoxController(box, new SystemBoxDragController(box, wires, usageModel));
         }
+        SystemBoxDragController.installReplayHandler(ordered, gameView::applyCamera, wires, usageModel);
 
         // لیست ورودی را هم تازه‌سازی می‌کنیم تا فراخوان بعدی همین مرجع را داشته باشد
         existingBoxes.clear();
@@ -8,6 +8,7 @@ import com.blueprinthell.controller.ui.MenuController;
 import com.blueprinthell.controller.ui.ScreenController;
 import com.blueprinthell.controller.ui.UIController;
 import com.blueprinthell.view.HudView;
+import com.blueprinthell.view.draw.PacketSpriteAtlas;
 
 import java.awt.*;
 
@@ -27,6 +28,9 @@ public class MainController {
             frame.setExtendedState(JFrame.MAXIMIZED_BOTH);
             frame.setUndecorated(true);
 
+            // اسپرایت پکت‌ها در مقیاس نمایشگر، پیش از اولین فریم
+            PacketSpriteAtlas.prewarm(frame.getGraphicsConfiguration().getDefaultTransform().getScaleX());
+
             ScreenController screenController = new ScreenController(frame);
 
             GameController gameController = new GameController(frame);
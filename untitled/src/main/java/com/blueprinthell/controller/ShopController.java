@@ -2,6 +2,7 @@ package com.blueprinthell.controller;
 
 import com.blueprinthell.controller.gameplay.*;
 import com.blueprinthell.controller.physics.CollisionController;
+import com.blueprinthell.controller.simulation.InputEventLog;
 import com.blueprinthell.controller.simulation.SimulationController;
 import com.blueprinthell.controller.ui.editor.SystemBoxDragController;
 import com.blueprinthell.controller.ui.hud.HudController;
@@ -14,12 +15,18 @@ import com.blueprinthell.view.screens.ShopView;
 
 import javax.swing.*;
 import java.awt.*;
-import java.awt.event.ActionEvent;
 import java.util.ArrayList;
 import java.util.List;
 
 
 public class ShopController {
+    private static final int COST_O_ATAR     = 3;
+    private static final int COST_O_AIRYAMAN = 4;
+    private static final int COST_O_ANAHITA  = 5;
+    private static final int COST_FREEZE     = 10;
+    private static final int COST_SISYPHUS   = 15;
+    private static final int COST_ELIPHAS    = 20;
+
     private final SimulationController simulation;
     private final CoinModel coinModel;
     private final CollisionController collisionController;
@@ -65,10 +72,43 @@ public class ShopController {
         shopView.addBuySisyphusListener(e -> buySisyphus());
         shopView.addBuyEliphasListener(e -> buyEliphas());
 
+        installReplayHandlers();
+    }
+
+    /* مدت افکت‌ها با زمان شبیه‌سازی شمرده می‌شود، نه ساعت دیوار؛ توقف، بازپخش و rebuild همان نتیجه را می‌دهند */
+    private void startTimedEffect(String name, int seconds, Runnable onEnd) {
+        activateFeature(name, seconds);
+        simulation.runAfter(seconds, () -> {
+            onEnd.run();
+            deactivateFeature(name);
+        });
+    }
+
+    /* ---------- replay of recorded purchases / point picks ---------- */
+    private void installReplayHandlers() {
+        InputEventLog log = InputEventLog.INSTANCE;
+        log.setHandler(InputEventLog.Kind.SHOP_PURCHASE, e -> {
+            switch (e.args.get(0)) {
+                case "O_ATAR"     -> { if (coinModel.spend(COST_O_ATAR))     applyOAtar(10); }
+                case "O_AIRYAMAN" -> { if (coinModel.spend(COST_O_AIRYAMAN)) applyOAiryaman(5); }
+                case "O_ANAHITA"  -> { if (coinModel.spend(COST_O_ANAHITA))  applyOAnahita(); }
+                case "SISYPHUS"   -> coinModel.spend(COST_SISYPHUS); // the drag itself replays as SISYPHUS_MOVE
+                default -> { }
+            }
+        });
+        log.setHandler(InputEventLog.Kind.FREEZE_POINT, e -> {
+            Point p = new Point(Integer.parseInt(e.args.get(0)), Integer.parseInt(e.args.get(1)));
+            if (freezeController != null && coinModel.spend(COST_FREEZE)) freezeController.activateFreezeAt(p);
+        });
+        log.setHandler(InputEventLog.Kind.ELIPHAS_POINT, e -> {
+            Point p = new Point(Integer.parseInt(e.args.get(0)), Integer.parseInt(e.args.get(1)));
+            if (eliphasController != null && coinModel.spend(COST_ELIPHAS)) eliphasController.activateAt(p);
+        });
     }
     private void buySisyphus() {
-        int cost = 15;
+        int cost = COST_SISYPHUS;
         if (!deductCoins(cost)) return;
+        InputEventLog.INSTANCE.record(InputEventLog.Kind.SHOP_PURCHASE, "SISYPHUS");
 
         // پیام اختیاری به بازیکن
         shopView.setMessage("Scroll of Sisyphus فعال شد: یک‌بار درگ محدود (فقط باکس‌های غیرمرجع)");
@@ -80,13 +120,13 @@ public class ShopController {
                         && m.getInPorts()  != null && !m.getInPorts().isEmpty()
                         && m.getOutPorts() != null && !m.getOutPorts().isEmpty(), // فقط غیرمرجع
                 wires,                         // لیست همهٔ WireModelها
-                gameView.getSystemBoxViews(),  // لیست SystemBoxViewها (فعلاً رزرو/اطلاعات کمکی)
+                gameView.getBoxes(),           // لیست همهٔ SystemBoxModelها (فعلاً رزرو/اطلاعات کمکی)
                 () -> Toolkit.getDefaultToolkit().beep() // کال‌بک پایان (اختیاری)
         );
     }
 
     private void buyEliphas() {
-        final int cost = 20;
+        final int cost = COST_ELIPHAS;
         if (!deductCoins(cost)) return;
 
         shopView.setMessage("Eliphas: روی یک نقطه از سنترلاین سیم کلیک کن (ESC=انصراف)...");
@@ -101,6 +141,7 @@ public class ShopController {
                     (Point p) -> {
                         boolean ok = (eliphasController != null) && eliphasController.activateAt(p);
                         if (ok) {
+                            InputEventLog.INSTANCE.record(InputEventLog.Kind.ELIPHAS_POINT, p.x, p.y);
                             gameView.getGameArea().repaint();
                         } else {
                             // انتخاب نامعتبر → بازگشت سکه‌ها
@@ -130,18 +171,16 @@ public class ShopController {
     }
 
     private void buyOAtar() {
-        int cost = 3, duration = 10;
+        int cost = COST_O_ATAR, duration = 10;
         if (!deductCoins(cost)) return;
+        InputEventLog.INSTANCE.record(InputEventLog.Kind.SHOP_PURCHASE, "O_ATAR");
         shopView.setMessage("O’Atar purchased: Impact waves disabled for " + duration + " s");
+        applyOAtar(duration);
+    }
 
-        activateFeature("O’Atar", duration);
+    private void applyOAtar(int duration) {
         collisionController.setImpactWaveEnabled(false);
-        Timer t = new Timer(duration * 1000, (ActionEvent e) -> {
-            collisionController.setImpactWaveEnabled(true);
-            deactivateFeature("O’Atar");
-        });
-        t.setRepeats(false);
-        t.start();
+        startTimedEffect("O’Atar", duration, () -> collisionController.setImpactWaveEnabled(true));
     }
     private void refundCoins(int amount, String reason) {
         if (amount <= 0) return;
@@ -154,25 +193,27 @@ public class ShopController {
     }
 
     private void buyOAiryaman() {
-        int cost = 4, duration = 5;
+        int cost = COST_O_AIRYAMAN, duration = 5;
         if (!deductCoins(cost)) return;
+        InputEventLog.INSTANCE.record(InputEventLog.Kind.SHOP_PURCHASE, "O_AIRYAMAN");
         shopView.setMessage("O’Airyaman purchased: Collisions disabled for " + duration + " s");
+        applyOAiryaman(duration);
+    }
 
-        activateFeature("O’Airyaman", duration);
+    private void applyOAiryaman(int duration) {
         collisionController.pauseCollisions();
-        Timer t = new Timer(duration * 1000, e -> {
-            collisionController.resumeCollisions();
-            deactivateFeature("O’Airyaman");
-        });
-        t.setRepeats(false);
-        t.start();
+        startTimedEffect("O’Airyaman", duration, collisionController::resumeCollisions);
     }
 
     private void buyOAnahita() {
-        int cost = 5;
+        int cost = COST_O_ANAHITA;
         if (!deductCoins(cost)) return;
+        InputEventLog.INSTANCE.record(InputEventLog.Kind.SHOP_PURCHASE, "O_ANAHITA");
         shopView.setMessage("O’Anahita purchased: Noise cleared");
+        applyOAnahita();
+    }
 
+    private void applyOAnahita() {
         activateFeature("O’Anahita", 0);
         for (WireModel w : wires) {
             for (PacketModel p : w.getPackets()) {
@@ -188,7 +229,7 @@ public class ShopController {
 
     // حذف متد findGameView() و تغییر متد buyFreezeAcceleration:
     private void buyFreezeAcceleration() {
-        int cost = 10;
+        int cost = COST_FREEZE;
 
         if (freezeController == null) {
             shopView.setMessage("Freeze acceleration not available!");
@@ -219,6 +260,7 @@ public class ShopController {
                     point -> {
                         boolean ok = freezeController.activateFreezeAt(point);
                         if (ok) {
+                            InputEventLog.INSTANCE.record(InputEventLog.Kind.FREEZE_POINT, point.x, point.y);
                             showFreezeEffect(point); // اختیاری
                         } else {
                             // نقطهٔ نامعتبر/کول‌داون غیرمنتظره → سکه برگردد
@@ -1,5 +1,6 @@
 package com.blueprinthell.controller.core;
 
+import com.blueprinthell.view.draw.StaticLayerCache;
 import com.blueprinthell.config.Config;
 import com.blueprinthell.controller.*;
 import com.blueprinthell.controller.gameplay.AccelerationFreezeController;
@@ -8,7 +9,10 @@ import com.blueprinthell.controller.packet.LossMonitorController;
 import com.blueprinthell.controller.packet.PacketProducerController;
 import com.blueprinthell.controller.packet.PacketRenderController;
 import com.blueprinthell.controller.persistence.SnapshotService;
+import com.blueprinthell.controller.simulation.InputEventLog;
+import com.blueprinthell.controller.simulation.RenderFramePublisher;
 import com.blueprinthell.controller.simulation.SimulationRegistrar;
+import com.blueprinthell.controller.simulation.WorldSeed;
 import com.blueprinthell.controller.systems.RouteHints;
 import com.blueprinthell.controller.systems.VpnRevertHints;
 import com.blueprinthell.controller.ui.editor.SystemBoxDragController;
@@ -25,6 +29,7 @@ import com.blueprinthell.model.Updatable;
 import com.blueprinthell.model.WireModel;
 import com.blueprinthell.model.WireUsageModel;
 import com.blueprinthell.model.large.LargeGroupRegistry;
+import com.blueprinthell.view.ActiveRenderCanvas;
 import com.blueprinthell.view.EliphasPointRenderer;
 import com.blueprinthell.view.WireView;
 
@@ -48,6 +53,7 @@ public class LevelCoreManager {
 
     // اضافه کردن فیلد برای WireRemovalController
     private WireRemovalController wireRemovalController;
+    private RenderFramePublisher renderPublisher;
 
     public LevelCoreManager(GameController gameController) {
         this.gameController = gameController;
@@ -115,7 +121,11 @@ public class LevelCoreManager {
         gameController.getCoinModel().reset();
         gameController.getLossModel().reset();
         gameController.getSnapshotMgr().clear();
-        gameController.getTimeline().resume();
+        gameController.getTimeline().clear();
+
+        // هر اجرای مرحله یک seed تازه می‌گیرد و stream های باکس‌های مرحلهٔ قبل دور ریخته می‌شوند؛ ورودی‌ها از tick صفر ضبط می‌شوند
+        WorldSeed.reset(System.nanoTime());
+        InputEventLog.INSTANCE.clear();
 
         usageModel.reset(def.totalWireLength());
 
@@ -173,7 +183,26 @@ public class LevelCoreManager {
 
         gameController.getSimulation().register(lossCtrl);
 
-        gameController.setPacketRenderer(new PacketRenderController(gameController.getGameView().getGameArea(), gameController.getWires()));
+        gameController.setPacketRenderer(new PacketRenderController(gameController.getGameView().getGameArea(), gameController.getWires(), gameController.getSimulation()));
+
+        // رندر فعال (اختیاری): Canvas با ترد رندر خودش؛ شبیه‌سازی فقط فریم منتشر می‌کند
+        if (renderPublisher != null) renderPublisher.stop();
+        renderPublisher = null;
+        if (Config.ACTIVE_RENDERING) {
+            ActiveRenderCanvas canvas = new ActiveRenderCanvas();
+            gameController.getGameView().setActiveRendering(canvas);
+            renderPublisher = new RenderFramePublisher(
+                    canvas,
+                    gameController::getBoxes,
+                    gameController.getWires(),
+                    gameController.getScoreModel(),
+                    gameController.getCoinModel(),
+                    gameController.getLossModel(),
+                    gameController.getSimulation(),
+                    gameController.getPacketRenderer().getInterpolator());
+            gameController.getSimulation().register(renderPublisher);
+            renderPublisher.start();
+        }
 
         gameController.setHudController(new HudController(usageModel, gameController.getLossModel(), gameController.getCoinModel(), levelManager, gameController.getHudView()));
         gameController.setShopController(new ShopController(
@@ -257,7 +286,8 @@ public class LevelCoreManager {
                 List.of(gameController.getProducerController()),
                 gameController::updateStartEnabled,
                 () -> levelManager.getLevelIndex() + 1,
-                largeRegistry
+                largeRegistry,
+                gameController.getEntities()
         ));
 
 
@@ -341,6 +371,7 @@ public class LevelCoreManager {
         }
 
         gameController.getWires().removeAll(toRemove);
+        StaticLayerCache.invalidate();
 
         area.revalidate();
         area.repaint();
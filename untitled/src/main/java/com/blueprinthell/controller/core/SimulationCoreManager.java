@@ -1,5 +1,6 @@
 package com.blueprinthell.controller.core;
 
+import com.blueprinthell.config.Config;
 import com.blueprinthell.controller.*;
 import com.blueprinthell.controller.packet.PacketProducerController;
 import com.blueprinthell.controller.packet.PacketRenderController;
@@ -14,13 +15,14 @@ import java.util.concurrent.CopyOnWriteArrayList;
 
 public class SimulationCoreManager {
     private final GameController gameController;
-    public final SimulationController simulation = new SimulationController(60);
+    public final SimulationController simulation = new SimulationController(Config.SIMULATION_HZ);
     public final TimelineController timeline;
 
     public final ScoreModel scoreModel = new ScoreModel();
     public final CoinModel coinModel = new CoinModel();
     public final PacketLossModel lossModel = new PacketLossModel();
     public final List<WireModel> wires = new CopyOnWriteArrayList<WireModel>();
+    public final EntityRegistry entities = new EntityRegistry();
     public CollisionController collisionCtrl;
     public SimulationRegistrar registrar;
     public PacketRenderController packetRenderer;
@@ -54,6 +56,15 @@ public class SimulationCoreManager {
         gameController.getGameView().requestFocusInWindow();
     }
 
+    /** Steps one simulation tick back or forward while the timeline is paused (Shift+arrow). */
+    public void onStepTick(int dir) {
+        if (timeline.isPlaying()) return;
+        simulation.stop();
+        long target = simulation.getTick() + (dir < 0 ? -1 : 1);
+        if (target >= 0) timeline.rebuildTick(target);
+        gameController.getGameView().requestFocusInWindow();
+    }
+
     public boolean isPortConnected(PortModel p) {
         return wires.stream().anyMatch(w -> w.getSrcPort() == p || w.getDstPort() == p);
     }
@@ -62,6 +73,10 @@ public class SimulationCoreManager {
         return wires;
     }
 
+    public EntityRegistry getEntities() {
+        return entities;
+    }
+
     public SimulationController getSimulation() {
         return simulation;
     }
@@ -1,6 +1,7 @@
 package com.blueprinthell.controller.gameplay;
 
 import com.blueprinthell.model.WireModel;
+import com.blueprinthell.view.Camera;
 import com.blueprinthell.view.screens.GameScreenView;
 
 import javax.swing.*;
@@ -68,6 +69,7 @@ public final class EliphasPointSelector extends JComponent
         super.paintComponent(g);
         if (hoverSnap == null) return;
         Graphics2D g2 = (Graphics2D) g.create();
+        Camera.of(getParent()).apply(g2);
         g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
         g2.setStroke(new BasicStroke(2f));
         g2.setColor(new Color(160, 70, 255, 180));
@@ -81,7 +83,8 @@ public final class EliphasPointSelector extends JComponent
     // MouseMotion
     @Override public void mouseMoved(MouseEvent e) {
         e.consume();
-        hoverSnap = findSnapPoint(e.getX(), e.getY());
+        Point world = Camera.of(getParent()).toWorld(e.getPoint());
+        hoverSnap = findSnapPoint(world.x, world.y);
         repaint();
     }
     @Override public void mouseDragged(MouseEvent e) { mouseMoved(e); }
@@ -2,6 +2,7 @@
 package com.blueprinthell.controller.gameplay;
 
 import com.blueprinthell.model.WireModel;
+import com.blueprinthell.view.Camera;
 import com.blueprinthell.view.screens.GameScreenView;
 
 import javax.swing.*;
@@ -50,7 +51,9 @@ public class FreezePointSelector {
                 g2.setColor(new Color(0, 0, 0, 100));
                 g2.fillRect(0, 0, getWidth(), getHeight());
 
-                // هایلایت سیم‌ها
+                // هایلایت سیم‌ها (در مختصات جهان)
+                java.awt.geom.AffineTransform screen = g2.getTransform();
+                Camera.of(getParent()).apply(g2);
                 g2.setStroke(new BasicStroke(4f));
                 g2.setColor(new Color(100, 200, 255, 200));
 
@@ -64,6 +67,7 @@ public class FreezePointSelector {
                 }
 
                 // نمایش متن راهنما
+                g2.setTransform(screen);
                 g2.setColor(Color.WHITE);
                 g2.setFont(new Font("Arial", Font.BOLD, 18));
                 String msg = "Click on a wire to select freeze point (ESC to cancel)";
@@ -83,7 +87,7 @@ public class FreezePointSelector {
         mouseHandler = new MouseAdapter() {
             @Override
             public void mouseClicked(MouseEvent e) {
-                Point clickPoint = e.getPoint();
+                Point clickPoint = Camera.of(overlay).toWorld(e.getPoint());
                 Point nearestPoint = findNearestPointOnWires(clickPoint);
 
                 if (nearestPoint != null) {
@@ -3,7 +3,6 @@ package com.blueprinthell.controller.gameplay;
 import com.blueprinthell.controller.ui.editor.SystemBoxDragController;
 import com.blueprinthell.model.SystemBoxModel;
 import com.blueprinthell.model.WireModel;
-import com.blueprinthell.view.SystemBoxView;
 import com.blueprinthell.view.screens.GameScreenView;
 
 import java.awt.*;
@@ -32,7 +31,7 @@ public final class SisyphusScrollController {
                 m != null && m.getInPorts() != null && m.getOutPorts() != null
                         && !m.getInPorts().isEmpty() && !m.getOutPorts().isEmpty();
 
-        List<SystemBoxView> obstacles = gameView.getSystemBoxViews();
+        List<SystemBoxModel> obstacles = gameView.getBoxes();
 
         // فعال‌سازی حالت «یک‌بار درگ»
         SystemBoxDragController.enableSisyphusOneShot(
@@ -0,0 +1,78 @@
+package com.blueprinthell.controller.packet;
+
+import com.blueprinthell.controller.simulation.SimulationController;
+import com.blueprinthell.model.PacketModel;
+import com.blueprinthell.model.WireModel;
+import com.blueprinthell.model.WirePath;
+import com.blueprinthell.model.WirePhysics;
+import com.blueprinthell.view.PacketMotion;
+
+import java.awt.*;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * در هر tick پیشرفت هر پکت را نمونه می‌گیرد و با نمونهٔ tick قبل یک {@link PacketMotion} می‌سازد.
+ * چند مصرف‌کننده (PacketRenderController، RenderFramePublisher) می‌توانند {@link #sample()} را
+ * صدا بزنند؛ در هر tick فقط اولین فراخوانی اثر دارد.
+ */
+public final class PacketInterpolator {
+    private final List<WireModel> wires;
+    private final SimulationController simulation;
+
+    private Map<PacketModel, PacketMotion> motions = new IdentityHashMap<>();
+    private Map<PacketModel, PacketMotion> spare = new IdentityHashMap<>();
+    private long sampledTick = -1;
+
+    public PacketInterpolator(List<WireModel> wires, SimulationController simulation) {
+        this.wires = wires;
+        this.simulation = simulation;
+    }
+
+    /** Records this tick's progress of every packet; no-op if already sampled this tick. Call on the EDT. */
+    public void sample() {
+        long tick = simulation.getTick();
+        if (tick == sampledTick) return;
+        sampledTick = tick;
+
+        Map<PacketModel, PacketMotion> prev = motions;
+        Map<PacketModel, PacketMotion> next = spare;
+        next.clear();
+        for (WireModel wire : wires) {
+            WirePath path = wire.getPath();
+            for (PacketModel pm : wire.getPackets()) {
+                double progress = pm.getProgress();
+                Point c = WirePhysics.pointAt(path, progress);
+                int dx = pm.getX() - (c.x - pm.getWidth() / 2);
+                int dy = pm.getY() - (c.y - pm.getHeight() / 2);
+
+                PacketMotion last = prev.get(pm);
+                // سیم یا مسیر عوض شده → پرش، بدون درون‌یابی
+                boolean continuous = last != null && last.path() == path && pm.getCurrentWire() == wire;
+                next.put(pm, continuous
+                        ? new PacketMotion(path, last.toProgress(), progress, last.toDx(), last.toDy(), dx, dy)
+                        : new PacketMotion(path, progress, progress, dx, dy, dx, dy));
+            }
+        }
+        spare = prev;
+        motions = next;
+    }
+
+    /** Motion of {@code pm} over the last step, or {@code null} if it was not on a wire when sampled. */
+    public PacketMotion motionOf(PacketModel pm) {
+        return motions.get(pm);
+    }
+
+    /** Fraction of the current fixed step elapsed now; 1 while the simulation is paused. */
+    public double alpha() {
+        return simulation.interpolationAlpha(System.nanoTime());
+    }
+
+    /** Forgets all history, e.g. after a snapshot restore, so packets do not glide to their new spot. */
+    public void reset() {
+        motions.clear();
+        spare.clear();
+        sampledTick = -1;
+    }
+}
@@ -1,6 +1,7 @@
 package com.blueprinthell.controller.packet;
 
 import com.blueprinthell.config.Config;
+import com.blueprinthell.controller.simulation.WorldSeed;
 import com.blueprinthell.model.*;
 import com.blueprinthell.model.large.LargePacket;
 import com.blueprinthell.motion.KinematicsProfile;
@@ -14,7 +15,7 @@ import java.util.List;
 
 public class PacketProducerController implements Updatable {
 
-    private static final Random RND = new Random();
+    private final Random rnd = WorldSeed.random("producer"); // هر مرحله stream تازهٔ خودش را می‌گیرد
     private static final double INTERVAL_SEC = 0.4;
 
     private final List<SystemBoxModel> sourceBoxes;
@@ -111,13 +112,13 @@ public class PacketProducerController implements Updatable {
 
                             // ابتدا پکت پایه را بسازید
                             if (out.getShape() == PortShape.CIRCLE) {
-                                if (RND.nextInt(10) < 1) {
+                                if (rnd.nextInt(10) < 1) {
                                     packet = createLargePacketForPort(out.getType(), baseSpeed);
                                 } else {
                                     packet = new PacketModel(PacketType.CIRCLE, baseSpeed);
                                 }
                             } else {
-                                if (RND.nextInt(10) <1 ) {
+                                if (rnd.nextInt(10) <1 ) {
                                     packet = createLargePacketForPort(out.getType(), baseSpeed);
                                 } else {
                                     packet = new PacketModel(randomType(), baseSpeed);
@@ -126,7 +127,7 @@ public class PacketProducerController implements Updatable {
 
                             // حالا اگر می‌خواهید، آن را به محرمانه تبدیل کنید
                             // این کار باید بعد از ساخت پکت پایه انجام شود
-                            if (RND.nextInt(10) < 5) { // برای تست، همیشه محرمانه
+                            if (rnd.nextInt(10) < 5) { // برای تست، همیشه محرمانه
                                 packet = PacketOps.toConfidential(packet);
                             }
 
@@ -154,10 +155,10 @@ public class PacketProducerController implements Updatable {
         }
     }
     private LargePacket createLargePacketForPort(PacketType portType, double baseSpeed) {
-        int units = (RND.nextBoolean() ? Config.LARGE_PACKET_SIZE_8 : Config.LARGE_PACKET_SIZE_10);
+        int units = (rnd.nextBoolean() ? Config.LARGE_PACKET_SIZE_8 : Config.LARGE_PACKET_SIZE_10);
 
         // تولید colorId تصادفی
-        int colorId = RND.nextInt(360);
+        int colorId = rnd.nextInt(360);
         Color color = Color.getHSBColor(colorId / 360.0f, 0.8f, 0.9f);
 
         LargePacket lp = new LargePacket(portType, baseSpeed, units);
@@ -180,7 +181,7 @@ public class PacketProducerController implements Updatable {
     }
 
     private PacketType randomType() {
-        int r = RND.nextInt(3);
+        int r = rnd.nextInt(3);
         return (r == 0) ? PacketType.SQUARE
                 : (r == 1) ? PacketType.TRIANGLE
                 : PacketType.CIRCLE;
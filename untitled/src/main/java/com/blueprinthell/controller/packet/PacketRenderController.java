@@ -1,12 +1,21 @@
 package com.blueprinthell.controller.packet;
 
+import com.blueprinthell.config.Config;
+import com.blueprinthell.controller.simulation.SimulationController;
 import com.blueprinthell.model.PacketModel;
 import com.blueprinthell.model.Updatable;
 import com.blueprinthell.model.WireModel;
+import com.blueprinthell.view.PacketLayerView;
 import com.blueprinthell.view.PacketView;
+import com.blueprinthell.view.SystemBoxView;
+import com.blueprinthell.view.draw.DirtyRegion;
+import com.blueprinthell.view.draw.PacketPainter;
+import com.blueprinthell.view.draw.RenderDetail;
 
 import javax.swing.*;
+import java.awt.*;
 import java.util.*;
+import java.util.List;
 
 
 public class PacketRenderController implements Updatable {
@@ -14,17 +23,94 @@ public class PacketRenderController implements Updatable {
     private final List<WireModel> wires;
     private final Map<PacketModel, PacketView> viewMap = new HashMap<>();
 
+    /* حالت batched: یک بوم برای همهٔ پکت‌ها به‌جای یک JComponent برای هر پکت */
+    private final PacketLayerView layer;
+    /* درون‌یابی بین دو tick آخر؛ فقط در حالت batched (و رندر فعال) استفاده می‌شود */
+    private final PacketInterpolator interpolator;
+    /* ناحیه‌های کثیف container در این tick (جعبه‌های تغییرحالت‌داده، PacketViewهای حذف‌شده) */
+    private final DirtyRegion dirty = new DirtyRegion();
+
 
     public PacketRenderController(JComponent container, List<WireModel> wires) {
+        this(container, wires, Config.BATCHED_PACKET_RENDERING, null);
+    }
+
+    public PacketRenderController(JComponent container, List<WireModel> wires, SimulationController simulation) {
+        this(container, wires, Config.BATCHED_PACKET_RENDERING, simulation);
+    }
+
+    /** {@code simulation} enables render interpolation when non-null and {@link Config#RENDER_INTERPOLATION} is on. */
+    public PacketRenderController(JComponent container, List<WireModel> wires, boolean batched,
+                                  SimulationController simulation) {
         this.container = container;
         this.wires = wires;
+        this.layer = batched ? new PacketLayerView(wires) : null;
+        this.interpolator = (Config.RENDER_INTERPOLATION && simulation != null)
+                ? new PacketInterpolator(wires, simulation) : null;
+        if (layer != null && interpolator != null) {
+            layer.setInterpolation(interpolator::motionOf, interpolator::alpha);
+        }
+        RenderDetail.INSTANCE.reset(); // هر مرحله با جزئیات کامل شروع می‌شود
+    }
+
+    /** The tick sampler shared with the active renderer, or {@code null} if interpolation is off. */
+    public PacketInterpolator getInterpolator() {
+        return interpolator;
     }
 
 
     @Override
     public void update(double dt) {
+        int live = 0;
+        for (WireModel wire : wires) live += wire.getPackets().size();
+        RenderDetail.INSTANCE.update(live);
+        if (interpolator != null) interpolator.sample();
+        sync();
+        collectBoxChanges();
+        dirty.flush(container);
+    }
+
+    /* جعبه‌ای که فعال/غیرفعال شده دوباره کشیده می‌شود؛ بقیهٔ صحنه دست نمی‌خورد */
+    private void collectBoxChanges() {
+        for (Component c : container.getComponents()) {
+            if (c instanceof SystemBoxView sbv && sbv.pollEnabledChange()) {
+                Rectangle r = sbv.getBounds();
+                r.grow(Config.PORT_SIZE, Config.PORT_SIZE);
+                dirty.add(r);
+            }
+        }
+    }
+
+    public boolean isBatched() {
+        return layer != null;
+    }
+
+    /** Batched mode; in both modes sizes are synced on the tick, never inside paint. */
+    private void syncLayer() {
+        // gameView.reset همهٔ فرزندان را حذف می‌کند؛ لایه را دوباره (مثل PacketViewها در انتها) اضافه کن
+        if (layer.getParent() != container) container.add(layer);
+        for (WireModel wire : wires) {
+            for (PacketModel pm : wire.getPackets()) PacketPainter.syncSize(pm);
+        }
+        layer.rebuild();
+        layer.flushDirty();
+    }
+
+
+    /**
+     * Reconciles the views with the packets currently on wires: views are only
+     * created for new packets and only removed for packets that left every wire,
+     * so unchanged packets keep their existing {@link PacketView}.
+     */
+    public void sync() {
+        if (layer != null) {
+            syncLayer();
+            return;
+        }
+        Set<PacketModel> live = Collections.newSetFromMap(new IdentityHashMap<>());
         for (WireModel wire : wires) {
             for (PacketModel pm : wire.getPackets()) {
+                live.add(pm);
                 if (!viewMap.containsKey(pm)) {
                     PacketView pv = new PacketView(pm);
                     viewMap.put(pm, pv);
@@ -36,29 +122,27 @@ public class PacketRenderController implements Updatable {
         Iterator<Map.Entry<PacketModel, PacketView>> it = viewMap.entrySet().iterator();
         while (it.hasNext()) {
             Map.Entry<PacketModel, PacketView> entry = it.next();
-            PacketModel pm = entry.getKey();
-            boolean stillOnWire = false;
-            for (WireModel wire : wires) {
-                if (wire.getPackets().contains(pm)) {
-                    stillOnWire = true;
-                    break;
-                }
-            }
-            if (!stillOnWire) {
+            if (!live.contains(entry.getKey())) {
+                dirty.add(entry.getValue().getBounds());
                 container.remove(entry.getValue());
                 it.remove();
             }
         }
 
-        for (PacketView pv : viewMap.values()) {
-            pv.refreshView();
+        // setBounds خودش جای قبلی و جدید هر PacketView را بازرسم می‌کند
+        for (Map.Entry<PacketModel, PacketView> entry : viewMap.entrySet()) {
+            PacketPainter.syncSize(entry.getKey());
+            entry.getValue().refreshView();
         }
-        container.revalidate();
-        container.repaint();
     }
 
 
     public void refreshAll() {
+        if (interpolator != null) interpolator.reset();
+        if (layer != null) {
+            syncLayer();
+            return;
+        }
         for (PacketView pv : viewMap.values()) {
             container.remove(pv);
         }
@@ -1,6 +1,7 @@
 package com.blueprinthell.controller.packet;
 
 import com.blueprinthell.config.Config;
+import com.blueprinthell.controller.simulation.WorldSeed;
 import com.blueprinthell.controller.systems.SystemBehaviorAdapter;
 import com.blueprinthell.controller.systems.TeleportTracking;
 import com.blueprinthell.model.*;
@@ -19,7 +20,8 @@ public class PacketRouterController implements Updatable {
     private final List<WireModel> wires;
     private final Map<WireModel, SystemBoxModel> destMap;
     private final PacketLossModel lossModel;
-    private final Random rnd = new Random();
+    private final Random rnd;
+    private final Random motionRnd;
 
     // Statistics
     private long packetsRouted = 0;
@@ -33,7 +35,17 @@ public class PacketRouterController implements Updatable {
                                   List<WireModel> wires,
                                   Map<WireModel, SystemBoxModel> destMap,
                                   PacketLossModel lossModel) {
+        this(box, wires, destMap, lossModel, WorldSeed.game());
+    }
+
+    public PacketRouterController(SystemBoxModel box,
+                                  List<WireModel> wires,
+                                  Map<WireModel, SystemBoxModel> destMap,
+                                  PacketLossModel lossModel,
+                                  WorldSeed seed) {
         this.box = box;
+        this.rnd = seed.stream("router:" + box.getId());
+        this.motionRnd = seed.stream("motion");
         this.wires = wires;
         this.destMap = destMap;
         this.lossModel = lossModel;
@@ -42,13 +54,13 @@ public class PacketRouterController implements Updatable {
 
 
     private boolean hasAvailableRoute() {
-        return box.getOutPorts().stream()
-                .anyMatch(port -> {
-                    WireModel w = findWire(port);
-                    if (w == null) return false;
-                    SystemBoxModel d = destMap.get(w);
-                    return d != null && d.isEnabled() && isWireEmpty(port);
-                });
+        for (PortModel port : box.getOutPorts()) {   // هر فریم برای هر باکس؛ بدون stream
+            WireModel w = findWire(port);
+            if (w == null) continue;
+            SystemBoxModel d = destMap.get(w);
+            if (d != null && d.isEnabled() && isWireEmpty(port)) return true;
+        }
+        return false;
     }
 
     private boolean routePacket(PacketModel packet) {
@@ -250,7 +262,7 @@ public class PacketRouterController implements Updatable {
         double exitBoost = packet.consumeExitBoostMultiplier();
         packet.setStartSpeedMul(exitBoost);
 
-        MotionStrategy ms = MotionStrategyFactory.create(packet, compatible);
+        MotionStrategy ms = MotionStrategyFactory.create(packet, compatible, motionRnd);
         packet.setMotionStrategy(ms);
 
         wire.attachPacket(packet, 0.0);
@@ -503,7 +515,7 @@ public class PacketRouterController implements Updatable {
         boolean compatible = chosenPort.isCompatible(packet);
         packet.setStartSpeedMul(1.0);
 
-        MotionStrategy ms = MotionStrategyFactory.create(packet, compatible);
+        MotionStrategy ms = MotionStrategyFactory.create(packet, compatible, motionRnd);
         packet.setMotionStrategy(ms);
 
         // چسباندن پکت به سیم
@@ -2,18 +2,40 @@ package com.blueprinthell.controller.persistence;
 
 import java.util.ArrayList;
 import com.blueprinthell.snapshot.NetworkSnapshot;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
 
 public class SnapshotManager {
 
+    /** Decoded lazy frames kept in memory at once; older ones are decoded again when revisited. */
+    static final int DECODED_CACHE_FRAMES = 32;
+
+    /**
+     * Every frame as a list. Lazily registered frames are decoded for the copy, so prefer
+     * {@link #getSnapshotAt} in a loop when the timeline came from an archive.
+     */
     public List<NetworkSnapshot> getSnapshots() {
-        return new ArrayList<>(snapshots);
+        List<NetworkSnapshot> out = new ArrayList<>(snapshots.size());
+        for (int i = 0; i < snapshots.size(); i++) out.add(frame(i));
+        return out;
     }
 
 
     private final List<NetworkSnapshot> snapshots;
     private int currentIndex;
     private final int maxFrames;
+    /** Loads frames that were registered lazily (null slots); indices are source indices. */
+    private IntFunction<NetworkSnapshot> loader;
+    private int loaderBase;
+    /* LRU of decoded lazy frames keyed by source index; the null slots stay null */
+    private final Map<Integer, NetworkSnapshot> decoded = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override protected boolean removeEldestEntry(Map.Entry<Integer, NetworkSnapshot> eldest) {
+            return size() > DECODED_CACHE_FRAMES;
+        }
+    };
 
 
     public SnapshotManager() {
@@ -42,6 +64,7 @@ public class SnapshotManager {
         snapshots.add(snapshot);
         if (snapshots.size() > maxFrames) {
             snapshots.remove(0);
+            loaderBase++;
         }
         currentIndex = snapshots.size() - 1;
     }
@@ -52,12 +75,51 @@ public class SnapshotManager {
     }
 
 
+    /**
+     * Registers {@code count} frames whose content is fetched from {@code loader} the first
+     * time they are accessed. Only the newest {@code maxFrames} are kept, as with pushes.
+     */
+    public void loadLazily(int count, IntFunction<NetworkSnapshot> loader) {
+        clear();
+        int keep = Math.min(count, maxFrames);
+        this.loader = loader;
+        this.loaderBase = count - keep;
+        snapshots.addAll(Collections.nCopies(keep, null));
+        currentIndex = snapshots.size() - 1;
+    }
+
+
+    public NetworkSnapshot getSnapshotAt(int idx) {
+        if (idx < 0 || idx >= snapshots.size()) return null;
+        return frame(idx);
+    }
+
+
+    private NetworkSnapshot frame(int idx) {
+        NetworkSnapshot s = snapshots.get(idx);
+        if (s == null && loader != null) {
+            int src = loaderBase + idx;
+            s = decoded.get(src);
+            if (s == null) {
+                s = loader.apply(src);
+                decoded.put(src, s);
+            }
+        }
+        return s;
+    }
+
+    /** Number of lazily loaded frames currently held decoded (bounded by the LRU). */
+    int decodedFrameCount() {
+        return decoded.size();
+    }
+
+
     public NetworkSnapshot getSnapshotFramesAgo(int n) {
         if (snapshots.isEmpty()) return null;
         int idx = snapshots.size() - 1 - n;
         if (idx < 0) idx = 0;
         if (idx >= snapshots.size()) idx = snapshots.size() - 1;
-        return snapshots.get(idx);
+        return frame(idx);
     }
 
 
@@ -73,7 +135,7 @@ public class SnapshotManager {
     public NetworkSnapshot rewind() {
         if (currentIndex > 0) {
             currentIndex--;
-            return snapshots.get(currentIndex);
+            return frame(currentIndex);
         }
         return null;
     }
@@ -82,7 +144,7 @@ public class SnapshotManager {
     public NetworkSnapshot forward() {
         if (currentIndex < snapshots.size() - 1) {
             currentIndex++;
-            return snapshots.get(currentIndex);
+            return frame(currentIndex);
         }
         return null;
     }
@@ -90,7 +152,7 @@ public class SnapshotManager {
 
     public NetworkSnapshot getCurrentSnapshot() {
         if (currentIndex >= 0 && currentIndex < snapshots.size()) {
-            return snapshots.get(currentIndex);
+            return frame(currentIndex);
         }
         return null;
     }
@@ -98,6 +160,9 @@ public class SnapshotManager {
 
     public void clear() {
         snapshots.clear();
+        decoded.clear();
         currentIndex = -1;
+        loader = null;
+        loaderBase = 0;
     }
 }
@@ -1,5 +1,6 @@
 package com.blueprinthell.controller.persistence;
 
+import com.blueprinthell.view.draw.StaticLayerCache;
 import com.blueprinthell.config.Config;
 import com.blueprinthell.controller.packet.PacketProducerController;
 import com.blueprinthell.controller.packet.PacketRenderController;
@@ -8,6 +9,8 @@ import com.blueprinthell.model.large.BitPacket;
 import com.blueprinthell.model.large.LargePacket;
 import com.blueprinthell.model.large.MergedPacket;
 import com.blueprinthell.model.large.LargeGroupRegistry;
+import com.blueprinthell.motion.KinematicsProfile;
+import com.blueprinthell.motion.KinematicsRegistry;
 import com.blueprinthell.motion.MotionStrategyFactory;
 import com.blueprinthell.snapshot.NetworkSnapshot;
 import com.blueprinthell.snapshot.NetworkSnapshot.*;
@@ -38,6 +41,17 @@ public final class SnapshotService {
     private final Runnable networkChangedCallback;
     private final LargeGroupRegistry            largeGroupRegistry; // اضافه شده
     private final IntSupplier currentLevelSupplier;
+    private final EntityRegistry                entities;
+
+    /*
+     * اشتراک ساختاری بین snapshotهای پیاپی: زیرساختارهای بدون تغییر (جعبهٔ ساکن، سیم خالی،
+     * مسیر سیم) همان شیء فریم قبل‌اند. DTOهای ثبت‌شده بعد از capture تغییر داده نمی‌شوند،
+     * پس timeline و autosave می‌توانند آن‌ها را بدون کپی نگه دارند.
+     */
+    private Map<SystemBoxModel, BoxState> boxCache  = new IdentityHashMap<>();
+    private Map<WireModel, SharedWire>    wireCache = new IdentityHashMap<>();
+
+    private record SharedWire(long version, WirePath path, WireState state) {}
     public SnapshotService(Map<WireModel, SystemBoxModel> destMap,
                            List<SystemBoxModel> boxes,
                            List<WireModel> wires,
@@ -51,7 +65,8 @@ public final class SnapshotService {
                            PacketRenderController renderer,
                            List<PacketProducerController> producers,
                            Runnable networkChangedCallback,IntSupplier currentLevelSupplier,
-                           LargeGroupRegistry largeGroupRegistry) { // اضافه شده
+                           LargeGroupRegistry largeGroupRegistry, // اضافه شده
+                           EntityRegistry entities) {
         this.destMap         = destMap;
         this.boxes           = boxes;
         this.wires           = wires;
@@ -67,14 +82,12 @@ public final class SnapshotService {
         this.networkChangedCallback = networkChangedCallback;
         this.currentLevelSupplier = currentLevelSupplier;
         this.largeGroupRegistry = largeGroupRegistry;
+        this.entities = entities;
     }
 
     public void capture() { snapshotManager.recordSnapshot(buildSnapshot()); }
 
     public NetworkSnapshot buildSnapshot() {
-        // نگاشت Port→Box برای تشخیص اندپوینت‌ها و ایندکس‌ها
-        Map<PortModel, SystemBoxModel> portToBox = buildPortToBoxMap(this.boxes);
-
         NetworkSnapshot snap = new NetworkSnapshot(scoreModel.getScore());
         try {
             int lvl = (currentLevelSupplier != null) ? currentLevelSupplier.getAsInt() : 1;
@@ -125,26 +138,34 @@ public final class SnapshotService {
             ps.running        = p.isRunning();
             ps.accumulatorSec = p.getAccumulatorSec();
 
-            // per-port counters keyed by (boxId, outIndex)
+            // per-port counters keyed by (box eid, outIndex)
             Map<PortModel,Integer> map = p.getProducedPerPortView();
             for (PortModel out : p.getOutPorts()) {
-                SystemBoxModel box = portToBox.get(out);
-                if (box == null) continue;
-                int outIndex = box.getOutPorts().indexOf(out);
-                if (outIndex < 0) continue;
+                SystemBoxModel box = out.getOwner();
+                if (box == null || out.getIndex() < 0) continue;
                 PortQuota q = new PortQuota();
-                q.boxId = box.getId();
-                q.outIndex = outIndex;
+                q.box = entities.idOf(box);
+                q.outIndex = out.getIndex();
                 q.producedForThisPort = map.getOrDefault(out, 0);
                 ps.portQuotas.add(q);
             }
             snap.world.producers.add(ps);
         }
 
-        // Boxes
+        // Boxes — جعبه‌های ساکن (بافر خالی، فعال، بدون جابه‌جایی) همان BoxState فریم قبل را به اشتراک می‌گذارند
+        Map<SystemBoxModel, BoxState> nextBoxCache = new IdentityHashMap<>();
         for (SystemBoxModel b : boxes) {
+            boolean quiescent = isQuiescent(b);
+            BoxState shared = quiescent ? boxCache.get(b) : null;
+            if (shared != null && sameGeometry(shared, b)) {
+                nextBoxCache.put(b, shared);
+                snap.world.boxes.add(shared);
+                continue;
+            }
+
             BoxState bs = new BoxState();
             bs.id           = b.getId();
+            bs.eid          = entities.idOf(b);
             bs.primaryKind  = b.getPrimaryKind();
             bs.enabled      = b.isEnabled();
             try { bs.disableTimer = b.isEnabled() ? 0.0 : b.getDisableTimer(); } catch (Throwable ignore) {}
@@ -152,37 +173,56 @@ public final class SnapshotService {
             bs.y = b.getY();
             bs.inShapes.addAll(b.getInShapes());
             bs.outShapes.addAll(b.getOutShapes());
-            for (PacketModel p : b.getBitBuffer())    bs.bitBuffer.add(toPacketState(p));
-            for (LargePacket lp : b.getLargeBuffer()) bs.largeBuffer.add(toPacketState(lp));
+            for (PacketModel p : b.getBitBuffer())    bs.bitBuffer.add(capture(p));
+            for (LargePacket lp : b.getLargeBuffer()) bs.largeBuffer.add(capture(lp));
 
             // ذخیره returnBuffer - مهم!
             Deque<PacketModel> returnBuf = b.getReturnBuffer();
             if (returnBuf != null) {
                 for (PacketModel p : returnBuf) {
-                    bs.returnBuffer.add(toPacketState(p));
+                    bs.returnBuffer.add(capture(p));
                 }
             }
 
+            if (quiescent) nextBoxCache.put(b, bs);
             snap.world.boxes.add(bs);
         }
+        boxCache = nextBoxCache;
 
-        // Wires
+        // Wires — سیم خالی و دست‌نخورده (همان version) بدون کپی به اشتراک گذاشته می‌شود؛
+        // مسیر سیم‌های پر هم تا وقتی WirePath عوض نشده مشترک است
+        Map<WireModel, SharedWire> nextWireCache = new IdentityHashMap<>();
         for (WireModel w : wires) {
+            WirePath path = w.getPath(); // syncEndpoints ممکن است version را جلو ببرد
+            SharedWire prev = wireCache.get(w);
+            if (prev != null && prev.version == w.getVersion() && w.getPackets().isEmpty()
+                    && prev.state.packetsOnWire.isEmpty()
+                    && prev.state.fromOutIndex == w.getSrcPort().getIndex()
+                    && prev.state.toInIndex == w.getDstPort().getIndex()) {
+                nextWireCache.put(w, prev);
+                snap.world.wires.add(prev.state);
+                continue;
+            }
+
             WireState ws = new WireState();
-            SystemBoxModel from = portToBox.get(w.getSrcPort());
-            SystemBoxModel to   = portToBox.get(w.getDstPort());
-            ws.fromBoxId    = (from != null) ? from.getId() : null;
-            ws.toBoxId      = (to   != null) ? to.getId()   : null;
-            ws.fromOutIndex = (from != null) ? indexOfPort(from.getOutPorts(), w.getSrcPort()) : -1;
-            ws.toInIndex    = (to   != null) ? indexOfPort(to.getInPorts(),   w.getDstPort())  : -1;
+            SystemBoxModel from = w.getSrcPort().getOwner();
+            SystemBoxModel to   = w.getDstPort().getOwner();
+            ws.fromBox      = (from != null) ? entities.idOf(from) : -1;
+            ws.toBox        = (to   != null) ? entities.idOf(to)   : -1;
+            ws.fromOutIndex = (from != null) ? w.getSrcPort().getIndex() : -1;
+            ws.toInIndex    = (to   != null) ? w.getDstPort().getIndex() : -1;
 
             // مسیر
-            for (Point p : w.getPath().getPoints()) ws.path.add(new IntPoint(p.x, p.y));
+            if (prev != null && prev.path == path) {
+                ws.path = prev.state.path;
+            } else {
+                for (Point p : path.getPoints()) ws.path.add(new IntPoint(p.x, p.y));
+            }
 
             // پکت‌های روی سیم
             for (PacketModel p : w.getPackets()) {
                 PacketOnWire pow = new PacketOnWire();
-                pow.base = toPacketState(p);
+                pow.base = capture(p);
                 double prog = p.getProgress();
                 if (prog >= 0.999) prog = 0.999;
                 if (prog < 0) prog = 0;
@@ -191,8 +231,10 @@ public final class SnapshotService {
             }
 
             ws.largePassCount = w.getLargePacketPassCount();
+            nextWireCache.put(w, new SharedWire(w.getVersion(), path, ws));
             snap.world.wires.add(ws);
         }
+        wireCache = nextWireCache;
 
         return snap;
     }
@@ -265,10 +307,10 @@ public final class SnapshotService {
         // تولیدکننده‌ها را متوقف کن (بدون reset)
         for (PacketProducerController p : producers) p.stopProduction();
 
-        // نگاشت‌ها
+        // نگاشت‌ها: شناسهٔ رشته‌ای فقط یک بار برای هر جعبه؛ سیم‌ها و سهمیه‌ها با eid عددی
         Map<String, SystemBoxModel> idToBox = new HashMap<>();
         for (SystemBoxModel b : boxes) idToBox.put(b.getId(), b);
-        Map<PortModel, SystemBoxModel> portToBox = buildPortToBoxMap(this.boxes);
+        SystemBoxModel[] byEid = buildEidTable(snap.world.boxes, idToBox);
 
         // -------------------- PRODUCERS (RESTORE) --------------------
         if (snap.world != null && snap.world.producers != null) {
@@ -281,7 +323,7 @@ public final class SnapshotService {
                 Map<PortModel,Integer> perPort = new HashMap<>();
                 if (st.portQuotas != null) {
                     for (PortQuota q : st.portQuotas) {
-                        SystemBoxModel box = idToBox.get(q.boxId);
+                        SystemBoxModel box = lookup(byEid, q.box, q.boxId, idToBox);
                         if (box == null) continue;
                         List<PortModel> outs = box.getOutPorts();
                         if (q.outIndex < 0 || q.outIndex >= outs.size()) continue;
@@ -301,9 +343,10 @@ public final class SnapshotService {
         }
 
         // Box buffers
-        boolean hasBoxXY = (snap.meta != null && "model-v3".equals(snap.meta.schemaVersion));
+        boolean hasBoxXY = (snap.meta != null
+                && ("model-v3".equals(snap.meta.schemaVersion) || NetworkSnapshot.SCHEMA_VERSION.equals(snap.meta.schemaVersion)));
         for (BoxState bs : snap.world.boxes) {
-            SystemBoxModel box = idToBox.get(bs.id);
+            SystemBoxModel box = lookup(byEid, bs.eid, bs.id, idToBox);
             if (box == null) continue;
             if (hasBoxXY) {
                 box.setX(bs.x);
@@ -314,15 +357,18 @@ public final class SnapshotService {
                 if (bs.disableTimer > 1e-6) box.disableFor(bs.disableTimer);
                 else box.disable();
             }
-            for (PacketState ps : bs.bitBuffer)   box.enqueueBitSilently(fromPacketState(ps));
-            for (PacketState ps : bs.largeBuffer) box.enqueueLargeSilently((LargePacket) fromPacketState(ps));
+            for (PacketState ps : bs.bitBuffer)   box.enqueueBitSilently(revive(ps));
+            for (PacketState ps : bs.largeBuffer) box.enqueueLargeSilently((LargePacket) revive(ps));
         }
 
-        // بازسازی کامل سیم‌ها طبق snapshot
+        // سیم‌ها: به‌جای بازسازی کامل، snapshot را با دنیای زنده diff می‌کنیم
+        Map<PortModel, WireModel> liveBySrc = new IdentityHashMap<>();
+        for (WireModel w : wires) liveBySrc.put(w.getSrcPort(), w);
+
         List<WireModel> rebuilt = new ArrayList<>();
         for (WireState ws : snap.world.wires) {
-            SystemBoxModel from = idToBox.get(ws.fromBoxId);
-            SystemBoxModel to   = idToBox.get(ws.toBoxId);
+            SystemBoxModel from = lookup(byEid, ws.fromBox, ws.fromBoxId, idToBox);
+            SystemBoxModel to   = lookup(byEid, ws.toBox,   ws.toBoxId,   idToBox);
             if (from == null || to == null) continue;
             if (ws.fromOutIndex < 0 || ws.fromOutIndex >= from.getOutPorts().size()) continue;
             if (ws.toInIndex   < 0 || ws.toInIndex   >= to.getInPorts().size())   continue;
@@ -330,26 +376,16 @@ public final class SnapshotService {
             PortModel src = from.getOutPorts().get(ws.fromOutIndex);
             PortModel dst = to.getInPorts().get(ws.toInIndex);
 
-            WireModel wire = findWireByEndpoints(wires, src, dst);
-            if (wire == null) wire = new WireModel(src, dst);
+            WireModel wire = liveBySrc.get(src);
+            if (wire == null || wire.getDstPort() != dst) wire = new WireModel(src, dst);
 
-            // مسیر
+            // مسیر (فقط در صورت تغییر)
             List<Point> pts = new ArrayList<>();
             for (IntPoint ip : ws.path) pts.add(new Point(ip.x, ip.y));
-            if (pts.size() >= 2) wire.setPath(new WirePath(pts));
+            if (pts.size() >= 2 && !pts.equals(wire.getPath().getPoints())) wire.setPath(new WirePath(pts));
 
-            // نگاشت Port→Box برای wire
-            wire.setPortToBoxMap(portToBox);
-
-            // پکت‌های روی سیم
-            wire.clearPackets();
-            for (PacketOnWire pow : ws.packetsOnWire) {
-                PacketModel pkt = fromPacketState(pow.base);
-                boolean compatible = src.isCompatible(pkt);
-                pkt.setStartSpeedMul(1.0);
-                pkt.setMotionStrategy(MotionStrategyFactory.create(pkt, compatible));
-                wire.attachPacket(pkt, pow.progress);
-            }
+            // پکت‌های روی سیم: پکت‌های زندهٔ هم‌هویت وصله می‌شوند، بقیه ساخته/حذف می‌شوند
+            patchPacketsOnWire(wire, ws.packetsOnWire, src);
 
             // large pass count
             if (ws.largePassCount > 0) {
@@ -361,9 +397,12 @@ public final class SnapshotService {
             destMap.put(wire, to);
         }
 
-        // جایگزینی لیست سیم‌های زنده با لیست بازسازی‌شده
-        wires.clear();
-        wires.addAll(rebuilt);
+        // فقط اگر مجموعهٔ سیم‌ها واقعاً عوض شده، لیست زنده و ویوها بازسازی می‌شوند
+        final boolean wiresChanged = !sameWires(wires, rebuilt);
+        if (wiresChanged) {
+            wires.clear();
+            wires.addAll(rebuilt);
+        }
 
         // --- Fixup: rebind orphan LargePackets to existing open groups (by color & size) ---
         if (largeGroupRegistry != null) {
@@ -383,9 +422,17 @@ public final class SnapshotService {
             }
         }
         SwingUtilities.invokeLater(() -> {
-            gameView.reset(boxes, wires);
-            packetRenderer.refreshAll();
-            gameView.rebuildControllers(wires, usageModel, coinModel, networkChangedCallback);
+            if (wiresChanged) {
+                gameView.reset(boxes, wires);
+                packetRenderer.refreshAll();
+                gameView.rebuildControllers(wires, usageModel, coinModel, networkChangedCallback);
+            } else {
+                // مسیر سریع scrub: ویوهای موجود حفظ و فقط وصله می‌شوند
+                StaticLayerCache.invalidate();
+                gameView.applyCamera();
+                packetRenderer.sync();
+                gameView.getGameArea().repaint();
+            }
             hudView.setCoins(coinModel.getCoins());
             hudView.setPacketLoss(lossModel.getLostCount()); // حالا این مقدار صحیح خواهد بود
         });
@@ -396,23 +443,129 @@ public final class SnapshotService {
     public SnapshotManager getSnapshotManager() { return snapshotManager; }
 
     // ----------------- helpers -----------------
-    private static Map<PortModel, SystemBoxModel> buildPortToBoxMap(List<SystemBoxModel> boxes) {
-        Map<PortModel, SystemBoxModel> map = new HashMap<>();
-        for (SystemBoxModel b : boxes) {
-            for (PortModel p : b.getInPorts())  map.put(p, b);
-            for (PortModel p : b.getOutPorts()) map.put(p, b);
+    /** A box whose captured state is fully described by its geometry: nothing buffered, nothing timed. */
+    private static boolean isQuiescent(SystemBoxModel b) {
+        Deque<PacketModel> returnBuf = b.getReturnBuffer();
+        return b.isEnabled()
+                && b.getBitBuffer().isEmpty()
+                && b.getLargeBuffer().isEmpty()
+                && (returnBuf == null || returnBuf.isEmpty());
+    }
+
+    private static boolean sameGeometry(BoxState bs, SystemBoxModel b) {
+        if (bs.x != b.getX() || bs.y != b.getY() || bs.primaryKind != b.getPrimaryKind()) return false;
+        return sameShapes(bs.inShapes, b.getInPorts()) && sameShapes(bs.outShapes, b.getOutPorts());
+    }
+
+    private static boolean sameShapes(List<PortShape> shapes, List<PortModel> ports) {
+        if (shapes.size() != ports.size()) return false;
+        for (int i = 0; i < ports.size(); i++) if (shapes.get(i) != ports.get(i).getShape()) return false;
+        return true;
+    }
+
+    /** snapshot eid → live box; the only place box string ids are consulted during restore. */
+    private static SystemBoxModel[] buildEidTable(List<BoxState> states, Map<String, SystemBoxModel> idToBox) {
+        int max = -1;
+        for (BoxState bs : states) max = Math.max(max, bs.eid);
+        SystemBoxModel[] table = new SystemBoxModel[max + 1];
+        for (BoxState bs : states) {
+            if (bs.eid >= 0) table[bs.eid] = idToBox.get(bs.id);
+        }
+        return table;
+    }
+
+    /** Resolves by eid; falls back to the legacy string id for model-v3 snapshots. */
+    private static SystemBoxModel lookup(SystemBoxModel[] byEid, int eid, String legacyId,
+                                         Map<String, SystemBoxModel> idToBox) {
+        if (eid >= 0) return (eid < byEid.length) ? byEid[eid] : null;
+        return (legacyId != null) ? idToBox.get(legacyId) : null;
+    }
+
+    private PacketState capture(PacketModel p) {
+        PacketState ps = toPacketState(p);
+        ps.eid = entities.idOf(p);
+        return ps;
+    }
+
+    private PacketModel revive(PacketState ps) {
+        PacketModel p = fromPacketState(ps);
+        entities.adopt(p, ps.eid);
+        return p;
+    }
+
+    private static boolean sameWires(List<WireModel> live, List<WireModel> target) {
+        if (live.size() != target.size()) return false;
+        for (int i = 0; i < live.size(); i++) if (live.get(i) != target.get(i)) return false;
+        return true;
+    }
+
+    /**
+     * Applies the snapshot's packets to {@code wire} reusing live packet instances
+     * (and therefore their views) wherever the packet identity still matches.
+     * Wire order is preserved between frames, so a forward scan is enough to pair them.
+     */
+    private void patchPacketsOnWire(WireModel wire, List<PacketOnWire> target, PortModel src) {
+        List<PacketModel> live = new ArrayList<>(wire.getPackets());
+        wire.clearPackets();
+        // کلید هویت هر پکت زنده فقط یک بار (و فقط اگر entity id نداشت) ساخته می‌شود
+        PacketState[] liveKeys = new PacketState[live.size()];
+        int j = 0;
+        for (PacketOnWire pow : target) {
+            PacketModel pkt = null;
+            for (int k = j; k < live.size(); k++) {
+                if (sameIdentity(live.get(k), liveKeys, k, pow.base)) {
+                    pkt = live.get(k);
+                    j = k + 1;
+                    break;
+                }
+            }
+            if (pkt != null) applyRuntimeState(pkt, pow.base);
+            else             pkt = revive(pow.base);
+            restoreMotionProfiles(pkt, pow.base);
+
+            boolean compatible = src.isCompatible(pkt);
+            wire.attachPacket(pkt, pow.progress);
+            // استراتژی از روی وضعیت ذخیره‌شده ادامه می‌دهد، نه از صفر؛ checkpoint + replay واگرا نمی‌شود
+            pkt.setMotionStrategy(MotionStrategyFactory.resume(pkt, compatible));
         }
-        return map;
     }
 
-    private static int indexOfPort(List<PortModel> list, PortModel p) {
-        for (int i = 0; i < list.size(); i++) if (list.get(i) == p) return i;
-        return -1;
+    /**
+     * True if {@code live} is the same kind of packet as {@code ps} (family, type and group data).
+     * Without entity ids the comparison key of {@code live} is built once and cached in {@code keys[k]}.
+     */
+    private static boolean sameIdentity(PacketModel live, PacketState[] keys, int k, PacketState ps) {
+        if (ps.eid >= 0 && live.getEntityId() >= 0) return live.getEntityId() == ps.eid;
+        PacketState cur = keys[k];
+        if (cur == null) cur = keys[k] = toPacketState(live);
+        return Objects.equals(cur.family, ps.family)
+                && Objects.equals(cur.type, ps.type)
+                && Objects.equals(cur.groupId, ps.groupId)
+                && Objects.equals(cur.parentSizeUnits, ps.parentSizeUnits)
+                && Objects.equals(cur.indexInGroup, ps.indexInGroup)
+                && Objects.equals(cur.expectedBits, ps.expectedBits)
+                && Objects.equals(cur.colorId, ps.colorId)
+                && Objects.equals(cur.customRgb, ps.customRgb)
+                && Objects.equals(cur.rebuiltFromBits, ps.rebuiltFromBits)
+                && Objects.equals(cur.protectedShield, ps.protectedShield)
+                && Objects.equals(cur.confidentialVpn, ps.confidentialVpn)
+                && Objects.equals(cur.trojanOriginalType, ps.trojanOriginalType);
     }
 
-    private static WireModel findWireByEndpoints(List<WireModel> wires, PortModel src, PortModel dst) {
-        for (WireModel w : wires) if (w.getSrcPort() == src && w.getDstPort() == dst) return w;
-        return null;
+    private static void restoreMotionProfiles(PacketModel p, PacketState ps) {
+        KinematicsRegistry.setProfileById(p, ps.kinematicsProfileId);
+        if (p instanceof ProtectedPacket pp && ps.motionProfileId != null) {
+            pp.setMotionProfile(KinematicsProfile.valueOf(ps.motionProfileId));
+        }
+    }
+
+    private static void applyRuntimeState(PacketModel p, PacketState ps) {
+        p.setSpeed(ps.speed);
+        p.setAcceleration(ps.acceleration);
+        p.setNoise(ps.noise);
+        p.setReturning(ps.returning);
+        p.setCollisionCooldown(ps.collisionCooldown);
+        p.setHoldWhileCooldown(ps.holdWhileCooldown);
     }
 
     private static PacketState toPacketState(PacketModel p) {
@@ -425,6 +578,10 @@ public final class SnapshotService {
         ps.returning = p.isReturning();
         ps.collisionCooldown = p.getCollisionCooldown();
         ps.holdWhileCooldown = p.isHoldWhileCooldown();
+        ps.kinematicsProfileId = KinematicsRegistry.getProfileId(p);
+        if (p instanceof ProtectedPacket pp && pp.getMotionProfile() != null) {
+            ps.motionProfileId = pp.getMotionProfile().name();
+        }
 
         // خانواده و دیتای تخصصی
         if (PacketOps.isBit(p)) {
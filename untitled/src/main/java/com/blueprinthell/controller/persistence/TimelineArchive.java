@@ -0,0 +1,127 @@
+package com.blueprinthell.controller.persistence;
+
+import com.blueprinthell.snapshot.NetworkSnapshot;
+import com.google.gson.Gson;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streaming on-disk timeline format.
+ *
+ * <pre>
+ *   header  : "BPHT" int version
+ *   frames  : (int length, gzip(JSON NetworkSnapshot))*
+ *   trailer : int count, long offset[count], long trailerStart, "BPHI"
+ * </pre>
+ *
+ * Frames are compressed independently so the {@link Reader} can decode any one of
+ * them on demand via the index trailer without touching the rest of the file.
+ */
+public final class TimelineArchive {
+    private static final int  MAGIC_HEAD = 0x42504854; // "BPHT"
+    private static final int  MAGIC_TAIL = 0x42504849; // "BPHI"
+    private static final int  VERSION    = 1;
+    private static final int  TAIL_BYTES = Long.BYTES + Integer.BYTES;
+
+    private static final Gson GSON = new Gson();
+
+    private TimelineArchive() {}
+
+    /** Appends frames as they are produced; the index is written on {@link #close()}. */
+    public static final class Writer implements Closeable {
+        private final DataOutputStream out;
+        private long position;
+        private long[] offsets = new long[64];
+        private int count;
+
+        public Writer(Path file) throws IOException {
+            this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+            out.writeInt(MAGIC_HEAD);
+            out.writeInt(VERSION);
+            position = 2L * Integer.BYTES;
+        }
+
+        public void append(NetworkSnapshot snap) throws IOException {
+            ByteArrayOutputStream buf = new ByteArrayOutputStream(4096);
+            try (java.io.Writer w = new OutputStreamWriter(new GZIPOutputStream(buf), StandardCharsets.UTF_8)) {
+                GSON.toJson(snap, w);
+            }
+            if (count == offsets.length) offsets = java.util.Arrays.copyOf(offsets, count * 2);
+            offsets[count++] = position;
+            out.writeInt(buf.size());
+            buf.writeTo(out);
+            position += Integer.BYTES + buf.size();
+        }
+
+        @Override
+        public void close() throws IOException {
+            long trailerStart = position;
+            out.writeInt(count);
+            for (int i = 0; i < count; i++) out.writeLong(offsets[i]);
+            out.writeLong(trailerStart);
+            out.writeInt(MAGIC_TAIL);
+            out.close();
+        }
+    }
+
+    /** Random-access reader that decodes a frame only when it is asked for. */
+    public static final class Reader implements Closeable {
+        private final FileChannel ch;
+        private final long[] offsets;
+
+        public Reader(Path file) throws IOException {
+            this.ch = FileChannel.open(file, StandardOpenOption.READ);
+            try {
+                long size = ch.size();
+                ByteBuffer head = read(0, 2 * Integer.BYTES);
+                if (size < 2L * Integer.BYTES + TAIL_BYTES || head.getInt() != MAGIC_HEAD) {
+                    throw new IOException("Not a timeline archive: " + file);
+                }
+                if (head.getInt() != VERSION) throw new IOException("Unsupported timeline archive version");
+
+                ByteBuffer tail = read(size - TAIL_BYTES, TAIL_BYTES);
+                long trailerStart = tail.getLong();
+                if (tail.getInt() != MAGIC_TAIL) throw new IOException("Timeline archive has no index trailer");
+
+                int n = read(trailerStart, Integer.BYTES).getInt();
+                ByteBuffer idx = read(trailerStart + Integer.BYTES, n * Long.BYTES);
+                this.offsets = new long[n];
+                for (int i = 0; i < n; i++) offsets[i] = idx.getLong();
+            } catch (IOException | RuntimeException e) {
+                ch.close();
+                throw e;
+            }
+        }
+
+        public int frameCount() { return offsets.length; }
+
+        public NetworkSnapshot readFrame(int i) throws IOException {
+            int len = read(offsets[i], Integer.BYTES).getInt();
+            ByteBuffer data = read(offsets[i] + Integer.BYTES, len);
+            try (java.io.Reader r = new InputStreamReader(
+                    new GZIPInputStream(new ByteArrayInputStream(data.array(), 0, len)), StandardCharsets.UTF_8)) {
+                return GSON.fromJson(r, NetworkSnapshot.class);
+            }
+        }
+
+        private synchronized ByteBuffer read(long pos, int len) throws IOException {
+            ByteBuffer buf = ByteBuffer.allocate(len);
+            while (buf.hasRemaining()) {
+                if (ch.read(buf, pos + buf.position()) < 0) throw new EOFException("Truncated timeline archive");
+            }
+            buf.flip();
+            return buf;
+        }
+
+        @Override
+        public void close() throws IOException { ch.close(); }
+    }
+}
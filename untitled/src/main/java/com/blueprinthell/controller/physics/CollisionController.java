@@ -18,6 +18,11 @@ import java.util.List;
 public class CollisionController implements Updatable {
     private final List<WireModel> wires;
     private final SpatialHashGrid<PacketModel> grid;
+    /* بافرهای هر فریم؛ فقط ترد شبیه‌سازی، پس بین فریم‌ها بازاستفاده می‌شوند */
+    private final List<PacketModel> nearby = new ArrayList<>();
+    private final Set<PacketModel> processed = new HashSet<>();
+    private final List<PacketModel> doomed = new ArrayList<>();
+    private final List<PacketModel> wirePackets = new ArrayList<>();
     private final PacketLossModel lossModel;
 
     private Map<PortModel, SystemBoxModel> portToBox = null;
@@ -39,6 +44,7 @@ public class CollisionController implements Updatable {
 
     private boolean collisionsEnabled = true;
     private boolean impactWaveEnabled = true;
+    private boolean soundEnabled = true;
 
     // بالای کلاس
     private static final long RETURN_COLLISION_COOLDOWN_MS = 100; // مثلاً 100 میلی‌ثانیه کول‌داون
@@ -90,10 +96,14 @@ public class CollisionController implements Updatable {
             }
         }
 
-        Set<PacketModel> processed = new HashSet<>();
+        processed.clear();
 
         for (WireModel w : wires) {
-            for (PacketModel p : new ArrayList<>(w.getPackets())) {
+            // کپی مثل قبل، فقط در بافرِ بازاستفاده‌شونده
+            List<PacketModel> onWire = w.getPackets();
+            wirePackets.clear();
+            for (int i = 0, n = onWire.size(); i < n; i++) wirePackets.add(onWire.get(i));
+            for (PacketModel p : wirePackets) {
                 if (processed.contains(p) || p.getProgress() <= 0) continue;
                 if (isShielded(p)) continue;
 
@@ -108,7 +118,7 @@ public class CollisionController implements Updatable {
                 }
 
                 Point pPos = w.pointAt(p.getProgress());
-                for (PacketModel other : grid.retrieve(pPos.x, pPos.y)) {
+                for (PacketModel other : grid.retrieve(pPos.x, pPos.y, nearby)) {
                     if (other == p || processed.contains(other)) continue;
                     if (isShielded(other)) continue;
 
@@ -235,7 +245,7 @@ public class CollisionController implements Updatable {
                                 sim.getPacketProducerController().onPacketLost(); // دو بار چون دو پکت از بین رفت
                             }
 
-                            if (!lossSfxPlayed) { playLossSfxOnce(); lossSfxPlayed = true; }
+                            if (!lossSfxPlayed && soundEnabled) { playLossSfxOnce(); lossSfxPlayed = true; }
                             processed.add(p);
                             processed.add(other);
                         }
@@ -275,7 +285,7 @@ public class CollisionController implements Updatable {
 
     private void propagateImpactWaves(List<Point> impacts) {
         for (Point pt : impacts) {
-            for (PacketModel p : grid.retrieve(pt.x, pt.y)) {
+            for (PacketModel p : grid.retrieve(pt.x, pt.y, nearby)) {
                 Point pPos = p.getCurrentWire().pointAt(p.getProgress());
                 double dx = pPos.x - pt.x;
                 double dy = pPos.y - pt.y;
@@ -293,7 +303,7 @@ public class CollisionController implements Updatable {
     private void handleNoiseRemovalAndSound() {
         boolean played = false;
         for (WireModel w : wires) {
-            List<PacketModel> doomed = new ArrayList<>();
+            doomed.clear();
             for (PacketModel p : w.getPackets()) {
                 if (!(p instanceof ProtectedPacket) && p.getNoise() >= MAX_NOISE) {
                     if (isMsg1(p) && p.isReturning()) {
@@ -315,7 +325,7 @@ public class CollisionController implements Updatable {
                 played = true;
             }
         }
-        if (played) playImpactSound();
+        if (played && soundEnabled) playImpactSound();
     }
 
 
@@ -331,6 +341,9 @@ public class CollisionController implements Updatable {
 
     public void setImpactWaveEnabled(boolean enabled) { this.impactWaveEnabled = enabled; }
 
+    /** Headless worlds (the PvP server) turn this off so a loss never touches the audio system. */
+    public void setSoundEnabled(boolean enabled) { this.soundEnabled = enabled; }
+
     private void playLossSfxOnce() {
         try {
             Clip c = ResourceManager.INSTANCE.getClip("impact_thud.wav");
@@ -5,7 +5,10 @@ import java.util.*;
 
 public class SpatialHashGrid<T> {
     private final int cellSize;
-    private final Map<Long, List<T>> grid = new HashMap<>();
+    /* جدول open-addressing با کلید long خام؛ HashMap<Long,…> در هر get/put یک Long می‌ساخت */
+    private long[] keys = new long[64];
+    private List<T>[] cells = newCells(64);
+    private int used;
 
 
     public SpatialHashGrid(int cellSize) {
@@ -22,26 +25,72 @@ public class SpatialHashGrid<T> {
         int hx = x >= 0 ? x / cellSize : ((x + 1) / cellSize - 1);
         int hy = y >= 0 ? y / cellSize : ((y + 1) / cellSize - 1);
         long key = keyFor(hx, hy);
-        grid.computeIfAbsent(key, k -> new ArrayList<>()).add(item);
+        int slot = slotOf(key);
+        if (cells[slot] == null) {
+            if (2 * (used + 1) > keys.length) {
+                grow();
+                slot = slotOf(key);
+            }
+            keys[slot] = key;
+            cells[slot] = new ArrayList<>();
+            used++;
+        }
+        cells[slot].add(item);
     }
 
 
     public List<T> retrieve(int x, int y) {
-        List<T> result = new ArrayList<>();
+        return retrieve(x, y, new ArrayList<>());
+    }
+
+    /** Appends the items of the 3x3 cells around (x, y) to {@code result}, which is cleared first. */
+    public List<T> retrieve(int x, int y, List<T> result) {
+        result.clear();
         int hx = x >= 0 ? x / cellSize : ((x + 1) / cellSize - 1);
         int hy = y >= 0 ? y / cellSize : ((y + 1) / cellSize - 1);
         for (int dx = -1; dx <= 1; dx++) {
             for (int dy = -1; dy <= 1; dy++) {
-                long key = keyFor(hx + dx, hy + dy);
-                List<T> cell = grid.get(key);
-                if (cell != null) result.addAll(cell);
+                List<T> cell = cells[slotOf(keyFor(hx + dx, hy + dy))];
+                if (cell != null) {
+                    for (int i = 0, n = cell.size(); i < n; i++) result.add(cell.get(i));
+                }
             }
         }
         return result;
     }
 
 
+    /** Empties every cell but keeps the cell lists, so a grid rebuilt each frame stops allocating. */
     public void clear() {
-        grid.clear();
+        for (List<T> cell : cells) {
+            if (cell != null) cell.clear();
+        }
+    }
+
+    /** Slot holding {@code key}, or the empty slot where it would go. */
+    private int slotOf(long key) {
+        int mask = keys.length - 1;
+        long h = key * 0x9E3779B97F4A7C15L;
+        int slot = (int) (h ^ (h >>> 32)) & mask;
+        while (cells[slot] != null && keys[slot] != key) slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        List<T>[] oldCells = cells;
+        keys = new long[oldKeys.length * 2];
+        cells = newCells(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldCells[i] == null) continue;
+            int slot = slotOf(oldKeys[i]);
+            keys[slot] = oldKeys[i];
+            cells[slot] = oldCells[i];
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T> List<T>[] newCells(int n) {
+        return (List<T>[]) new List[n];
     }
 }
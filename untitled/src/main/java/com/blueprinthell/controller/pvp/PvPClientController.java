@@ -5,6 +5,7 @@ import com.blueprinthell.controller.GameController;
 import com.blueprinthell.controller.ui.ScreenController;
 import com.blueprinthell.model.*;
 import com.blueprinthell.shared.protocol.NetworkProtocol.*;
+import com.blueprinthell.shared.protocol.StateDelta;
 import com.blueprinthell.view.pvp.*;
 
 import javax.swing.*;
@@ -13,6 +14,7 @@ import java.awt.*;
 import java.util.*;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * کنترلر PvP در سمت کلاینت
@@ -44,6 +46,15 @@ public class PvPClientController {
     private OpponentNetworkRenderer opponentRenderer;
     private int playerAmmo = 3;
     private final Map<String, SystemCooldowns> systemCooldowns = new HashMap<>();
+    /* آخرین Tick که هنوز روی EDT اعمال نشده؛ tick های عقب‌افتاده جایگزین می‌شوند، صف نمی‌شوند */
+    private final AtomicReference<Tick> pendingTick = new AtomicReference<>();
+    /* وضعیت‌های کامل اخیر بر اساس frameId، پایهٔ دلتاهای سرور؛ فقط ترد دریافت شبکه */
+    private final Map<Integer, StateDelta.Snapshot> receivedStates = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, StateDelta.Snapshot> eldest) {
+            return size() > 64;
+        }
+    };
 
     // Score tracking
     private int playerDelivered = 0;
@@ -78,6 +89,7 @@ public class PvPClientController {
         connectionManager.registerHandler(MessageType.EXTEND_GRANTED, this::handleExtendGranted);
         connectionManager.registerHandler(MessageType.MATCH_START, this::handleMatchStart);
         connectionManager.registerHandler(MessageType.TICK, this::handleTick);
+        connectionManager.registerHandler(MessageType.STATE_SYNC, this::handleStateSync);
         connectionManager.registerHandler(MessageType.MATCH_END, this::handleMatchEnd);
     }
 
@@ -173,6 +185,7 @@ public class PvPClientController {
 
     private void handleMatchStart(Message msg) {
         if (!(msg instanceof MatchStart start)) return;
+        receivedStates.clear();   // frameId ها در هر مسابقه از نو شروع می‌شوند
 
         currentPhase = PvPPhase.COUNTDOWN;
 
@@ -198,7 +211,37 @@ public class PvPClientController {
     }
 
     private void handleTick(Message msg) {
-        if (!(msg instanceof Tick tick)) return;
+        if (!(msg instanceof Tick received)) return;
+
+        StateDelta.Snapshot state;
+        if (received.baseFrameId == 0) {
+            state = StateDelta.Snapshot.of(received);
+        } else {
+            StateDelta.Snapshot base = receivedStates.get(received.baseFrameId);
+            if (base == null) {
+                // پایهٔ دلتا را نداریم: keyframe بخواه و این tick را رها کن
+                connectionManager.sendMessage(new TickAck(received.matchId, received.frameId, true));
+                return;
+            }
+            state = StateDelta.apply(base, received);
+        }
+        applyState(received.matchId, state);
+    }
+
+    private void handleStateSync(Message msg) {
+        if (!(msg instanceof StateSync sync) || sync.compressedState == null) return;
+        try {
+            applyState(sync.matchId, StateDelta.decompress(sync.compressedState));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Bad keyframe: " + e.getMessage());
+            connectionManager.sendMessage(new TickAck(sync.matchId, sync.frameId, true));
+        }
+    }
+
+    private void applyState(String matchId, StateDelta.Snapshot snapshot) {
+        receivedStates.put(snapshot.frameId, snapshot);
+        connectionManager.sendMessage(new TickAck(matchId, snapshot.frameId, false));
+        Tick tick = snapshot.toTick(matchId);
 
         // Update scores
         if (playerSide == 1) {
@@ -228,15 +271,24 @@ public class PvPClientController {
             }
         }
 
-        // Update UI
-        SwingUtilities.invokeLater(() -> {
-            if (matchView != null) {
-                matchView.updateScores(playerDelivered, playerLost,
-                        opponentDelivered, opponentLost);
-                matchView.updateAmmo(playerAmmo);
-                matchView.updateSpeedMultiplier(tick.globalSpeedMultiplier);
-            }
-        });
+        // Update UI: at most one pending EDT task, always applying the newest tick
+        if (pendingTick.getAndSet(tick) == null) {
+            SwingUtilities.invokeLater(this::applyPendingTick);
+        }
+    }
+
+    private void applyPendingTick() {
+        Tick tick = pendingTick.getAndSet(null);
+        if (tick == null) return;
+        if (matchView != null) {
+            matchView.updateScores(playerDelivered, playerLost,
+                    opponentDelivered, opponentLost);
+            matchView.updateAmmo(playerAmmo);
+            matchView.updateSpeedMultiplier(tick.globalSpeedMultiplier);
+        }
+        if (opponentRenderer != null) {
+            opponentRenderer.updateSystems(tick.systems, playerSide == 1 ? 2 : 1);
+        }
     }
 
     private void handleMatchEnd(Message msg) {
@@ -309,6 +361,7 @@ public class PvPClientController {
         for (SystemBoxModel box : gameController.getBoxes()) {
             SystemLayout systemLayout = new SystemLayout();
             systemLayout.id = box.getId();
+            systemLayout.eid = gameController.getEntities().idOf(box);
             systemLayout.x = box.getX();
             systemLayout.y = box.getY();
             systemLayout.width = box.getWidth();
@@ -327,8 +380,11 @@ public class PvPClientController {
         for (WireModel wire : gameController.getWires()) {
             WireLayout wireLayout = new WireLayout();
             wireLayout.id = wire.getCanonicalId();
+            wireLayout.eid = gameController.getEntities().idOf(wire);
+            wireLayout.fromBox = boxEid(wire.getSrcPort());
             wireLayout.fromBoxId = findBoxForPort(wire.getSrcPort());
             wireLayout.fromOutIndex = wire.getFromOutIndex();
+            wireLayout.toBox = boxEid(wire.getDstPort());
             wireLayout.toBoxId = findBoxForPort(wire.getDstPort());
             wireLayout.toInIndex = wire.getToInIndex();
 
@@ -346,12 +402,13 @@ public class PvPClientController {
     }
 
     private String findBoxForPort(PortModel port) {
-        for (SystemBoxModel box : gameController.getBoxes()) {
-            if (box.getInPorts().contains(port) || box.getOutPorts().contains(port)) {
-                return box.getId();
-            }
-        }
-        return "";
+        SystemBoxModel owner = port.getOwner();
+        return (owner != null) ? owner.getId() : "";
+    }
+
+    private int boxEid(PortModel port) {
+        SystemBoxModel owner = port.getOwner();
+        return (owner != null) ? gameController.getEntities().idOf(owner) : -1;
     }
 
     private List<String> convertShapes(List<PortShape> shapes) {
@@ -0,0 +1,100 @@
+package com.blueprinthell.controller.simulation;
+
+import com.blueprinthell.snapshot.ReplayLog;
+import com.blueprinthell.snapshot.ReplayLog.InputEvent;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Records player inputs against the simulation tick and re-applies them during replay.
+ * Controllers that produce inputs call {@link #record}; the same controllers register a
+ * handler per {@link Kind} that performs the input again without any UI interaction.
+ */
+public enum InputEventLog {
+    INSTANCE;
+
+    public enum Kind {
+        WIRE_ADD,       // fromBoxId, outIndex, toBoxId, inIndex
+        WIRE_REMOVE,    // canonical wire id
+        WIRE_PATH,      // canonical wire id, x0, y0, x1, y1, ...
+        SHOP_PURCHASE,  // item name
+        SISYPHUS_MOVE,  // boxId, x, y (the one-shot drag bought with the Scroll of Sisyphus)
+        FREEZE_POINT,   // x, y
+        ELIPHAS_POINT   // x, y
+    }
+
+    private final List<InputEvent> events = new ArrayList<>();
+    private final Map<Kind, Consumer<InputEvent>> handlers = new EnumMap<>(Kind.class);
+    private LongSupplier tickSource = () -> 0L;
+    private boolean replaying = false;
+
+    public synchronized void setTickSource(LongSupplier source) {
+        this.tickSource = (source != null) ? source : () -> 0L;
+    }
+
+    public synchronized void setHandler(Kind kind, Consumer<InputEvent> handler) {
+        if (handler == null) handlers.remove(kind);
+        else handlers.put(kind, handler);
+    }
+
+    /** Records an input at the current tick. Ignored while a replay is applying inputs. */
+    public synchronized void record(Kind kind, Object... args) {
+        if (replaying) return;
+        InputEvent e = new InputEvent();
+        e.tick = tickSource.getAsLong();
+        e.kind = kind.name();
+        for (Object a : args) e.args.add(String.valueOf(a));
+        events.add(e);
+    }
+
+    /** Applies every recorded input of {@code tick} through the registered handlers. */
+    public void applyTick(long tick) {
+        List<InputEvent> due = new ArrayList<>();
+        synchronized (this) {
+            for (InputEvent e : events) {
+                if (e.tick == tick) due.add(e);
+                else if (e.tick > tick) break;
+            }
+        }
+        for (InputEvent e : due) {
+            Consumer<InputEvent> h;
+            synchronized (this) { h = handlers.get(Kind.valueOf(e.kind)); }
+            if (h != null) h.accept(e);
+        }
+    }
+
+    /** Drops inputs at or after {@code tick}; used when the player resumes from a rewound frame. */
+    public synchronized void discardFrom(long tick) {
+        events.removeIf(e -> e.tick >= tick);
+    }
+
+    public synchronized boolean hasEventsAfter(long tick) {
+        return !events.isEmpty() && events.get(events.size() - 1).tick > tick;
+    }
+
+    public synchronized void setReplaying(boolean replaying) { this.replaying = replaying; }
+    public synchronized boolean isReplaying() { return replaying; }
+
+    public synchronized void clear() {
+        events.clear();
+        replaying = false;
+    }
+
+    public synchronized ReplayLog toReplayLog(int levelNumber) {
+        ReplayLog log = new ReplayLog();
+        log.seed = WorldSeed.getSeed();
+        log.levelNumber = levelNumber;
+        log.events.addAll(events);
+        return log;
+    }
+
+    public synchronized void load(ReplayLog log) {
+        events.clear();
+        if (log != null && log.events != null) events.addAll(log.events);
+    }
+}
@@ -0,0 +1,111 @@
+package com.blueprinthell.controller.simulation;
+
+import com.blueprinthell.config.Config;
+import com.blueprinthell.controller.packet.PacketInterpolator;
+import com.blueprinthell.model.*;
+import com.blueprinthell.view.ActiveRenderCanvas;
+import com.blueprinthell.view.RenderFrame;
+import com.blueprinthell.view.draw.PacketSpriteAtlas;
+import com.blueprinthell.view.draw.RenderDetail;
+import com.blueprinthell.view.draw.StaticLayerCache;
+import com.blueprinthell.view.draw.WirePainter;
+
+import javax.swing.Timer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * پل شبیه‌سازی → رندر فعال: بعد از هر tick یک {@link RenderFrame} تغییرناپذیر می‌سازد و
+ * روی {@link ActiveRenderCanvas} منتشر می‌کند. وقتی شبیه‌سازی متوقف است (ویرایش/scrub)،
+ * یک تایمر سبک همان کار را انجام می‌دهد تا ویرایش‌ها هم دیده شوند.
+ */
+public final class RenderFramePublisher implements Updatable {
+    private static final int IDLE_PUBLISH_MS = 33;
+
+    private final ActiveRenderCanvas canvas;
+    private final Supplier<List<SystemBoxModel>> boxes;
+    private final List<WireModel> wires;
+    private final ScoreModel scoreModel;
+    private final CoinModel coinModel;
+    private final PacketLossModel lossModel;
+    private final SimulationController simulation;
+    private final PacketInterpolator interpolator;
+    private final Timer idleTimer;
+
+    public RenderFramePublisher(ActiveRenderCanvas canvas,
+                                Supplier<List<SystemBoxModel>> boxes,
+                                List<WireModel> wires,
+                                ScoreModel scoreModel,
+                                CoinModel coinModel,
+                                PacketLossModel lossModel,
+                                SimulationController simulation,
+                                PacketInterpolator interpolator) {
+        this.canvas = canvas;
+        this.boxes = boxes;
+        this.wires = wires;
+        this.scoreModel = scoreModel;
+        this.coinModel = coinModel;
+        this.lossModel = lossModel;
+        this.simulation = simulation;
+        this.interpolator = interpolator;
+        this.idleTimer = new Timer(IDLE_PUBLISH_MS, e -> {
+            if (!simulation.isRunning()) publish();
+        });
+    }
+
+    public void start() { idleTimer.start(); publish(); }
+    public void stop()  { idleTimer.stop(); }
+
+    @Override
+    public void update(double dt) {
+        publish();
+    }
+
+    public void publish() {
+        canvas.publish(capture());
+    }
+
+    public RenderFrame capture() {
+        // نسخه پیش از خواندن هندسه گرفته می‌شود تا ویرایش هم‌زمان به بازسازی بعدی برسد
+        long staticGeneration = StaticLayerCache.generation(boxes.get());
+        boolean interpolate = interpolator != null && simulation.isRunning();
+        if (interpolate) interpolator.sample();
+        List<RenderFrame.Box> boxFrames = new ArrayList<>();
+        for (SystemBoxModel b : boxes.get()) {
+            List<RenderFrame.Port> ports = new ArrayList<>(b.getInPorts().size() + b.getOutPorts().size());
+            for (PortModel p : b.getInPorts())  ports.add(portFrame(p));
+            for (PortModel p : b.getOutPorts()) ports.add(portFrame(p));
+            boxFrames.add(new RenderFrame.Box(b.getX(), b.getY(), b.getWidth(), b.getHeight(),
+                    b.getPrimaryKind(), b.isEnabled(), List.copyOf(ports)));
+        }
+
+        List<RenderFrame.Wire> wireFrames = new ArrayList<>(wires.size());
+        List<RenderFrame.Packet> packetFrames = new ArrayList<>();
+        boolean low = RenderDetail.INSTANCE.isLow();
+        for (WireModel w : wires) {
+            // WirePath تغییرناپذیر است؛ فهرست نقاطش مستقیم به اشتراک گذاشته می‌شود
+            List<PacketModel> packets = w.getPackets();
+            if (low && packets.size() >= Config.LOD_HEAT_WIRE_PACKETS) {
+                wireFrames.add(new RenderFrame.Wire(w.getPath().getPoints(),
+                        WirePainter.heatOf(packets.size(), w.getLength())));
+                continue;
+            }
+            wireFrames.add(new RenderFrame.Wire(w.getPath().getPoints(), 0f));
+            for (PacketModel p : packets) {
+                int pw = p.getWidth(), ph = p.getHeight();
+                packetFrames.add(new RenderFrame.Packet(PacketSpriteAtlas.Key.of(p, pw, ph), p.getX(), p.getY(), pw, ph,
+                        interpolate ? interpolator.motionOf(p) : null));
+            }
+        }
+
+        return new RenderFrame(simulation.getTick(), System.nanoTime(), staticGeneration,
+                (long) (simulation.getStepSeconds() * 1e9),
+                List.copyOf(boxFrames), List.copyOf(wireFrames), List.copyOf(packetFrames),
+                scoreModel.getScore(), coinModel.getCoins(), lossModel.getLostCount());
+    }
+
+    private static RenderFrame.Port portFrame(PortModel p) {
+        return new RenderFrame.Port(p.getX(), p.getY(), p.getWidth(), p.getShape(), p.isInput());
+    }
+}
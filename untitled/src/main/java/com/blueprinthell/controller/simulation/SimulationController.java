@@ -8,15 +8,28 @@ import com.blueprinthell.model.SystemBoxModel;
 import javax.swing.*;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
 
 public class SimulationController {
     private final List<Updatable> updatables = new ArrayList<>();
-    private final Timer timer;
+    /* کپی ثابت updatables برای گام؛ فقط با register/unregister دوباره ساخته می‌شود، نه هر tick */
+    private Updatable[] stepOrder;
+    private Timer timer; // با اولین start ساخته می‌شود، نه در سازنده
+    private final int delayMs;
+    private final double stepSeconds;
+    private final int ticksPerCheckpoint;
+    private final WorldSeed seed;
+    private final InputEventLog inputs;   // null: دنیایی که ورودی ضبط‌شده replay نمی‌کند
     private TimelineController timelineController;
-    private double elapsedSeconds = 0.0;
+    private long tick = 0;
+    /* زمان پایان آخرین گام؛ رندر با آن کسر گام را برای درون‌یابی حساب می‌کند */
+    private volatile long lastStepNanos = System.nanoTime();
+
+    /* کارهای معوق بر حسب زمان شبیه‌سازی (مثل پایان افکت‌های فروشگاه)؛ فقط روی ترد گام تغییر می‌کنند */
+    private final List<Delayed> delayed = new ArrayList<>();
 
     private PacketProducerController packetProducer;
 
@@ -24,33 +37,107 @@ public class SimulationController {
 
 
     public SimulationController(int fps) {
-        int delay = 1000 / fps;
-        this.timer = new Timer(delay, e -> tick(delay));
+        this(fps, WorldSeed.game(), InputEventLog.INSTANCE);
+    }
+
+    /**
+     * A controller whose checkpoints rewind {@code seed} instead of the game's streams and
+     * which replays {@code inputs}, or no recorded input at all if it is null.
+     */
+    public SimulationController(int fps, WorldSeed seed, InputEventLog inputs) {
+        this.delayMs = 1000 / fps;
+        this.stepSeconds = delayMs / 1000.0;
+        this.ticksPerCheckpoint = fps;
+        this.seed = seed;
+        this.inputs = inputs;
     }
 
-    private void tick(int delay) {
-        double dt = delay / 1000.0;
-        List<Updatable> snapshot;
+    /**
+     * Advances the world by one fixed step. Timeline frames are checkpoints taken every
+     * {@code fps} ticks; the world RNG is re-derived at each one so replays line up.
+     */
+    public void step() {
+        if (inputs != null && inputs.isReplaying()) {
+            inputs.applyTick(tick);
+            if (!inputs.hasEventsAfter(tick)) inputs.setReplaying(false);
+        }
+
+        Updatable[] snapshot;
         synchronized (updatables) {
-            snapshot = new ArrayList<>(updatables);
+            if (stepOrder == null) stepOrder = updatables.toArray(new Updatable[0]);
+            snapshot = stepOrder;
         }
         for (Updatable u : snapshot) {
-            u.update(dt);
+            u.update(stepSeconds);
         }
-        if (timelineController != null) {
-            elapsedSeconds += dt;
-            if (elapsedSeconds >= 1.0) {
-                elapsedSeconds -= 1.0;
-                timelineController.recordFrame();
+        advanceDelayed();
+        tick++;
+        if (timelineController != null && tick % ticksPerCheckpoint == 0) {
+            seed.rewindTo(tick);
+            timelineController.recordFrame(tick);
+        }
+        lastStepNanos = System.nanoTime();
+    }
+
+    public double getStepSeconds() { return stepSeconds; }
+
+    public WorldSeed getWorldSeed() { return seed; }
+
+    /**
+     * Runs {@code action} once {@code seconds} of simulated time have passed, on the step
+     * thread. Pausing stops the countdown and a replay fires it on the same tick as the
+     * original run. Resetting the level ({@link #clearUpdatables}) runs pending actions at once.
+     */
+    public void runAfter(double seconds, Runnable action) {
+        delayed.add(new Delayed(seconds, action));
+    }
+
+    private void advanceDelayed() {
+        if (delayed.isEmpty()) return;
+        List<Runnable> due = null;
+        for (Iterator<Delayed> it = delayed.iterator(); it.hasNext(); ) {
+            Delayed d = it.next();
+            d.remaining -= stepSeconds;
+            if (d.remaining <= 1e-9) {
+                it.remove();
+                if (due == null) due = new ArrayList<>();
+                due.add(d.action);
             }
         }
+        if (due != null) for (Runnable r : due) r.run();
+    }
+
+    private static final class Delayed {
+        double remaining;
+        final Runnable action;
+
+        Delayed(double remaining, Runnable action) {
+            this.remaining = remaining;
+            this.action = action;
+        }
+    }
+
+    /**
+     * How far {@code nowNanos} is into the next fixed step, in [0,1]. Renderers interpolate
+     * packets between the last two ticks by this fraction; it is 1 while the timer is stopped.
+     */
+    public double interpolationAlpha(long nowNanos) {
+        if (!isRunning()) return 1.0;
+        double a = (nowNanos - lastStepNanos) / (stepSeconds * 1e9);
+        return (a <= 0) ? 0.0 : Math.min(1.0, a);
     }
 
+    public long getTick() { return tick; }
+
+    /** Aligns the tick counter with a restored snapshot. */
+    public void setTick(long tick) { this.tick = Math.max(0L, tick); }
+
 
     public void register(Updatable u) {
         synchronized (updatables) {
             if (!updatables.contains(u)) {
                 updatables.add(u);
+                stepOrder = null;
             }
         }
     }
@@ -58,17 +145,19 @@ public class SimulationController {
 
     public void unregister(Updatable u) {
         synchronized (updatables) {
-            updatables.remove(u);
+            if (updatables.remove(u)) stepOrder = null;
         }
     }
 
 
     public void setTimelineController(TimelineController tc) {
         this.timelineController = tc;
+        if (tc != null) tc.attachSimulation(this);
     }
 
 
     public void start() {
+        if (timer == null) timer = new Timer(delayMs, e -> step());
         if (!timer.isRunning()) {
             timer.start();
         }
@@ -76,22 +165,27 @@ public class SimulationController {
 
 
     public void stop() {
-        if (timer.isRunning()) {
+        if (timer != null && timer.isRunning()) {
             timer.stop();
         }
     }
 
 
     public boolean isRunning() {
-        return timer.isRunning();
+        return timer != null && timer.isRunning();
     }
 
 
     public void clearUpdatables() {
         synchronized (updatables) {
             updatables.clear();
+            stepOrder = null;
         }
-        elapsedSeconds = 0.0;
+        // افکت‌های نیمه‌کاره با مرحلهٔ قبل تمام می‌شوند (مثلاً برخوردها دوباره روشن می‌شوند)
+        List<Delayed> pending = new ArrayList<>(delayed);
+        delayed.clear();
+        for (Delayed d : pending) d.action.run();
+        tick = 0;
     }
 
 
@@ -184,7 +184,7 @@ public class SimulationRegistrar {
         // 4) Router ها
         for (SystemBoxModel box : boxes) {
             if (!box.getOutPorts().isEmpty()) {
-                PacketRouterController router = new PacketRouterController(box, wires, destMap, lossModel);
+                PacketRouterController router = new PacketRouterController(box, wires, destMap, lossModel, simulation.getWorldSeed());
                 simulation.register(router);
             }
         }
@@ -261,9 +261,26 @@ public class SimulationRegistrar {
         }
         if (kind == null) kind = SystemKind.NORMAL;
 
+        attachBehaviors(kind, box, simulation, behaviorRegistry, largeGroupRegistry, lossModel, wires, destMap);
+    }
+
+    /**
+     * Attaches the behaviours of {@code kind} to {@code box} and registers their adapters with
+     * {@code simulation}. Static so a world without a level spec (the headless PvP server) wires
+     * boxes exactly like the game does; random behaviours draw from the simulation's {@link WorldSeed}.
+     */
+    public static void attachBehaviors(SystemKind kind,
+                                       SystemBoxModel box,
+                                       SimulationController simulation,
+                                       BehaviorRegistry behaviorRegistry,
+                                       LargeGroupRegistry largeGroupRegistry,
+                                       PacketLossModel lossModel,
+                                       List<WireModel> wires,
+                                       Map<WireModel, SystemBoxModel> destMap) {
+        WorldSeed seed = simulation.getWorldSeed();
         switch (kind) {
             case SPY: {
-                SpyBehavior spy = new SpyBehavior(box, behaviorRegistry, lossModel, wires, destMap);
+                SpyBehavior spy = new SpyBehavior(box, behaviorRegistry, lossModel, wires, destMap, seed);
                 behaviorRegistry.register(box, spy);
                 SystemBehaviorAdapter adapter = new SystemBehaviorAdapter(box, spy);
                 simulation.register(adapter);
@@ -276,7 +293,7 @@ public class SimulationRegistrar {
                 break;
             }
             case MALICIOUS: {
-                MaliciousBehavior mal = new MaliciousBehavior(box, 0.15);
+                MaliciousBehavior mal = new MaliciousBehavior(box, 0.15, seed);
                 behaviorRegistry.register(box, mal);
                 SystemBehaviorAdapter adapter = new SystemBehaviorAdapter(box, mal);
                 simulation.register(adapter);
@@ -315,7 +332,7 @@ public class SimulationRegistrar {
                 break;
             }
             case DISTRIBUTOR: {
-                DistributorBehavior db = new DistributorBehavior(box, largeGroupRegistry, lossModel);
+                DistributorBehavior db = new DistributorBehavior(box, largeGroupRegistry, lossModel, seed);
                 behaviorRegistry.register(box, db);
                 SystemBehaviorAdapter adapter = new SystemBehaviorAdapter(box, db);
                 simulation.register(adapter);
@@ -330,7 +347,7 @@ public class SimulationRegistrar {
                 break;
             }
             case PORT_RANDOMIZER: {
-                PortRandomizerBehavior pr = new PortRandomizerBehavior(box);
+                PortRandomizerBehavior pr = new PortRandomizerBehavior(box, seed);
                 behaviorRegistry.register(box, pr);
                 SystemBehaviorAdapter adapter = new SystemBehaviorAdapter(box, pr);
                 simulation.register(adapter);
@@ -360,7 +377,7 @@ public class SimulationRegistrar {
         }
         if (!box.getInPorts().isEmpty() ) {
             // فقط برای سیستم‌هایی که هم ورودی و هم خروجی دارند
-            LargePacketPortRandomizer lppr = new LargePacketPortRandomizer(box);
+            LargePacketPortRandomizer lppr = new LargePacketPortRandomizer(box, seed);
             behaviorRegistry.register(box, lppr);
             SystemBehaviorAdapter adapterRandomizer = new SystemBehaviorAdapter(box, lppr);
             simulation.register(adapterRandomizer);
@@ -1,19 +1,24 @@
 package com.blueprinthell.controller.simulation;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.Objects;
 
 import com.blueprinthell.controller.persistence.SnapshotManager;
+import com.blueprinthell.controller.persistence.TimelineArchive;
 import com.google.gson.Gson;
 import com.blueprinthell.snapshot.NetworkSnapshot;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonWriter;
 
 public class TimelineController {
     private final NetworkController controller;
     private final SnapshotManager snaps;
+    private SimulationController simulation;
+    private TimelineArchive.Reader archive;
     private boolean playing = true;
     private int currentOffset = 0;
 
@@ -24,9 +29,15 @@ public class TimelineController {
     }
 
 
-    public void recordFrame() {
+    void attachSimulation(SimulationController simulation) {
+        this.simulation = simulation;
+    }
+
+
+    public void recordFrame(long tick) {
         if (playing) {
             NetworkSnapshot snap = controller.captureSnapshot();
+            snap.meta.tick = tick;
             snaps.push(snap);
         }
     }
@@ -45,9 +56,61 @@ public class TimelineController {
     }
 
 
+    /**
+     * Rebuilds an arbitrary tick: restores the nearest checkpoint at or before it and
+     * steps the simulation forward, re-applying the recorded inputs on the way.
+     */
+    public void rebuildTick(long targetTick) {
+        if (simulation == null) return;
+        // checkpoints are in tick order: binary search so lazily imported frames stay unloaded
+        int lo = 0, hi = snaps.size() - 1, idx = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            NetworkSnapshot s = snaps.getSnapshotAt(mid);
+            long t = (s != null && s.meta != null) ? s.meta.tick : Long.MAX_VALUE;
+            if (t <= targetTick) { idx = mid; lo = mid + 1; } else { hi = mid - 1; }
+        }
+        if (idx < 0) return;
+
+        playing = false;
+        currentOffset = snaps.size() - 1 - idx;
+        controller.restoreState(snaps.getSnapshotAt(idx));
+
+        InputEventLog inputs = InputEventLog.INSTANCE;
+        inputs.setReplaying(true);
+        try {
+            while (simulation.getTick() < targetTick) simulation.step();
+        } finally {
+            inputs.setReplaying(false);
+        }
+    }
+
+
+    /** Forgets every frame (new level) and releases an imported archive. */
+    public void clear() {
+        snaps.clear();
+        closeArchive();
+        playing = true;
+        currentOffset = 0;
+    }
+
+
+    private void closeArchive() {
+        if (archive == null) return;
+        try {
+            archive.close();
+        } catch (IOException ignore) {
+            // فقط خواندنی بود؛ چیزی از دست نمی‌رود
+        }
+        archive = null;
+    }
+
+
     public void resume() {
         if (currentOffset > 0) {
             snaps.discardNewest(currentOffset);
+            // ورودی‌های آیندهٔ کنارگذاشته‌شده دیگر معتبر نیستند
+            if (simulation != null) InputEventLog.INSTANCE.discardFrom(simulation.getTick());
         }
         playing = true;
         currentOffset = 0;
@@ -77,11 +140,50 @@ public class TimelineController {
     }
 
 
+    /**
+     * Writes the timeline as a compressed frame stream (see {@link TimelineArchive});
+     * frames are encoded one at a time so memory stays flat regardless of session length.
+     */
+    public void exportTimeline(Path filePath) throws IOException {
+        try (TimelineArchive.Writer out = new TimelineArchive.Writer(filePath)) {
+            for (int i = 0; i < snaps.size(); i++) {
+                out.append(snaps.getSnapshotAt(i));
+            }
+        }
+    }
+
+
+    /**
+     * Opens a frame stream written by {@link #exportTimeline}. Only the index is read up
+     * front; each frame is decoded the first time it is scrubbed to.
+     */
+    public void importTimeline(Path filePath) throws IOException {
+        TimelineArchive.Reader reader = new TimelineArchive.Reader(filePath);
+        closeArchive();
+        archive = reader;
+        snaps.loadLazily(reader.frameCount(), i -> {
+            try {
+                return reader.readFrame(i);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        if (snaps.size() == 0) return;
+        playing = false;
+        currentOffset = snaps.size() - 1;
+        controller.restoreState(snaps.getSnapshotAt(0));
+    }
+
+
     public void exportToJson(Path filePath) throws IOException {
         Gson gson = new Gson();
-        List<NetworkSnapshot> list = snaps.getSnapshots();
-        try (java.io.Writer writer = Files.newBufferedWriter(filePath)) {
-            gson.toJson(list, writer);
+        // فریم به فریم نوشته می‌شود تا فریم‌های آرشیو هم‌زمان همه decode نشوند
+        try (JsonWriter writer = gson.newJsonWriter(Files.newBufferedWriter(filePath))) {
+            writer.beginArray();
+            for (int i = 0; i < snaps.size(); i++) {
+                gson.toJson(snaps.getSnapshotAt(i), NetworkSnapshot.class, writer);
+            }
+            writer.endArray();
         }
     }
 
@@ -92,6 +194,7 @@ public class TimelineController {
         try (java.io.Reader reader = Files.newBufferedReader(filePath)) {
             List<NetworkSnapshot> list = gson.fromJson(reader, listType);
             snaps.clear();
+            closeArchive();
             for (NetworkSnapshot snap : list) {
                 snaps.push(snap);
             }
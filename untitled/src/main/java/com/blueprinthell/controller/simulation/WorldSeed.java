@@ -0,0 +1,84 @@
+package com.blueprinthell.controller.simulation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Single source of randomness for the simulation.
+ * Every gameplay {@link Random} is a named stream derived from one world seed, and all
+ * streams are re-derived from (seed, tick) at each timeline checkpoint so a run can be
+ * reproduced from any checkpoint plus the recorded {@link InputEventLog}.
+ *
+ * <p>The static methods act on the single-player game's registry. A world that runs beside it
+ * (a headless PvP world on the server) creates its own instance and hands it to its routers,
+ * behaviours and {@link SimulationController}, so its streams neither leak into nor draw from
+ * the game's, and are dropped with the world.
+ */
+public final class WorldSeed {
+    private static final WorldSeed GAME = new WorldSeed(System.nanoTime());
+
+    private long seed;
+    private final Map<String, Random> streams = new LinkedHashMap<>();
+
+    public WorldSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /** The registry of the single-player game, used by the static methods. */
+    public static WorldSeed game() { return GAME; }
+
+    /** Returns this world's stream registered under {@code key}, creating it on first use. */
+    public synchronized Random stream(String key) {
+        return streams.computeIfAbsent(key, k -> new Random(derive(seed, k, 0L)));
+    }
+
+    /** Re-derives every stream of this world for a checkpoint at {@code tick}. */
+    public synchronized void rewindTo(long tick) {
+        for (Map.Entry<String, Random> e : streams.entrySet()) {
+            e.getValue().setSeed(derive(seed, e.getKey(), tick));
+        }
+    }
+
+    public synchronized long seed() { return seed; }
+
+    /** Returns the game stream registered under {@code key}, creating it on first use. */
+    public static Random random(String key) {
+        return GAME.stream(key);
+    }
+
+    /** Restarts every stream already handed out from the given seed (same run, e.g. a replay). */
+    public static void reseed(long newSeed) {
+        synchronized (GAME) {
+            GAME.seed = newSeed;
+            GAME.rewindTo(0L);
+        }
+    }
+
+    /**
+     * Starts a new level: forgets the streams of the previous level's boxes and switches to
+     * {@code newSeed}. Streams handed out before this call are no longer rewound, so callers
+     * must not keep one across levels.
+     */
+    public static void reset(long newSeed) {
+        synchronized (GAME) {
+            GAME.streams.clear();
+            GAME.seed = newSeed;
+        }
+    }
+
+    /** Re-derives every game stream for a checkpoint at {@code tick}. */
+    public static void rewind(long tick) {
+        GAME.rewindTo(tick);
+    }
+
+    public static long getSeed() { return GAME.seed(); }
+
+    // SplitMix64 finaliser over (seed, key, tick)
+    private static long derive(long seed, String key, long tick) {
+        long z = seed ^ (key.hashCode() * 0x9E3779B97F4A7C15L) ^ (tick * 0xC2B2AE3D27D4EB4FL);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -1,6 +1,7 @@
 package com.blueprinthell.controller.systems;
 
 import com.blueprinthell.config.Config;
+import com.blueprinthell.controller.simulation.WorldSeed;
 import com.blueprinthell.model.*;
 import com.blueprinthell.model.large.BitPacket;
 import com.blueprinthell.model.large.LargeGroupRegistry;
@@ -18,7 +19,7 @@ public final class DistributorBehavior implements SystemBehavior, SnapshottableB
     private final SystemBoxModel     box;
     private final LargeGroupRegistry registry;
     private final PacketLossModel    lossModel;
-    private final Random             rnd = new Random();
+    private final Random             rnd;
 
     /** پکت‌هایی که قبلاً Split یا در صف Split قرار گرفته‌اند */
     private final Set<PacketModel> processedPackets =
@@ -37,7 +38,15 @@ public final class DistributorBehavior implements SystemBehavior, SnapshottableB
     public DistributorBehavior(SystemBoxModel box,
                                LargeGroupRegistry registry,
                                PacketLossModel lossModel) {
+        this(box, registry, lossModel, WorldSeed.game());
+    }
+
+    public DistributorBehavior(SystemBoxModel box,
+                               LargeGroupRegistry registry,
+                               PacketLossModel lossModel,
+                               WorldSeed seed) {
         this.box       = Objects.requireNonNull(box, "box");
+        this.rnd = seed.stream("distributor:" + box.getId());
         this.registry  = Objects.requireNonNull(registry, "registry");
         this.lossModel = Objects.requireNonNull(lossModel, "lossModel");
     }
@@ -1,12 +1,13 @@
 package com.blueprinthell.controller.systems;
 
+import com.blueprinthell.controller.simulation.WorldSeed;
 import com.blueprinthell.model.*;
 import java.util.*;
 
 public final class MaliciousBehavior implements SystemBehavior {
 
     private final SystemBoxModel box;
-    private final Random rnd = new Random();
+    private final Random rnd;
     private final double trojanProbability;
 
     // Statistics
@@ -15,7 +16,12 @@ public final class MaliciousBehavior implements SystemBehavior {
     private long forcedIncompatibleRoutes = 0;
 
     public MaliciousBehavior(SystemBoxModel box, double trojanProbability) {
+        this(box, trojanProbability, WorldSeed.game());
+    }
+
+    public MaliciousBehavior(SystemBoxModel box, double trojanProbability, WorldSeed seed) {
         this.box = Objects.requireNonNull(box, "box");
+        this.rnd = seed.stream("malicious:" + box.getId());
         this.trojanProbability = Math.max(0.0, Math.min(1.0, trojanProbability));
     }
 
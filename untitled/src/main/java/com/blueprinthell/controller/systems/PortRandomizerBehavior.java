@@ -1,5 +1,6 @@
 package com.blueprinthell.controller.systems;
 
+import com.blueprinthell.controller.simulation.WorldSeed;
 import com.blueprinthell.model.SystemBoxModel;
 import com.blueprinthell.model.PacketModel;
 import com.blueprinthell.model.PortModel;
@@ -14,10 +15,15 @@ import java.util.Random;
 public final class PortRandomizerBehavior implements SystemBehavior {
 
     private final SystemBoxModel box;
-    private final Random rnd = new Random();
+    private final Random rnd;
 
     public PortRandomizerBehavior(SystemBoxModel box) {
+        this(box, WorldSeed.game());
+    }
+
+    public PortRandomizerBehavior(SystemBoxModel box, WorldSeed seed) {
         this.box = Objects.requireNonNull(box, "box");
+        this.rnd = seed.stream("port-randomizer:" + box.getId());
     }
 
     @Override
@@ -69,6 +75,6 @@ public final class PortRandomizerBehavior implements SystemBehavior {
             next = vals[rnd.nextInt(vals.length)];
         } while (next == current);
 
-        port.setShape(next);
+        port.setShape(next);   // نسخهٔ شکل پورت‌های جعبه را جلو می‌برد؛ لایهٔ ایستا از آن می‌خواند
     }
 }
\ No newline at end of file
@@ -2,12 +2,13 @@ package com.blueprinthell.controller.systems;
 
 import com.blueprinthell.model.PacketModel;
 
+import java.util.Collections;
 import java.util.Map;
 import java.util.WeakHashMap;
 
 
 public final class RouteHints {
-    private static final Map<PacketModel, Boolean> FORCE_INCOMPATIBLE = new WeakHashMap<>();
+    private static final Map<PacketModel, Boolean> FORCE_INCOMPATIBLE = Collections.synchronizedMap(new WeakHashMap<>());
 
     public static boolean peekForceIncompatible(PacketModel p) {
         return FORCE_INCOMPATIBLE.getOrDefault(p, false);
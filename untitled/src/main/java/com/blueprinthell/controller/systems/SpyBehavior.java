@@ -1,6 +1,7 @@
 package com.blueprinthell.controller.systems;
 
 import com.blueprinthell.config.Config;
+import com.blueprinthell.controller.simulation.WorldSeed;
 import com.blueprinthell.model.*;
 import com.blueprinthell.motion.MotionStrategy;
 import com.blueprinthell.motion.MotionStrategyFactory;
@@ -17,7 +18,8 @@ public final class SpyBehavior implements SystemBehavior {
     private final PacketLossModel lossModel;
     private final List<WireModel> wires;
     private final Map<WireModel, SystemBoxModel> destMap;
-    private final Random rnd = new Random();
+    private final Random rnd;
+    private final Random motionRnd;
 
     // Thread-safe transfer mechanism
     private static final ReentrantLock TRANSFER_LOCK = new ReentrantLock();
@@ -37,7 +39,18 @@ public final class SpyBehavior implements SystemBehavior {
                        PacketLossModel lossModel,
                        List<WireModel> wires,
                        Map<WireModel, SystemBoxModel> destMap) {
+        this(box, registry, lossModel, wires, destMap, WorldSeed.game());
+    }
+
+    public SpyBehavior(SystemBoxModel box,
+                       BehaviorRegistry registry,
+                       PacketLossModel lossModel,
+                       List<WireModel> wires,
+                       Map<WireModel, SystemBoxModel> destMap,
+                       WorldSeed seed) {
         this.box = Objects.requireNonNull(box, "box");
+        this.rnd = seed.stream("spy:" + box.getId());
+        this.motionRnd = seed.stream("motion");
         this.registry = Objects.requireNonNull(registry, "registry");
         this.lossModel = Objects.requireNonNull(lossModel, "lossModel");
         this.wires = Objects.requireNonNull(wires, "wires");
@@ -117,7 +130,7 @@ public final class SpyBehavior implements SystemBehavior {
         boolean compatible = chosenPort.isCompatible(packet);
         packet.setStartSpeedMul(1.0);
 
-        MotionStrategy ms = MotionStrategyFactory.create(packet, compatible);
+        MotionStrategy ms = MotionStrategyFactory.create(packet, compatible, motionRnd);
         packet.setMotionStrategy(ms);
 
         chosenWire.attachPacket(packet, 0.0);
@@ -132,7 +132,7 @@ public final class SystemBehaviorAdapter implements Updatable {
     }
 
     public static final class EnteredPortTracker {
-        private static final WeakHashMap<PacketModel, PortModel> MAP = new WeakHashMap<>();
+        private static final Map<PacketModel, PortModel> MAP = Collections.synchronizedMap(new WeakHashMap<>());
 
         private EnteredPortTracker() {}
 
@@ -8,7 +8,7 @@ import java.util.WeakHashMap;
 
 public final class TeleportTracking {
     private static final Set<PacketModel> TELEPORTED_PACKETS =
-            Collections.newSetFromMap(new WeakHashMap<>());
+            Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
 
     private TeleportTracking() {}
 
@@ -1,6 +1,7 @@
 package com.blueprinthell.controller.systems;
 
 import com.blueprinthell.model.PacketModel;
+import java.util.Collections;
 import java.util.Map;
 import java.util.WeakHashMap;
 
@@ -24,7 +25,7 @@ public final class VpnRevertHints {
     // ===========================================================
 
     // نگاشت Protected → Original
-    private static final Map<PacketModel, PacketModel> map = new WeakHashMap<>();
+    private static final Map<PacketModel, PacketModel> map = Collections.synchronizedMap(new WeakHashMap<>());
 
     // API نمونه‌ای (اگر جایی نمونهٔ محلی دارید)
     public void mark(PacketModel protectedPkt, PacketModel original) {
@@ -1,9 +1,12 @@
 package com.blueprinthell.controller.ui.editor;
 
+import com.blueprinthell.controller.simulation.InputEventLog;
+import com.blueprinthell.view.draw.StaticLayerCache;
 import com.blueprinthell.model.PortModel;
 import com.blueprinthell.model.SystemBoxModel;
 import com.blueprinthell.model.WireModel;
 import com.blueprinthell.model.WireUsageModel;
+import com.blueprinthell.view.Camera;
 import com.blueprinthell.view.SystemBoxView;
 
 import javax.swing.*;
@@ -26,7 +29,6 @@ import java.util.function.Predicate;
 public class SystemBoxDragController extends MouseAdapter implements MouseMotionListener {
 
     private final SystemBoxModel model;
-    private final SystemBoxView view;
     private final List<WireModel> wires;
     private final WireUsageModel usageModel;
 
@@ -41,7 +43,7 @@ public class SystemBoxDragController extends MouseAdapter implements MouseMotion
     private static int SISY_RADIUS_PX = 120;
     private static Predicate<SystemBoxModel> SISY_FILTER = null;    // فیلتر باکس مجاز (غیرمرجع)
     private static List<WireModel> SISY_WIRES = null;               // همهٔ سیم‌ها برای چک برخورد
-    private static List<SystemBoxView> SISY_OBSTACLES = null;       // فعلاً استفاده نمی‌شود
+    private static List<SystemBoxModel> SISY_OBSTACLES = null;      // فعلاً استفاده نمی‌شود
     private static Runnable SISY_ON_FINISH = null;                  // کال‌بک اتمام
     private static Point SISY_START_POS = null;                     // نقطهٔ شروع در مختصات parent
 
@@ -55,18 +57,17 @@ public class SystemBoxDragController extends MouseAdapter implements MouseMotion
 
     private static Runnable NETWORK_CHANGED = null;
 
+    /**
+     * Drag controller of one box. It is bound to the model through
+     * {@code GameScreenView.bindBoxController} and works on whichever view the box currently has.
+     */
     public SystemBoxDragController(SystemBoxModel model,
-                                   SystemBoxView view,
                                    List<WireModel> wires,
                                    WireUsageModel usageModel) {
         this.model = model;
-        this.view = view;
         this.wires = wires;
         this.usageModel = usageModel;
         this.oldLengths = new HashMap<>();
-
-        view.addMouseListener(this);
-        view.addMouseMotionListener(this);
     }
 
     public static void setNetworkChanged(Runnable r) { NETWORK_CHANGED = r; }
@@ -89,7 +90,7 @@ public class SystemBoxDragController extends MouseAdapter implements MouseMotion
                 Toolkit.getDefaultToolkit().beep();
                 return;
             }
-            SISY_START_POS = new Point(view.getX(), view.getY()); // مختصات محلی نسبت به parent
+            SISY_START_POS = new Point(model.getX(), model.getY()); // مختصات جهان (مدل)
             SISY_MOVED = false;
         }
 
@@ -111,9 +112,11 @@ public class SystemBoxDragController extends MouseAdapter implements MouseMotion
 
         if (!DRAG_ENABLED) return;
 
-        // مختصات محلی جدید نسبت به parent (بدون onScreen => بدون "پرش")
-        int newX = view.getX() + e.getX() - offset.x;
-        int newY = view.getY() + e.getY() - offset.y;
+        // جابه‌جایی ماوس در صفحه به مختصات جهان (بدون onScreen => بدون "پرش")
+        Component view = e.getComponent();
+        double zoom = Camera.of(view.getParent()).zoom();
+        int newX = model.getX() + (int) Math.round((e.getX() - offset.x) / zoom);
+        int newY = model.getY() + (int) Math.round((e.getY() - offset.y) / zoom);
 
         // قیود حالت سیسیفوس
         if (SISYPHUS_MODE && SISY_START_POS != null) {
@@ -131,7 +134,7 @@ public class SystemBoxDragController extends MouseAdapter implements MouseMotion
             }
 
             // 2) جلوگیری از عبور سیم‌ها از داخل باکس‌ها
-            Rectangle newBounds = new Rectangle(targetX, targetY, view.getWidth(), view.getHeight());
+            Rectangle newBounds = new Rectangle(targetX, targetY, model.getWidth(), model.getHeight());
             if (intersectsAnyWireExceptOwn(newBounds, model)) {
                 return; // نقطهٔ نامعتبر؛ همین step را قبول نکن
             }
@@ -144,10 +147,11 @@ public class SystemBoxDragController extends MouseAdapter implements MouseMotion
             }
         }
 
-        // جابه‌جایی ویو و مدل
-        view.setLocation(newX, newY);
+        // جابه‌جایی مدل؛ ویو جای خود را از دوربین می‌گیرد
         model.setX(newX);
         model.setY(newY);
+        if (view instanceof SystemBoxView sbv) sbv.refresh();
+        StaticLayerCache.invalidate();
 
         // بروزرسانی مصرف طول سیم‌ها
         for (Map.Entry<WireModel, Double> entry : oldLengths.entrySet()) {
@@ -163,9 +167,10 @@ public class SystemBoxDragController extends MouseAdapter implements MouseMotion
             entry.setValue(current);
         }
 
-        JComponent parent = (JComponent) view.getParent();
-        parent.revalidate();
-        parent.repaint();
+        if (view.getParent() instanceof JComponent parent) {
+            parent.revalidate();
+            parent.repaint();
+        }
     }
 
     @Override
@@ -173,7 +178,10 @@ public class SystemBoxDragController extends MouseAdapter implements MouseMotion
         // پایان حالت یک‌باره و «قفلِ سخت» تا ریست مرحله
         if (SISYPHUS_MODE) {
             SISYPHUS_MODE = false;
-            if (SISY_MOVED) SISY_USED = true;
+            if (SISY_MOVED) {
+                SISY_USED = true;
+                InputEventLog.INSTANCE.record(InputEventLog.Kind.SISYPHUS_MOVE, model.getId(), model.getX(), model.getY());
+            }
 
             SISY_START_POS = null;
             SISY_MOVED = false;
@@ -215,7 +223,7 @@ public class SystemBoxDragController extends MouseAdapter implements MouseMotion
             int radiusPx,
             Predicate<SystemBoxModel> filter,
             List<WireModel> wires,
-            List<SystemBoxView> obstacles,
+            List<SystemBoxModel> obstacles,
             Runnable onFinish
     ) {
         SISYPHUS_MODE  = true;
@@ -233,6 +241,44 @@ public class SystemBoxDragController extends MouseAdapter implements MouseMotion
         setDragEnabled(true); // فعلاً آزاد؛ بعد از رهاسازی، قفل سراسری می‌شود
     }
 
+    /**
+     * Replays recorded Sisyphus drags: moves the box to the recorded position, charges the
+     * wire-length change like a live drag and locks dragging until the stage resets.
+     * {@code onMoved} re-lays the views after the move.
+     */
+    public static void installReplayHandler(List<SystemBoxModel> boxes,
+                                            Runnable onMoved,
+                                            List<WireModel> wires,
+                                            WireUsageModel usageModel) {
+        InputEventLog.INSTANCE.setHandler(InputEventLog.Kind.SISYPHUS_MOVE, e -> {
+            SystemBoxModel box = null;
+            for (SystemBoxModel b : boxes) if (b.getId().equals(e.args.get(0))) { box = b; break; }
+            if (box == null) return;
+
+            Map<WireModel, Double> before = new HashMap<>();
+            for (WireModel w : wires) {
+                if (ownsPort(box, w.getSrcPort()) || ownsPort(box, w.getDstPort())) before.put(w, w.getLength());
+            }
+            box.setX(Integer.parseInt(e.args.get(1)));
+            box.setY(Integer.parseInt(e.args.get(2)));
+            for (Map.Entry<WireModel, Double> entry : before.entrySet()) {
+                double delta = entry.getKey().getLength() - entry.getValue();
+                if (delta > 0) usageModel.useWire(delta);
+                else if (delta < 0) usageModel.freeWire(-delta);
+            }
+            StaticLayerCache.invalidate();
+            if (onMoved != null) onMoved.run();
+
+            SISY_USED = true;
+            forceDragLockUntilStageReset();
+            if (NETWORK_CHANGED != null) NETWORK_CHANGED.run();
+        });
+    }
+
+    private static boolean ownsPort(SystemBoxModel box, PortModel p) {
+        return p != null && (box.getInPorts().contains(p) || box.getOutPorts().contains(p));
+    }
+
     /** قفل سخت را تا ریست مرحله فعال می‌کند. */
     public static void forceDragLockUntilStageReset() {
         GLOBAL_DRAG_LOCK = true;
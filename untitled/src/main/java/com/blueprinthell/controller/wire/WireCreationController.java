@@ -1,6 +1,8 @@
 package com.blueprinthell.controller.wire;
 
+import com.blueprinthell.view.draw.StaticLayerCache;
 import com.blueprinthell.config.Config;
+import com.blueprinthell.controller.simulation.InputEventLog;
 import com.blueprinthell.controller.simulation.SimulationController;
 import com.blueprinthell.model.*;
 import com.blueprinthell.view.*;
@@ -119,16 +121,18 @@ public class WireCreationController {
         };
 
         // --- اتصال به پورت‌ها و کنترل کلیک برای لغو پیش‌نمایش ---
-        attachToPorts(area);
+        // ویوی پورت‌ها با دوربین ساخته و دور ریخته می‌شوند؛ هر ویوی تازه همین listener را می‌گیرد
+        gameView.setPortViewBinder(this::attachToPort);
         area.addMouseListener(new MouseAdapter() {
             @Override public void mouseClicked(MouseEvent e) {
                 if (drawing) cancelPreview();
             }
         });
+        installReplayHandlers();
     }
 
 
-    private void attachToPorts(Container c){for(Component comp:c.getComponents()){if(comp instanceof PortView pv){pv.addMouseListener(new MouseAdapter(){@Override public void mouseClicked(MouseEvent e){handlePortClick(pv);} });} else if(comp instanceof Container inner && comp!=overlay){attachToPorts(inner);} }}
+    private void attachToPort(PortView pv){pv.addMouseListener(new MouseAdapter(){@Override public void mouseClicked(MouseEvent e){handlePortClick(pv);} });}
 
     private void handlePortClick(PortView pv){
         PortModel pm=pv.getModel();
@@ -161,29 +165,17 @@ public class WireCreationController {
 
                 // 3) شرط قبلی پروژه را هم نگه می‌داریم (خروجی→ورودی + هر منطق اضافی در PortModel)
                 if(startPort.canConnectTo(pm)){
-                    WireModel wm=new WireModel(startPort,pm);
-                    double len=wm.getLength();
-                    if(!usageModel.useWire(len)){
+                    WireModel wm=connect(startPort,pm);
+                    if(wm==null){
                         Toolkit.getDefaultToolkit().beep();
                         cancelPreview();
                         return;
                     }
-
-                    // تنظیم portToBoxMap برای سیم جدید - این خط حیاتی است!
-                    wm.setPortToBoxMap(portToBoxMap);
-
-                    wires.add(wm);
-                    destMap.put(wm,findDestBox(pm));
-                    lockedInputs.add(pm);
-                    PortView srcPV=findPortView(area,startPort);
-                    WireView wv=new WireView(wm,srcPV,pv);
-                    wv.setBounds(0,0,area.getWidth(),area.getHeight());
-                    area.add(wv,0);
-                    area.setComponentZOrder(overlay,area.getComponentCount()-1);
-                    area.revalidate();
-                    area.repaint();
-                    if(networkChanged!=null) networkChanged.run();
-                    new WireEditorController(area, wm, wv, gameView.getSystemBoxViews(), coinModel, usageModel, networkChanged);
+                    SystemBoxModel from=portToBoxMap.get(startPort), to=portToBoxMap.get(pm);
+                    if(from!=null && to!=null){
+                        InputEventLog.INSTANCE.record(InputEventLog.Kind.WIRE_ADD,
+                                from.getId(), startPort.getIndex(), to.getId(), pm.getIndex());
+                    }
                 }
                 else {
                     // اگر به هر دلیل دیگری PortModel اجازه اتصال ندهد
@@ -197,13 +189,65 @@ public class WireCreationController {
         }
     }
 
+    /** Creates the wire model and its view; returns null if the wire budget is exhausted. */
+    private WireModel connect(PortModel src, PortModel dst){
+        WireModel wm=new WireModel(src,dst);
+        double len=wm.getLength();
+        if(!usageModel.useWire(len)) return null;
+
+        // تنظیم portToBoxMap برای سیم جدید - این خط حیاتی است!
+        wm.setPortToBoxMap(portToBoxMap);
+
+        wires.add(wm);
+        destMap.put(wm,findDestBox(dst));
+        lockedInputs.add(dst);
+        gameView.bindWireController(wm, new WireEditorController(area, wm, boxes, coinModel, usageModel, networkChanged));
+        gameView.applyCamera(); // ویوی سیم اگر در دید باشد اینجا ساخته می‌شود
+        area.setComponentZOrder(overlay,area.getComponentCount()-1);
+        StaticLayerCache.invalidate();
+        area.revalidate();
+        area.repaint();
+        if(networkChanged!=null) networkChanged.run();
+        return wm;
+    }
+
+    /* ---------- replay of recorded wiring inputs ---------- */
+    private void installReplayHandlers(){
+        InputEventLog.INSTANCE.setHandler(InputEventLog.Kind.WIRE_ADD, e -> {
+            SystemBoxModel from=findBoxById(e.args.get(0)), to=findBoxById(e.args.get(2));
+            if(from==null || to==null) return;
+            int out=Integer.parseInt(e.args.get(1)), in=Integer.parseInt(e.args.get(3));
+            if(out<0 || out>=from.getOutPorts().size() || in<0 || in>=to.getInPorts().size()) return;
+            PortModel dst=to.getInPorts().get(in);
+            if(lockedInputs.contains(dst)) return;
+            connect(from.getOutPorts().get(out),dst);
+        });
+        InputEventLog.INSTANCE.setHandler(InputEventLog.Kind.WIRE_PATH, e -> {
+            for(WireModel w:wires){
+                if(!w.getCanonicalId().equals(e.args.get(0))) continue;
+                List<Point> pts=new ArrayList<>();
+                for(int i=1;i+1<e.args.size();i+=2){
+                    pts.add(new Point(Integer.parseInt(e.args.get(i)),Integer.parseInt(e.args.get(i+1))));
+                }
+                WireEditorController.applyRecordedPath(w,pts,coinModel,usageModel);
+                StaticLayerCache.invalidate();
+                area.repaint();
+                if(networkChanged!=null) networkChanged.run();
+                return;
+            }
+        });
+    }
+
+    private SystemBoxModel findBoxById(String id){
+        for(SystemBoxModel b:boxes) if(b.getId().equals(id)) return b;
+        return null;
+    }
+
     private void cancelPreview(){drawing=false; overlay.clearLine(); overlay.setVisible(false); area.removeMouseMotionListener(previewListener); overlay.endPreview();}
 
     public void freePortsForWire(WireModel wm){lockedInputs.remove(wm.getDstPort()); usageModel.freeWire(wm.getLength()); if(networkChanged!=null) networkChanged.run();}
 
 
-    private PortView findPortView(Container c, PortModel pm){for(Component comp:c.getComponents()){if(comp instanceof PortView pv && pv.getModel()==pm) return pv; if(comp instanceof Container inner){PortView f=findPortView(inner,pm); if(f!=null) return f;}} return null;}
-
     private static class Overlay extends JComponent{
         private Point p1,p2; @Override public boolean contains(int x,int y){return false;} void beginPreview(){ } void endPreview(){ } @Override protected void paintComponent(Graphics g){super.paintComponent(g); if(p1!=null&&p2!=null){Graphics2D g2=(Graphics2D)g.create(); g2.setColor(Color.RED); g2.setStroke(new BasicStroke(Config.STROKE_WIDTH_WIRE)); g2.drawLine(p1.x,p1.y,p2.x,p2.y); g2.dispose();}}
         void updateLine(Point a,Point b){p1=a;p2=b; repaint();} void clearLine(){p1=p2=null; repaint();}
@@ -108,7 +108,7 @@ public class WireDurabilityController implements Updatable {
             wire.clearPackets();
         }
     }
-        private static final boolean DBG_LOSS = true;
+        private static final boolean DBG_LOSS = false;
     private static String dbg(PacketModel p) {
                 if (p instanceof LargePacket lp) {
                         return "Large{orig=" + lp.isOriginal() + ",group=" + lp.getGroupId() + ",size=" + lp.getOriginalSizeUnits() + "}";
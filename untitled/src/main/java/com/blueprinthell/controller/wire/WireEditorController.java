@@ -1,11 +1,13 @@
 package com.blueprinthell.controller.wire;
 
+import com.blueprinthell.view.draw.StaticLayerCache;
+import com.blueprinthell.controller.simulation.InputEventLog;
 import com.blueprinthell.model.WireModel;
+import com.blueprinthell.model.SystemBoxModel;
 import com.blueprinthell.model.WirePath;
 import com.blueprinthell.model.CoinModel;
 import com.blueprinthell.model.WirePhysics;
-import com.blueprinthell.view.SystemBoxView;
-import com.blueprinthell.view.WireView;
+import com.blueprinthell.view.Camera;
 import com.blueprinthell.model.WireUsageModel;
 
 import javax.swing.*;
@@ -15,7 +17,12 @@ import java.awt.event.MouseEvent;
 import java.util.List;
 
 
-public class WireEditorController {
+/**
+ * Bend editor of one wire. It is bound to the model through
+ * {@code GameScreenView.bindWireController} and so keeps working while the wire's view is
+ * dropped and recreated by viewport culling.
+ */
+public class WireEditorController extends MouseAdapter {
     private static final int MAX_BENDS     = 3;
     private static final int HANDLE_RADIUS = 6; // px
     private static final int CLICK_DIST    = 8; // px
@@ -23,8 +30,7 @@ public class WireEditorController {
 
     private final JPanel              canvas;
     private final WireModel           wire;
-    private final WireView            wireView;
-    private final List<SystemBoxView> obstacles;
+    private final List<SystemBoxModel> obstacles;
     private final CoinModel           coins;
     private final WireUsageModel      usage;
     private final Runnable            networkChanged;
@@ -33,35 +39,29 @@ public class WireEditorController {
 
     public WireEditorController(JPanel canvas,
                                 WireModel wire,
-                                WireView wireView,
-                                List<SystemBoxView> systemBoxes,
+                                List<SystemBoxModel> systemBoxes,
                                 CoinModel coins,
                                 WireUsageModel usage,
                                 Runnable networkChanged) {
         this.canvas = canvas;
         this.wire   = wire;
-        this.wireView = wireView;
         this.obstacles = systemBoxes;
         this.coins  = coins;
         this.usage  = usage;
         this.networkChanged = networkChanged;
-        installMouseHandlers();
     }
 
-    private void installMouseHandlers() {
-        MouseAdapter ma = new MouseAdapter() {
-            @Override public void mousePressed(MouseEvent e) {
-                Point p = SwingUtilities.convertPoint(e.getComponent(), e.getPoint(), canvas);
-                selectOrAddHandle(p);
-            }
-            @Override public void mouseDragged(MouseEvent e) {
-                Point p = SwingUtilities.convertPoint(e.getComponent(), e.getPoint(), canvas);
-                dragHandle(p);
-            }
-            @Override public void mouseReleased(MouseEvent e) { dragIndex = -1; }
-        };
-        wireView.addMouseListener(ma);
-        wireView.addMouseMotionListener(ma);
+    @Override public void mousePressed(MouseEvent e) {
+        Point p = Camera.of(canvas).toWorld(SwingUtilities.convertPoint(e.getComponent(), e.getPoint(), canvas));
+        selectOrAddHandle(p);
+    }
+    @Override public void mouseDragged(MouseEvent e) {
+        Point p = Camera.of(canvas).toWorld(SwingUtilities.convertPoint(e.getComponent(), e.getPoint(), canvas));
+        dragHandle(p);
+    }
+    @Override public void mouseReleased(MouseEvent e) {
+        if (dragIndex >= 0) recordPath();
+        dragIndex = -1;
     }
 
     private void selectOrAddHandle(Point click) {
@@ -110,15 +110,43 @@ public class WireEditorController {
         }
 
         wire.setPath(newPath);
-        wireView.repaint();
+        StaticLayerCache.invalidate();
+        canvas.repaint();
         if (networkChanged != null) networkChanged.run();
     }
 
+    private void recordPath() {
+        List<Object> args = new java.util.ArrayList<>();
+        args.add(wire.getCanonicalId());
+        for (Point p : wire.getPath().getPoints()) { args.add(p.x); args.add(p.y); }
+        InputEventLog.INSTANCE.record(InputEventLog.Kind.WIRE_PATH, args.toArray());
+    }
+
+    /**
+     * Re-applies a recorded bend edit: pays for bends that were added and settles the
+     * wire-length budget, mirroring {@link #selectOrAddHandle} and {@link #commitPath}.
+     */
+    static void applyRecordedPath(WireModel wire, List<Point> cps, CoinModel coins, WireUsageModel usage) {
+        if (cps.size() < 2) return;
+        int addedBends = (cps.size() - 2) - wire.getBendPoints().size();
+        for (int i = 0; i < addedBends; i++) coins.spend(BEND_COST);
+
+        double oldLen = wire.getLength();
+        WirePath newPath = new WirePath(cps);
+        double delta = WirePhysics.length(newPath) - oldLen;
+        if (delta > 1e-6) {
+            if (!usage.useWire(delta)) return;
+        } else if (delta < -1e-6) {
+            usage.freeWire(-delta);
+        }
+        wire.setPath(newPath);
+    }
+
     private boolean intersectsAnyObstacle(List<Point> cps) {
         for (int i = 0; i < cps.size() - 1; i++) {
             Point a = cps.get(i), b = cps.get(i + 1);
-            for (SystemBoxView box : obstacles) {
-                Rectangle r = box.getBounds();
+            for (SystemBoxModel m : obstacles) {
+                Rectangle r = new Rectangle(m.getX(), m.getY(), m.getWidth(), m.getHeight());
                 if (r.contains(a) && r.contains(b)) continue;
                 if (segmentIntersectsRectExcludingEndpoints(a, b, r)) return true;
             }
@@ -1,5 +1,7 @@
 package com.blueprinthell.controller.wire;
 
+import com.blueprinthell.view.draw.StaticLayerCache;
+import com.blueprinthell.controller.simulation.InputEventLog;
 import com.blueprinthell.model.WireModel;
 import com.blueprinthell.model.SystemBoxModel;
 import com.blueprinthell.model.WireUsageModel;
@@ -76,11 +78,13 @@ public class WireRemovalController {
                                 glassPane.setVisible(false);
                                 break;
                             }
+                            InputEventLog.INSTANCE.record(InputEventLog.Kind.WIRE_REMOVE, wm.getCanonicalId());
                             wires.remove(wm);
                             destMap.remove(wm);
                             creator.freePortsForWire(wm);
                             usageModel.freeWire(wm.getLength());
                             area.remove(wv);
+                            StaticLayerCache.invalidate();
                             area.revalidate();
                             area.repaint();
                             if (networkChanged != null) networkChanged.run();
@@ -102,6 +106,15 @@ public class WireRemovalController {
         glassPane.addMouseListener(removalMouseAdapter);
 
         area.setFocusable(true);
+
+        InputEventLog.INSTANCE.setHandler(InputEventLog.Kind.WIRE_REMOVE, ev -> {
+            for (WireModel wm : wires) {
+                if (wm.getCanonicalId().equals(ev.args.get(0)) && !wm.isForPreviousLevels()) {
+                    performRemoval(wm);
+                    return;
+                }
+            }
+        });
     }
 
     public void removeWire(WireModel wm) {
@@ -129,6 +142,7 @@ public class WireRemovalController {
             }
         }
 
+        StaticLayerCache.invalidate();
         area.revalidate();
         area.repaint();
         if (networkChanged != null) networkChanged.run();
@@ -153,6 +167,7 @@ public class WireRemovalController {
                 }
             }
 
+            StaticLayerCache.invalidate();
             area.revalidate();
             area.repaint();
 
@@ -100,7 +100,7 @@ public final class WireTimeoutController implements Updatable {
         final PacketModel packet;
         Removal(WireModel w, PacketModel p) { this.wire = w; this.packet = p; }
     }
-        private static final boolean DBG_LOSS = true;
+        private static final boolean DBG_LOSS = false;
     private static String dbg(PacketModel p) {
                 if (p instanceof LargePacket lp) {
                         return "Large{orig=" + lp.isOriginal() + ",group=" + lp.getGroupId() + ",size=" + lp.getOriginalSizeUnits() + "}";
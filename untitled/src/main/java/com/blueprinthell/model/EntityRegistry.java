@@ -0,0 +1,64 @@
+package com.blueprinthell.model;
+
+import java.util.List;
+
+/**
+ * Per-world allocator of compact integer ids for boxes, ports, wires and packets.
+ *
+ * The id lives on the entity itself, so model → id is a field read and hot paths
+ * (snapshot capture, restore, layout export) never touch strings. id → model
+ * tables are built on demand from the live lists, which keeps the registry free of
+ * references to removed wires or dead packets.
+ *
+ * String ids ({@link SystemBoxModel#getId()}, {@link WireModel#getCanonicalId()})
+ * stay only at the edges: level definitions, the input log and network messages.
+ */
+public final class EntityRegistry {
+
+    public static final int NONE = -1;
+
+    private int nextBox;
+    private int nextPort;
+    private int nextWire;
+    private int nextPacket;
+
+    /** Registers the box (and its current ports) if needed and returns its id. */
+    public int idOf(SystemBoxModel box) {
+        if (box.getEntityId() == NONE) box.setEntityId(nextBox++);
+        for (PortModel p : box.getInPorts())  idOf(p);
+        for (PortModel p : box.getOutPorts()) idOf(p);
+        return box.getEntityId();
+    }
+
+    public int idOf(PortModel port) {
+        if (port.getEntityId() == NONE) port.setEntityId(nextPort++);
+        return port.getEntityId();
+    }
+
+    public int idOf(WireModel wire) {
+        if (wire.getEntityId() == NONE) wire.setEntityId(nextWire++);
+        return wire.getEntityId();
+    }
+
+    public int idOf(PacketModel packet) {
+        if (packet.getEntityId() == NONE) packet.setEntityId(nextPacket++);
+        return packet.getEntityId();
+    }
+
+    /** Gives a restored packet the id it had when captured, so later frames still pair with it. */
+    public void adopt(PacketModel packet, int id) {
+        if (id < 0) return;
+        packet.setEntityId(id);
+        if (id >= nextPacket) nextPacket = id + 1;
+    }
+
+    /** Dense id → box table for the given live boxes; unregistered slots are {@code null}. */
+    public SystemBoxModel[] boxTable(List<SystemBoxModel> boxes) {
+        SystemBoxModel[] table = new SystemBoxModel[nextBox];
+        for (SystemBoxModel b : boxes) {
+            int id = b.getEntityId();
+            if (id >= 0 && id < table.length) table[id] = b;
+        }
+        return table;
+    }
+}
@@ -11,6 +11,9 @@ public abstract class GameObjectModel implements Serializable {
     protected int width;
     protected int height;
 
+    /** Per-world integer id handed out by {@link EntityRegistry}; -1 until registered. */
+    private int entityId = EntityRegistry.NONE;
+
     protected GameObjectModel(int x, int y, int width, int height) {
         this.x = x;
         this.y = y;
@@ -57,4 +60,12 @@ public abstract class GameObjectModel implements Serializable {
     public int getCenterY() {
         return y + height / 2;
     }
+
+    public int getEntityId() {
+        return entityId;
+    }
+
+    void setEntityId(int entityId) {
+        this.entityId = entityId;
+    }
 }
@@ -7,6 +7,7 @@ import com.blueprinthell.motion.KinematicsRegistry;
 
 import java.util.Objects;
 
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.Map;
 import java.util.WeakHashMap;
@@ -134,7 +135,7 @@ public final class PacketOps {
         CONFIDENTIAL_VPN // Confidential with VPN semantics (keep-distance), coin=4
     }
 
-    private static final Map<PacketModel, EnumSet<PacketTag>> TAGS = new WeakHashMap<>();
+    private static final Map<PacketModel, EnumSet<PacketTag>> TAGS = Collections.synchronizedMap(new WeakHashMap<>());
 
     /** Attach a logical tag to a packet (kept weakly; no lifecycle coupling). */
     public static void tag(PacketModel p, PacketTag tag) {
@@ -13,6 +13,10 @@ public class PortModel extends GameObjectModel implements Serializable {
     private  PortShape shape;
     private final boolean input;
 
+    /* مالک و ایندکس پورت؛ توسط SystemBoxModel تنظیم می‌شود تا جست‌وجوی خطی لازم نباشد */
+    private SystemBoxModel owner;
+    private int index = -1;
+
     public PortModel(int x, int y, PortShape shape, boolean input) {
         super(x, y, Config.PORT_SIZE, Config.PORT_SIZE);
         this.shape = shape;
@@ -61,8 +65,25 @@ public class PortModel extends GameObjectModel implements Serializable {
     }
 
 
+    /** Box this port belongs to, or {@code null} for a detached port. */
+    public SystemBoxModel getOwner() {
+        return owner;
+    }
+
+    /** Position of this port in its owner's in- or out-port list; -1 when detached. */
+    public int getIndex() {
+        return index;
+    }
+
+    void bind(SystemBoxModel owner, int index) {
+        this.owner = owner;
+        this.index = index;
+    }
+
     public void setShape(PortShape newShape){
+        if (newShape == shape) return;
         this.shape = newShape;
+        if (owner != null) owner.portShapeChanged();
     }
 
     public static PortShape shapeForPacket(PacketModel packet) {
@@ -1,11 +1,14 @@
 package com.blueprinthell.model;
 
 import com.blueprinthell.config.Config;
+import com.blueprinthell.motion.KinematicsProfile;
 
 
 public class ProtectedPacket extends PacketModel {
 
     private double shield;
+    /* پروفایل حرکتی تصادفی که کارخانهٔ استراتژی برای سیم فعلی انتخاب کرده؛ در snapshot ذخیره می‌شود */
+    private KinematicsProfile motionProfile;
 
 
     public static ProtectedPacket wrap(PacketModel original, double shieldCapacity) {
@@ -64,5 +67,8 @@ public class ProtectedPacket extends PacketModel {
 
     public boolean isShieldDepleted() { return shield <= 0.0; }
 
+    public KinematicsProfile getMotionProfile() { return motionProfile; }
+    public void setMotionProfile(KinematicsProfile profile) { this.motionProfile = profile; }
+
 
 }
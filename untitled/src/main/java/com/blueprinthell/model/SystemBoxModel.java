@@ -43,6 +43,9 @@ public class SystemBoxModel extends GameObjectModel implements Serializable, Upd
 
     private final String id;
 
+    /* با هر تغییر شکل یک پورت جلو می‌رود؛ لایهٔ ایستای نما از آن می‌فهمد که باید دوباره رسم شود */
+    private transient volatile long portShapeVersion;
+
     /* ---------- سازنده ---------- */
     public SystemBoxModel(String id,
                           int x, int y, int width, int height,
@@ -78,6 +81,19 @@ public class SystemBoxModel extends GameObjectModel implements Serializable, Upd
     public List<PortShape> getInShapes () { return inPorts .stream().map(PortModel::getShape).collect(Collectors.toList()); }
     public List<PortShape> getOutShapes() { return outPorts.stream().map(PortModel::getShape).collect(Collectors.toList()); }
 
+    /** Bumped whenever one of this box's ports changes shape. */
+    public long getPortShapeVersion() { return portShapeVersion; }
+
+    /** Sum of {@link #getPortShapeVersion()} over {@code boxes}; changes whenever any of their ports does. */
+    public static long portShapeVersion(List<SystemBoxModel> boxes) {
+        long v = 0;
+        for (int i = 0, n = boxes.size(); i < n; i++) v += boxes.get(i).portShapeVersion;
+        return v;
+    }
+
+    // فقط ترد شبیه‌سازیِ همین دنیا می‌نویسد
+    void portShapeChanged() { portShapeVersion++; }
+
     /* --- بافر بیت --- */
     public int  getBitBufferSize() { return bitBuffer.size(); }
     public int  getBitBufferFree() { return Config.MAX_BUFFER_CAPACITY - bitBuffer.size(); }
@@ -206,10 +222,12 @@ public class SystemBoxModel extends GameObjectModel implements Serializable, Upd
         for (int i = 0; i < inShapes.size(); i++) {
             int yOff = (i + 1) * getHeight() / (inShapes.size() + 1) - ps / 2;
             inPorts.add(new PortModel(getX(), getY() + yOff, inShapes.get(i), true));
+            inPorts.get(i).bind(this, i);
         }
         for (int i = 0; i < outShapes.size(); i++) {
             int yOff = (i + 1) * getHeight() / (outShapes.size() + 1) - ps / 2;
             outPorts.add(new PortModel(getX() + getWidth() - ps, getY() + yOff, outShapes.get(i), false));
+            outPorts.get(i).bind(this, i);
         }
     }
     public PacketModel pollReturned() { return returnBuffer.pollFirst(); }
@@ -243,12 +261,14 @@ public class SystemBoxModel extends GameObjectModel implements Serializable, Upd
     public void addOutputPort(PortShape shape){
         if(outPorts.size() >= Config.MAX_OUTPUT_PORTS) return;
         int ps = Config.PORT_SIZE;
-        outPorts.add(new PortModel(getX() + getWidth() - ps, getY(), shape, false));
+        PortModel port = new PortModel(getX() + getWidth() - ps, getY(), shape, false);
+        port.bind(this, outPorts.size());
+        outPorts.add(port);
         updatePortsPosition();
     }
     public boolean removeOutputPort(){
         if(outPorts.isEmpty()) return false;
-        outPorts.remove(outPorts.size()-1);
+        outPorts.remove(outPorts.size()-1).bind(null, -1);
         updatePortsPosition();
         return true;
     }
@@ -261,7 +281,9 @@ public class SystemBoxModel extends GameObjectModel implements Serializable, Upd
     /* ---------- اضافه پورت ورودی ---------- */
     public void addInputPort(PortShape shape){
         int ps = Config.PORT_SIZE;
-        inPorts.add(new PortModel(getX(), getY(), shape, true));
+        PortModel port = new PortModel(getX(), getY(), shape, true);
+        port.bind(this, inPorts.size());
+        inPorts.add(port);
         updatePortsPosition();
     }
     // اضافه کردن متد برای بررسی نوع سیستم
@@ -23,7 +23,11 @@ public class WireModel implements Serializable {
     private final PortModel dst;
 
     private WirePath path;
+    /* طول path؛ هر بار که path عوض شود دوباره حساب می‌شود. سیم‌ها در بازی تقریباً هیچ‌وقت تغییر نمی‌کنند */
+    private transient double length;
+    private transient boolean lengthValid;
     private final List<PacketModel> packets = new ArrayList<>();
+    private transient List<PacketModel> packetsView;   // هر فریم چند بار خوانده می‌شود؛ یک نما کافی است
 
     private static SimulationController simulationController;
 
@@ -31,6 +35,11 @@ public class WireModel implements Serializable {
 
     private Map<PortModel, SystemBoxModel> portToBoxMap = Collections.emptyMap();
 
+    private int entityId = EntityRegistry.NONE;
+
+    /** Bumped on every structural or packet-lane change; lets snapshot capture share untouched wires. */
+    private long version = 0;
+
     private boolean isForPreviousLevels = false;
     private int largePacketPassTotal = 0;
     private int largePacketPassCount = 0;
@@ -45,7 +54,7 @@ public class WireModel implements Serializable {
                 .collect(Collectors.toSet());
     }
     public int getLargePacketPassTotal() { return largePacketPassTotal; }
-    public void setLargePacketPassCount(int n) { this.largePacketPassCount = Math.max(0, n); }
+    public void setLargePacketPassCount(int n) { this.largePacketPassCount = Math.max(0, n); version++; }
     public void setLargePacketPassTotal(int n) { this.largePacketPassTotal = Math.max(0, n); }
 
     public void setPortToBoxMap(Map<PortModel, SystemBoxModel> map) {
@@ -71,25 +80,26 @@ public class WireModel implements Serializable {
     }
 
     private void syncEndpoints() {
-        Point a = centreOf(src);
-        Point b = centreOf(dst);
-
         List<Point> pts = path.getPoints();
         if (pts.isEmpty()) return;
 
-        boolean changeA = !pts.get(0).equals(a);
-        boolean changeB = !pts.get(pts.size() - 1).equals(b);
+        // بدون ساختن Point: این مسیر داغ هر getLength/pointAt است
+        Point first = pts.get(0);
+        Point last = pts.get(pts.size() - 1);
+        boolean changeA = first.x != centreX(src) || first.y != centreY(src);
+        boolean changeB = last.x != centreX(dst) || last.y != centreY(dst);
         if (!changeA && !changeB) return;
 
         List<Point> newPts = new ArrayList<>(pts);
-        if (changeA) newPts.set(0, a);
-        if (changeB) newPts.set(newPts.size() - 1, b);
-        this.path = new WirePath(newPts);
+        if (changeA) newPts.set(0, centreOf(src));
+        if (changeB) newPts.set(newPts.size() - 1, centreOf(dst));
+        setPath(new WirePath(newPts));
     }
 
 
     public List<PacketModel> update(double dt) {
         List<PacketModel> arrived = new ArrayList<>();
+        if (!packets.isEmpty()) version++;
         Iterator<PacketModel> it = packets.iterator();
 
         while (it.hasNext()) {
@@ -109,7 +119,7 @@ public class WireModel implements Serializable {
 
                 if ((p.isReturning() || destDisabled) && p.getProgress() <= 0.0) {
                     PortModel srcPort = getSrcPort();
-                    SystemBoxModel srcBox = (portToBoxMap != null) ? portToBoxMap.get(srcPort) : null;
+                    SystemBoxModel srcBox = resolveBox(srcPort);
 
                     boolean accepted = false;
 
@@ -178,31 +188,51 @@ public class WireModel implements Serializable {
         }
         packets.add(packet);
         packet.attachToWire(this, p);
+        version++;
     }
 
     public boolean removePacket(PacketModel p) {
+        version++;
         return packets.remove(p);
     }
 
-    public double getLength() { syncEndpoints(); return WirePhysics.length(path); }
-    public Point pointAt(double t) { syncEndpoints(); return WirePhysics.pointAt(path, t); }
+    public double getLength() {
+        syncEndpoints();
+        if (!lengthValid) {
+            length = WirePhysics.length(path);
+            lengthValid = true;
+        }
+        return length;
+    }
+    public Point pointAt(double t) {
+        double len = getLength();   // قبل از خواندن path، چون ممکن است سر سیم‌ها را همگام کند
+        return WirePhysics.pointAt(path, t, len);
+    }
     public boolean contains(Point p, double tolPx) { syncEndpoints(); return WirePhysics.contains(path, p, tolPx); }
     public WirePath getPath() { syncEndpoints(); return path; }
 
-    public void setPath(WirePath newPath) { this.path = newPath; }
+    public void setPath(WirePath newPath) { this.path = newPath; lengthValid = false; version++; }
 
     private WirePath buildDefaultPath() {
         return new WirePath(List.of(centreOf(src), centreOf(dst)));
     }
 
     private static Point centreOf(PortModel pm) {
-        return new Point(pm.getX() + pm.getWidth()/2, pm.getY() + pm.getHeight()/2);
+        return new Point(centreX(pm), centreY(pm));
     }
 
-    public List<PacketModel> getPackets() { return Collections.unmodifiableList(packets); }
+    private static int centreX(PortModel pm) { return pm.getX() + pm.getWidth()/2; }
+    private static int centreY(PortModel pm) { return pm.getY() + pm.getHeight()/2; }
+
+    public List<PacketModel> getPackets() {
+        if (packetsView == null) packetsView = Collections.unmodifiableList(packets);
+        return packetsView;
+    }
     public PortModel getSrcPort() { return src; }
     public PortModel getDstPort() { return dst; }
-    public void clearPackets() { packets.clear(); }
+    public void clearPackets() { packets.clear(); version++; }
+
+    public long getVersion() { return version; }
 
     public List<Point> getBendPoints() {
         List<Point> pts = path.getPoints();
@@ -220,33 +250,28 @@ public class WireModel implements Serializable {
         return largePacketPassCount >= MAX_LARGE_PACKET_PASSES;
     }
 
-        /**
-     * Canonical, stable ID for snapshotting. Format:
+    /** Per-world integer id handed out by {@link EntityRegistry}; -1 until registered. */
+    public int getEntityId() { return entityId; }
+
+    void setEntityId(int entityId) { this.entityId = entityId; }
+
+    /**
+     * Canonical, stable ID for the input log and network layouts. Format:
      * "<fromBoxId>:<fromOutIndex> -> <toBoxId>:<toInIndex>".
      */
     public String getCanonicalId() {
-        PortModel src = getSrcPort();
-        PortModel dst = getDstPort();
-
         SystemBoxModel fromBox = resolveBox(src);
         SystemBoxModel toBox   = resolveBox(dst);
         if (fromBox == null || toBox == null) {
-            // fallback: coordinates (still stable across a session)
-            return src.hashCode() + " -> " + dst.hashCode();
+            // fallback: entity ids (still stable within a world)
+            return "#" + src.getEntityId() + " -> #" + dst.getEntityId();
         }
-        int fromIdx = indexOfPort(fromBox.getOutPorts(), src);
-        int toIdx   = indexOfPort(toBox.getInPorts(),  dst);
-        return fromBox.getId() + ":" + fromIdx + " -> " + toBox.getId() + ":" + toIdx;
-    }
-
-    /** index helper (returns -1 if not found to avoid NPEs in edge cases) */
-    private static int indexOfPort(List<PortModel> list, PortModel target) {
-        int i = 0;
-        for (PortModel p : list) { if (p == target) return i; i++; }
-        return -1;
+        return fromBox.getId() + ":" + src.getIndex() + " -> " + toBox.getId() + ":" + dst.getIndex();
     }
 
     private SystemBoxModel resolveBox(PortModel p) {
+        if (p == null) return null;
+        if (p.getOwner() != null) return p.getOwner();
         return (portToBoxMap != null) ? portToBoxMap.get(p) : null;
     }
 
@@ -254,13 +279,11 @@ public class WireModel implements Serializable {
      * Helper indices for snapshot (optional but handy)
      */
     public int getFromOutIndex() {
-        SystemBoxModel from = resolveBox(getSrcPort());
-        return (from == null) ? -1 : indexOfPort(from.getOutPorts(), getSrcPort());
+        return (resolveBox(src) == null) ? -1 : src.getIndex();
     }
 
     public int getToInIndex() {
-        SystemBoxModel to = resolveBox(getDstPort());
-        return (to == null) ? -1 : indexOfPort(to.getInPorts(), getDstPort());
+        return (resolveBox(dst) == null) ? -1 : dst.getIndex();
     }
 
     /**
@@ -270,10 +293,12 @@ public class WireModel implements Serializable {
         packet.attachToWire(this, initialProgress);
         // Direct insert; do NOT trigger arrival checks or removals here.
         this.packets.add(packet);
+        version++;
     }
-    public void resetLargePacketCounter() { this.largePacketPassCount = 0; }
+    public void resetLargePacketCounter() { this.largePacketPassCount = 0; version++; }
     public int incrementLargePacketPass() {
         this.largePacketPassCount++;
+        version++;
         this.largePacketPassTotal++;
         return this.largePacketPassCount;
            }
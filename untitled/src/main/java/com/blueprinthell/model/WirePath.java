@@ -2,7 +2,6 @@ package com.blueprinthell.model;
 
 import java.awt.*;
 import java.io.Serializable;
-import java.util.Collections;
 import java.util.List;
 
 
@@ -29,7 +28,7 @@ public final class WirePath implements Serializable {
     public List<Point> controlPoints() { return getControlPoints(); }
 
     public List<Point> getControlPoints() {
-        return Collections.unmodifiableList(controlPoints);
+        return controlPoints;   // List.copyOf: already unmodifiable, no view per call
     }
 
     public int segmentCount() {
@@ -20,11 +20,15 @@ public final class WirePhysics {
 
 
     public static Point pointAt(WirePath path, double t) {
+        return pointAt(path, t, length(path));
+    }
+
+    /** Same as {@link #pointAt(WirePath, double)} with the path's length already known. */
+    public static Point pointAt(WirePath path, double t, double total) {
         List<Point> pts = path.controlPoints();
         if (t <= 0) return pts.get(0);
         if (t >= 1) return pts.get(pts.size() - 1);
 
-        double total = length(path);
         double traversed = 0.0;
         for (int i = 1; i < pts.size(); i++) {
             Point a = pts.get(i - 1);
@@ -92,4 +92,15 @@ public class DriftMotionStrategy implements MotionStrategy {
         packet.setX(drawX);
         packet.setY(drawY);
     }
+
+    @Override
+    public void resume(PacketModel packet) {
+        // مسافت طی‌شده از ابتدای سیم همان مجموع گام‌هاست؛ فاز drift از آن بازسازی می‌شود
+        WireModel wire = packet.getCurrentWire();
+        if (wire == null) return;
+        double travelled = Math.max(0.0, packet.getProgress() * wire.getLength());
+        long flips = (long) Math.floor(travelled / driftStepPx);
+        distanceSinceFlipPx = travelled - flips * driftStepPx;
+        driftDirectionPos = (flips & 1) == 1;
+    }
 }
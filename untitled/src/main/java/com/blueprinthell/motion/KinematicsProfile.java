@@ -1,9 +1,10 @@
 package com.blueprinthell.motion;
 
+import com.blueprinthell.controller.simulation.WorldSeed;
+
 import java.util.EnumSet;
 import java.util.Objects;
 import java.util.Random;
-import java.util.concurrent.ThreadLocalRandom;
 
 import static com.blueprinthell.config.Config.*;
 
@@ -86,7 +87,7 @@ public enum KinematicsProfile {
         return arr[rnd.nextInt(arr.length)];
     }
     public static KinematicsProfile randomMessenger() {
-        return randomMessenger(ThreadLocalRandom.current());
+        return randomMessenger(WorldSeed.random("kinematics"));
     }
     public static EnumSet<KinematicsProfile> messengerSet() {
         return EnumSet.of(MSG1, MSG2, MSG3);
@@ -10,7 +10,8 @@ import java.util.WeakHashMap;
 
 public final class KinematicsRegistry {
 
-    private static final Map<PacketModel, KinematicsProfile> MAP = new WeakHashMap<>();
+    /* مشترک بین همهٔ دنیاها (سرور چند مسابقه را هم‌زمان روی چند ترد اجرا می‌کند)؛ کلیدها پکت‌های هر دنیا هستند */
+    private static final Map<PacketModel, KinematicsProfile> MAP = Collections.synchronizedMap(new WeakHashMap<>());
 
     private KinematicsRegistry() {  }
 
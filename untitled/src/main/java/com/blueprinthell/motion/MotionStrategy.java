@@ -7,4 +7,11 @@ public interface MotionStrategy {
 
 
     void update(PacketModel packet, double dt);
+
+    /**
+     * Called once on a strategy built for a packet restored mid-wire from a snapshot, before
+     * its first {@link #update}; stateful strategies take their state from the packet instead
+     * of starting over.
+     */
+    default void resume(PacketModel packet) { }
 }
@@ -1,5 +1,6 @@
 package com.blueprinthell.motion;
 
+import com.blueprinthell.controller.simulation.WorldSeed;
 import com.blueprinthell.model.PacketModel;
 import com.blueprinthell.model.ProtectedPacket;
 import com.blueprinthell.model.ConfidentialPacket;
@@ -13,11 +14,30 @@ import com.blueprinthell.model.large.LargePacket;
 
 public final class MotionStrategyFactory {
 
-    private static final Random RAND = new Random();
-
     private MotionStrategyFactory() {}
 
     public static MotionStrategy create(PacketModel packet, boolean compatible) {
+        return create(packet, compatible, WorldSeed.random("motion"));
+    }
+
+    /** Same as {@link #create(PacketModel, boolean)}, drawing random profiles from {@code rnd}. */
+    public static MotionStrategy create(PacketModel packet, boolean compatible, Random rnd) {
+        return build(packet, compatible, false, rnd);
+    }
+
+    /**
+     * Strategy for a packet restored mid-wire from a snapshot: keeps the profile the packet
+     * already had (no new random draw), skips the start-speed kick and lets the strategy pick
+     * its state up from the packet, so a checkpoint continues the way the original run did.
+     */
+    public static MotionStrategy resume(PacketModel packet, boolean compatible) {
+        packet.setStartSpeedMul(1.0);
+        MotionStrategy ms = build(packet, compatible, true, WorldSeed.random("motion"));
+        ms.resume(packet);
+        return ms;
+    }
+
+    private static MotionStrategy build(PacketModel packet, boolean compatible, boolean resuming, Random rnd) {
         Objects.requireNonNull(packet, "packet");
 
 
@@ -35,8 +55,12 @@ public final class MotionStrategyFactory {
             return new ConstantSpeedStrategy(Config.CONF_SPEED);
         }
 
-        if (packet instanceof ProtectedPacket) {
-            KinematicsProfile randomProfile = KinematicsProfile.randomMessenger(RAND);
+        if (packet instanceof ProtectedPacket pp) {
+            // پروفایل تصادفی روی هر سیم؛ هنگام بازیابی همان پروفایل قبلی ادامه پیدا می‌کند
+            KinematicsProfile randomProfile = (resuming && pp.getMotionProfile() != null)
+                    ? pp.getMotionProfile()
+                    : KinematicsProfile.randomMessenger(rnd);
+            pp.setMotionProfile(randomProfile);
             MotionRule rule = profileToRule(randomProfile, compatible);
             double startMul = packet.consumeStartSpeedMul();
             if (startMul != 1.0) {
@@ -63,7 +87,7 @@ public final class MotionStrategyFactory {
         MotionRule rule = compatible ? params.compatRule : params.incompatRule;
 
         if (profile == KinematicsProfile.PROTECTED_SHADOW && params.randomMessengerProfile) {
-            KinematicsProfile rndProf = KinematicsProfile.randomMessenger(RAND);
+            KinematicsProfile rndProf = KinematicsProfile.randomMessenger(rnd);
             KinematicsRegistry.setProfile(packet, rndProf);
             profile = rndProf;
             params = rndProf.getParams();
@@ -249,6 +273,11 @@ public final class MotionStrategyFactory {
             if (next > 1.0) next = 1.0;
             packet.setProgress(next);
         }
+
+        @Override
+        public void resume(PacketModel packet) {
+            init = true; // سرعت بازیابی‌شده را با سرعت شروع بازنویسی نکن
+        }
     }
 
     private static final class CurveAccelWrapper implements MotionStrategy {
@@ -262,6 +291,11 @@ public final class MotionStrategyFactory {
         public void update(PacketModel packet, double dt) {
             delegate.update(packet, dt);
         }
+
+        @Override
+        public void resume(PacketModel packet) {
+            delegate.resume(packet);
+        }
     }
 
 
@@ -352,6 +386,11 @@ public final class MotionStrategyFactory {
             // هیچ offset بصریِ اضافی اینجا اعمال نکنید؛ این استراتژی صرفاً فاصلهٔ طولی را تنظیم می‌کند.
         }
 
+        @Override
+        public void resume(PacketModel packet) {
+            v = packet.getSpeed();
+        }
+
 
         private static double stepTowardSigned(double currentAbs, double targetSigned, double dvMax) {
             double currentSigned = currentAbs; // فرض رو به جلو؛ هدف علامت را تعیین می‌کند
@@ -396,12 +435,27 @@ public final class MotionStrategyFactory {
             packet.setX(packet.getX() + (int) (sign * offsetPx));
             packet.setY(packet.getY() + (int) (sign * offsetPx * 0.2));
         }
+
+        @Override
+        public void resume(PacketModel packet) {
+            // فاز drift از مسافت طی‌شده روی سیم تخمین زده می‌شود
+            WireModel wire = packet.getCurrentWire();
+            if (wire == null || stepDist <= 0) return;
+            double travelled = packet.getProgress() * wire.getLength();
+            long flips = (long) Math.floor(travelled / stepDist);
+            traveledPx = travelled - flips * stepDist;
+            offsetSide = (flips & 1) == 1;
+        }
     }
 
     private static final class ApproachLimiterWrapper implements MotionStrategy {
         private final MotionStrategy delegate;
         ApproachLimiterWrapper(MotionStrategy d) { this.delegate = d; }
         @Override
+        public void resume(PacketModel packet) {
+            if (delegate != null) delegate.resume(packet);
+        }
+        @Override
         public void update(PacketModel packet, double dt) {
             if (delegate != null) delegate.update(packet, dt);
             WireModel wire = packet.getCurrentWire();
@@ -1,6 +1,9 @@
 package com.blueprinthell.server;
 
+import com.blueprinthell.shared.protocol.MessageDecoder;
 import com.blueprinthell.shared.protocol.NetworkProtocol.*;
+import com.blueprinthell.server.net.ServerThreads;
+import com.blueprinthell.server.net.TimingWheel;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 
@@ -13,9 +16,15 @@ import java.util.concurrent.*;
 /**
  * سرور هدلس BlueprintHell
  * پورت پیش‌فرض: 7777
+ *
+ * <p>با {@code -Dblueprinthell.transport=virtual} هر کلاینت و ناظر ضربانش روی ترد مجازی اجرا می‌شوند.
  */
 public class BlueprintHellServer {
     private static final int PORT = 7777;
+    private static final boolean VIRTUAL_THREADS =
+            "virtual".equals(System.getProperty("blueprinthell.transport", "blocking"));
+    private static final long HEARTBEAT_TICK_MS = 100;
+    private static final long HEARTBEAT_TIMEOUT_MS = 6000;
     private static final String VERSION = "1.0.0";
     private static final String MOTD = "Welcome to BlueprintHell Server!";
     private static final Path DATA_DIR = Paths.get("data");
@@ -26,11 +35,14 @@ public class BlueprintHellServer {
     private final Map<String, ClientHandler> activeClients;
     private final ProfileManager profileManager;
     private final Gson gson;
+    /* مهلت ضربان همهٔ کلاینت‌ها روی یک چرخ؛ نه یک ترد ناظر به ازای هر کلاینت */
+    private final TimingWheel<ClientHandler> heartbeats =
+            new TimingWheel<>("heartbeat-wheel", HEARTBEAT_TICK_MS, 128, this::onHeartbeatTimeouts);
     private volatile boolean running;
 
     public BlueprintHellServer(int port) throws IOException {
         this.serverSocket = new ServerSocket(port);
-        this.clientExecutor = Executors.newCachedThreadPool();
+        this.clientExecutor = ServerThreads.perConnectionExecutor(VIRTUAL_THREADS);
         this.activeClients = new ConcurrentHashMap<>();
         this.profileManager = new ProfileManager(USERS_DIR);
         this.gson = new GsonBuilder().create();
@@ -40,7 +52,7 @@ public class BlueprintHellServer {
         Files.createDirectories(USERS_DIR);
 
         System.out.println("BlueprintHell Server v" + VERSION);
-        System.out.println("Listening on port " + port);
+        System.out.println("Listening on port " + port + (VIRTUAL_THREADS ? " (virtual threads)" : ""));
     }
 
     public void start() {
@@ -60,6 +72,13 @@ public class BlueprintHellServer {
         }
     }
 
+    private void onHeartbeatTimeouts(List<ClientHandler> expired) {
+        for (ClientHandler handler : expired) {
+            System.out.println("Heartbeat timeout for user: " + handler.userId);
+            handler.disconnect();
+        }
+    }
+
     /**
      * هندلر برای هر کلاینت متصل
      */
@@ -69,23 +88,20 @@ public class BlueprintHellServer {
         private final PrintWriter writer;
         private String userId;
         private volatile boolean connected;
-        private long lastHeartbeat;
+        private final TimingWheel<ClientHandler>.Timeout heartbeatTimeout;
+        private final MessageDecoder decoder = new MessageDecoder(gson);
 
         public ClientHandler(Socket socket) throws IOException {
             this.socket = socket;
             this.reader = new BufferedReader(new InputStreamReader(socket.getInputStream()));
             this.writer = new PrintWriter(new OutputStreamWriter(socket.getOutputStream()), true);
             this.connected = true;
-            this.lastHeartbeat = System.currentTimeMillis();
+            this.heartbeatTimeout = heartbeats.schedule(this, HEARTBEAT_TIMEOUT_MS);
         }
 
         @Override
         public void run() {
             try {
-                // Heartbeat monitor thread
-                Thread heartbeatMonitor = new Thread(this::monitorHeartbeat);
-                heartbeatMonitor.start();
-
                 // خواندن پیام‌ها
                 String line;
                 while (connected && (line = reader.readLine()) != null) {
@@ -101,14 +117,14 @@ public class BlueprintHellServer {
 
         private void handleMessage(String jsonLine) {
             try {
-                // Parse base message to get type
-                Message baseMsg = gson.fromJson(jsonLine, Message.class);
+                // یک بار: type با JsonReader، بعد adapter همان نوع
+                Message msg = decoder.decode(jsonLine);
 
-                switch (baseMsg.type) {
-                    case HELLO -> handleHello(jsonLine);
+                switch (msg.type) {
+                    case HELLO -> handleHello((Hello) msg);
                     case HEARTBEAT -> handleHeartbeat();
-                    case SUBMIT_RESULT -> handleSubmitResult(jsonLine);
-                    case GET_PROFILE -> handleGetProfile(jsonLine);
+                    case SUBMIT_RESULT -> handleSubmitResult((SubmitResult) msg);
+                    case GET_PROFILE -> handleGetProfile((GetProfile) msg);
                     default -> sendError("UNKNOWN_MSG", "Unknown message type");
                 }
 
@@ -118,8 +134,7 @@ public class BlueprintHellServer {
             }
         }
 
-        private void handleHello(String json) {
-            Hello hello = gson.fromJson(json, Hello.class);
+        private void handleHello(Hello hello) {
             this.userId = hello.userId;
 
             // ثبت کلاینت فعال
@@ -133,12 +148,11 @@ public class BlueprintHellServer {
         }
 
         private void handleHeartbeat() {
-            lastHeartbeat = System.currentTimeMillis();
+            heartbeatTimeout.touch();
             sendMessage(new HeartbeatAck());
         }
 
-        private void handleSubmitResult(String json) {
-            SubmitResult submit = gson.fromJson(json, SubmitResult.class);
+        private void handleSubmitResult(SubmitResult submit) {
             GameResult result = submit.result;
 
             // ذخیره در پروفایل
@@ -153,8 +167,7 @@ public class BlueprintHellServer {
                     ", score=" + result.score + ", xp=" + result.xp + ")");
         }
 
-        private void handleGetProfile(String json) {
-            GetProfile request = gson.fromJson(json, GetProfile.class);
+        private void handleGetProfile(GetProfile request) {
             Profile profile = profileManager.getProfile(request.userId);
 
             if (profile != null) {
@@ -174,26 +187,9 @@ public class BlueprintHellServer {
             sendMessage(new ErrorMessage(code, msg));
         }
 
-        private void monitorHeartbeat() {
-            while (connected) {
-                try {
-                    Thread.sleep(2000); // بررسی هر 2 ثانیه
-
-                    long timeSinceLastHeartbeat = System.currentTimeMillis() - lastHeartbeat;
-                    if (timeSinceLastHeartbeat > 6000) { // 6 ثانیه timeout
-                        System.out.println("Heartbeat timeout for user: " + userId);
-                        disconnect();
-                        break;
-                    }
-
-                } catch (InterruptedException e) {
-                    break;
-                }
-            }
-        }
-
         private void disconnect() {
             connected = false;
+            heartbeatTimeout.cancel();
 
             if (userId != null) {
                 activeClients.remove(userId);
@@ -205,97 +201,6 @@ public class BlueprintHellServer {
         }
     }
 
-    /**
-     * مدیریت پروفایل‌های کاربران
-     */
-    private static class ProfileManager {
-        private final Path usersDir;
-        private final Gson gson;
-
-        public ProfileManager(Path usersDir) {
-            this.usersDir = usersDir;
-            this.gson = new GsonBuilder().setPrettyPrinting().create();
-        }
-
-        public Profile getProfile(String userId) {
-            Path userFile = usersDir.resolve(userId + ".json");
-
-            if (!Files.exists(userFile)) {
-                // ایجاد پروفایل جدید
-                return createNewProfile(userId);
-            }
-
-            try {
-                String json = Files.readString(userFile);
-                return gson.fromJson(json, Profile.class);
-            } catch (IOException e) {
-                System.err.println("Failed to load profile: " + userId);
-                return null;
-            }
-        }
-
-        public boolean addResult(String userId, GameResult result) {
-            Profile profile = getProfile(userId);
-            if (profile == null) {
-                profile = createNewProfile(userId);
-            }
-
-            // به‌روزرسانی XP
-            profile.xpTotal += result.xp;
-
-            // XP by mode
-            String modeKey = result.mode.toString();
-            profile.xpByMode.merge(modeKey, result.xp, Integer::sum);
-
-            // بهترین زمان
-            if (result.durationMs > 0) {
-                profile.bestTimes.merge(result.level, result.durationMs, Math::min);
-            }
-
-            // افزودن به تاریخچه (حداکثر 20 بازی آخر)
-            List<GameResult> history = new ArrayList<>();
-            if (profile.history != null) {
-                history.addAll(Arrays.asList(profile.history));
-            }
-            history.add(0, result); // اضافه در ابتدا
-            if (history.size() > 20) {
-                history = history.subList(0, 20);
-            }
-            profile.history = history.toArray(new GameResult[0]);
-
-            // ذخیره پروفایل
-            return saveProfile(profile);
-        }
-
-        private Profile createNewProfile(String userId) {
-            Profile profile = new Profile();
-            profile.userId = userId;
-            profile.username = "Player_" + userId.substring(0, 8);
-            profile.xpTotal = 0;
-            profile.xpByMode = new HashMap<>();
-            profile.bestTimes = new HashMap<>();
-            profile.history = new GameResult[0];
-            profile.unlocks = new String[0];
-            profile.activePerk = "none";
-
-            saveProfile(profile);
-            return profile;
-        }
-
-        private boolean saveProfile(Profile profile) {
-            Path userFile = usersDir.resolve(profile.userId + ".json");
-
-            try {
-                String json = gson.toJson(profile);
-                Files.writeString(userFile, json);
-                return true;
-            } catch (IOException e) {
-                System.err.println("Failed to save profile: " + profile.userId);
-                return false;
-            }
-        }
-    }
-
     public static void main(String[] args) {
         try {
             int port = args.length > 0 ? Integer.parseInt(args[0]) : PORT;
@@ -317,6 +222,7 @@ public class BlueprintHellServer {
 
     public void shutdown() {
         running = false;
+        heartbeats.stop();
         try {
             serverSocket.close();
             clientExecutor.shutdown();
@@ -1,6 +1,15 @@
 package com.blueprinthell.server;
 
+import com.blueprinthell.shared.protocol.BinaryCodec;
+import com.blueprinthell.shared.protocol.EncodedMessage;
+import com.blueprinthell.shared.protocol.MessageDecoder;
 import com.blueprinthell.shared.protocol.NetworkProtocol.*;
+import com.blueprinthell.server.net.ClientConnection;
+import com.blueprinthell.server.net.NioConnection;
+import com.blueprinthell.server.net.NioTransport;
+import com.blueprinthell.server.net.ServerThreads;
+import com.blueprinthell.server.net.SocketConnection;
+import com.blueprinthell.server.net.TimingWheel;
 import com.blueprinthell.server.pvp.*;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
@@ -10,31 +19,59 @@ import java.net.*;
 import java.nio.file.*;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * سرور BlueprintHell با پشتیبانی از PvP
+ *
+ * <p>انتقال پیش‌فرض {@link NioTransport} است (چند ترد I/O برای همهٔ اتصال‌ها)؛ با
+ * {@code -Dblueprinthell.transport=blocking} حالت قدیمی ترد-به‌ازای-کلاینت برمی‌گردد و با
+ * {@code =virtual} همان کد مسدودکننده روی تردهای مجازی اجرا می‌شود.
+ *
+ * <p>اگر کلاینت در HELLO قاب دودویی ({@link BinaryCodec}) را پیشنهاد کند، بقیهٔ اتصال با آن ادامه
+ * پیدا می‌کند؛ {@code -Dblueprinthell.wire=json} آن را خاموش می‌کند.
  */
 public class BlueprintHellServerExtended {
     private static final int PORT = 7777;
+    private static final String TRANSPORT = System.getProperty("blueprinthell.transport", "nio");
+    private static final int IO_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    private static final int WORKER_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors() * 2);
+    private static final long HEARTBEAT_TICK_MS = 100;
+    private static final int HEARTBEAT_WHEEL_SLOTS = 128;    // ۱۲.۸ ثانیه، بیشتر از timeout
+    private static final long HEARTBEAT_TIMEOUT_MS = 6000;
+    private static final boolean BINARY_WIRE = !"json".equals(System.getProperty("blueprinthell.wire"));
     private static final String VERSION = "2.0.0";
     private static final String MOTD = "Welcome to BlueprintHell Server - PvP Ready!";
     private static final Path DATA_DIR = Paths.get("data");
     private static final Path USERS_DIR = DATA_DIR.resolve("users");
 
-    private final ServerSocket serverSocket;
+    private final ServerSocket serverSocket;   // فقط حالت blocking
     private final ExecutorService clientExecutor;
+    private final NioTransport transport;      // فقط حالت nio
+    /* مهلت ضربان همهٔ اتصال‌ها روی یک چرخ؛ نه یک ترد خوابیده به ازای هر کلاینت */
+    private final TimingWheel<ClientHandler> heartbeats = new TimingWheel<>(
+            "heartbeat-wheel", HEARTBEAT_TICK_MS, HEARTBEAT_WHEEL_SLOTS, this::onHeartbeatTimeouts);
     private final Map<String, ClientHandler> activeClients;
     private final ProfileManager profileManager;
     private final PvPMatchManager pvpManager;
     private final Gson gson;
+    private final BinaryCodec codec;           // مشترک: هر پیام یک بار برای همهٔ گیرنده‌ها کد می‌شود
     private volatile boolean running;
 
     public BlueprintHellServerExtended(int port) throws IOException {
-        this.serverSocket = new ServerSocket(port);
-        this.clientExecutor = Executors.newCachedThreadPool();
+        if (isThreadPerClient()) {
+            this.serverSocket = new ServerSocket(port);
+            this.clientExecutor = ServerThreads.perConnectionExecutor(isVirtual());
+            this.transport = null;
+        } else {
+            this.serverSocket = null;
+            this.clientExecutor = null;
+            this.transport = new NioTransport(port, IO_THREADS, WORKER_THREADS, new TransportHandler());
+        }
         this.activeClients = new ConcurrentHashMap<>();
         this.profileManager = new ProfileManager(USERS_DIR);
         this.gson = new GsonBuilder().create();
+        this.codec = new BinaryCodec(gson);
         this.running = true;
 
         // Initialize PvP manager
@@ -47,6 +84,17 @@ public class BlueprintHellServerExtended {
                 }
             }
 
+            @Override
+            public void sendMessageToPlayers(List<String> userIds, Message message) {
+                EncodedMessage encoded = new EncodedMessage(message, gson, codec);
+                for (String userId : userIds) {
+                    ClientHandler client = activeClients.get(userId);
+                    if (client != null) {
+                        client.send(encoded);
+                    }
+                }
+            }
+
             @Override
             public void onMatchEnded(String matchId, GameResult resultP1, GameResult resultP2) {
                 // Save results
@@ -62,17 +110,25 @@ public class BlueprintHellServerExtended {
         Files.createDirectories(USERS_DIR);
 
         System.out.println("BlueprintHell Server v" + VERSION);
-        System.out.println("Listening on port " + port);
+        System.out.println("Listening on port " + port + " (transport: " + TRANSPORT + ")");
         System.out.println("PvP Mode: ENABLED");
     }
 
+    private static boolean isVirtual() { return "virtual".equals(TRANSPORT); }
+
+    private static boolean isThreadPerClient() { return "blocking".equals(TRANSPORT) || isVirtual(); }
+
     public void start() {
+        if (transport != null) {
+            transport.start();
+            return;
+        }
         while (running) {
             try {
                 Socket clientSocket = serverSocket.accept();
                 System.out.println("New connection from: " + clientSocket.getInetAddress());
 
-                ClientHandler handler = new ClientHandler(clientSocket);
+                ClientHandler handler = new ClientHandler(new SocketConnection(clientSocket, clientExecutor));
                 clientExecutor.execute(handler);
 
             } catch (IOException e) {
@@ -82,38 +138,68 @@ public class BlueprintHellServerExtended {
         }
     }
 
+    /**
+     * Bridges {@link NioTransport} events to per-connection {@link ClientHandler}s.
+     */
+    private class TransportHandler implements NioTransport.Handler {
+        @Override
+        public void onOpen(NioConnection connection) {
+            System.out.println("New connection from: " + connection.remoteAddress());
+            connection.attach(new ClientHandler(connection));
+        }
+
+        @Override
+        public void onMessage(NioConnection connection, String line) {
+            if (connection.attachment() instanceof ClientHandler handler) handler.handleMessage(line);
+        }
+
+        @Override
+        public void onFrame(NioConnection connection, byte[] frame) {
+            if (connection.attachment() instanceof ClientHandler handler) handler.handleFrame(frame);
+        }
+
+        @Override
+        public void onClose(NioConnection connection) {
+            if (connection.attachment() instanceof ClientHandler handler) handler.disconnect();
+        }
+    }
+
+    /* پیام‌هایی که پیام بعدی از همان نوع جایشان را می‌گیرد (TICK دلتا نسبت به فریم ack‌شده است) */
+    private static boolean isDroppable(MessageType type) {
+        return type == MessageType.TICK || type == MessageType.BUILD_TICK || type == MessageType.QUEUE_STATUS;
+    }
+
+    /* روی ترد چرخ: همهٔ اتصال‌هایی که در این tick منقضی شده‌اند */
+    private void onHeartbeatTimeouts(List<ClientHandler> expired) {
+        for (ClientHandler handler : expired) {
+            System.out.println("Heartbeat timeout for user: " + handler.username);
+            handler.disconnect();
+        }
+    }
+
     /**
      * Enhanced client handler with PvP support
      */
     private class ClientHandler implements Runnable {
-        private final Socket socket;
-        private final BufferedReader reader;
-        private final PrintWriter writer;
+        private final ClientConnection connection;
         private String userId;
         private String username;
-        private volatile boolean connected;
-        private long lastHeartbeat;
-
-        public ClientHandler(Socket socket) throws IOException {
-            this.socket = socket;
-            this.reader = new BufferedReader(new InputStreamReader(socket.getInputStream()));
-            this.writer = new PrintWriter(new OutputStreamWriter(socket.getOutputStream()), true);
-            this.connected = true;
-            this.lastHeartbeat = System.currentTimeMillis();
+        private final AtomicBoolean connected = new AtomicBoolean(true);
+        private final TimingWheel<ClientHandler>.Timeout heartbeatTimeout;
+        private volatile boolean binary;      // تا وقتی قاب دودویی مذاکره نشده، خط JSON
+        private final MessageDecoder decoder = new MessageDecoder(gson);
+
+        public ClientHandler(ClientConnection connection) {
+            this.connection = connection;
+            this.heartbeatTimeout = heartbeats.schedule(this, HEARTBEAT_TIMEOUT_MS);
         }
 
+        /** Blocking transport only: reads on the pool thread until the socket closes. */
         @Override
         public void run() {
             try {
-                // Heartbeat monitor thread
-                Thread heartbeatMonitor = new Thread(this::monitorHeartbeat);
-                heartbeatMonitor.start();
-
                 // Read messages
-                String line;
-                while (connected && (line = reader.readLine()) != null) {
-                    handleMessage(line);
-                }
+                ((SocketConnection) connection).read(this::handleMessage, this::handleFrame);
 
             } catch (IOException e) {
                 System.err.println("Client disconnected: " + (userId != null ? userId : "unknown"));
@@ -123,27 +209,35 @@ public class BlueprintHellServerExtended {
         }
 
         private void handleMessage(String jsonLine) {
+            Message msg;
             try {
-                Message baseMsg = gson.fromJson(jsonLine, Message.class);
+                msg = decoder.decode(jsonLine);
+            } catch (Exception e) {
+                System.err.println("Error handling message: " + e.getMessage());
+                sendError("PARSE_ERROR", "Failed to parse message");
+                return;
+            }
+            dispatch(msg);
+        }
 
-                switch (baseMsg.type) {
+        private void dispatch(Message msg) {
+            try {
+                switch (msg.type) {
                     // Connection messages
-                    case HELLO -> handleHello(jsonLine);
+                    case HELLO -> handleHello((Hello) msg);
                     case HEARTBEAT -> handleHeartbeat();
 
                     // Profile messages
-                    case SUBMIT_RESULT -> handleSubmitResult(jsonLine);
-                    case GET_PROFILE -> handleGetProfile(jsonLine);
+                    case SUBMIT_RESULT -> handleSubmitResult((SubmitResult) msg);
+                    case GET_PROFILE -> handleGetProfile((GetProfile) msg);
 
                     // PvP messages
-                    case QUEUE_FOR_MATCH -> handleQueueForMatch(jsonLine);
+                    case QUEUE_FOR_MATCH -> handleQueueForMatch((QueueForMatch) msg);
                     case CANCEL_QUEUE -> handleCancelQueue();
-                    case SUBMIT_LAYOUT -> handleSubmitLayout(jsonLine);
-                    case READY_STATE -> handleReadyState(jsonLine);
-                    case EXTEND_REQUEST -> handleExtendRequest(jsonLine);
-                    case INJECT -> handleInject(jsonLine);
+                    case SUBMIT_LAYOUT, READY_STATE, EXTEND_REQUEST, INJECT, TICK_ACK ->
+                            pvpManager.handlePlayerMessage(userId, msg);
 
-                    default -> sendError("UNKNOWN_MSG", "Unknown message type: " + baseMsg.type);
+                    default -> sendError("UNKNOWN_MSG", "Unknown message type: " + msg.type);
                 }
 
             } catch (Exception e) {
@@ -152,10 +246,27 @@ public class BlueprintHellServerExtended {
             }
         }
 
+        /* فقط پیام‌های پرتکرار کلاینت فیلدبه‌فیلد می‌آیند؛ بقیه JSON درون قاب‌اند */
+        private void handleFrame(byte[] frame) {
+            String json = BinaryCodec.jsonPayload(frame);
+            if (json != null) {
+                handleMessage(json);
+                return;
+            }
+            Message msg;
+            try {
+                msg = codec.decode(frame);
+            } catch (IllegalArgumentException e) {
+                System.err.println("Error handling frame: " + e.getMessage());
+                sendError("PARSE_ERROR", "Failed to decode frame");
+                return;
+            }
+            dispatch(msg);
+        }
+
         // === Connection Handlers ===
 
-        private void handleHello(String json) {
-            Hello hello = gson.fromJson(json, Hello.class);
+        private void handleHello(Hello hello) {
             this.userId = hello.userId;
 
             // Get username from profile
@@ -165,23 +276,29 @@ public class BlueprintHellServerExtended {
             // Register active client
             activeClients.put(userId, this);
 
-            // Send HelloAck
+            // Send HelloAck (always as a JSON line); switch framing first so the next frame parses
             HelloAck ack = new HelloAck(VERSION, MOTD);
+            boolean binary = BINARY_WIRE && hello.wireFormats != null
+                    && hello.wireFormats.contains(BinaryCodec.FORMAT);
+            if (binary) {
+                ack.wireFormat = BinaryCodec.FORMAT;
+                connection.useBinaryFraming();
+            }
             sendMessage(ack);
+            this.binary = binary;
 
             System.out.println("User connected: " + userId + " (" + username +
                     ") - client v" + hello.clientVersion);
         }
 
         private void handleHeartbeat() {
-            lastHeartbeat = System.currentTimeMillis();
+            heartbeatTimeout.touch();
             sendMessage(new HeartbeatAck());
         }
 
         // === Profile Handlers ===
 
-        private void handleSubmitResult(String json) {
-            SubmitResult submit = gson.fromJson(json, SubmitResult.class);
+        private void handleSubmitResult(SubmitResult submit) {
             GameResult result = submit.result;
 
             boolean success = profileManager.addResult(result.userId, result);
@@ -196,8 +313,7 @@ public class BlueprintHellServerExtended {
                     ", xp=" + result.xp + ")");
         }
 
-        private void handleGetProfile(String json) {
-            GetProfile request = gson.fromJson(json, GetProfile.class);
+        private void handleGetProfile(GetProfile request) {
             Profile profile = profileManager.getProfile(request.userId);
 
             if (profile != null) {
@@ -209,9 +325,7 @@ public class BlueprintHellServerExtended {
 
         // === PvP Handlers ===
 
-        private void handleQueueForMatch(String json) {
-            QueueForMatch queue = gson.fromJson(json, QueueForMatch.class);
-
+        private void handleQueueForMatch(QueueForMatch queue) {
             System.out.println("User " + username + " queued for PvP match");
             pvpManager.queuePlayer(userId, username);
         }
@@ -221,178 +335,38 @@ public class BlueprintHellServerExtended {
             pvpManager.cancelQueue(userId);
         }
 
-        private void handleSubmitLayout(String json) {
-            SubmitLayout layout = gson.fromJson(json, SubmitLayout.class);
-            pvpManager.handlePlayerMessage(userId, layout);
-        }
-
-        private void handleReadyState(String json) {
-            ReadyState ready = gson.fromJson(json, ReadyState.class);
-            pvpManager.handlePlayerMessage(userId, ready);
-        }
-
-        private void handleExtendRequest(String json) {
-            ExtendRequest extend = gson.fromJson(json, ExtendRequest.class);
-            pvpManager.handlePlayerMessage(userId, extend);
-        }
-
-        private void handleInject(String json) {
-            Inject inject = gson.fromJson(json, Inject.class);
-            pvpManager.handlePlayerMessage(userId, inject);
-        }
-
         // === Utility Methods ===
 
         public void sendMessage(Message msg) {
-            String json = gson.toJson(msg);
-            writer.println(json);
-            writer.flush();
+            send(new EncodedMessage(msg, gson, codec));
         }
 
-        private void sendError(String code, String msg) {
-            sendMessage(new ErrorMessage(code, msg));
+        /** Never blocks on the socket; may drop a superseded message for a client that is behind. */
+        public void send(EncodedMessage msg) {
+            connection.write(binary ? msg.frame() : msg.line(), isDroppable(msg.message.type));
         }
 
-        private void monitorHeartbeat() {
-            while (connected) {
-                try {
-                    Thread.sleep(2000);
-
-                    long timeSinceLastHeartbeat = System.currentTimeMillis() - lastHeartbeat;
-                    if (timeSinceLastHeartbeat > 6000) {
-                        System.out.println("Heartbeat timeout for user: " + username);
-                        disconnect();
-                        break;
-                    }
-
-                } catch (InterruptedException e) {
-                    break;
-                }
-            }
+        private void sendError(String code, String msg) {
+            sendMessage(new ErrorMessage(code, msg));
         }
 
         private void disconnect() {
-            connected = false;
+            // بدون synchronized: ترد مجازی وسط بستن سوکت pin نمی‌شود
+            if (!connected.compareAndSet(true, false)) return;
+            heartbeatTimeout.cancel();
 
             // Remove from PvP queue if queued
             if (userId != null) {
                 pvpManager.cancelQueue(userId);
-                activeClients.remove(userId);
+                activeClients.remove(userId, this);
             }
 
-            try {
-                socket.close();
-            } catch (IOException ignored) {}
+            connection.close();
 
             System.out.println("User disconnected: " + username);
         }
     }
 
-    /**
-     * Profile manager with PvP stats
-     */
-    private static class ProfileManager {
-        private final Path usersDir;
-        private final Gson gson;
-
-        public ProfileManager(Path usersDir) {
-            this.usersDir = usersDir;
-            this.gson = new GsonBuilder().setPrettyPrinting().create();
-        }
-
-        public Profile getProfile(String userId) {
-            Path userFile = usersDir.resolve(userId + ".json");
-
-            if (!Files.exists(userFile)) {
-                return createNewProfile(userId);
-            }
-
-            try {
-                String json = Files.readString(userFile);
-                return gson.fromJson(json, Profile.class);
-            } catch (IOException e) {
-                System.err.println("Failed to load profile: " + userId);
-                return null;
-            }
-        }
-
-        public boolean addResult(String userId, GameResult result) {
-            Profile profile = getProfile(userId);
-            if (profile == null) {
-                profile = createNewProfile(userId);
-            }
-
-            // Update XP
-            profile.xpTotal += result.xp;
-
-            // XP by mode
-            String modeKey = result.mode != null ? result.mode.toString() : "UNKNOWN";
-            profile.xpByMode.merge(modeKey, result.xp, Integer::sum);
-
-            // Best times (for single player)
-            if (result.mode != GameMode.MULTIPLAYER_PVP && result.durationMs > 0) {
-                profile.bestTimes.merge(result.level, result.durationMs, Math::min);
-            }
-
-            // PvP stats
-            if (result.mode == GameMode.MULTIPLAYER_PVP) {
-                if (result.isWinner) {
-                    profile.pvpWins++;
-                } else {
-                    profile.pvpLosses++;
-                }
-
-                // Simple rating system
-                int ratingChange = result.isWinner ? 25 : -20;
-                profile.pvpRating = Math.max(0, profile.pvpRating + ratingChange);
-            }
-
-            // Add to history
-            List<GameResult> history = new ArrayList<>();
-            if (profile.history != null) {
-                history.addAll(Arrays.asList(profile.history));
-            }
-            history.add(0, result);
-            if (history.size() > 20) {
-                history = history.subList(0, 20);
-            }
-            profile.history = history.toArray(new GameResult[0]);
-
-            return saveProfile(profile);
-        }
-
-        private Profile createNewProfile(String userId) {
-            Profile profile = new Profile();
-            profile.userId = userId;
-            profile.username = "Player_" + userId.substring(0, Math.min(8, userId.length()));
-            profile.xpTotal = 0;
-            profile.xpByMode = new HashMap<>();
-            profile.bestTimes = new HashMap<>();
-            profile.history = new GameResult[0];
-            profile.unlocks = new String[0];
-            profile.activePerk = "none";
-            profile.pvpWins = 0;
-            profile.pvpLosses = 0;
-            profile.pvpRating = 1000; // Starting rating
-
-            saveProfile(profile);
-            return profile;
-        }
-
-        private boolean saveProfile(Profile profile) {
-            Path userFile = usersDir.resolve(profile.userId + ".json");
-
-            try {
-                String json = gson.toJson(profile);
-                Files.writeString(userFile, json);
-                return true;
-            } catch (IOException e) {
-                System.err.println("Failed to save profile: " + profile.userId);
-                return false;
-            }
-        }
-    }
-
     public static void main(String[] args) {
         try {
             int port = args.length > 0 ? Integer.parseInt(args[0]) : PORT;
@@ -414,6 +388,11 @@ public class BlueprintHellServerExtended {
     public void shutdown() {
         running = false;
         pvpManager.shutdown();
+        heartbeats.stop();
+        if (transport != null) {
+            transport.shutdown();
+            return;
+        }
         try {
             serverSocket.close();
             clientExecutor.shutdown();
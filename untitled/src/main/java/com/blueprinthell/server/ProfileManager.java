@@ -0,0 +1,151 @@
+package com.blueprinthell.server;
+
+import com.blueprinthell.shared.protocol.NetworkProtocol.*;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * مدیریت پروفایل‌های کاربران، مشترک بین هر دو سرور
+ *
+ * <p>هر دسترسی به فایل یک کاربر (خواندن، ساختن پروفایل تازه، خواندن-تغییر-نوشتن) زیر قفل همان
+ * کاربر انجام می‌شود؛ ReentrantLock تا تردهای مجازی pin نشوند.
+ */
+final class ProfileManager {
+    private static final int MAX_HISTORY = 20;
+    private static final int STARTING_RATING = 1000;
+
+    private final Path usersDir;
+    private final Gson gson;
+
+    private final Map<String, ReentrantLock> locks = new ConcurrentHashMap<>();
+
+    ProfileManager(Path usersDir) {
+        this.usersDir = usersDir;
+        this.gson = new GsonBuilder().setPrettyPrinting().create();
+    }
+
+    private ReentrantLock lockFor(String userId) {
+        return locks.computeIfAbsent(userId, k -> new ReentrantLock());
+    }
+
+    public Profile getProfile(String userId) {
+        ReentrantLock lock = lockFor(userId);
+        lock.lock();
+        try {
+            return loadOrCreate(userId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean addResult(String userId, GameResult result) {
+        ReentrantLock lock = lockFor(userId);
+        lock.lock();
+        try {
+            Profile profile = loadOrCreate(userId);
+            if (profile == null) {
+                profile = createNewProfile(userId);
+            }
+            apply(profile, result);
+            return saveProfile(profile);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /* فقط زیر قفل کاربر */
+    private Profile loadOrCreate(String userId) {
+        Path userFile = usersDir.resolve(userId + ".json");
+
+        if (!Files.exists(userFile)) {
+            // ایجاد پروفایل جدید
+            return createNewProfile(userId);
+        }
+
+        try {
+            String json = Files.readString(userFile);
+            return gson.fromJson(json, Profile.class);
+        } catch (IOException e) {
+            System.err.println("Failed to load profile: " + userId);
+            return null;
+        }
+    }
+
+    private static void apply(Profile profile, GameResult result) {
+        // به‌روزرسانی XP
+        profile.xpTotal += result.xp;
+
+        // XP by mode
+        String modeKey = result.mode != null ? result.mode.toString() : "UNKNOWN";
+        profile.xpByMode.merge(modeKey, result.xp, Integer::sum);
+
+        // بهترین زمان (فقط تک‌نفره)
+        if (result.mode != GameMode.MULTIPLAYER_PVP && result.durationMs > 0) {
+            profile.bestTimes.merge(result.level, result.durationMs, Math::min);
+        }
+
+        // PvP stats
+        if (result.mode == GameMode.MULTIPLAYER_PVP) {
+            if (result.isWinner) {
+                profile.pvpWins++;
+            } else {
+                profile.pvpLosses++;
+            }
+
+            // Simple rating system
+            int ratingChange = result.isWinner ? 25 : -20;
+            profile.pvpRating = Math.max(0, profile.pvpRating + ratingChange);
+        }
+
+        // افزودن به تاریخچه (حداکثر 20 بازی آخر)
+        List<GameResult> history = new ArrayList<>();
+        if (profile.history != null) {
+            history.addAll(Arrays.asList(profile.history));
+        }
+        history.add(0, result); // اضافه در ابتدا
+        if (history.size() > MAX_HISTORY) {
+            history = history.subList(0, MAX_HISTORY);
+        }
+        profile.history = history.toArray(new GameResult[0]);
+    }
+
+    private Profile createNewProfile(String userId) {
+        Profile profile = new Profile();
+        profile.userId = userId;
+        profile.username = "Player_" + userId.substring(0, Math.min(8, userId.length()));
+        profile.xpTotal = 0;
+        profile.xpByMode = new HashMap<>();
+        profile.bestTimes = new HashMap<>();
+        profile.history = new GameResult[0];
+        profile.unlocks = new String[0];
+        profile.activePerk = "none";
+        profile.pvpWins = 0;
+        profile.pvpLosses = 0;
+        profile.pvpRating = STARTING_RATING;
+
+        saveProfile(profile);
+        return profile;
+    }
+
+    private boolean saveProfile(Profile profile) {
+        Path userFile = usersDir.resolve(profile.userId + ".json");
+
+        try {
+            // نوشتن در فایل موقت و جابه‌جایی اتمیک: خواننده هیچ‌وقت فایل نیمه‌نوشته نمی‌بیند
+            String json = gson.toJson(profile);
+            Path tmp = usersDir.resolve(profile.userId + ".json.tmp");
+            Files.writeString(tmp, json);
+            Files.move(tmp, userFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException e) {
+            System.err.println("Failed to save profile: " + profile.userId);
+            return false;
+        }
+    }
+}
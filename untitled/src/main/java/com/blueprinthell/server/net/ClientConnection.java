@@ -0,0 +1,47 @@
+package com.blueprinthell.server.net;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * یک اتصال کلاینت از دید منطق سرور: ارسال یک پیام خطی (JSON بدون newline) یا یک قاب دودویی،
+ * و بستن. پیاده‌سازی می‌تواند سوکت مسدودکننده یا کانال NIO باشد؛ هندلرها تفاوتی نمی‌بینند.
+ *
+ * <p>ارسال هیچ‌وقت ترد فراخواننده (مثلاً ترد tick مسابقه) را روی سوکت نگه نمی‌دارد: بایت‌ها در
+ * صف محدود اتصال می‌نشینند و ترد نویسندهٔ خود اتصال آن‌ها را دسته‌ای می‌نویسد.
+ */
+public interface ClientConnection {
+
+    /**
+     * Queues pre-encoded bytes in a heap buffer: a JSON line including its '\n', or a complete frame. The bytes
+     * may be shared with other connections and are never modified. A {@code droppable} message is
+     * discarded when the client is already behind; a message that would overflow the outbound
+     * queue closes the connection as a slow consumer. Safe to call from any thread.
+     *
+     * @return false if the message was dropped or the connection is closed
+     */
+    boolean write(ByteBuffer bytes, boolean droppable);
+
+    /** Queues one newline-framed message. Safe to call from any thread. */
+    default void send(String line) {
+        write(ByteBuffer.wrap((line + "\n").getBytes(StandardCharsets.UTF_8)), false);
+    }
+
+    /** Queues one pre-encoded binary frame (length prefix included). Safe to call from any thread. */
+    default void sendFrame(byte[] frame) {
+        write(ByteBuffer.wrap(frame), false);
+    }
+
+    /**
+     * Switches inbound framing from lines to length-prefixed frames. Call from the message
+     * handler that negotiated it (HELLO), before acknowledging, so the next byte is read as a frame.
+     */
+    void useBinaryFraming();
+
+    /** Closes the connection; idempotent. */
+    void close();
+
+    boolean isOpen();
+
+    String remoteAddress();
+}
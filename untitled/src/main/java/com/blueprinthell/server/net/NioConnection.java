@@ -0,0 +1,271 @@
+package com.blueprinthell.server.net;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * یک اتصال non-blocking. خواندن و نوشتن فقط روی ترد I/O مالکش انجام می‌شود؛ {@link #write}
+ * از هر تردی فقط بایت‌ها را صف می‌کند و ترد I/O را برای نوشتن بیدار می‌کند.
+ *
+ * <p>خواندن در بافر مشترک حلقهٔ I/O انجام می‌شود؛ اتصال فقط بایت‌های خط یا قاب ناتمام را نگه می‌دارد،
+ * پس هزاران اتصال بیکار تقریباً حافظه‌ای نمی‌گیرند.
+ *
+ * <p>قاب‌بندی پیش‌فرض همان پروتکل خطی است: بایت‌ها تا '\n' در یک بافر قابل‌رشد جمع می‌شوند
+ * (بدون BufferedReader) و هر خط کامل در صندوق ورودی اتصال قرار می‌گیرد تا کارگر پردازشش کند.
+ * بعد از {@link #useBinaryFraming()} همان بافر بدنهٔ قاب‌های varint-طول‌دار را جمع می‌کند.
+ *
+ * <p>نوشتن: صف خروجی محدود است ({@link OutboundQueue}) و ترد I/O هر بار تا {@code WRITE_BATCH}
+ * بافر را با یک gathering write (یک syscall) روی کانال می‌فرستد.
+ */
+public class NioConnection implements ClientConnection {
+    static final int READ_BUFFER_BYTES = 16 * 1024;
+    private static final int INITIAL_LINE_BYTES = 256;
+    /* بعد از یک پیام بزرگ، بافر خط بزرگ‌تر از این به اندازهٔ اولیه برمی‌گردد */
+    private static final int RETAINED_LINE_BYTES = 16 * 1024;
+    /* بزرگ‌ترین پیام مجاز (مثلاً SUBMIT_LAYOUT بزرگ)؛ خط بلندتر یعنی کلاینت خراب */
+    private static final int MAX_LINE_BYTES = 4 * 1024 * 1024;
+    private static final int WRITE_BATCH = 64;
+
+    private final SocketChannel channel;
+    private final NioTransport.IoLoop loop;
+    private final NioTransport transport;
+    private final String remote;
+    private volatile SelectionKey key;
+
+    /* فقط روی ترد I/O */
+    private byte[] line = new byte[INITIAL_LINE_BYTES];
+    private int lineLength;
+    private int frameLength = -1;       // -1: در حال خواندن varint طول
+    private int pendingLength, lengthShift;
+    private volatile boolean binary;
+
+    private final OutboundQueue outbound = new OutboundQueue();
+    private final AtomicBoolean writeArmed = new AtomicBoolean();
+    /* فقط روی ترد I/O: دسته‌ای که هنوز کامل روی سوکت نرفته */
+    private final ByteBuffer[] batch = new ByteBuffer[WRITE_BATCH];
+    private int batchStart, batchEnd;
+
+    /* خط‌ها (String) یا قاب‌های (byte[]) کامل در انتظار کارگر؛ draining تضمین می‌کند فقط یک کارگر هم‌زمان پردازش کند */
+    private final Queue<Object> inbox = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private volatile Object attachment;
+
+    NioConnection(SocketChannel channel, NioTransport.IoLoop loop, NioTransport transport) {
+        this.channel = channel;
+        this.loop = loop;
+        this.transport = transport;
+        String r;
+        try {
+            r = String.valueOf(channel.getRemoteAddress());
+        } catch (IOException e) {
+            r = "unknown";
+        }
+        this.remote = r;
+    }
+
+    SocketChannel channel() { return channel; }
+
+    void attachKey(SelectionKey key) { this.key = key; }
+
+    /** Per-connection state owned by the server (its client handler). */
+    public Object attachment() { return attachment; }
+    public void attach(Object o) { this.attachment = o; }
+
+    /* ---------- read path (I/O thread) ---------- */
+
+    void onReadable() {
+        ByteBuffer readBuffer = loop.readBuffer;
+        int n;
+        try {
+            n = channel.read(readBuffer);
+        } catch (IOException e) {
+            close();
+            return;
+        }
+        if (n < 0) {
+            close();
+            return;
+        }
+        readBuffer.flip();
+        boolean any = binary ? readFrames(readBuffer) : readLines(readBuffer);
+        readBuffer.clear();
+        if (any) scheduleDrain();
+    }
+
+    private boolean readLines(ByteBuffer readBuffer) {
+        boolean any = false;
+        while (readBuffer.hasRemaining()) {
+            byte b = readBuffer.get();
+            if (b == '\n') {
+                int len = lineLength;
+                if (len > 0 && line[len - 1] == '\r') len--;
+                if (len > 0) {
+                    inbox.add(new String(line, 0, len, StandardCharsets.UTF_8));
+                    any = true;
+                }
+                lineLength = 0;
+                if (line.length > RETAINED_LINE_BYTES) line = new byte[INITIAL_LINE_BYTES];
+            } else {
+                if (lineLength == line.length) {
+                    if (lineLength >= MAX_LINE_BYTES) {
+                        System.err.println("Message too long from " + remote + "; closing");
+                        close();
+                        return false;
+                    }
+                    line = Arrays.copyOf(line, Math.min(MAX_LINE_BYTES, line.length * 2));
+                }
+                line[lineLength++] = b;
+            }
+        }
+        return any;
+    }
+
+    private boolean readFrames(ByteBuffer readBuffer) {
+        boolean any = false;
+        while (readBuffer.hasRemaining()) {
+            if (frameLength < 0) {
+                byte b = readBuffer.get();
+                pendingLength |= (b & 0x7F) << lengthShift;
+                if ((b & 0x80) != 0) {
+                    lengthShift += 7;
+                    if (lengthShift > 28) {
+                        close();
+                        return false;
+                    }
+                    continue;
+                }
+                frameLength = pendingLength;
+                pendingLength = 0;
+                lengthShift = 0;
+                if (frameLength < 0 || frameLength > MAX_LINE_BYTES) {
+                    System.err.println("Frame too long from " + remote + "; closing");
+                    close();
+                    return false;
+                }
+                if (line.length < frameLength) line = new byte[frameLength];
+                lineLength = 0;
+            }
+            int n = Math.min(readBuffer.remaining(), frameLength - lineLength);
+            readBuffer.get(line, lineLength, n);
+            lineLength += n;
+            if (lineLength == frameLength) {
+                inbox.add(Arrays.copyOf(line, frameLength));
+                any = true;
+                frameLength = -1;
+                lineLength = 0;
+                if (line.length > RETAINED_LINE_BYTES) line = new byte[INITIAL_LINE_BYTES];
+            }
+        }
+        return any;
+    }
+
+    private void scheduleDrain() {
+        if (draining.compareAndSet(false, true)) transport.dispatch(this);
+    }
+
+    /* روی کارگر: پیام‌ها به ترتیب رسیدن */
+    void drainInbox() {
+        while (true) {
+            Object msg;
+            while ((msg = inbox.poll()) != null) {
+                if (closed.get()) {
+                    inbox.clear();
+                    break;
+                }
+                try {
+                    transport.deliver(this, msg);
+                } catch (RuntimeException e) {
+                    System.err.println("Error handling message from " + remote + ": " + e.getMessage());
+                }
+            }
+            draining.set(false);
+            // خطی که بین poll آخر و set(false) رسیده را از دست نده
+            if (inbox.isEmpty() || !draining.compareAndSet(false, true)) return;
+        }
+    }
+
+    /* ---------- write path ---------- */
+
+    @Override
+    public boolean write(ByteBuffer bytes, boolean droppable) {
+        if (closed.get()) return false;
+        switch (outbound.offer(bytes, droppable)) {
+            case DROPPED -> { return false; }
+            case OVERFLOW -> {
+                System.err.println("Slow consumer " + remote + ": " + outbound.queuedBytes() + " bytes queued, "
+                        + outbound.droppedMessages() + " dropped; closing");
+                close();
+                return false;
+            }
+            default -> {}
+        }
+        if (writeArmed.compareAndSet(false, true)) {
+            loop.execute(this::armWrite);
+        }
+        return true;
+    }
+
+    /* ترد I/O پرچم را در خواندن بعدی می‌بیند؛ کلاینت تا HELLO_ACK چیزی نمی‌فرستد */
+    @Override
+    public void useBinaryFraming() { binary = true; }
+
+    private void armWrite() {
+        if (key == null || !key.isValid()) return;
+        // مستقیم بنویس؛ فقط اگر سوکت پر بود منتظر OP_WRITE بمان
+        onWritable();
+    }
+
+    void onWritable() {
+        try {
+            while (true) {
+                if (batchStart == batchEnd) {
+                    batchStart = 0;
+                    batchEnd = outbound.drainTo(batch);
+                    if (batchEnd == 0) break;
+                }
+                channel.write(batch, batchStart, batchEnd - batchStart);
+                while (batchStart < batchEnd && !batch[batchStart].hasRemaining()) batch[batchStart++] = null;
+                if (batchStart < batchEnd) {
+                    key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            close();
+            return;
+        }
+        key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+        writeArmed.set(false);
+        if (!outbound.isEmpty() && writeArmed.compareAndSet(false, true)) onWritable();
+    }
+
+    /* ---------- lifecycle ---------- */
+
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) return;
+        Runnable doClose = () -> {
+            if (key != null) key.cancel();
+            try { channel.close(); } catch (IOException ignored) {}
+            outbound.clear();
+        };
+        if (loop.inLoop()) doClose.run();
+        else loop.execute(doClose);
+        if (key != null) transport.closed(this);
+    }
+
+    @Override
+    public boolean isOpen() { return !closed.get(); }
+
+    @Override
+    public String remoteAddress() { return remote; }
+}
@@ -0,0 +1,177 @@
+package com.blueprinthell.server.net;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * لایهٔ انتقال رویدادمحور: یک ترد پذیرش، چند ترد I/O هر کدام با Selector خودش و کانال‌های
+ * non-blocking، و یک pool کارگر برای پردازش پیام‌ها. هیچ ترد به ازای هر کلاینت ساخته نمی‌شود،
+ * پس هزاران اتصال بیکار فقط حافظهٔ بافرشان را می‌گیرند.
+ *
+ * <p>ترد I/O فقط خواندن/نوشتن و جداکردن خط‌ها (یا قاب‌ها) را انجام می‌دهد؛ هر پیام کامل به pool کارگر
+ * سپرده می‌شود و پیام‌های یک اتصال همیشه به ترتیب و یکی‌یکی پردازش می‌شوند.
+ */
+public class NioTransport {
+
+    /** Callbacks from the transport; messages run on a worker, never on an I/O thread. */
+    public interface Handler {
+        void onOpen(NioConnection connection);
+        void onMessage(NioConnection connection, String line);
+        /** A binary frame body (length prefix stripped), after {@link NioConnection#useBinaryFraming()}. */
+        void onFrame(NioConnection connection, byte[] frame);
+        void onClose(NioConnection connection);
+    }
+
+    private final ServerSocketChannel server;
+    private final IoLoop[] loops;
+    private final ExecutorService workers;
+    private final Handler handler;
+    private final AtomicInteger nextLoop = new AtomicInteger();
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private volatile boolean running;
+
+    public NioTransport(int port, int ioThreads, int workerThreads, Handler handler) throws IOException {
+        this.handler = handler;
+        this.server = ServerSocketChannel.open();
+        server.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+        server.bind(new InetSocketAddress(port), 1024);
+        server.configureBlocking(true); // پذیرش روی ترد خودش؛ Selectorها فقط برای خواندن/نوشتن
+
+        AtomicInteger workerId = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(Math.max(1, workerThreads), r -> {
+            Thread t = new Thread(r, "nio-worker-" + workerId.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.loops = new IoLoop[Math.max(1, ioThreads)];
+        for (int i = 0; i < loops.length; i++) loops[i] = new IoLoop(i);
+    }
+
+    /** Runs the accept loop on the calling thread until {@link #shutdown()}. */
+    public void start() {
+        running = true;
+        for (IoLoop loop : loops) loop.thread.start();
+        while (running) {
+            try {
+                SocketChannel ch = server.accept();
+                ch.configureBlocking(false);
+                ch.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                IoLoop loop = loops[Math.floorMod(nextLoop.getAndIncrement(), loops.length)];
+                loop.register(new NioConnection(ch, loop, this));
+            } catch (IOException e) {
+                if (!running) break;
+                System.err.println("Error accepting connection: " + e.getMessage());
+            }
+        }
+    }
+
+    public int getOpenConnections() { return openConnections.get(); }
+
+    public void shutdown() {
+        running = false;
+        try { server.close(); } catch (IOException ignored) {}
+        for (IoLoop loop : loops) loop.stop();
+        workers.shutdown();
+    }
+
+    /* ---------- callbacks from connections ---------- */
+
+    void dispatch(NioConnection c) {
+        workers.execute(c::drainInbox);
+    }
+
+    void deliver(NioConnection c, Object msg) {
+        if (msg instanceof String line) handler.onMessage(c, line);
+        else handler.onFrame(c, (byte[]) msg);
+    }
+
+    void closed(NioConnection c) {
+        openConnections.decrementAndGet();
+        try {
+            workers.execute(() -> handler.onClose(c));
+        } catch (RejectedExecutionException e) {
+            handler.onClose(c); // در حال خاموشی
+        }
+    }
+
+    /**
+     * One selector thread. Other threads never touch its keys directly: they queue a task and
+     * wake the selector, and the loop applies it between selects.
+     */
+    final class IoLoop implements Runnable {
+        private final Selector selector;
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        final Thread thread;
+        /* بافر خواندن مشترک همهٔ اتصال‌های این حلقه؛ هر اتصال فقط بایت‌های خط/قاب ناتمامش را نگه می‌دارد */
+        final ByteBuffer readBuffer = ByteBuffer.allocate(NioConnection.READ_BUFFER_BYTES);
+
+        IoLoop(int index) throws IOException {
+            this.selector = Selector.open();
+            this.thread = new Thread(this, "nio-io-" + index);
+            thread.setDaemon(true);
+        }
+
+        void register(NioConnection c) {
+            execute(() -> {
+                try {
+                    SelectionKey key = c.channel().register(selector, SelectionKey.OP_READ, c);
+                    c.attachKey(key);
+                    openConnections.incrementAndGet();
+                    handler.onOpen(c);
+                } catch (IOException e) {
+                    c.close();
+                }
+            });
+        }
+
+        void execute(Runnable task) {
+            tasks.add(task);
+            if (Thread.currentThread() != thread) selector.wakeup();
+        }
+
+        boolean inLoop() { return Thread.currentThread() == thread; }
+
+        @Override
+        public void run() {
+            while (running) {
+                try {
+                    selector.select();
+                    Runnable task;
+                    while ((task = tasks.poll()) != null) task.run();
+
+                    Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                    while (it.hasNext()) {
+                        SelectionKey key = it.next();
+                        it.remove();
+                        NioConnection c = (NioConnection) key.attachment();
+                        if (!key.isValid()) continue;
+                        if (key.isReadable()) c.onReadable();
+                        if (key.isValid() && key.isWritable()) c.onWritable();
+                    }
+                } catch (ClosedSelectorException e) {
+                    break;
+                } catch (IOException e) {
+                    System.err.println("I/O loop error: " + e.getMessage());
+                }
+            }
+        }
+
+        void stop() {
+            execute(() -> {
+                for (SelectionKey key : selector.keys()) {
+                    if (key.attachment() instanceof NioConnection c) c.close();
+                }
+            });
+            selector.wakeup();
+            try { thread.join(500); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+            try { selector.close(); } catch (IOException ignored) {}
+        }
+    }
+}
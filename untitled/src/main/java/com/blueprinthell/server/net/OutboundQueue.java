@@ -0,0 +1,59 @@
+package com.blueprinthell.server.net;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * صف خروجی محدود یک اتصال: هر تردی بافر اضافه می‌کند و ترد نویسندهٔ همان اتصال دسته‌دسته
+ * برمی‌دارد. حجم صف بر حسب بایت شمرده می‌شود؛ بالای {@link #SOFT_LIMIT_BYTES} پیام‌های
+ * قابل‌حذف (مثل TICK که بعدی جایش را می‌گیرد) دور ریخته می‌شوند و بالای {@link #HARD_LIMIT_BYTES}
+ * کلاینت «کند» شمرده می‌شود و اتصال باید بسته شود، به جای اینکه حافظه یا ترد مسابقه گیر کند.
+ */
+final class OutboundQueue {
+    static final long SOFT_LIMIT_BYTES = 256 * 1024;
+    static final long HARD_LIMIT_BYTES = 1024 * 1024;
+
+    enum Result { QUEUED, DROPPED, OVERFLOW }
+
+    private final Queue<ByteBuffer> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicLong queuedBytes = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    Result offer(ByteBuffer buf, boolean droppable) {
+        long queued = queuedBytes.get();
+        if (droppable && queued >= SOFT_LIMIT_BYTES) {
+            dropped.incrementAndGet();
+            return Result.DROPPED;
+        }
+        if (queued + buf.remaining() > HARD_LIMIT_BYTES) return Result.OVERFLOW;
+        queuedBytes.addAndGet(buf.remaining());
+        queue.add(buf);
+        return Result.QUEUED;
+    }
+
+    /** Moves up to {@code batch.length} buffers into {@code batch[0..]}; returns how many. */
+    int drainTo(ByteBuffer[] batch) {
+        int n = 0;
+        long bytes = 0;
+        ByteBuffer buf;
+        while (n < batch.length && (buf = queue.poll()) != null) {
+            bytes += buf.remaining();
+            batch[n++] = buf;
+        }
+        if (bytes > 0) queuedBytes.addAndGet(-bytes);
+        return n;
+    }
+
+    boolean isEmpty() { return queue.isEmpty(); }
+
+    long queuedBytes() { return queuedBytes.get(); }
+
+    long droppedMessages() { return dropped.get(); }
+
+    void clear() {
+        queue.clear();
+        queuedBytes.set(0);
+    }
+}
@@ -0,0 +1,26 @@
+package com.blueprinthell.server.net;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * تردهای اتصال در حالت‌های مسدودکننده: پلتفرمی (pool کش‌شده، حالت قدیمی) یا مجازی (Java 21+).
+ * با تردهای مجازی هر اتصال همان کد ساده و مسدودکننده را اجرا می‌کند ولی تا وقتی منتظر I/O است
+ * ترد حامل (carrier) را آزاد می‌گذارد؛ به شرط اینکه وسط I/O قفل {@code synchronized} نگه ندارد.
+ */
+public final class ServerThreads {
+    private ServerThreads() {}
+
+    /** One thread per submitted connection task. */
+    public static ExecutorService perConnectionExecutor(boolean virtual) {
+        return virtual ? Executors.newVirtualThreadPerTaskExecutor() : Executors.newCachedThreadPool();
+    }
+
+    /** Starts a single thread of the requested kind (e.g. a benchmark client). */
+    public static Thread start(String name, boolean virtual, Runnable task) {
+        if (virtual) return Thread.ofVirtual().name(name).start(task);
+        Thread t = new Thread(task, name);
+        t.start();
+        return t;
+    }
+}
@@ -0,0 +1,116 @@
+package com.blueprinthell.server.net;
+
+import com.blueprinthell.shared.protocol.BinaryCodec;
+
+import java.io.*;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * اتصال مسدودکننده روی {@link Socket}: یک ترد (از pool) خط‌ها یا قاب‌ها را می‌خواند. حالت قدیمی
+ * سرور؛ در کنار {@link NioTransport} نگه داشته شده است. خواندن بدون BufferedReader است تا بعد از
+ * HELLO بتوان وسط جریان به قاب دودویی رفت.
+ *
+ * <p>ارسال فقط صف می‌کند ({@link OutboundQueue})؛ وقتی صف خالی نیست یک ترد از {@code writers}
+ * همهٔ بافرهای موجود را می‌نویسد و برای کل دسته یک بار flush می‌کند، پس ترد فرستنده روی سوکت
+ * کند نمی‌ماند.
+ */
+public class SocketConnection implements ClientConnection {
+    private static final int WRITE_BATCH = 64;
+
+    private final Socket socket;
+    private final InputStream in;
+    private final OutputStream out;
+    private final Executor writers;
+    private final OutboundQueue outbound = new OutboundQueue();
+    /* حداکثر یک نویسنده در هر لحظه؛ مثل draining در NioConnection */
+    private final AtomicBoolean writing = new AtomicBoolean();
+    private volatile boolean open = true;
+    private volatile boolean binary;
+
+    public SocketConnection(Socket socket, Executor writers) throws IOException {
+        this.socket = socket;
+        this.writers = writers;
+        this.in = new BufferedInputStream(socket.getInputStream());
+        this.out = new BufferedOutputStream(socket.getOutputStream(), 16 * 1024);
+    }
+
+    /**
+     * Reads until EOF or {@link #close()}, passing each line to {@code onLine} and, after
+     * {@link #useBinaryFraming()}, each frame body to {@code onFrame}.
+     */
+    public void read(Consumer<String> onLine, Consumer<byte[]> onFrame) throws IOException {
+        while (open) {
+            if (binary) {
+                byte[] frame = BinaryCodec.readFrame(in);
+                if (frame == null) return;
+                onFrame.accept(frame);
+            } else {
+                String line = BinaryCodec.readLine(in);
+                if (line == null) return;
+                if (!line.isEmpty()) onLine.accept(line);
+            }
+        }
+    }
+
+    @Override
+    public boolean write(ByteBuffer bytes, boolean droppable) {
+        if (!open) return false;
+        switch (outbound.offer(bytes, droppable)) {
+            case DROPPED -> { return false; }
+            case OVERFLOW -> {
+                System.err.println("Slow consumer " + remoteAddress() + ": " + outbound.queuedBytes()
+                        + " bytes queued, " + outbound.droppedMessages() + " dropped; closing");
+                close();
+                return false;
+            }
+            default -> {}
+        }
+        if (writing.compareAndSet(false, true)) writers.execute(this::drain);
+        return true;
+    }
+
+    /* روی ترد نویسنده: تا خالی شدن صف، هر دسته با یک flush */
+    private void drain() {
+        ByteBuffer[] batch = new ByteBuffer[WRITE_BATCH];
+        try {
+            while (true) {
+                int n;
+                while ((n = outbound.drainTo(batch)) > 0) {
+                    for (int i = 0; i < n; i++) {
+                        ByteBuffer buf = batch[i];
+                        out.write(buf.array(), buf.arrayOffset() + buf.position(), buf.remaining());
+                        batch[i] = null;
+                    }
+                    out.flush();
+                }
+                writing.set(false);
+                // بافری که بین drain آخر و set(false) رسیده را از دست نده
+                if (outbound.isEmpty() || !writing.compareAndSet(false, true)) return;
+            }
+        } catch (IOException e) {
+            close();
+        }
+    }
+
+    @Override
+    public void useBinaryFraming() { binary = true; }
+
+    @Override
+    public void close() {
+        open = false;
+        outbound.clear();
+        try {
+            socket.close();
+        } catch (IOException ignored) {}
+    }
+
+    @Override
+    public boolean isOpen() { return open && !socket.isClosed(); }
+
+    @Override
+    public String remoteAddress() { return String.valueOf(socket.getInetAddress()); }
+}
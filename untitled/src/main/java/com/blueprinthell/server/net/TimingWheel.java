@@ -0,0 +1,140 @@
+package com.blueprinthell.server.net;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * چرخ زمان‌بندی درهم (hashed timing wheel) برای مهلت‌های اتصال، مثل timeout ضربان.
+ *
+ * <p>یک ترد برای کل سرور هر {@code tickMs} یک خانه از چرخ جلو می‌رود و فقط مهلت‌های همان خانه
+ * را بررسی می‌کند. تمدید مهلت ({@link Timeout#touch()}) فقط یک نوشتن volatile است و به چرخ دست
+ * نمی‌زند: وقتی خانهٔ قدیمی سر می‌رسد، مهلتِ جلو رفته به خانهٔ جدیدش منتقل می‌شود. مهلت‌های
+ * منقضی‌شدهٔ هر tick یک‌جا به {@code onExpired} داده می‌شوند.
+ *
+ * @param <T> صاحب مهلت (مثلاً هندلر کلاینت)
+ */
+public final class TimingWheel<T> {
+
+    /** One scheduled deadline. {@link #touch()} and {@link #cancel()} are safe from any thread. */
+    public final class Timeout {
+        private final T owner;
+        private final long timeoutMs;
+        private volatile long deadline;
+        private volatile boolean cancelled;
+        private long dueTick;   // فقط ترد چرخ
+
+        private Timeout(T owner, long timeoutMs) {
+            this.owner = owner;
+            this.timeoutMs = timeoutMs;
+            this.deadline = now() + timeoutMs;
+        }
+
+        /** Re-arms the full timeout from now; O(1), never touches the wheel. */
+        public void touch() { deadline = now() + timeoutMs; }
+
+        /** The entry is dropped lazily when its slot next comes round. */
+        public void cancel() { cancelled = true; }
+    }
+
+    private final long tickMs;
+    private final int mask;
+    private final ArrayDeque<Timeout>[] buckets;
+    private ArrayDeque<Timeout> spare = new ArrayDeque<>();
+    private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+    private final Consumer<List<T>> onExpired;
+    private final long startMs;
+    private final Thread thread;
+    private long tick;          // فقط ترد چرخ
+    private volatile boolean running = true;
+
+    /**
+     * @param wheelSize number of slots, rounded up to a power of two; {@code tickMs * wheelSize}
+     *                  should exceed the usual timeout so entries rarely wait a full extra round
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public TimingWheel(String name, long tickMs, int wheelSize, Consumer<List<T>> onExpired) {
+        this.tickMs = Math.max(1, tickMs);
+        int size = Integer.highestOneBit(Math.max(2, wheelSize) - 1) << 1;
+        this.mask = size - 1;
+        this.buckets = new ArrayDeque[size];
+        for (int i = 0; i < size; i++) buckets[i] = new ArrayDeque<>();
+        this.onExpired = onExpired;
+        this.startMs = now();
+        this.thread = new Thread(this::run, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /** Schedules {@code owner} to expire after {@code timeoutMs} unless touched or cancelled. */
+    public Timeout schedule(T owner, long timeoutMs) {
+        Timeout t = new Timeout(owner, timeoutMs);
+        pending.add(t);
+        return t;
+    }
+
+    public void stop() {
+        running = false;
+        thread.interrupt();
+    }
+
+    private static long now() { return System.nanoTime() / 1_000_000L; }
+
+    private void run() {
+        while (running) {
+            // زمان هدف از شروع چرخ حساب می‌شود تا خطای sleep انباشته نشود؛ اگر عقب افتادیم بی‌وقفه جبران می‌کنیم
+            long sleep = startMs + (tick + 1) * tickMs - now();
+            if (sleep > 0) {
+                try {
+                    Thread.sleep(sleep);
+                } catch (InterruptedException e) {
+                    break;
+                }
+            }
+            tick++;
+            Timeout t;
+            while ((t = pending.poll()) != null) {
+                if (!t.cancelled) place(t, tick);
+            }
+            expire(now());
+        }
+    }
+
+    private void place(Timeout t, long earliest) {
+        long due = Math.floorDiv(t.deadline - startMs + tickMs - 1, tickMs);
+        t.dueTick = Math.max(earliest, due);
+        buckets[(int) (t.dueTick & mask)].add(t);
+    }
+
+    private void expire(long now) {
+        int idx = (int) (tick & mask);
+        ArrayDeque<Timeout> slot = buckets[idx];
+        buckets[idx] = spare;
+
+        List<T> expired = null;
+        for (Timeout t : slot) {
+            if (t.cancelled) continue;
+            if (t.dueTick > tick) {
+                buckets[idx].add(t);            // دور بعدی چرخ
+            } else if (t.deadline > now) {
+                place(t, tick + 1);             // در این فاصله تمدید شده
+            } else {
+                if (expired == null) expired = new ArrayList<>();
+                expired.add(t.owner);
+            }
+        }
+        slot.clear();
+        spare = slot;
+
+        if (expired != null) {
+            try {
+                onExpired.accept(expired);
+            } catch (RuntimeException e) {
+                System.err.println("Timeout handler error: " + e.getMessage());
+            }
+        }
+    }
+}
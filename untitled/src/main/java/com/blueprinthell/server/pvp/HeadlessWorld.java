@@ -0,0 +1,331 @@
+package com.blueprinthell.server.pvp;
+
+import com.blueprinthell.config.Config;
+import com.blueprinthell.controller.gameplay.ConfidentialThrottleController;
+import com.blueprinthell.controller.packet.PacketConsumerController;
+import com.blueprinthell.controller.packet.PacketDispatcherController;
+import com.blueprinthell.controller.packet.PacketRouterController;
+import com.blueprinthell.controller.physics.CollisionController;
+import com.blueprinthell.controller.simulation.SimulationController;
+import com.blueprinthell.controller.simulation.SimulationRegistrar;
+import com.blueprinthell.controller.simulation.WorldSeed;
+import com.blueprinthell.controller.systems.BehaviorRegistry;
+import com.blueprinthell.controller.systems.SystemKind;
+import com.blueprinthell.controller.wire.WireDurabilityController;
+import com.blueprinthell.controller.wire.WireTimeoutController;
+import com.blueprinthell.model.*;
+import com.blueprinthell.model.large.LargeGroupRegistry;
+import com.blueprinthell.motion.MotionStrategyFactory;
+import com.blueprinthell.shared.protocol.NetworkProtocol.SubmitLayout;
+import com.blueprinthell.shared.protocol.NetworkProtocol.SystemLayout;
+import com.blueprinthell.shared.protocol.NetworkProtocol.WireLayout;
+
+import java.awt.Point;
+import java.util.*;
+
+/**
+ * شبکهٔ یک بازیکن روی هستهٔ واقعی شبیه‌سازی، بدون UI.
+ *
+ * <p>چیدمان ارسالی ({@link SubmitLayout}) به همان مدل‌های بازی ساخته می‌شود: {@link SystemBoxModel} با
+ * پورت‌هایش، {@link WireModel} با {@link WirePath} واقعی (پس طول سیم همان است که کلاینت می‌بیند). همان
+ * کنترلرهایی که {@link SimulationRegistrar} در بازی ثبت می‌کند، به همان ترتیب، روی یک
+ * {@link SimulationController} اختصاصی این دنیا ثبت می‌شوند: dispatcher، رفتارهای هر نوع سیستم، router ها،
+ * مصرف‌کنندهٔ sink، کنترلرهای سیم و {@link CollisionController}. تایمر Swing هیچ‌وقت روشن نمی‌شود؛
+ * {@link #advance} گام‌های ثابت را دستی می‌زند.
+ *
+ * <p>جداسازی: هر دنیا مدل‌ها، loss/coin، رجیستری‌ها و کنترلرهای خودش را دارد، و یک {@link WorldSeed}
+ * اختصاصی که router ها، رفتارها و استراتژی حرکت از آن می‌کشند؛ پس از {@link WorldSeed#random} سراسری چیزی
+ * برنمی‌دارد، در آن کلیدی نمی‌گذارد و جریان‌هایش با پایان مسابقه همراه دنیا جمع می‌شوند. کنترلر ایستای
+ * {@link WireModel#getSimulationController()} عمداً نصب نمی‌شود؛ آن فقط producer بازی تک‌نفره را خبر می‌کند.
+ * شبیه‌سازی هم بدون {@link com.blueprinthell.controller.simulation.InputEventLog} ساخته می‌شود، پس گام‌ها
+ * نه روی قفل لاگ سراسری می‌ایستند و نه replay بازی تک‌نفره روی آن اعمال می‌شود.
+ * جدول‌های کناری سراسری (پروفایل حرکت، ردگیری پورت ورود، صف تلپورت، ...) کلیدشان پکت یا باکسِ خود دنیاست
+ * و هم‌زمانی‌شان امن است.
+ * فقط از ترد tick مسابقه لمس شود، جز {@link #boxIndex} که بعد از ساخت فقط‌خواندنی است.
+ *
+ * <p>هزینه: پکت‌ها عمداً آرایه‌های primitive بدون تخصیص نیستند؛ هر spawn یک {@link PacketModel} می‌سازد و
+ * هستهٔ مشترک (برخورد، رفتارها، dispatcher) هنوز در هر گام چند کیلوبایت تخصیص می‌دهد. اندازه‌گیری روی یک
+ * هسته حدود ۱۴ KB و ۶۰ µs در هر گام است، در برابر ~۰.۱ µs و صفر تخصیص برای یک مدل struct-of-arrays جدا؛
+ * این هزینه برای یکی‌بودن قوانین بازی با کلاینت پذیرفته شده است. لبهٔ سرور همچنان با اندیس‌های عددی کار
+ * می‌کند: {@link #boxIndex} و اندیس سیم در {@link #forEachPacket}، و رشته‌ها فقط از {@link #wireId}.
+ */
+final class HeadlessWorld {
+
+    /* جریان‌های تصادفی خود این دنیا؛ با خود دنیا دور ریخته می‌شوند */
+    private final WorldSeed seed;
+    private final Random motionRnd;
+    private final SimulationController simulation;
+    private final double stepSeconds;
+
+    private final List<SystemBoxModel> boxes = new ArrayList<>();
+    // dispatcher و durability سیم فرسوده را بعد از پیمایششان حذف می‌کنند، پس ArrayList کافی است
+    private final List<WireModel> wires = new ArrayList<>();
+    private final Map<WireModel, SystemBoxModel> destMap = new HashMap<>();
+    /* شناسهٔ عددی هر سیم = ترتیب ساخته‌شدنش؛ شناسهٔ رشته‌ای چیدمان فقط از wireId */
+    private final Map<WireModel, Integer> wireIndex = new IdentityHashMap<>();
+    private final List<String> wireIds = new ArrayList<>();
+    private final Map<String, Integer> boxIndexById = new HashMap<>();
+
+    private final PacketLossModel lossModel = new PacketLossModel();
+    private final ScoreModel scoreModel = new ScoreModel();
+    private final CoinModel coinModel = new CoinModel();
+    private final LargeGroupRegistry largeGroupRegistry = new LargeGroupRegistry();
+    private final BehaviorRegistry behaviorRegistry = new BehaviorRegistry();
+
+    /** Out-ports of sources that have a wire, in box then port order. */
+    private final List<PortModel> sourcePorts = new ArrayList<>();
+    /* سیم حذف‌شده (dispatcher یا durability) با اولین مراجعه از اینجا هم برداشته می‌شود؛ liveWire */
+    private final Map<PortModel, WireModel> wireBySrcPort = new HashMap<>();
+    private WireDurabilityController durability;   // در register ساخته می‌شود
+
+    private double accumulator = 0;
+    private int delivered = 0;
+
+    HeadlessWorld(SubmitLayout layout, long seed) {
+        this.seed = new WorldSeed(seed);
+        this.motionRnd = this.seed.stream("motion");
+        this.simulation = new SimulationController(Config.SIMULATION_HZ, this.seed, null);
+        this.stepSeconds = simulation.getStepSeconds();
+
+        List<SystemLayout> boxList = (layout != null && layout.boxes != null) ? layout.boxes : List.of();
+        List<WireLayout> wireList = (layout != null && layout.wires != null) ? layout.wires : List.of();
+
+        Map<Integer, SystemBoxModel> boxByEid = new HashMap<>();
+        Map<String, SystemBoxModel> boxById = new HashMap<>();
+        for (SystemLayout spec : boxList) {
+            String id = (spec.id != null) ? spec.id : "#" + spec.eid;
+            SystemBoxModel box = new SystemBoxModel(id, spec.x, spec.y, spec.width, spec.height,
+                    shapes(spec.inShapes), shapes(spec.outShapes));
+            box.setPrimaryKind(kind(spec.kind));
+            if (spec.eid >= 0) boxByEid.put(spec.eid, box);
+            boxById.putIfAbsent(id, box);
+            boxIndexById.putIfAbsent(id, boxes.size());
+            boxes.add(box);
+        }
+
+        Set<PortModel> usedInPorts = new HashSet<>();
+        for (WireLayout spec : wireList) {
+            SystemBoxModel from = resolve(spec.fromBox, spec.fromBoxId, boxByEid, boxById);
+            SystemBoxModel to = resolve(spec.toBox, spec.toBoxId, boxByEid, boxById);
+            if (from == null || to == null) continue;
+            if (spec.fromOutIndex < 0 || spec.fromOutIndex >= from.getOutPorts().size()) continue;
+            if (spec.toInIndex < 0 || spec.toInIndex >= to.getInPorts().size()) continue;
+            PortModel src = from.getOutPorts().get(spec.fromOutIndex);
+            PortModel dst = to.getInPorts().get(spec.toInIndex);
+            // یک سیم برای هر پورت، مثل ویرایشگر
+            if (wireBySrcPort.containsKey(src) || !usedInPorts.add(dst)) continue;
+
+            WireModel wire = new WireModel(src, dst);
+            WirePath path = path(spec.path);
+            if (path != null) wire.setPath(path);
+            wires.add(wire);
+            destMap.put(wire, to);
+            wireBySrcPort.put(src, wire);
+            wireIndex.put(wire, wireIds.size());
+            wireIds.add((spec.id != null) ? spec.id : wire.getCanonicalId());
+        }
+
+        for (SystemBoxModel box : boxes) {
+            if (!box.getInPorts().isEmpty()) continue;
+            for (PortModel out : box.getOutPorts()) {
+                if (wireBySrcPort.containsKey(out)) sourcePorts.add(out);
+            }
+        }
+
+        register();
+    }
+
+    /** Same controllers, same order as {@link SimulationRegistrar#registerAll}, minus producer and UI. */
+    private void register() {
+        Map<PortModel, SystemBoxModel> portToBox = new HashMap<>();
+        for (SystemBoxModel b : boxes) {
+            for (PortModel p : b.getInPorts())  portToBox.put(p, b);
+            for (PortModel p : b.getOutPorts()) portToBox.put(p, b);
+        }
+        for (WireModel w : wires) w.setPortToBoxMap(portToBox);
+
+        for (SystemBoxModel b : boxes) simulation.register(b);
+
+        PacketDispatcherController dispatcher = new PacketDispatcherController(wires, destMap, coinModel, lossModel);
+        Map<WireModel, SystemBoxModel> srcMap = new HashMap<>();
+        for (WireModel w : wires) srcMap.put(w, portToBox.get(w.getSrcPort()));
+        dispatcher.setSourceMap(srcMap);
+        simulation.register(dispatcher);
+
+        for (SystemBoxModel box : boxes) {
+            SimulationRegistrar.attachBehaviors(box.getPrimaryKind(), box, simulation, behaviorRegistry,
+                    largeGroupRegistry, lossModel, wires, destMap);
+        }
+
+        for (SystemBoxModel box : boxes) {
+            if (!box.getOutPorts().isEmpty()) {
+                simulation.register(new PacketRouterController(box, wires, destMap, lossModel, seed));
+            }
+        }
+
+        lossModel.setLargeGroupRegistry(largeGroupRegistry);
+        for (SystemBoxModel box : boxes) {
+            if (box.getOutPorts().isEmpty()) simulation.register(new SinkCounter(box));
+        }
+
+        ConfidentialThrottleController throttle = new ConfidentialThrottleController(wires, destMap);
+        throttle.setEnabled(true);
+        simulation.register(throttle);
+        simulation.register(new WireTimeoutController(wires, lossModel));
+        durability = new WireDurabilityController(wires, lossModel, Config.LARGE_MAX_PASSES_PER_WIRE);
+        simulation.register(durability);
+        dispatcher.setDurabilityController(durability);
+
+        CollisionController collision = new CollisionController(wires, lossModel, portToBox);
+        collision.setSoundEnabled(false);
+        simulation.register(collision);
+    }
+
+    /**
+     * Advances by {@code seconds} of game time in fixed simulation steps; the remainder carries
+     * over, so a slowed match (speed penalty) simply steps less often.
+     */
+    void advance(double seconds) {
+        accumulator += seconds;
+        while (accumulator >= stepSeconds) {
+            accumulator -= stepSeconds;
+            simulation.step();
+        }
+    }
+
+    /** One messenger packet on every wired source out-port, shaped like the port (as the producer does). */
+    void spawnFromSources() {
+        for (PortModel out : sourcePorts) {
+            WireModel wire = liveWire(out);
+            if (wire == null) continue;
+            PacketModel packet = new PacketModel(out.getType(), Config.DEFAULT_PACKET_SPEED);
+            packet.setStartSpeedMul(1.0);
+            packet.setMotionStrategy(MotionStrategyFactory.create(packet, out.isCompatible(packet), motionRnd));
+            wire.attachPacket(packet, 0);
+        }
+    }
+
+    /** Index of the box with this layout id, or -1. Safe from any thread. */
+    int boxIndex(String systemId) {
+        Integer idx = (systemId != null) ? boxIndexById.get(systemId) : null;
+        return (idx != null) ? idx : -1;
+    }
+
+    /**
+     * A controlled system emits one messenger packet, shaped like its first wired out-port. The packet
+     * enters the box's buffer, so the box's behaviours and router handle it like any arrival.
+     *
+     * @return false for sources, sinks, unwired systems and full buffers
+     */
+    boolean inject(int boxIndex) {
+        if (boxIndex < 0 || boxIndex >= boxes.size()) return false;
+        SystemBoxModel box = boxes.get(boxIndex);
+        if (box.getInPorts().isEmpty()) return false;
+        for (PortModel out : box.getOutPorts()) {
+            if (liveWire(out) != null) {
+                return box.enqueue(new PacketModel(out.getType(), Config.DEFAULT_PACKET_SPEED));
+            }
+        }
+        return false;
+    }
+
+    /*
+     * سیم خروجی پورت، یا null اگر نداشته باشد یا حذف شده باشد. dispatcher سیم را از destMap و
+     * durability آن را از isAlive بیرون می‌برد؛ هر دو جست‌وجوی identity هستند، نه پیمایش wires.
+     */
+    private WireModel liveWire(PortModel out) {
+        WireModel wire = wireBySrcPort.get(out);
+        if (wire == null) return null;
+        if (durability.isAlive(wire) && destMap.containsKey(wire)) return wire;
+        wireBySrcPort.remove(out);
+        return null;
+    }
+
+    int delivered() { return delivered; }
+
+    int lost() { return lossModel.getLostCount(); }
+
+    int packetCount() {
+        int n = 0;
+        for (WireModel w : wires) n += w.getPackets().size();
+        return n;
+    }
+
+    void forEachPacket(int playerSide, MessengerGameSimulation.PacketVisitor visitor) {
+        for (int i = 0; i < wires.size(); i++) {
+            WireModel w = wires.get(i);
+            int wire = wireIndex.get(w);
+            List<PacketModel> packets = w.getPackets();
+            for (int k = 0; k < packets.size(); k++) {
+                PacketModel p = packets.get(k);
+                visitor.packet(playerSide, wire, p.getProgress(), p.isReturning());
+            }
+        }
+    }
+
+    /** Layout id of the wire with this index (as passed to the visitor). */
+    String wireId(int wire) { return wireIds.get(wire); }
+
+    /** Counts what reaches a sink, then consumes it like {@link PacketConsumerController}. */
+    private final class SinkCounter implements Updatable {
+        private final SystemBoxModel sink;
+
+        SinkCounter(SystemBoxModel sink) { this.sink = sink; }
+
+        @Override
+        public void update(double dt) {
+            PacketModel packet;
+            while ((packet = sink.pollPacket()) != null) {
+                packet.resetNoise();
+                PacketConsumerController.applyConsumeLogic(packet, scoreModel, coinModel, lossModel);
+                delivered++;
+            }
+        }
+    }
+
+    // ---------- تبدیل چیدمان ----------
+
+    private static List<PortShape> shapes(List<String> names) {
+        if (names == null) return List.of();
+        List<PortShape> out = new ArrayList<>(names.size());
+        for (String n : names) {
+            PortShape shape = PortShape.SQUARE;
+            try {
+                if (n != null) shape = PortShape.valueOf(n);
+            } catch (IllegalArgumentException ignore) {
+            }
+            out.add(shape);
+        }
+        return out;
+    }
+
+    private static SystemKind kind(String name) {
+        try {
+            return (name != null) ? SystemKind.valueOf(name) : SystemKind.NORMAL;
+        } catch (IllegalArgumentException e) {
+            return SystemKind.NORMAL;
+        }
+    }
+
+    /** The client's control points (port centres included); null keeps the straight default. */
+    private static WirePath path(List<WireLayout.Point2D> points) {
+        if (points == null) return null;
+        List<Point> pts = new ArrayList<>(points.size());
+        for (WireLayout.Point2D p : points) {
+            if (p != null) pts.add(new Point(p.x, p.y));
+        }
+        try {
+            return new WirePath(pts);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /** Prefers the integer reference; clients that predate eids only send string ids. */
+    private static SystemBoxModel resolve(int eid, String id, Map<Integer, SystemBoxModel> byEid,
+                                          Map<String, SystemBoxModel> byId) {
+        SystemBoxModel box = (eid >= 0) ? byEid.get(eid) : null;
+        if (box == null && id != null) box = byId.get(id);
+        return box;
+    }
+}
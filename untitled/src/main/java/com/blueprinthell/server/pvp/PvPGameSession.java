@@ -1,6 +1,8 @@
 package com.blueprinthell.server.pvp;
 
+import com.blueprinthell.controller.simulation.WorldSeed;
 import com.blueprinthell.shared.protocol.NetworkProtocol.*;
+import com.blueprinthell.shared.protocol.StateDelta;
 import com.blueprinthell.server.pvp.PvPMatchManager.*;
 import java.util.*;
 import java.util.concurrent.*;
@@ -16,7 +18,10 @@ public class PvPGameSession {
     private static final int EXTEND_TIME_SECONDS = 10;
     private static final int MAX_EXTENDS = 3;
     private static final int COUNTDOWN_SECONDS = 3;
+    private static final int FRAME_MS = 16;
     private static final int AMMO_CAP = 10;
+    private static final int KEYFRAME_INTERVAL_TICKS = 50;  // هر ۵ ثانیه یک StateSync کامل
+    private static final int STATE_HISTORY = 64;            // وضعیت‌های ارسالی که هنوز می‌توانند پایهٔ دلتا باشند
 
     // Session data
     private final String matchId;
@@ -41,16 +46,29 @@ public class PvPGameSession {
     private final PlayerScoreInternal scoreP1 = new PlayerScoreInternal();
     private final PlayerScoreInternal scoreP2 = new PlayerScoreInternal();
 
+    // State replication: فقط روی ترد shard، مثل بقیهٔ وضعیت session
+    private final Map<Integer, StateDelta.Snapshot> sentStates = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, StateDelta.Snapshot> eldest) {
+            return size() > STATE_HISTORY;
+        }
+    };
+    private final Replica replicaP1 = new Replica();
+    private final Replica replicaP2 = new Replica();
+
     // Penalties
     private volatile String activePenalty = null;
     private volatile double globalSpeedMultiplier = 1.0;
     private volatile double cooldownMultiplierP1 = 1.0;
     private volatile double cooldownMultiplierP2 = 1.0;
-    private final Random peniaRandom = new Random();
+    // همهٔ تصادف مسابقه (Penia و دو دنیای شبیه‌سازی) از بذر خود مسابقه می‌آید
+    private final WorldSeed matchSeed;
+    private final Random peniaRandom;
 
-    // Executor
-    private ScheduledFuture<?> gameLoopTask;
-    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+    // Scheduling: همهٔ کارهای این session، از جمله پیام‌های بازیکن‌ها، روی یک shard مشترک (کلید matchId)
+    // اجرا می‌شوند؛ پس امتیاز، ammo، cooldown ها و Replica بدون قفل فقط از همان ترد لمس می‌شوند
+    private final TickScheduler scheduler;
+    private volatile TickScheduler.Task gameLoopTask;
 
     // Simulation
     private MessengerGameSimulation simulation;
@@ -59,11 +77,21 @@ public class PvPGameSession {
         BUILD, COUNTDOWN, MATCH, ENDED
     }
 
-    public PvPGameSession(String matchId, QueuedPlayer p1, QueuedPlayer p2, MatchEventHandler handler) {
+    public PvPGameSession(String matchId, QueuedPlayer p1, QueuedPlayer p2, MatchEventHandler handler,
+                          TickScheduler scheduler) {
+        this(matchId, p1, p2, handler, scheduler, System.nanoTime());
+    }
+
+    /** Same session with a fixed match seed, so its penalties and simulation can be reproduced. */
+    public PvPGameSession(String matchId, QueuedPlayer p1, QueuedPlayer p2, MatchEventHandler handler,
+                          TickScheduler scheduler, long seed) {
         this.matchId = matchId;
         this.player1 = p1;
         this.player2 = p2;
         this.eventHandler = handler;
+        this.scheduler = scheduler;
+        this.matchSeed = new WorldSeed(seed);
+        this.peniaRandom = matchSeed.stream("penia");
     }
 
     /**
@@ -74,7 +102,7 @@ public class PvPGameSession {
         buildTimer.set(BUILD_TIME_SECONDS);
 
         // Start build timer
-        gameLoopTask = executor.scheduleAtFixedRate(this::buildPhaseTick, 0, 1, TimeUnit.SECONDS);
+        gameLoopTask = scheduler.scheduleAtFixedRate(matchId, this::buildPhaseTick, 0, 1000, this::abortMatch);
     }
 
     /**
@@ -147,7 +175,7 @@ public class PvPGameSession {
      */
     private void startCountdown() {
         if (gameLoopTask != null) {
-            gameLoopTask.cancel(false);
+            gameLoopTask.cancel();
         }
 
         currentPhase = Phase.COUNTDOWN;
@@ -165,7 +193,7 @@ public class PvPGameSession {
         eventHandler.sendMessageToPlayer(player2.userId, startP2);
 
         // Start countdown
-        executor.schedule(this::startMatch, COUNTDOWN_SECONDS, TimeUnit.SECONDS);
+        gameLoopTask = scheduler.schedule(matchId, this::startMatch, COUNTDOWN_SECONDS * 1000L, this::abortMatch);
     }
 
     /**
@@ -178,7 +206,7 @@ public class PvPGameSession {
         initializeSimulation();
 
         // Start game loop (60 FPS)
-        gameLoopTask = executor.scheduleAtFixedRate(this::matchTick, 0, 16, TimeUnit.MILLISECONDS);
+        gameLoopTask = scheduler.scheduleAtFixedRate(matchId, this::matchTick, 0, FRAME_MS, this::abortMatch);
     }
 
     /**
@@ -186,7 +214,7 @@ public class PvPGameSession {
      */
     private void initializeSimulation() {
         // Create simulation with both layouts
-        simulation = new MessengerGameSimulation(layoutP1, layoutP2);
+        simulation = new MessengerGameSimulation(layoutP1, layoutP2, matchSeed.seed());
 
         // Initialize systems with ammo
         for (SystemLayout box : layoutP1.boxes) {
@@ -236,7 +264,7 @@ public class PvPGameSession {
         }
 
         // Update system cooldowns
-        updateSystemCooldowns(16);
+        updateSystemCooldowns(FRAME_MS);
 
         // Send tick every 100ms (6 times per second)
         if (frame % 6 == 0) {
@@ -263,26 +291,38 @@ public class PvPGameSession {
     }
 
     /**
-     * Send tick update to players
+     * Send tick update to players: a delta against each client's last acked frame, a full
+     * keyframe when due or requested, or a full Tick to clients that never ack.
      */
     private void sendTickUpdate() {
-        Tick tick = new Tick(matchId, frameId.get());
-
-        // Set scores
-        tick.scoreP1 = new PlayerScore();
-        tick.scoreP1.delivered = scoreP1.delivered;
-        tick.scoreP1.lost = scoreP1.lost;
-        tick.scoreP1.totalScore = scoreP1.totalScore;
-        tick.scoreP1.ammo = scoreP1.ammo;
-
-        tick.scoreP2 = new PlayerScore();
-        tick.scoreP2.delivered = scoreP2.delivered;
-        tick.scoreP2.lost = scoreP2.lost;
-        tick.scoreP2.totalScore = scoreP2.totalScore;
-        tick.scoreP2.ammo = scoreP2.ammo;
-
-        // Set system states
-        tick.systems = new ArrayList<>();
+        StateDelta.Snapshot state = captureState();
+        sentStates.put(state.frameId, state);
+
+        sendState(player1.userId, replicaP1, state);
+        sendState(player2.userId, replicaP2, state);
+    }
+
+    private void sendState(String userId, Replica replica, StateDelta.Snapshot state) {
+        int acked = replica.ackedFrame;
+        StateDelta.Snapshot base = acked > 0 ? sentStates.get(acked) : null;
+        Message message;
+        if (acked <= 0) {
+            message = state.toTick(matchId);    // کلاینت قدیمی یا هنوز ackی نرسیده
+        } else if (base == null || replica.resync || replica.ticksSinceKeyframe >= KEYFRAME_INTERVAL_TICKS) {
+            StateSync sync = new StateSync(matchId, state.frameId);
+            sync.compressedState = StateDelta.compress(state);
+            message = sync;
+            replica.resync = false;
+            replica.ticksSinceKeyframe = 0;
+        } else {
+            message = StateDelta.diff(matchId, base, state);
+            replica.ticksSinceKeyframe++;
+        }
+        eventHandler.sendMessageToPlayer(userId, message);
+    }
+
+    private StateDelta.Snapshot captureState() {
+        Map<String, SystemState> states = new LinkedHashMap<>();
         for (SystemStateInternal internal : systems.values()) {
             SystemState state = new SystemState();
             state.id = internal.id;
@@ -291,12 +331,12 @@ public class PvPGameSession {
             state.systemCooldownMs = internal.systemCooldown;
             state.packetCooldownMsP1 = internal.packetCooldownP1;
             state.packetCooldownMsP2 = internal.packetCooldownP2;
-            tick.systems.add(state);
+            states.put(state.id, state);
         }
-
-        tick.globalSpeedMultiplier = globalSpeedMultiplier;
-
-        broadcast(tick);
+        return new StateDelta.Snapshot(frameId.get(), createPlayerScore(scoreP1), createPlayerScore(scoreP2),
+                states, globalSpeedMultiplier,
+                // همان گام‌های updateSystemCooldowns تا کلاینت شمارش معکوس را خودش پیش ببرد
+                FRAME_MS, (int) (FRAME_MS * cooldownMultiplierP1), (int) (FRAME_MS * cooldownMultiplierP2));
     }
 
     /**
@@ -314,7 +354,7 @@ public class PvPGameSession {
         currentPhase = Phase.ENDED;
 
         if (gameLoopTask != null) {
-            gameLoopTask.cancel(false);
+            gameLoopTask.cancel();
         }
 
         // Determine winner
@@ -359,6 +399,15 @@ public class PvPGameSession {
         eventHandler.onMatchEnded(matchId, resultP1, resultP2);
     }
 
+    /**
+     * A phase task threw and the scheduler cancelled it. Runs on the shard. Ends the match with
+     * the scores so far, so the players are not left waiting on a dead game loop.
+     */
+    private void abortMatch(Throwable cause) {
+        System.err.println("Match " + matchId + " aborted in " + currentPhase + ": " + cause);
+        if (currentPhase != Phase.ENDED) endMatch();
+    }
+
     /**
      * Calculate XP
      */
@@ -388,7 +437,9 @@ public class PvPGameSession {
     }
 
     /**
-     * Handle player message
+     * Handle player message. Called from network threads; the message is handed to this
+     * session's shard and handled there between ticks, never concurrently with
+     * {@link #matchTick} or {@link #captureState}.
      */
     public void handlePlayerMessage(String userId, Message message) {
         boolean isP1 = userId.equals(player1.userId);
@@ -396,11 +447,25 @@ public class PvPGameSession {
 
         if (!isP1 && !isP2) return;
 
+        scheduler.schedule(matchId, () -> applyPlayerMessage(userId, isP1, message), 0);
+    }
+
+    /* فقط ترد shard */
+    private void applyPlayerMessage(String userId, boolean isP1, Message message) {
         switch (message.type) {
             case SUBMIT_LAYOUT -> handleSubmitLayout(userId, (SubmitLayout)message);
             case READY_STATE -> handleReadyState(userId, (ReadyState)message);
             case EXTEND_REQUEST -> handleExtendRequest(userId, (ExtendRequest)message);
             case INJECT -> handleInject(userId, (Inject)message);
+            case TICK_ACK -> handleTickAck(isP1 ? replicaP1 : replicaP2, (TickAck)message);
+        }
+    }
+
+    private void handleTickAck(Replica replica, TickAck ack) {
+        if (currentPhase != Phase.MATCH) return;
+        if (ack.resync) replica.resync = true;
+        if (ack.frameId > replica.ackedFrame && ack.frameId <= frameId.get()) {
+            replica.ackedFrame = ack.frameId;
         }
     }
 
@@ -481,17 +546,15 @@ public class PvPGameSession {
      */
     public void stop() {
         if (gameLoopTask != null) {
-            gameLoopTask.cancel(false);
+            gameLoopTask.cancel();
         }
-        executor.shutdown();
     }
 
     /**
      * Broadcast message to both players
      */
     private void broadcast(Message message) {
-        eventHandler.sendMessageToPlayer(player1.userId, message);
-        eventHandler.sendMessageToPlayer(player2.userId, message);
+        eventHandler.sendMessageToPlayers(List.of(player1.userId, player2.userId), message);
     }
 
     private PlayerScore createPlayerScore(PlayerScoreInternal internal) {
@@ -504,6 +567,11 @@ public class PvPGameSession {
     }
 
     // Getters
+    public String getMatchId() { return matchId; }
+
+    public long getSeed() { return matchSeed.seed(); }
+    /** Timing of the current loop task (match loop once started); {@code null} before the build phase. */
+    public TickScheduler.Task getLoopTask() { return gameLoopTask; }
     public QueuedPlayer getPlayer1() { return player1; }
     public QueuedPlayer getPlayer2() { return player2; }
 
@@ -529,6 +597,13 @@ public class PvPGameSession {
         }
     }
 
+    /** Replication state of one client; shard thread only. */
+    static class Replica {
+        int ackedFrame = 0;    // 0: هیچ ackی نرسیده
+        boolean resync;
+        int ticksSinceKeyframe;
+    }
+
     static class SimulationResult {
         int deliveredP1 = 0;
         int lostP1 = 0;
@@ -18,14 +18,25 @@ public class PvPMatchManager {
     // Player to match mapping
     private final Map<String, String> playerToMatch = new ConcurrentHashMap<>();
 
-    // Scheduled executor for game loops
-    private final ScheduledExecutorService gameLoopExecutor = Executors.newScheduledThreadPool(4);
+    // Matchmaking runs once a second on its own thread; match loops share the sharded tick workers
+    private final ScheduledExecutorService matchmakingExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "pvp-matchmaking");
+        t.setDaemon(true);
+        return t;
+    });
+    private final TickScheduler tickScheduler = new TickScheduler("pvp-tick");
 
     // Match handler callback
     private final MatchEventHandler eventHandler;
 
     public interface MatchEventHandler {
         void sendMessageToPlayer(String userId, Message message);
+
+        /** Same message to several players; implementations should serialize it only once. */
+        default void sendMessageToPlayers(List<String> userIds, Message message) {
+            for (String userId : userIds) sendMessageToPlayer(userId, message);
+        }
+
         void onMatchEnded(String matchId, GameResult resultP1, GameResult resultP2);
     }
 
@@ -33,7 +44,7 @@ public class PvPMatchManager {
         this.eventHandler = handler;
 
         // Start matchmaking thread
-        gameLoopExecutor.scheduleAtFixedRate(this::processMatchmaking, 0, 1, TimeUnit.SECONDS);
+        matchmakingExecutor.scheduleAtFixedRate(this::processMatchmaking, 0, 1, TimeUnit.SECONDS);
     }
 
     /**
@@ -86,7 +97,7 @@ public class PvPMatchManager {
         String matchId = "match-" + UUID.randomUUID().toString();
 
         // Create game session
-        PvPGameSession session = new PvPGameSession(matchId, p1, p2, eventHandler);
+        PvPGameSession session = new PvPGameSession(matchId, p1, p2, eventHandler, tickScheduler);
         activeMatches.put(matchId, session);
 
         // Map players to match
@@ -136,6 +147,11 @@ public class PvPMatchManager {
 
             // Stop session
             session.stop();
+
+            TickScheduler.Task loop = session.getLoopTask();
+            if (loop != null) {
+                System.out.println("Match loop " + matchId + ": " + loop.summary());
+            }
         }
     }
 
@@ -158,8 +174,9 @@ public class PvPMatchManager {
      * Shutdown manager
      */
     public void shutdown() {
-        gameLoopExecutor.shutdown();
+        matchmakingExecutor.shutdown();
         activeMatches.values().forEach(PvPGameSession::stop);
+        tickScheduler.shutdown();
         activeMatches.clear();
         matchmakingQueue.clear();
     }
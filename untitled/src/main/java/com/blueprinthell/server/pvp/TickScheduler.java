@@ -0,0 +1,229 @@
+package com.blueprinthell.server.pvp;
+
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * زمان‌بند مشترک tick برای همهٔ session های PvP، به جای یک ScheduledExecutor (و یک ترد) برای هر مسابقه.
+ *
+ * <p>به ازای هر هسته یک ترد کارگر (shard) هست. هر کار با یک کلید (matchId) ثبت می‌شود و همهٔ کارهای
+ * یک کلید همیشه روی یک shard و پشت سر هم اجرا می‌شوند. session ها پیام‌های بازیکن را هم با همان کلید
+ * و تأخیر صفر ({@link #schedule}) به shard می‌سپارند، پس وضعیت هر session فقط از یک ترد لمس می‌شود.
+ * هر shard کارهای سررسیدهٔ خودش را یک‌جا اجرا می‌کند و تا سررسید بعدی park می‌شود.
+ *
+ * <p>زمان‌بندی مطلق است (سررسید بعدی = سررسید قبلی + دوره) تا تأخیرهای کوچک انباشته نشوند. اگر
+ * shard بیش از یک دوره عقب بیفتد، حداکثر {@link #MAX_CATCH_UP} فریم جبرانی اجرا می‌شود و بقیه
+ * رد (skip) و شمرده می‌شوند؛ این نشانهٔ بار بیش از حد است و با محدودیت نرخ لاگ می‌شود.
+ * مدت هر اجرا برای هر کار در {@link Task} نگه داشته می‌شود.
+ *
+ * <p>کاری که هر {@link Throwable} (حتی Error) پرتاب کند لغو می‌شود و دیگر اجرا نمی‌شود؛ خطا در
+ * {@link Task#failure()} می‌ماند و اگر کار با handler ثبت شده باشد، همان handler روی همان shard صدا
+ * زده می‌شود (مثلاً تا session مسابقه را ببندد). ترد shard با خطای یک کار نمی‌میرد.
+ */
+public final class TickScheduler {
+    /** Missed periods run back to back before the rest are skipped. */
+    static final int MAX_CATCH_UP = 4;
+    private static final long OVERLOAD_LOG_INTERVAL_NANOS = 5_000_000_000L;
+
+    /** A scheduled task. Metrics are written by its shard and may be read from any thread. */
+    public static final class Task {
+        private final String key;
+        private final Runnable action;
+        private final Consumer<Throwable> onFailure;   // ممکن است null باشد
+        private final long periodNanos;     // صفر یعنی یک‌بار
+        private long nextRunNanos;          // فقط ترد shard
+        private volatile boolean cancelled;
+        private volatile Throwable failure;
+
+        private volatile long runs;
+        private volatile long skippedFrames;
+        private volatile long lastRunNanos;
+        private volatile long maxRunNanos;
+        private volatile long totalRunNanos;
+
+        private Task(String key, Runnable action, Consumer<Throwable> onFailure, long delayNanos, long periodNanos) {
+            this.key = key;
+            this.action = action;
+            this.onFailure = onFailure;
+            this.periodNanos = periodNanos;
+            this.nextRunNanos = System.nanoTime() + delayNanos;
+        }
+
+        /** Stops further runs; a run already in progress completes. Safe from any thread. */
+        public void cancel() { cancelled = true; }
+
+        /** What the action threw, if it failed; a failed task is cancelled. */
+        public Throwable failure() { return failure; }
+
+        public long runs() { return runs; }
+        public long skippedFrames() { return skippedFrames; }
+        public long lastRunNanos() { return lastRunNanos; }
+        public long maxRunNanos() { return maxRunNanos; }
+        public long meanRunNanos() {
+            long n = runs;
+            return n == 0 ? 0 : totalRunNanos / n;
+        }
+
+        /** e.g. {@code "runs=10800 mean=0.21ms max=3.40ms skipped=0"} */
+        public String summary() {
+            return String.format("runs=%d mean=%.2fms max=%.2fms skipped=%d",
+                    runs, meanRunNanos() / 1e6, maxRunNanos / 1e6, skippedFrames);
+        }
+
+        private void record(long nanos) {
+            lastRunNanos = nanos;
+            if (nanos > maxRunNanos) maxRunNanos = nanos;
+            totalRunNanos += nanos;
+            runs++;
+        }
+    }
+
+    private final Shard[] shards;
+    private volatile boolean running = true;
+
+    /** One shard per available core. */
+    public TickScheduler(String name) {
+        this(name, Runtime.getRuntime().availableProcessors());
+    }
+
+    public TickScheduler(String name, int shardCount) {
+        shards = new Shard[Math.max(1, shardCount)];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard(name + "-" + i);
+        }
+    }
+
+    /** Runs {@code action} once after {@code delayMs} on {@code key}'s shard. */
+    public Task schedule(String key, Runnable action, long delayMs) {
+        return schedule(key, action, delayMs, null);
+    }
+
+    /** As {@link #schedule(String, Runnable, long)}; {@code onFailure} gets whatever the action throws. */
+    public Task schedule(String key, Runnable action, long delayMs, Consumer<Throwable> onFailure) {
+        return submit(key, action, onFailure, delayMs, 0);
+    }
+
+    /** Runs {@code action} every {@code periodMs} on {@code key}'s shard, first after {@code initialDelayMs}. */
+    public Task scheduleAtFixedRate(String key, Runnable action, long initialDelayMs, long periodMs) {
+        return scheduleAtFixedRate(key, action, initialDelayMs, periodMs, null);
+    }
+
+    /**
+     * As {@link #scheduleAtFixedRate(String, Runnable, long, long)}; if the action throws, the task
+     * is cancelled and {@code onFailure} is called with the error on the same shard.
+     */
+    public Task scheduleAtFixedRate(String key, Runnable action, long initialDelayMs, long periodMs,
+                                    Consumer<Throwable> onFailure) {
+        if (periodMs <= 0) throw new IllegalArgumentException("period must be positive");
+        return submit(key, action, onFailure, initialDelayMs, periodMs);
+    }
+
+    public int shardCount() { return shards.length; }
+
+    public void shutdown() {
+        running = false;
+        for (Shard shard : shards) LockSupport.unpark(shard.thread);
+    }
+
+    private Task submit(String key, Runnable action, Consumer<Throwable> onFailure, long delayMs, long periodMs) {
+        Shard shard = shards[Math.floorMod(key.hashCode(), shards.length)];
+        Task task = new Task(key, action, onFailure, delayMs * 1_000_000L, periodMs * 1_000_000L);
+        shard.added.add(task);
+        LockSupport.unpark(shard.thread);
+        return task;
+    }
+
+    private final class Shard implements Runnable {
+        private final Queue<Task> added = new ConcurrentLinkedQueue<>();
+        private final PriorityQueue<Task> queue = new PriorityQueue<>(
+                (a, b) -> Long.compare(a.nextRunNanos, b.nextRunNanos));
+        private final Thread thread;
+        private long lastOverloadLog = System.nanoTime() - OVERLOAD_LOG_INTERVAL_NANOS;
+
+        Shard(String name) {
+            thread = new Thread(this, name);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                Task task;
+                while ((task = added.poll()) != null) queue.add(task);
+
+                Task next = queue.peek();
+                if (next == null) {
+                    LockSupport.park(this);
+                    continue;
+                }
+                long now = System.nanoTime();
+                long wait = next.nextRunNanos - now;
+                if (wait > 0) {
+                    LockSupport.parkNanos(this, wait);
+                    continue;
+                }
+                // همهٔ کارهای سررسیده در یک دور
+                while ((next = queue.peek()) != null && next.nextRunNanos - now <= 0) {
+                    queue.poll();
+                    if (next.cancelled) continue;
+                    runDue(next, now);
+                    if (next.periodNanos > 0 && !next.cancelled) queue.add(next);
+                }
+            }
+        }
+
+        private void runDue(Task task, long now) {
+            int count = 1;
+            if (task.periodNanos > 0) {
+                long behind = (now - task.nextRunNanos) / task.periodNanos;
+                if (behind > 0) {
+                    int catchUp = (int) Math.min(behind, MAX_CATCH_UP);
+                    long skipped = behind - catchUp;
+                    if (skipped > 0) {
+                        task.skippedFrames += skipped;
+                        overloaded(task, skipped);
+                    }
+                    count += catchUp;
+                    task.nextRunNanos += skipped * task.periodNanos;
+                }
+            }
+            for (int i = 0; i < count && !task.cancelled; i++) {
+                long start = System.nanoTime();
+                try {
+                    task.action.run();
+                } catch (Throwable t) {
+                    task.record(System.nanoTime() - start);
+                    failed(task, t);
+                    return;
+                }
+                task.record(System.nanoTime() - start);
+                task.nextRunNanos += task.periodNanos;
+            }
+        }
+
+        /* کار خراب دوباره اجرا نمی‌شود؛ بقیهٔ کارهای این shard ادامه می‌دهند */
+        private void failed(Task task, Throwable t) {
+            task.failure = t;
+            task.cancel();
+            System.err.println("Tick task " + task.key + " failed and was cancelled: " + t);
+            if (task.onFailure == null) return;
+            try {
+                task.onFailure.accept(t);
+            } catch (Throwable t2) {
+                System.err.println("Failure handler of tick task " + task.key + " failed: " + t2);
+            }
+        }
+
+        private void overloaded(Task task, long skipped) {
+            long now = System.nanoTime();
+            if (now - lastOverloadLog < OVERLOAD_LOG_INTERVAL_NANOS) return;
+            lastOverloadLog = now;
+            System.err.printf("%s overloaded: %s skipped %d frame(s) (%d tasks, last run %.2f ms)%n",
+                    thread.getName(), task.key, skipped, queue.size() + 1, task.lastRunNanos / 1e6);
+        }
+    }
+}
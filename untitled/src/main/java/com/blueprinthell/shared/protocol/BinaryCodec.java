@@ -0,0 +1,381 @@
+package com.blueprinthell.shared.protocol;
+
+import com.blueprinthell.shared.protocol.NetworkProtocol.*;
+import com.google.gson.Gson;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * قاب‌بندی دودویی اختیاری در کنار خط‌های JSON؛ در HELLO/HELLO_ACK مذاکره می‌شود.
+ *
+ * <pre>
+ *   frame = varint(length) | tag:1 | varint(messageId) | body
+ * </pre>
+ *
+ * پیام‌های پرتکرار (TICK، TICK_ACK، INJECT، HEARTBEAT، HEARTBEAT_ACK، STATE_SYNC) فیلدبه‌فیلد و فشرده
+ * نوشته می‌شوند: اعداد varint زیگزاگ، رشته‌ها varint(طول+۱) و UTF-8 (صفر یعنی null). بقیهٔ
+ * پیام‌ها با برچسب {@link #TAG_JSON} همان JSON قبلی را در یک قاب حمل می‌کنند. شناسهٔ پیام
+ * یک شمارندهٔ صعودی به ازای هر نمونه است و timestamp روی سیم نمی‌آید.
+ *
+ * <p>سرور یک نمونه را بین همهٔ اتصال‌ها شریک می‌کند تا قاب پیامی که به چند نفر می‌رود یک بار ساخته
+ * شود ({@link EncodedMessage})؛ {@link #encode} از چند ترد هم‌زمان امن است.
+ */
+public final class BinaryCodec {
+    /** Value of {@code Hello.wireFormats} / {@code HelloAck.wireFormat} for this framing. */
+    public static final String FORMAT = "bin1";
+    public static final int MAX_FRAME_BYTES = 4 * 1024 * 1024;
+
+    static final int TAG_JSON = 0;
+    static final int TAG_HEARTBEAT = 1;
+    static final int TAG_HEARTBEAT_ACK = 2;
+    static final int TAG_INJECT = 3;
+    static final int TAG_TICK = 4;
+    static final int TAG_STATE_SYNC = 5;
+    static final int TAG_TICK_ACK = 6;
+
+    private final Gson gson;
+    private final AtomicLong nextId = new AtomicLong();
+
+    public BinaryCodec(Gson gson) {
+        this.gson = gson;
+    }
+
+    /* ---------- encoding ---------- */
+
+    /** Encodes a complete frame, length prefix included. */
+    public byte[] encode(Message msg) {
+        Out out = new Out();
+        switch (msg.type) {
+            case HEARTBEAT -> out.header(TAG_HEARTBEAT, nextId.incrementAndGet());
+            case HEARTBEAT_ACK -> out.header(TAG_HEARTBEAT_ACK, nextId.incrementAndGet());
+            case INJECT -> {
+                Inject m = (Inject) msg;
+                out.header(TAG_INJECT, nextId.incrementAndGet());
+                out.string(m.matchId);
+                out.string(m.systemId);
+            }
+            case TICK -> {
+                Tick m = (Tick) msg;
+                out.header(TAG_TICK, nextId.incrementAndGet());
+                out.string(m.matchId);
+                out.varint(m.frameId);
+                out.varint(m.baseFrameId);
+                out.varint(m.systemCooldownStepMs);
+                out.varint(m.packetCooldownStepMsP1);
+                out.varint(m.packetCooldownStepMsP2);
+                out.score(m.scoreP1);
+                out.score(m.scoreP2);
+                out.systems(m.systems);
+                out.f64(m.globalSpeedMultiplier);
+            }
+            case STATE_SYNC -> {
+                StateSync m = (StateSync) msg;
+                out.header(TAG_STATE_SYNC, nextId.incrementAndGet());
+                out.string(m.matchId);
+                out.varint(m.frameId);
+                out.string(m.compressedState);
+            }
+            case TICK_ACK -> {
+                TickAck m = (TickAck) msg;
+                out.header(TAG_TICK_ACK, nextId.incrementAndGet());
+                out.string(m.matchId);
+                out.varint(m.frameId);
+                out.put(m.resync ? 1 : 0);
+            }
+            default -> {
+                out.header(TAG_JSON, nextId.incrementAndGet());
+                out.raw(gson.toJson(msg).getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        return out.frame();
+    }
+
+    /* ---------- decoding ---------- */
+
+    /** For a {@link #TAG_JSON} frame body returns its JSON text, otherwise {@code null}. */
+    public static String jsonPayload(byte[] body) {
+        if (body.length == 0 || body[0] != TAG_JSON) return null;
+        In in = new In(body, 1);
+        in.varlong(); // messageId
+        return new String(body, in.pos, body.length - in.pos, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Decodes a non-JSON frame body (length prefix already stripped) into its concrete message.
+     *
+     * @throws IllegalArgumentException for an unknown tag or a truncated body
+     */
+    public Message decode(byte[] body) {
+        if (body.length == 0) throw new IllegalArgumentException("empty frame");
+        In in = new In(body, 1);
+        long id;
+        Message msg;
+        try {
+            id = in.varlong();
+            switch (body[0]) {
+                case TAG_HEARTBEAT -> msg = new Heartbeat();
+                case TAG_HEARTBEAT_ACK -> msg = new HeartbeatAck();
+                case TAG_INJECT -> {
+                    String matchId = in.string();
+                    msg = new Inject(matchId, in.string());
+                }
+                case TAG_TICK -> {
+                    String matchId = in.string();
+                    Tick t = new Tick(matchId, in.varint());
+                    t.baseFrameId = in.varint();
+                    t.systemCooldownStepMs = in.varint();
+                    t.packetCooldownStepMsP1 = in.varint();
+                    t.packetCooldownStepMsP2 = in.varint();
+                    t.scoreP1 = in.score();
+                    t.scoreP2 = in.score();
+                    t.systems = in.systems();
+                    t.globalSpeedMultiplier = in.f64();
+                    msg = t;
+                }
+                case TAG_STATE_SYNC -> {
+                    String matchId = in.string();
+                    StateSync s = new StateSync(matchId, in.varint());
+                    s.compressedState = in.string();
+                    msg = s;
+                }
+                case TAG_TICK_ACK -> {
+                    String matchId = in.string();
+                    int frame = in.varint();
+                    msg = new TickAck(matchId, frame, in.buf[in.pos++] != 0);
+                }
+                default -> throw new IllegalArgumentException("unknown frame tag " + body[0]);
+            }
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("truncated frame", e);
+        }
+        msg.messageId = Long.toString(id);
+        return msg;
+    }
+
+    /* ---------- blocking stream helpers (socket transports and client) ---------- */
+
+    /** Reads one frame body (without its length prefix); {@code null} at a clean EOF. */
+    public static byte[] readFrame(InputStream in) throws IOException {
+        int length = 0, shift = 0, b;
+        while (true) {
+            b = in.read();
+            if (b < 0) {
+                if (shift == 0) return null;
+                throw new EOFException("truncated frame length");
+            }
+            length |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) break;
+            shift += 7;
+            if (shift > 28) throw new IOException("bad frame length");
+        }
+        if (length < 0 || length > MAX_FRAME_BYTES) throw new IOException("frame too large: " + length);
+        byte[] body = in.readNBytes(length);
+        if (body.length < length) throw new EOFException("truncated frame");
+        return body;
+    }
+
+    /**
+     * Reads one '\n'-terminated UTF-8 line byte by byte (no read-ahead, so the stream can switch
+     * to frames right after); {@code null} at EOF.
+     */
+    public static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+        int b;
+        while ((b = in.read()) >= 0) {
+            if (b == '\n') {
+                byte[] bytes = line.toByteArray();
+                int len = bytes.length;
+                if (len > 0 && bytes[len - 1] == '\r') len--;
+                return new String(bytes, 0, len, StandardCharsets.UTF_8);
+            }
+            if (line.size() >= MAX_FRAME_BYTES) throw new IOException("line too long");
+            line.write(b);
+        }
+        return line.size() > 0 ? line.toString(StandardCharsets.UTF_8) : null;
+    }
+
+    /* ---------- primitives ---------- */
+
+    private static final class Out {
+        private byte[] buf = new byte[64];
+        private int len;
+
+        void header(int tag, long id) {
+            put(tag);
+            varlong(id);
+        }
+
+        void put(int b) {
+            if (len == buf.length) buf = Arrays.copyOf(buf, buf.length * 2);
+            buf[len++] = (byte) b;
+        }
+
+        void raw(byte[] bytes) {
+            if (len + bytes.length > buf.length) buf = Arrays.copyOf(buf, Math.max(buf.length * 2, len + bytes.length));
+            System.arraycopy(bytes, 0, buf, len, bytes.length);
+            len += bytes.length;
+        }
+
+        void varlong(long v) {
+            while ((v & ~0x7FL) != 0) {
+                put((int) ((v & 0x7F) | 0x80));
+                v >>>= 7;
+            }
+            put((int) v);
+        }
+
+        void varint(int v) {
+            varlong(((v << 1) ^ (v >> 31)) & 0xFFFFFFFFL);   // زیگزاگ
+        }
+
+        void f64(double v) {
+            long bits = Double.doubleToLongBits(v);
+            for (int i = 0; i < 8; i++) put((int) (bits >>> (8 * i)));
+        }
+
+        void string(String s) {
+            if (s == null) {
+                put(0);
+                return;
+            }
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            varlong(bytes.length + 1L);
+            raw(bytes);
+        }
+
+        void score(PlayerScore s) {
+            if (s == null) {
+                put(0);
+                return;
+            }
+            put(1);
+            varint(s.delivered);
+            varint(s.lost);
+            varint(s.totalScore);
+            varint(s.ammo);
+        }
+
+        void systems(List<SystemState> systems) {
+            if (systems == null) {
+                put(0);
+                return;
+            }
+            varlong(systems.size() + 1L);
+            for (SystemState s : systems) {
+                string(s.id);
+                varint(s.ammoP1);
+                varint(s.ammoP2);
+                varint(s.systemCooldownMs);
+                varint(s.packetCooldownMsP1);
+                varint(s.packetCooldownMsP2);
+            }
+        }
+
+        byte[] frame() {
+            int prefix = 1;
+            for (int v = len >>> 7; v != 0; v >>>= 7) prefix++;
+            byte[] frame = new byte[prefix + len];
+            int p = 0;
+            int v = len;
+            while ((v & ~0x7F) != 0) {
+                frame[p++] = (byte) ((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            frame[p++] = (byte) v;
+            System.arraycopy(buf, 0, frame, p, len);
+            return frame;
+        }
+    }
+
+    private static final class In {
+        /* شناسه (دست‌کم یک بایت) و پنج varint */
+        private static final int SYSTEM_STATE_MIN_BYTES = 6;
+
+        private final byte[] buf;
+        private int pos;
+
+        In(byte[] buf, int pos) {
+            this.buf = buf;
+            this.pos = pos;
+        }
+
+        long varlong() {
+            long v = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = buf[pos++];
+                v |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return v;
+            }
+            throw new IllegalArgumentException("bad varint");
+        }
+
+        int varint() {
+            int z = (int) varlong();
+            return (z >>> 1) ^ -(z & 1);
+        }
+
+        double f64() {
+            long bits = 0;
+            for (int i = 0; i < 8; i++) bits |= (buf[pos++] & 0xFFL) << (8 * i);
+            return Double.longBitsToDouble(bits);
+        }
+
+        /**
+         * Reads a nullable length prefix (0 = null, otherwise count + 1). A count that is negative
+         * or cannot fit in the remaining bytes at {@code minBytesEach} per element is rejected
+         * here, before anything is allocated for it.
+         */
+        int count(int minBytesEach) {
+            long v = varlong();
+            if (v == 0) return -1;
+            long n = v - 1;
+            if (n < 0 || n > (buf.length - pos) / minBytesEach) {
+                throw new IllegalArgumentException("bad length " + n + " at " + pos);
+            }
+            return (int) n;
+        }
+
+        String string() {
+            int n = count(1);
+            if (n < 0) return null;
+            String s = new String(buf, pos, n, StandardCharsets.UTF_8);
+            pos += n;
+            return s;
+        }
+
+        PlayerScore score() {
+            if (buf[pos++] == 0) return null;
+            PlayerScore s = new PlayerScore();
+            s.delivered = varint();
+            s.lost = varint();
+            s.totalScore = varint();
+            s.ammo = varint();
+            return s;
+        }
+
+        List<SystemState> systems() {
+            int n = count(SYSTEM_STATE_MIN_BYTES);
+            if (n < 0) return null;
+            List<SystemState> systems = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                SystemState s = new SystemState();
+                s.id = string();
+                s.ammoP1 = varint();
+                s.ammoP2 = varint();
+                s.systemCooldownMs = varint();
+                s.packetCooldownMsP1 = varint();
+                s.packetCooldownMsP2 = varint();
+                systems.add(s);
+            }
+            return systems;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.blueprinthell.shared.protocol;
+
+import com.blueprinthell.shared.protocol.NetworkProtocol.Message;
+import com.google.gson.Gson;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * یک پیام که برای همهٔ گیرنده‌هایش فقط یک بار سریال می‌شود. خط JSON و قاب دودویی هر کدام اولین
+ * بار که لازم شوند ساخته و نگه داشته می‌شوند؛ هر گیرنده فقط یک نمای {@link ByteBuffer} تازه روی
+ * همان آرایه می‌گیرد. آرایه‌ها بعد از ساخته شدن تغییر نمی‌کنند.
+ */
+public final class EncodedMessage {
+    public final Message message;
+    private final Gson gson;
+    private final BinaryCodec codec;
+    private byte[] line;
+    private byte[] frame;
+
+    /** @param codec shared by every recipient, so they all see the same frame (and message id) */
+    public EncodedMessage(Message message, Gson gson, BinaryCodec codec) {
+        this.message = message;
+        this.gson = gson;
+        this.codec = codec;
+    }
+
+    /** The JSON line, '\n' included. */
+    public synchronized ByteBuffer line() {
+        if (line == null) line = (gson.toJson(message) + "\n").getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.wrap(line);
+    }
+
+    /** The binary frame, length prefix included. */
+    public synchronized ByteBuffer frame() {
+        if (frame == null) frame = codec.encode(message);
+        return ByteBuffer.wrap(frame);
+    }
+}
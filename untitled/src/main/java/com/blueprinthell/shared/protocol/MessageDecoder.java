@@ -0,0 +1,321 @@
+package com.blueprinthell.shared.protocol;
+
+import com.blueprinthell.shared.protocol.NetworkProtocol.*;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * دیکدر پیام‌های JSON خطی بدون دوبار deserialize کردن.
+ *
+ * <p>قبلاً هر خط یک بار به {@link Message} (فقط برای خواندن {@code type}) و یک بار به کلاس واقعی
+ * تبدیل می‌شد، هر دو با Gson بازتابی. اینجا {@code type} سطح اول با یک گذر ساختاری روی کاراکترهای
+ * خط پیدا می‌شود (بدون ساختن توکن یا شیء؛ فقط عمق آکولادها و مرز رشته‌ها) و بعد خط دقیقاً یک بار با
+ * TypeAdapter همان نوع خوانده می‌شود. Gson فیلد {@code type} را بعد از فیلدهای زیرکلاس می‌نویسد، پس
+ * «اول type را بخوان» در خود JsonReader ممکن نیست. برای پیام‌های پرتکرار (HEARTBEAT، HEARTBEAT_ACK،
+ * INJECT، TICK) adapter دست‌نویس است و بقیه adapterهای کش‌شدهٔ Gson‌اند. قالب سیمی تغییری نکرده است.
+ *
+ * <p>نمونه به ازای هر اتصال است و thread-safe نیست. یک JsonReader (با بافر ۱ کیلوبایتی‌اش) روی یک
+ * Reader قابل بازاشاره بین پیام‌ها بازاستفاده می‌شود و هر خط یک سند تازه در همان جریان است؛ گذر
+ * ساختاری تضمین می‌کند خط فقط یک شیء است و چیزی برای خط بعد در بافر نمی‌ماند. بعد از هر خطای
+ * خواندن reader دور انداخته و از نو ساخته می‌شود.
+ */
+public final class MessageDecoder {
+    private static final MessageType[] TYPES = MessageType.values();
+
+    private final Map<MessageType, TypeAdapter<? extends Message>> adapters = new EnumMap<>(MessageType.class);
+    private final LineReader line = new LineReader();
+    private JsonReader reader;   // null after a failed read
+
+    public MessageDecoder(Gson gson) {
+        for (MessageType type : MessageType.values()) {
+            adapters.put(type, gson.getAdapter(NetworkProtocol.messageClass(type)));
+        }
+        adapters.put(MessageType.HEARTBEAT, new HeartbeatAdapter<>(gson.getAdapter(Heartbeat.class), Heartbeat::new));
+        adapters.put(MessageType.HEARTBEAT_ACK, new HeartbeatAdapter<>(gson.getAdapter(HeartbeatAck.class), HeartbeatAck::new));
+        adapters.put(MessageType.INJECT, new InjectAdapter(gson.getAdapter(Inject.class)));
+        adapters.put(MessageType.TICK, new TickAdapter(gson.getAdapter(Tick.class)));
+    }
+
+    /**
+     * Decodes one JSON line into its concrete message class.
+     *
+     * @throws JsonParseException if the line is not a single JSON object, is malformed or has no
+     *                            known {@code type}
+     */
+    public Message decode(String json) {
+        MessageType type = scanType(json);
+        if (type == null) throw new JsonParseException("Message has no type");
+
+        boolean ok = false;
+        try {
+            line.reset(json);
+            if (reader == null) {
+                reader = new JsonReader(line);
+                reader.setLenient(true);   // one document per line on the same stream
+            }
+            Message msg = adapters.get(type).read(reader);
+            if (msg == null) throw new JsonParseException("Empty message");
+            ok = true;
+            return msg;
+        } catch (IOException | IllegalStateException | IllegalArgumentException e) {
+            throw new JsonParseException(e.getMessage(), e);
+        } finally {
+            if (!ok) reader = null;   // whatever is left in its buffer belongs to the bad line
+        }
+    }
+
+    /**
+     * Structural pass over the line: returns the string value of the last top-level {@code type}
+     * key, or null if there is none (or it is not a string). Builds no tokens or objects.
+     *
+     * @throws JsonParseException unless the line is exactly one balanced JSON object
+     */
+    static MessageType scanType(String json) {
+        int n = json.length();
+        int i = skipWhitespace(json, 0);
+        if (i == n || json.charAt(i) != '{') throw new JsonParseException("Expected a JSON object");
+
+        MessageType type = null;
+        int depth = 0;
+        for (; i < n; i++) {
+            char c = json.charAt(i);
+            if (c == '{' || c == '[') {
+                depth++;
+            } else if (c == '}' || c == ']') {
+                if (--depth == 0) {
+                    if (skipWhitespace(json, i + 1) != n) throw new JsonParseException("Trailing data after message");
+                    return type;
+                }
+            } else if (c == '"') {
+                int end = endOfString(json, i);
+                if (depth == 1 && end - i == 5 && json.startsWith("type", i + 1)) {
+                    int colon = skipWhitespace(json, end + 1);
+                    if (colon < n && json.charAt(colon) == ':') {
+                        int value = skipWhitespace(json, colon + 1);
+                        if (value < n && json.charAt(value) == '"') {
+                            end = endOfString(json, value);
+                            type = typeNamed(json, value + 1, end);
+                        } else {
+                            type = null;
+                            end = colon;
+                        }
+                    }
+                }
+                i = end;
+            }
+        }
+        throw new JsonParseException("Unterminated message");
+    }
+
+    private static int skipWhitespace(String s, int i) {
+        while (i < s.length() && Character.isWhitespace(s.charAt(i))) i++;
+        return i;
+    }
+
+    /* index of the closing quote of the string opening at {@code open} */
+    private static int endOfString(String s, int open) {
+        for (int i = open + 1; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '\\') i++;
+            else if (c == '"') return i;
+        }
+        throw new JsonParseException("Unterminated string");
+    }
+
+    private static MessageType typeNamed(String s, int from, int to) {
+        int len = to - from;
+        for (MessageType t : TYPES) {
+            String name = t.name();
+            if (name.length() == len && s.regionMatches(from, name, 0, len)) return t;
+        }
+        throw new JsonParseException("Unknown message type " + s.substring(from, to));
+    }
+
+    /* ---------- hand-written adapters for the hot messages ---------- */
+
+    /**
+     * Reads by hand; writes through Gson's reflective adapter so output is unchanged.
+     * Handles the base {@link Message} fields and skips unknown ones.
+     */
+    private abstract static class HotAdapter<T extends Message> extends TypeAdapter<T> {
+        private final TypeAdapter<T> writer;
+
+        HotAdapter(TypeAdapter<T> writer) {
+            this.writer = writer;
+        }
+
+        abstract T create();
+
+        /** @return false if {@code name} is not a field of this message */
+        abstract boolean field(T msg, String name, JsonReader in) throws IOException;
+
+        @Override
+        public void write(JsonWriter out, T value) throws IOException {
+            writer.write(out, value);
+        }
+
+        @Override
+        public T read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            T msg = create();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    continue;
+                }
+                switch (name) {
+                    case "type" -> msg.type = MessageType.valueOf(in.nextString());
+                    case "messageId" -> msg.messageId = in.nextString();
+                    case "timestamp" -> msg.timestamp = in.nextLong();
+                    default -> {
+                        if (!field(msg, name, in)) in.skipValue();
+                    }
+                }
+            }
+            in.endObject();
+            return msg;
+        }
+    }
+
+    private static final class HeartbeatAdapter<T extends Message> extends HotAdapter<T> {
+        private final Supplier<T> factory;
+
+        HeartbeatAdapter(TypeAdapter<T> writer, Supplier<T> factory) {
+            super(writer);
+            this.factory = factory;
+        }
+
+        @Override
+        T create() { return factory.get(); }
+
+        @Override
+        boolean field(T msg, String name, JsonReader in) { return false; }
+    }
+
+    private static final class InjectAdapter extends HotAdapter<Inject> {
+        InjectAdapter(TypeAdapter<Inject> writer) { super(writer); }
+
+        @Override
+        Inject create() { return new Inject(null, null); }
+
+        @Override
+        boolean field(Inject msg, String name, JsonReader in) throws IOException {
+            switch (name) {
+                case "matchId" -> msg.matchId = in.nextString();
+                case "systemId" -> msg.systemId = in.nextString();
+                default -> { return false; }
+            }
+            return true;
+        }
+    }
+
+    private static final class TickAdapter extends HotAdapter<Tick> {
+        TickAdapter(TypeAdapter<Tick> writer) { super(writer); }
+
+        @Override
+        Tick create() { return new Tick(null, 0); }
+
+        @Override
+        boolean field(Tick msg, String name, JsonReader in) throws IOException {
+            switch (name) {
+                case "matchId" -> msg.matchId = in.nextString();
+                case "frameId" -> msg.frameId = in.nextInt();
+                case "baseFrameId" -> msg.baseFrameId = in.nextInt();
+                case "systemCooldownStepMs" -> msg.systemCooldownStepMs = in.nextInt();
+                case "packetCooldownStepMsP1" -> msg.packetCooldownStepMsP1 = in.nextInt();
+                case "packetCooldownStepMsP2" -> msg.packetCooldownStepMsP2 = in.nextInt();
+                case "scoreP1" -> msg.scoreP1 = readScore(in);
+                case "scoreP2" -> msg.scoreP2 = readScore(in);
+                case "systems" -> msg.systems = readSystems(in);
+                case "globalSpeedMultiplier" -> msg.globalSpeedMultiplier = in.nextDouble();
+                default -> { return false; }
+            }
+            return true;
+        }
+
+        private static PlayerScore readScore(JsonReader in) throws IOException {
+            PlayerScore s = new PlayerScore();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "delivered" -> s.delivered = in.nextInt();
+                    case "lost" -> s.lost = in.nextInt();
+                    case "totalScore" -> s.totalScore = in.nextInt();
+                    case "ammo" -> s.ammo = in.nextInt();
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return s;
+        }
+
+        private static List<SystemState> readSystems(JsonReader in) throws IOException {
+            List<SystemState> systems = new ArrayList<>();
+            in.beginArray();
+            while (in.hasNext()) {
+                SystemState s = new SystemState();
+                in.beginObject();
+                while (in.hasNext()) {
+                    String name = in.nextName();
+                    if (in.peek() == JsonToken.NULL) {
+                        in.nextNull();
+                        continue;
+                    }
+                    switch (name) {
+                        case "id" -> s.id = in.nextString();
+                        case "ammoP1" -> s.ammoP1 = in.nextInt();
+                        case "ammoP2" -> s.ammoP2 = in.nextInt();
+                        case "systemCooldownMs" -> s.systemCooldownMs = in.nextInt();
+                        case "packetCooldownMsP1" -> s.packetCooldownMsP1 = in.nextInt();
+                        case "packetCooldownMsP2" -> s.packetCooldownMsP2 = in.nextInt();
+                        default -> in.skipValue();
+                    }
+                }
+                in.endObject();
+                systems.add(s);
+            }
+            in.endArray();
+            return systems;
+        }
+    }
+
+    /** A {@link Reader} over a String that can be re-pointed instead of reallocated (no locking). */
+    private static final class LineReader extends Reader {
+        private String s = "";
+        private int pos;
+
+        void reset(String s) {
+            this.s = s;
+            this.pos = 0;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) {
+            if (pos >= s.length()) return -1;
+            int n = Math.min(len, s.length() - pos);
+            s.getChars(pos, pos + n, cbuf, off);
+            pos += n;
+            return n;
+        }
+
+        @Override
+        public void close() {}
+    }
+}
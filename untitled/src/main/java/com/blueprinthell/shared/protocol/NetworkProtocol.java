@@ -1,6 +1,7 @@
 package com.blueprinthell.shared.protocol;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * پروتکل ارتباطی بین Client و Server
@@ -44,22 +45,57 @@ public class NetworkProtocol {
         INJECT,
         TICK,
         STATE_SYNC,
+        TICK_ACK,
         MATCH_END
     }
 
     // Base Message
     public static class Message {
+        /* شناسهٔ ارزان: پیشوند تصادفی یک‌بار برای هر پروسه + شمارنده؛ نه UUID (SecureRandom) برای هر پیام */
+        private static final String ID_PREFIX = UUID.randomUUID().toString().substring(0, 8) + "-";
+        private static final AtomicLong ID_SEQ = new AtomicLong();
+
         public MessageType type;
         public String messageId;
         public long timestamp;
 
         public Message(MessageType type) {
             this.type = type;
-            this.messageId = UUID.randomUUID().toString();
+            this.messageId = ID_PREFIX + ID_SEQ.incrementAndGet();
             this.timestamp = System.currentTimeMillis();
         }
     }
 
+    /** Concrete class carried by each message type on the wire. */
+    public static Class<? extends Message> messageClass(MessageType type) {
+        return switch (type) {
+            case HELLO -> Hello.class;
+            case HELLO_ACK -> HelloAck.class;
+            case HEARTBEAT -> Heartbeat.class;
+            case HEARTBEAT_ACK -> HeartbeatAck.class;
+            case ERROR -> ErrorMessage.class;
+            case SUBMIT_RESULT -> SubmitResult.class;
+            case SUBMIT_RESULT_ACK -> SubmitResultAck.class;
+            case GET_PROFILE -> GetProfile.class;
+            case PROFILE -> Profile.class;
+            case QUEUE_FOR_MATCH -> QueueForMatch.class;
+            case QUEUE_STATUS -> QueueStatus.class;
+            case MATCH_FOUND -> MatchFound.class;
+            case CANCEL_QUEUE -> Message.class;
+            case SUBMIT_LAYOUT -> SubmitLayout.class;
+            case READY_STATE -> ReadyState.class;
+            case EXTEND_REQUEST -> ExtendRequest.class;
+            case EXTEND_GRANTED -> ExtendGranted.class;
+            case BUILD_TICK -> BuildTick.class;
+            case MATCH_START -> MatchStart.class;
+            case INJECT -> Inject.class;
+            case TICK -> Tick.class;
+            case STATE_SYNC -> StateSync.class;
+            case TICK_ACK -> TickAck.class;
+            case MATCH_END -> MatchEnd.class;
+        };
+    }
+
     // Game Mode & Ruleset
     public enum GameMode {
         SOLO_OFFLINE,
@@ -76,8 +112,11 @@ public class NetworkProtocol {
 
     public static class WireLayout {
         public String id;
+        public int eid = -1;     // sender's per-world entity id
+        public int fromBox = -1; // SystemLayout.eid of the source box
         public String fromBoxId;
         public int fromOutIndex;
+        public int toBox = -1;   // SystemLayout.eid of the destination box
         public String toBoxId;
         public int toInIndex;
         public List<Point2D> path;
@@ -92,6 +131,7 @@ public class NetworkProtocol {
 
     public static class SystemLayout {
         public String id;
+        public int eid = -1; // sender's per-world entity id; wires refer to boxes by this
         public String kind; // NORMAL, VPN, DISTRIBUTOR, etc.
         public int x, y, width, height;
         public List<String> inShapes;  // SQUARE, TRIANGLE, CIRCLE
@@ -246,9 +286,19 @@ public class NetworkProtocol {
         }
     }
 
+    /**
+     * Match state at {@code frameId}. With {@code baseFrameId == 0} it is complete; otherwise it
+     * is a delta against the state at {@code baseFrameId} (a frame the client acked): changed
+     * systems only, and a null score means unchanged. See {@link StateDelta}.
+     */
     public static class Tick extends Message {
         public String matchId;
         public int frameId;
+        public int baseFrameId;
+        // کاهش هر فریم cooldown ها؛ دلتا شمارش معکوس قابل‌پیش‌بینی را نمی‌فرستد
+        public int systemCooldownStepMs;
+        public int packetCooldownStepMsP1;
+        public int packetCooldownStepMsP2;
         public PlayerScore scoreP1;
         public PlayerScore scoreP2;
         public List<SystemState> systems;
@@ -265,7 +315,7 @@ public class NetworkProtocol {
     public static class StateSync extends Message {
         public String matchId;
         public int frameId;
-        public String compressedState; // Base64 encoded game state
+        public String compressedState; // Base64 encoded game state (StateDelta.compress)
 
         public StateSync(String matchId, int frame) {
             super(MessageType.STATE_SYNC);
@@ -274,6 +324,20 @@ public class NetworkProtocol {
         }
     }
 
+    /** Client → server: state at {@code frameId} was applied; {@code resync} asks for a keyframe. */
+    public static class TickAck extends Message {
+        public String matchId;
+        public int frameId;
+        public boolean resync;
+
+        public TickAck(String matchId, int frame, boolean resync) {
+            super(MessageType.TICK_ACK);
+            this.matchId = matchId;
+            this.frameId = frame;
+            this.resync = resync;
+        }
+    }
+
     public static class MatchEnd extends Message {
         public String matchId;
         public PlayerScore finalScoreP1;
@@ -321,6 +385,7 @@ public class NetworkProtocol {
     public static class Hello extends Message {
         public String clientVersion;
         public String userId;
+        public List<String> wireFormats; // قالب‌های سیمی پشتیبانی‌شده، مثلاً BinaryCodec.FORMAT؛ null یعنی فقط JSON
 
         public Hello(String clientVersion, String userId) {
             super(MessageType.HELLO);
@@ -332,6 +397,7 @@ public class NetworkProtocol {
     public static class HelloAck extends Message {
         public String serverVersion;
         public String motd;
+        public String wireFormat; // قالب انتخاب‌شده برای ادامهٔ اتصال؛ null یعنی خط‌های JSON
 
         public HelloAck(String serverVersion, String motd) {
             super(MessageType.HELLO_ACK);
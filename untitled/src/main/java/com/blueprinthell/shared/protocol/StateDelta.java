@@ -0,0 +1,201 @@
+package com.blueprinthell.shared.protocol;
+
+import com.blueprinthell.shared.protocol.NetworkProtocol.*;
+import com.google.gson.Gson;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * تکثیر وضعیت مسابقه با دلتا: سرور به جای کل وضعیت هر tick فقط چیزهایی را می‌فرستد که از
+ * آخرین فریم تأییدشدهٔ همان کلاینت ({@link TickAck}) عوض شده‌اند، و گاهی یک keyframe کامل و
+ * فشرده در {@link StateSync}. هر دو طرف با {@link Snapshot} کار می‌کنند.
+ *
+ * <p>cooldown ها هر فریم به اندازهٔ گام ثابتشان کم می‌شوند؛ هر دو طرف پایه را تا فریم جدید
+ * «پیش می‌برند» ({@link #advance}) و فقط تفاوت با این پیش‌بینی (مثلاً cooldown تازه‌شده با INJECT)
+ * فرستاده می‌شود، نه شمارش معکوس هر tick.
+ */
+public final class StateDelta {
+    private static final Gson GSON = new Gson();
+
+    private StateDelta() {}
+
+    /** Complete replicated state at one frame. Treat as immutable once built. */
+    public static final class Snapshot {
+        public final int frameId;
+        public final PlayerScore scoreP1;
+        public final PlayerScore scoreP2;
+        public final Map<String, SystemState> systems;
+        public final double globalSpeedMultiplier;
+        public final int systemCooldownStepMs;
+        public final int packetCooldownStepMsP1;
+        public final int packetCooldownStepMsP2;
+
+        public Snapshot(int frameId, PlayerScore scoreP1, PlayerScore scoreP2,
+                        Map<String, SystemState> systems, double globalSpeedMultiplier,
+                        int systemCooldownStepMs, int packetCooldownStepMsP1, int packetCooldownStepMsP2) {
+            this.frameId = frameId;
+            this.scoreP1 = scoreP1;
+            this.scoreP2 = scoreP2;
+            this.systems = Collections.unmodifiableMap(systems);
+            this.globalSpeedMultiplier = globalSpeedMultiplier;
+            this.systemCooldownStepMs = systemCooldownStepMs;
+            this.packetCooldownStepMsP1 = packetCooldownStepMsP1;
+            this.packetCooldownStepMsP2 = packetCooldownStepMsP2;
+        }
+
+        /** From a complete tick ({@code baseFrameId == 0}). */
+        public static Snapshot of(Tick full) {
+            Map<String, SystemState> systems = new LinkedHashMap<>();
+            if (full.systems != null) {
+                for (SystemState s : full.systems) systems.put(s.id, s);
+            }
+            return new Snapshot(full.frameId, full.scoreP1, full.scoreP2, systems, full.globalSpeedMultiplier,
+                    full.systemCooldownStepMs, full.packetCooldownStepMsP1, full.packetCooldownStepMsP2);
+        }
+
+        /** A complete tick; shares this snapshot's score and system objects. */
+        public Tick toTick(String matchId) {
+            Tick tick = new Tick(matchId, frameId);
+            tick.scoreP1 = scoreP1;
+            tick.scoreP2 = scoreP2;
+            tick.systems = new ArrayList<>(systems.values());
+            tick.globalSpeedMultiplier = globalSpeedMultiplier;
+            tick.systemCooldownStepMs = systemCooldownStepMs;
+            tick.packetCooldownStepMsP1 = packetCooldownStepMsP1;
+            tick.packetCooldownStepMsP2 = packetCooldownStepMsP2;
+            return tick;
+        }
+    }
+
+    /** {@code base}'s systems with cooldowns decayed as they would be by {@code frameId}. */
+    public static Map<String, SystemState> advance(Snapshot base, int frameId) {
+        int frames = Math.max(0, frameId - base.frameId);
+        Map<String, SystemState> out = new LinkedHashMap<>();
+        for (SystemState s : base.systems.values()) {
+            if (frames == 0 || (s.systemCooldownMs == 0 && s.packetCooldownMsP1 == 0 && s.packetCooldownMsP2 == 0)) {
+                out.put(s.id, s);
+                continue;
+            }
+            SystemState p = new SystemState();
+            p.id = s.id;
+            p.ammoP1 = s.ammoP1;
+            p.ammoP2 = s.ammoP2;
+            p.systemCooldownMs = decay(s.systemCooldownMs, base.systemCooldownStepMs, frames);
+            p.packetCooldownMsP1 = decay(s.packetCooldownMsP1, base.packetCooldownStepMsP1, frames);
+            p.packetCooldownMsP2 = decay(s.packetCooldownMsP2, base.packetCooldownStepMsP2, frames);
+            out.put(p.id, p);
+        }
+        return out;
+    }
+
+    private static int decay(int value, int step, int frames) {
+        return (int) Math.max(0, value - (long) step * frames);
+    }
+
+    /** Delta tick from {@code base} to {@code current}; only scores and systems that differ from the prediction. */
+    public static Tick diff(String matchId, Snapshot base, Snapshot current) {
+        Tick tick = new Tick(matchId, current.frameId);
+        tick.baseFrameId = base.frameId;
+        tick.scoreP1 = sameScore(base.scoreP1, current.scoreP1) ? null : current.scoreP1;
+        tick.scoreP2 = sameScore(base.scoreP2, current.scoreP2) ? null : current.scoreP2;
+        Map<String, SystemState> predicted = advance(base, current.frameId);
+        List<SystemState> changed = null;
+        for (SystemState s : current.systems.values()) {
+            if (!sameSystem(predicted.get(s.id), s)) {
+                if (changed == null) changed = new ArrayList<>();
+                changed.add(s);
+            }
+        }
+        tick.systems = changed;
+        tick.globalSpeedMultiplier = current.globalSpeedMultiplier;
+        tick.systemCooldownStepMs = current.systemCooldownStepMs;
+        tick.packetCooldownStepMsP1 = current.packetCooldownStepMsP1;
+        tick.packetCooldownStepMsP2 = current.packetCooldownStepMsP2;
+        return tick;
+    }
+
+    /** Applies a delta tick to the snapshot it was computed against. */
+    public static Snapshot apply(Snapshot base, Tick delta) {
+        Map<String, SystemState> systems = advance(base, delta.frameId);
+        if (delta.systems != null) {
+            for (SystemState s : delta.systems) systems.put(s.id, s);
+        }
+        return new Snapshot(delta.frameId,
+                delta.scoreP1 != null ? delta.scoreP1 : base.scoreP1,
+                delta.scoreP2 != null ? delta.scoreP2 : base.scoreP2,
+                systems, delta.globalSpeedMultiplier,
+                delta.systemCooldownStepMs, delta.packetCooldownStepMsP1, delta.packetCooldownStepMsP2);
+    }
+
+    /* ---------- keyframes ---------- */
+
+    /** Deflated, Base64 encoded full state for {@link StateSync#compressedState}. */
+    public static String compress(Snapshot state) {
+        byte[] json = GSON.toJson(state.toTick(null)).getBytes(StandardCharsets.UTF_8);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(json);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 16);
+            byte[] chunk = new byte[1024];
+            while (!deflater.finished()) {
+                out.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return Base64.getEncoder().encodeToString(out.toByteArray());
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Inverse of {@link #compress}.
+     *
+     * @throws IllegalArgumentException if the data is not a valid keyframe
+     */
+    public static Snapshot decompress(String data) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(Base64.getDecoder().decode(data));
+            ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+            byte[] chunk = new byte[4096];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(chunk);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalArgumentException("truncated keyframe");
+                }
+                out.write(chunk, 0, n);
+            }
+            Tick full = GSON.fromJson(out.toString(StandardCharsets.UTF_8), Tick.class);
+            return Snapshot.of(full);
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("corrupt keyframe", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static boolean sameScore(PlayerScore a, PlayerScore b) {
+        if (a == b) return true;
+        if (a == null || b == null) return false;
+        return a.delivered == b.delivered && a.lost == b.lost
+                && a.totalScore == b.totalScore && a.ammo == b.ammo;
+    }
+
+    private static boolean sameSystem(SystemState a, SystemState b) {
+        if (a == null) return false;
+        return a.ammoP1 == b.ammoP1 && a.ammoP2 == b.ammoP2
+                && a.systemCooldownMs == b.systemCooldownMs
+                && a.packetCooldownMsP1 == b.packetCooldownMsP1
+                && a.packetCooldownMsP2 == b.packetCooldownMsP2;
+    }
+}
@@ -14,7 +14,7 @@ import java.util.*;
  *  - Avoid java.awt.Point to keep JSON lean and toolkit-agnostic.
  */
 public final class NetworkSnapshot implements Serializable {
-    public static final String SCHEMA_VERSION = "model-v3";
+    public static final String SCHEMA_VERSION = "model-v4";
 
     /** Top-level meta information. */
     public Meta meta;
@@ -92,13 +92,15 @@ public final class NetworkSnapshot implements Serializable {
 
     /** Per-port quota/counter for a producer, keyed stably for snapshotting. */
     public static final class PortQuota implements Serializable {
-        public String boxId;
+        public int box = -1;  // BoxState.eid of the owning box
+        public String boxId;  // legacy (model-v3)
         public int outIndex;
         public int producedForThisPort;
     }
 
     public static final class BoxState implements Serializable {
         public String id;                 // SystemBoxModel.getId()
+        public int eid = -1;              // EntityRegistry id; wires/quotas refer to boxes by this
         public SystemKind primaryKind;    // kind at capture time
         public boolean enabled;           // SystemBoxModel.isEnabled()
         public double disableTimer;       // remaining cooldown/disable secs
@@ -136,11 +138,15 @@ public final class NetworkSnapshot implements Serializable {
     public static final class WireState implements Serializable {
         public String id; // WireModel.getCanonicalId()
 
-        public String fromBoxId;
+        public int fromBox = -1; // BoxState.eid
         public int fromOutIndex; // index in fromBox.getOutPorts()
-        public String toBoxId;
+        public int toBox = -1;   // BoxState.eid
         public int toInIndex;    // index in toBox.getInPorts()
 
+        // legacy (model-v3): endpoints by string box id
+        public String fromBoxId;
+        public String toBoxId;
+
         public List<IntPoint> path = new ArrayList<>(); // WirePath.getPoints()
         // Optional: future-proofing if you add fractures/obstacles on wire
         public List<IntPoint> fractures = new ArrayList<>();
@@ -174,6 +180,8 @@ public final class NetworkSnapshot implements Serializable {
         public String family;
         // PacketType enum name (SQUARE, TRIANGLE, CIRCLE) where applicable
         public String type;
+        // EntityRegistry id of the captured packet; lets restore pair live packets without field compares
+        public int eid = -1;
 
         // Motion & runtime scalars
         public double speed;
@@ -184,6 +192,7 @@ public final class NetworkSnapshot implements Serializable {
         public double collisionCooldown;
         public boolean holdWhileCooldown;
         public String kinematicsProfileId; // KinematicsProfile enum name
+        public String motionProfileId;     // per-wire random profile of a ProtectedPacket
 
         // Visual/size (when mutated, e.g., Confidential VPN 4->6 units)
         public Integer width;  // nullable
@@ -0,0 +1,34 @@
+package com.blueprinthell.snapshot;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replay file DTO: world seed + level + the player inputs recorded against tick numbers.
+ * Together with the level definition this is enough to rebuild any tick of a run.
+ */
+public final class ReplayLog implements Serializable {
+    public static final String SCHEMA_VERSION = "replay-v1";
+
+    public String schemaVersion = SCHEMA_VERSION;
+    /** WorldSeed used for every simulation Random in this run. */
+    public long seed;
+    /** LevelManager level number (1-based) the run was recorded on. */
+    public int levelNumber;
+    /** Player inputs in recording order (ticks are non-decreasing). */
+    public List<InputEvent> events = new ArrayList<>();
+
+    public ReplayLog() {}
+
+    public static final class InputEvent implements Serializable {
+        /** Simulation ticks completed when the input happened. */
+        public long tick;
+        /** InputEventLog.Kind name, e.g. WIRE_ADD. */
+        public String kind;
+        /** Kind-specific arguments (box ids, indices, coordinates, item names). */
+        public List<String> args = new ArrayList<>();
+
+        public InputEvent() {}
+    }
+}
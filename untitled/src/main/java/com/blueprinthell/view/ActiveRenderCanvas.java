@@ -0,0 +1,218 @@
+package com.blueprinthell.view;
+
+import com.blueprinthell.config.Config;
+import com.blueprinthell.view.draw.BoxPainter;
+import com.blueprinthell.view.draw.PacketPainter;
+import com.blueprinthell.view.draw.ShapeUtils;
+import com.blueprinthell.view.draw.StaticLayerCache;
+import com.blueprinthell.view.draw.WirePainter;
+
+import java.awt.*;
+import java.awt.image.BufferStrategy;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * حالت رندر فعال: یک Canvas با BufferStrategy که روی ترد خودش و با نرخ تازه‌سازی نمایشگر
+ * آخرین {@link RenderFrame} منتشرشده را رسم می‌کند. شبیه‌سازی فقط فریم منتشر می‌کند و
+ * هیچ repaint ای صدا نمی‌زند؛ HUD به‌صورت overlay روی همان بافر کشیده می‌شود.
+ */
+public final class ActiveRenderCanvas extends Canvas {
+    private static final int FALLBACK_REFRESH_HZ = 60;
+    private static final Font HUD_FONT = new Font("Dialog", Font.BOLD, 12);
+    private static final Color HUD_BG = new Color(0, 0, 0, 140);
+
+    private final AtomicReference<RenderFrame> latest = new AtomicReference<>();
+    /* فقط روی ترد رندر خوانده/نوشته می‌شود */
+    private final StaticLayerCache staticLayer = new StaticLayerCache();
+    private final Point at = new Point();
+    private volatile PerfOverlay perfOverlay;
+    private volatile Camera camera;
+    private volatile boolean running;
+    private Thread renderThread;
+
+    public ActiveRenderCanvas() {
+        setIgnoreRepaint(true);
+        setBackground(Color.WHITE);
+        setFocusable(false);
+    }
+
+    /** Called from the simulation side; the render thread always draws the newest frame. */
+    public void publish(RenderFrame frame) {
+        latest.set(frame);
+    }
+
+    public RenderFrame getLatestFrame() {
+        return latest.get();
+    }
+
+    /** Overlay whose frame times this canvas feeds and whose text it draws over the HUD. */
+    public void setPerfOverlay(PerfOverlay overlay) {
+        this.perfOverlay = overlay;
+    }
+
+    /** Camera of the game area; world geometry is drawn through it and culled to the viewport. */
+    public void setCamera(Camera camera) {
+        this.camera = camera;
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        createBufferStrategy(2);
+        running = true;
+        renderThread = new Thread(this::renderLoop, "active-render");
+        renderThread.setDaemon(true);
+        renderThread.start();
+    }
+
+    @Override
+    public void removeNotify() {
+        running = false;
+        Thread t = renderThread;
+        renderThread = null;
+        if (t != null) {
+            t.interrupt();
+            try { t.join(250); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+        }
+        super.removeNotify();
+    }
+
+    private long framePeriodNanos() {
+        int hz = DisplayMode.REFRESH_RATE_UNKNOWN;
+        GraphicsConfiguration gc = getGraphicsConfiguration();
+        if (gc != null) hz = gc.getDevice().getDisplayMode().getRefreshRate();
+        if (hz <= 0) hz = FALLBACK_REFRESH_HZ;
+        return 1_000_000_000L / hz;
+    }
+
+    private void renderLoop() {
+        long period = framePeriodNanos();
+        long next = System.nanoTime();
+        while (running) {
+            RenderFrame frame = latest.get();
+            if (frame != null) renderOnce(frame);
+
+            next += period;
+            long now = System.nanoTime();
+            if (now - next > period) next = now; // عقب افتاده‌ایم؛ فریم‌ها را جبران نکن
+            long wait = next - now;
+            if (wait > 0) LockSupport.parkNanos(wait);
+        }
+    }
+
+    private void renderOnce(RenderFrame frame) {
+        BufferStrategy bs = getBufferStrategy();
+        if (bs == null) return;
+        try {
+            do {
+                do {
+                    Graphics2D g2 = (Graphics2D) bs.getDrawGraphics();
+                    try {
+                        draw(g2, frame);
+                    } finally {
+                        g2.dispose();
+                    }
+                } while (bs.contentsRestored());
+                bs.show();
+            } while (bs.contentsLost());
+            Toolkit.getDefaultToolkit().sync();
+            PerfOverlay overlay = perfOverlay;
+            if (overlay != null) overlay.frameRendered();
+        } catch (IllegalStateException ignore) {
+            // peer در حال حذف است (removeNotify)؛ فریم بعدی اجرا نمی‌شود
+        }
+    }
+
+    protected void draw(Graphics2D g2, RenderFrame frame) {
+        g2.setColor(getBackground());
+        g2.fillRect(0, 0, getWidth(), getHeight());
+        ShapeUtils.enableQuality(g2);
+
+        // یک وضعیت دوربین برای کل فریم؛ لایهٔ ایستا با تغییر دوربین باطل می‌شود
+        Camera cam = camera;
+        Camera.State view = (cam != null) ? cam.state() : new Camera().state();
+        Rectangle visible = view.visibleWorld(getWidth(), getHeight());
+        java.awt.geom.AffineTransform screen = g2.getTransform();
+
+        if (Config.STATIC_LAYER_CACHE) {
+            BufferedImage layer = staticLayer.get(getGraphicsConfiguration(), getWidth(), getHeight(),
+                    frame.staticGeneration, g -> {
+                        view.apply(g);
+                        drawStatic(g, frame, true, visible);
+                    });
+            if (layer != null) g2.drawImage(layer, 0, 0, null);
+            view.apply(g2);
+            // جعبه‌های غیرفعال افکت پویا هستند و روی لایهٔ کش‌شده کشیده می‌شوند
+            for (RenderFrame.Box b : frame.boxes) {
+                if (!b.enabled() && intersects(b, visible)) drawBox(g2, b, false);
+            }
+        } else {
+            view.apply(g2);
+            drawStatic(g2, frame, false, visible);
+        }
+        for (RenderFrame.Wire w : frame.wires) {
+            if (w.heat() > 0) WirePainter.paintHeat(g2, w.points(), w.heat());
+        }
+
+        double alpha = Math.min(1.0, Math.max(0.0,
+                (System.nanoTime() - frame.publishedAtNanos) / (double) Math.max(1L, frame.stepNanos)));
+        for (RenderFrame.Packet p : frame.packets) {
+            int x = p.x(), y = p.y();
+            if (p.motion() != null) {
+                p.motion().locate(alpha, p.w(), p.h(), at);
+                x = at.x;
+                y = at.y;
+            }
+            if (!visible.intersects(x, y, p.w(), p.h())) continue;
+            g2.translate(x, y);
+            PacketPainter.paint(g2, p.sprite(), p.w(), p.h());
+            g2.translate(-x, -y);
+        }
+
+        g2.setTransform(screen);
+        drawHud(g2, frame);
+    }
+
+    private static void drawStatic(Graphics2D g2, RenderFrame frame, boolean allEnabled, Rectangle visible) {
+        for (RenderFrame.Box b : frame.boxes) {
+            if (intersects(b, visible)) drawBox(g2, b, allEnabled || b.enabled());
+        }
+        for (RenderFrame.Wire w : frame.wires) {
+            WirePainter.paint(g2, w.points());
+        }
+    }
+
+    /* پورت‌ها کمی بیرون از جعبه‌اند؛ با حاشیهٔ یک پورت بسنج */
+    private static boolean intersects(RenderFrame.Box b, Rectangle visible) {
+        int m = Config.PORT_SIZE;
+        return visible.intersects(b.x() - m, b.y() - m, b.w() + 2 * m, b.h() + 2 * m);
+    }
+
+    private static void drawBox(Graphics2D g2, RenderFrame.Box b, boolean enabled) {
+        g2.translate(b.x(), b.y());
+        BoxPainter.paint(g2, b.kind(), enabled, b.w(), b.h());
+        g2.translate(-b.x(), -b.y());
+        for (RenderFrame.Port p : b.ports()) {
+            g2.translate(p.x(), p.y());
+            BoxPainter.paintPort(g2, p.shape(), p.input(), p.size());
+            g2.translate(-p.x(), -p.y());
+        }
+    }
+
+    protected void drawHud(Graphics2D g2, RenderFrame frame) {
+        String text = "Score: " + frame.score + "   Coins: " + frame.coins + "   Loss: " + frame.packetLoss;
+        g2.setFont(HUD_FONT);
+        FontMetrics fm = g2.getFontMetrics();
+        int w = fm.stringWidth(text) + 12;
+        int h = fm.getHeight() + 6;
+        g2.setColor(HUD_BG);
+        g2.fillRoundRect(6, 6, w, h, 8, 8);
+        g2.setColor(Color.WHITE);
+        g2.drawString(text, 12, 6 + 3 + fm.getAscent());
+
+        PerfOverlay overlay = perfOverlay;
+        if (overlay != null && overlay.isOverlayShown()) PerfOverlay.paintLines(g2, overlay.getLines(), getWidth());
+    }
+}
@@ -0,0 +1,99 @@
+package com.blueprinthell.view;
+
+import com.blueprinthell.config.Config;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * دوربین gameArea: نگاشت مختصات جهان (مدل‌ها) به مختصات صفحه با زوم و جابه‌جایی.
+ * screen = (world - offset) * zoom. مدل‌ها همیشه در مختصات جهان می‌مانند؛ فقط ویوها و رسم
+ * از این نگاشت استفاده می‌کنند.
+ *
+ * <p>وضعیت یک رکورد تغییرناپذیر است که یکجا جایگزین می‌شود، پس ترد رندر فعال هم می‌تواند
+ * بدون قفل بخواندش. تغییرات فقط روی EDT انجام می‌شوند.
+ */
+public final class Camera {
+    /** Client property on the game area holding its camera; see {@link #of(Component)}. */
+    public static final String CLIENT_KEY = "blueprinthell.camera";
+
+    /** One consistent reading of the camera. */
+    public record State(double offsetX, double offsetY, double zoom) {
+        public int toScreenX(double wx) { return (int) Math.floor((wx - offsetX) * zoom); }
+        public int toScreenY(double wy) { return (int) Math.floor((wy - offsetY) * zoom); }
+
+        public Point toScreen(Point world) {
+            return new Point(toScreenX(world.x), toScreenY(world.y));
+        }
+
+        public Rectangle toScreen(int x, int y, int w, int h) {
+            int sx = toScreenX(x), sy = toScreenY(y);
+            return new Rectangle(sx, sy, Math.max(1, toScreenX(x + w) - sx), Math.max(1, toScreenY(y + h) - sy));
+        }
+
+        public Point toWorld(Point screen) {
+            return new Point((int) Math.round(screen.x / zoom + offsetX),
+                             (int) Math.round(screen.y / zoom + offsetY));
+        }
+
+        /** World rectangle visible in a {@code w}×{@code h} screen area. */
+        public Rectangle visibleWorld(int w, int h) {
+            return new Rectangle((int) Math.floor(offsetX), (int) Math.floor(offsetY),
+                    (int) Math.ceil(w / zoom) + 1, (int) Math.ceil(h / zoom) + 1);
+        }
+
+        /** Maps world drawing onto the screen: scale, then shift by the offset. */
+        public void apply(Graphics2D g2) {
+            g2.scale(zoom, zoom);
+            g2.translate(-offsetX, -offsetY);
+        }
+
+        public boolean isIdentity() { return offsetX == 0 && offsetY == 0 && zoom == 1; }
+    }
+
+    private static final State IDENTITY = new State(0, 0, 1);
+
+    private volatile State state = IDENTITY;
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+
+    public State state() { return state; }
+
+    public void addListener(Runnable l) { listeners.add(l); }
+
+    /** Moves the view by a screen-space drag delta. */
+    public void panBy(int dxScreen, int dyScreen) {
+        State s = state;
+        set(new State(s.offsetX - dxScreen / s.zoom, s.offsetY - dyScreen / s.zoom, s.zoom));
+    }
+
+    /** Multiplies the zoom by {@code factor}, keeping the world point under {@code anchor} fixed. */
+    public void zoomAt(double factor, Point anchor) {
+        State s = state;
+        double z = Math.max(Config.CAMERA_MIN_ZOOM, Math.min(Config.CAMERA_MAX_ZOOM, s.zoom * factor));
+        if (z == s.zoom) return;
+        double wx = anchor.x / s.zoom + s.offsetX;
+        double wy = anchor.y / s.zoom + s.offsetY;
+        set(new State(wx - anchor.x / z, wy - anchor.y / z, z));
+    }
+
+    public void reset() {
+        set(IDENTITY);
+    }
+
+    private void set(State next) {
+        state = next;
+        for (Runnable l : listeners) l.run();
+    }
+
+    /** Camera state of the nearest ancestor game area, or identity if {@code c} is not inside one. */
+    public static State of(Component c) {
+        for (Component p = c; p != null; p = p.getParent()) {
+            if (p instanceof JComponent jc && jc.getClientProperty(CLIENT_KEY) instanceof Camera cam) {
+                return cam.state;
+            }
+        }
+        return IDENTITY;
+    }
+}
@@ -1,14 +1,20 @@
 package com.blueprinthell.view;
 
 import com.blueprinthell.controller.gameplay.EliphasCenteringController;
+import com.blueprinthell.view.draw.DirtyRegion;
 
 import javax.swing.*;
 import java.awt.*;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 public class EliphasPointRenderer extends JComponent {
     private final EliphasCenteringController controller;
     private Timer repaintTimer;
+    /* نقاطی که در تیک قبلی کشیده شدند؛ برای پاک‌کردن نقطه‌های منقضی */
+    private Set<Point> lastPoints = Set.of();
+    private final DirtyRegion dirty = new DirtyRegion();
 
     public EliphasPointRenderer(EliphasCenteringController controller) {
         this.controller = controller;
@@ -19,7 +25,7 @@ public class EliphasPointRenderer extends JComponent {
     @Override public void addNotify() {
         super.addNotify();
         if (repaintTimer == null) {
-            repaintTimer = new Timer(100, e -> repaint()); // 10fps برای شمارنده و حلقه‌ها
+            repaintTimer = new Timer(100, e -> repaintPoints()); // 10fps برای شمارنده و حلقه‌ها
             repaintTimer.start();
         }
     }
@@ -28,10 +34,24 @@ public class EliphasPointRenderer extends JComponent {
         super.removeNotify();
     }
 
+    /* فقط دور نقاط فعال (و نقاطی که تازه منقضی شده‌اند) دوباره کشیده می‌شود */
+    private void repaintPoints() {
+        if (controller == null) return;
+        Set<Point> now = new HashSet<>(controller.getActivePoints().keySet());
+        if (now.isEmpty() && lastPoints.isEmpty()) return;
+        Camera.State cam = Camera.of(getParent());
+        int r = (int) Math.round(controller.getEffectRadiusPixels()) + 2;
+        for (Point p : lastPoints) dirty.add(cam.toScreen(p.x - r, p.y - r, 2 * r, 2 * r));
+        for (Point p : now) dirty.add(cam.toScreen(p.x - r, p.y - r, 2 * r, 2 * r));
+        lastPoints = now;
+        dirty.flush(this);
+    }
+
     @Override protected void paintComponent(Graphics g) {
         super.paintComponent(g);
         if (controller == null) return;
         Graphics2D g2 = (Graphics2D) g.create();
+        Camera.of(getParent()).apply(g2); // نقاط در مختصات جهان‌اند
         g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 
         Map<Point, Double> map = controller.getActivePoints();
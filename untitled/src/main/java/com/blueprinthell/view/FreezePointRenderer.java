@@ -1,10 +1,13 @@
 package com.blueprinthell.view;
 
 import com.blueprinthell.controller.gameplay.AccelerationFreezeController;
+import com.blueprinthell.view.draw.DirtyRegion;
 
 import javax.swing.*;
 import java.awt.*;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * رندر کننده نقاط انجماد فعال
@@ -14,15 +17,32 @@ public class FreezePointRenderer extends JComponent {
     private final AccelerationFreezeController controller;
     private static final int EFFECT_RADIUS = 30;
 
+    /* نقاطی که در به‌روزرسانی قبلی کشیده شدند؛ برای پاک‌کردن نقطه‌های منقضی */
+    private Set<Point> lastPoints = Set.of();
+    private final DirtyRegion dirty = new DirtyRegion();
+
     public FreezePointRenderer(AccelerationFreezeController controller) {
         this.controller = controller;
         setOpaque(false);
     }
 
+    /** Repaints only around active (and just-expired) freeze points. */
+    public void repaintPoints() {
+        Set<Point> now = new HashSet<>(controller.getActiveFreezePoints().keySet());
+        if (now.isEmpty() && lastPoints.isEmpty()) return;
+        Camera.State cam = Camera.of(getParent());
+        int r = EFFECT_RADIUS + 2;
+        for (Point p : lastPoints) dirty.add(cam.toScreen(p.x - r, p.y - r, 2 * r, 2 * r));
+        for (Point p : now) dirty.add(cam.toScreen(p.x - r, p.y - r, 2 * r, 2 * r));
+        lastPoints = now;
+        dirty.flush(this);
+    }
+
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
         Graphics2D g2 = (Graphics2D) g.create();
+        Camera.of(getParent()).apply(g2); // نقاط در مختصات جهان‌اند
 
         // فعال کردن antialiasing
         g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
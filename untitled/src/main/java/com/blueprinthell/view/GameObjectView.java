@@ -14,8 +14,9 @@ public abstract class GameObjectView<T extends GameObjectModel> extends JCompone
     }
 
 
+    /** Re-reads the model's world bounds and maps them through the game area's {@link Camera}. */
     public void refresh() {
-        setBounds(model.getX(), model.getY(), model.getWidth(), model.getHeight());
+        setBounds(Camera.of(getParent()).toScreen(model.getX(), model.getY(), model.getWidth(), model.getHeight()));
         repaint();
     }
 }
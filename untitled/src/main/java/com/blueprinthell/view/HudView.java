@@ -20,6 +20,11 @@ public class HudView extends JPanel {
 
     private final JLabel rightWarningLabel;
 
+    /* آخرین مقادیر نمایش‌داده؛ تا تغییر نکنند چیزی دوباره چیده یا کشیده نمی‌شود */
+    private String shownWarning = "";
+    private List<String> shownFeatures = List.of();
+    private List<Integer> shownSeconds = List.of();
+
     public HudView(int x, int y, int width, int height) {
         setLayout(new FlowLayout(FlowLayout.LEFT, 10, 5));
         setOpaque(true);
@@ -73,6 +78,9 @@ public class HudView extends JPanel {
     public void setPacketLoss(int loss)    { packetLossLabel.setText("Loss: " + loss); }
     public void setCoins(int coins)        { coinsLabel.setText("Coins: " + coins); }
     public void setRightWarning(String msg) {
+        String key = (msg == null) ? "" : msg.strip();
+        if (key.equals(shownWarning)) return;
+        shownWarning = key;
         if (msg == null || msg.isBlank()) {
             rightWarningLabel.setVisible(false);
             rightWarningLabel.setText("");
@@ -86,6 +94,9 @@ public class HudView extends JPanel {
 
 
     public void setActiveFeatures(List<String> names, List<Integer> remainingSeconds) {
+        if (names.equals(shownFeatures) && remainingSeconds.equals(shownSeconds)) return;
+        shownFeatures = List.copyOf(names);
+        shownSeconds = List.copyOf(remainingSeconds);
         activeFeaturesPanel.removeAll();
         for (int i = 0; i < names.size(); i++) {
             String name = names.get(i);
@@ -0,0 +1,241 @@
+package com.blueprinthell.view;
+
+import com.blueprinthell.config.Config;
+import com.blueprinthell.model.PacketModel;
+import com.blueprinthell.model.WireModel;
+import com.blueprinthell.view.draw.DirtyRegion;
+import com.blueprinthell.view.draw.PacketPainter;
+import com.blueprinthell.view.draw.RenderDetail;
+import com.blueprinthell.view.draw.ShapeUtils;
+import com.blueprinthell.view.draw.WirePainter;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.DoubleSupplier;
+import java.util.function.Function;
+
+/**
+ * یک بوم شفاف روی کل gameArea که همهٔ پکت‌ها را در یک گذر paint مستقیم از مدل رسم می‌کند.
+ * جایگزین یک PacketView برای هر پکت؛ tooltip و hit-test از یک شبکهٔ فضایی ساده پاسخ داده می‌شوند
+ * و {@link #contains} فقط روی پکت‌ها true است، پس کلیک‌ها به سیم‌ها و جعبه‌های زیرین می‌رسند.
+ *
+ * <p>بازرسم فقط ناحیه‌های کثیف را می‌پوشاند: برای هر پکت مسیری که در گام فعلی طی می‌کند
+ * ({@link #spans}) و همان ناحیه از گام قبل، تا جای قبلی پاک و جای جدید کشیده شود.
+ */
+public final class PacketLayerView extends JComponent {
+    private static final int CELL = 32;
+
+    private final List<WireModel> wires;
+
+    /* پکت‌های قابل رسم در آخرین rebuild، به ترتیب رسم */
+    private final List<PacketModel> drawn = new ArrayList<>();
+    /* cell key → packets overlapping that cell */
+    private final Map<Integer, List<PacketModel>> grid = new HashMap<>();
+    /* جزئیات کم: سیم‌های شلوغ به‌جای پکت‌هایشان یک نوار حرارتی می‌گیرند */
+    private final List<RenderFrame.Wire> heatStrips = new ArrayList<>();
+    private final Consumer<Boolean> detailListener = low -> {
+        if (low) ToolTipManager.sharedInstance().unregisterComponent(this);
+        else ToolTipManager.sharedInstance().registerComponent(this);
+    };
+
+    /* درون‌یابی (اختیاری): حرکت هر پکت در گام آخر و کسر گام فعلی */
+    private Function<PacketModel, PacketMotion> motions;
+    private DoubleSupplier alpha;
+    private Timer frameTimer;
+    private final Point at = new Point();
+
+    /* ناحیه‌های صفحه که پکت‌ها/نوارهای حرارتی در گام فعلی و گام قبل اشغال می‌کنند */
+    private List<Rectangle> spans = new ArrayList<>();
+    private List<Rectangle> previousSpans = new ArrayList<>();
+    private final DirtyRegion dirty = new DirtyRegion();
+
+    public PacketLayerView(List<WireModel> wires) {
+        this.wires = wires;
+        setOpaque(false);
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        fitParent();
+        RenderDetail.INSTANCE.addListener(detailListener);
+        detailListener.accept(RenderDetail.INSTANCE.isLow());
+        if (motions != null) startFrameTimer();
+    }
+
+    @Override
+    public void removeNotify() {
+        RenderDetail.INSTANCE.removeListener(detailListener);
+        if (frameTimer != null) frameTimer.stop();
+        frameTimer = null;
+        super.removeNotify();
+    }
+
+    /**
+     * Draws packets between their last two ticks. A repaint timer at the display refresh
+     * rate runs while the layer is showing, so the picture moves between simulation steps.
+     */
+    public void setInterpolation(Function<PacketModel, PacketMotion> motions, DoubleSupplier alpha) {
+        this.motions = motions;
+        this.alpha = alpha;
+        if (isDisplayable()) startFrameTimer();
+    }
+
+    private void startFrameTimer() {
+        if (frameTimer != null) return;
+        int hz = DisplayMode.REFRESH_RATE_UNKNOWN;
+        GraphicsConfiguration gc = getGraphicsConfiguration();
+        if (gc != null) hz = gc.getDevice().getDisplayMode().getRefreshRate();
+        if (hz <= 0) hz = 60;
+        frameTimer = new Timer(Math.max(1, 1000 / hz), e -> {
+            // فقط وسط گام و فقط جایی که پکت‌ها در این گام حرکت می‌کنند
+            if (alpha.getAsDouble() < 1.0) {
+                for (Rectangle r : spans) dirty.add(r);
+                dirty.flush(this);
+            }
+        });
+        frameTimer.start();
+    }
+
+    /**
+     * Re-reads packet positions from the wires and rebuilds the spatial lookup. The areas the
+     * packets left and entered are queued for {@link #flushDirty()}. Call on the EDT.
+     */
+    public void rebuild() {
+        fitParent();
+        drawn.clear();
+        heatStrips.clear();
+        for (List<PacketModel> cell : grid.values()) cell.clear();
+
+        boolean low = RenderDetail.INSTANCE.isLow();
+        Camera.State cam = Camera.of(getParent());
+        List<Rectangle> nextSpans = previousSpans;
+        nextSpans.clear();
+        for (WireModel wire : wires) {
+            List<PacketModel> packets = wire.getPackets();
+            if (low && packets.size() >= Config.LOD_HEAT_WIRE_PACKETS) {
+                heatStrips.add(new RenderFrame.Wire(wire.getPath().getPoints(),
+                        WirePainter.heatOf(packets.size(), wire.getLength())));
+                continue;
+            }
+            for (PacketModel pm : packets) {
+                drawn.add(pm);
+                nextSpans.add(spanOf(cam, pm));
+                if (low) continue; // بدون tooltip به شبکهٔ hit-test نیازی نیست
+                int x0 = Math.floorDiv(pm.getX(), CELL), x1 = Math.floorDiv(pm.getX() + pm.getWidth(), CELL);
+                int y0 = Math.floorDiv(pm.getY(), CELL), y1 = Math.floorDiv(pm.getY() + pm.getHeight(), CELL);
+                for (int cx = x0; cx <= x1; cx++) {
+                    for (int cy = y0; cy <= y1; cy++) {
+                        grid.computeIfAbsent(key(cx, cy), k -> new ArrayList<>()).add(pm);
+                    }
+                }
+            }
+        }
+        for (RenderFrame.Wire strip : heatStrips) nextSpans.add(stripBounds(cam, strip.points()));
+
+        for (Rectangle r : spans) dirty.add(r);
+        for (Rectangle r : nextSpans) dirty.add(r);
+        previousSpans = spans;
+        spans = nextSpans;
+    }
+
+    /** Repaints only the regions queued by the last {@link #rebuild()}. */
+    public void flushDirty() {
+        dirty.flush(this);
+    }
+
+    /* ناحیهٔ صفحه که پکت در طول گام فعلی جارو می‌کند (ابتدا، وسط و انتهای حرکت) */
+    private Rectangle spanOf(Camera.State cam, PacketModel pm) {
+        int w = pm.getWidth(), h = pm.getHeight();
+        Rectangle world = new Rectangle(pm.getX(), pm.getY(), w, h);
+        PacketMotion m = (motions != null) ? motions.apply(pm) : null;
+        if (m != null) {
+            for (double a : new double[]{0.0, 0.5, 1.0}) {
+                m.locate(a, w, h, at);
+                world.add(new Rectangle(at.x, at.y, w, h));
+            }
+        }
+        return cam.toScreen(world.x, world.y, world.width, world.height);
+    }
+
+    private static Rectangle stripBounds(Camera.State cam, List<Point> pts) {
+        Rectangle world = new Rectangle(pts.get(0));
+        for (Point p : pts) world.add(p);
+        int pad = (int) Math.ceil(WirePainter.HEAT_STROKE.getLineWidth());
+        world.grow(pad, pad);
+        return cam.toScreen(world.x, world.y, world.width, world.height);
+    }
+
+    /** Top-most packet under world point (x, y), or {@code null}. */
+    public PacketModel packetAt(int x, int y) {
+        List<PacketModel> cell = grid.get(key(Math.floorDiv(x, CELL), Math.floorDiv(y, CELL)));
+        if (cell == null) return null;
+        for (int i = cell.size() - 1; i >= 0; i--) {
+            PacketModel pm = cell.get(i);
+            if (x >= pm.getX() && x < pm.getX() + pm.getWidth()
+                    && y >= pm.getY() && y < pm.getY() + pm.getHeight()) {
+                return pm;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public boolean contains(int x, int y) {
+        Point w = Camera.of(getParent()).toWorld(new Point(x, y));
+        return packetAt(w.x, w.y) != null;
+    }
+
+    @Override
+    public String getToolTipText(MouseEvent e) {
+        Point w = Camera.of(getParent()).toWorld(e.getPoint());
+        PacketModel pm = packetAt(w.x, w.y);
+        return (pm != null) ? pm.getType().name() : null;
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Graphics2D g2 = (Graphics2D) g.create();
+        try {
+            ShapeUtils.enableQuality(g2);
+            Camera.of(getParent()).apply(g2); // از اینجا مختصات جهان؛ clip هم نگاشته می‌شود
+            Rectangle clip = g2.getClipBounds();
+            for (RenderFrame.Wire strip : heatStrips) {
+                WirePainter.paintHeat(g2, strip.points(), strip.heat());
+            }
+            double a = (motions != null) ? alpha.getAsDouble() : 1.0;
+            for (PacketModel pm : drawn) {
+                int x = pm.getX(), y = pm.getY(), w = pm.getWidth(), h = pm.getHeight();
+                PacketMotion m = (motions != null) ? motions.apply(pm) : null;
+                if (m != null) {
+                    m.locate(a, w, h, at);
+                    x = at.x;
+                    y = at.y;
+                }
+                if (clip != null && !clip.intersects(x, y, w, h)) continue;
+                g2.translate(x, y);
+                PacketPainter.paint(g2, pm, w, h);
+                g2.translate(-x, -y);
+            }
+        } finally {
+            g2.dispose();
+        }
+    }
+
+    private void fitParent() {
+        Container parent = getParent();
+        if (parent != null && (getWidth() != parent.getWidth() || getHeight() != parent.getHeight())) {
+            setBounds(0, 0, parent.getWidth(), parent.getHeight());
+        }
+    }
+
+    private static int key(int cx, int cy) {
+        return (cx << 16) ^ (cy & 0xFFFF);
+    }
+}
@@ -0,0 +1,23 @@
+package com.blueprinthell.view;
+
+import com.blueprinthell.model.WirePath;
+import com.blueprinthell.model.WirePhysics;
+
+import java.awt.*;
+
+/**
+ * دو tick متوالی یک پکت روی سیمش: پیشرفت قبلی/فعلی و جابه‌جایی رسم نسبت به نقطهٔ روی سیم
+ * (برای حرکت‌های drift). رندر با کسر گام ثابت بین این دو درون‌یابی می‌کند تا شبیه‌سازی با نرخ
+ * پایین‌تر از نمایشگر هم نرم دیده شود. تغییرناپذیر است و ترد رندر فعال هم می‌خواندش.
+ */
+public record PacketMotion(WirePath path, double fromProgress, double toProgress,
+                           int fromDx, int fromDy, int toDx, int toDy) {
+
+    /** Top-left corner of a {@code w}×{@code h} packet at {@code alpha} ∈ [0,1] of the step. */
+    public void locate(double alpha, int w, int h, Point out) {
+        double t = fromProgress + (toProgress - fromProgress) * alpha;
+        Point c = WirePhysics.pointAt(path, t);
+        out.x = c.x - w / 2 + (int) Math.round(fromDx + (toDx - fromDx) * alpha);
+        out.y = c.y - h / 2 + (int) Math.round(fromDy + (toDy - fromDy) * alpha);
+    }
+}
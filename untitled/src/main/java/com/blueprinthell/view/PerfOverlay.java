@@ -0,0 +1,239 @@
+package com.blueprinthell.view;
+
+import com.blueprinthell.model.WireModel;
+
+import javax.swing.*;
+import java.awt.*;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * پوشش اندازه‌گیری کارایی روی gameArea (با F3 روشن/خاموش): tick شبیه‌سازی در ثانیه، FPS رندر،
+ * صدک ۵۰/۹۹ زمان فریم در {@link #WINDOW_SECONDS} ثانیهٔ اخیر، نرخ تخصیص حافظه، تعداد و زمان
+ * جمع‌آوری‌های GC و شمار پکت/سیم/ویو. تا وقتی خاموش است فقط یک بررسی boolean در مسیر رسم هزینه دارد.
+ *
+ * <p>GC فقط شمارنده‌های GarbageCollectorMXBean را دارد، پس «مکث» این‌جا میانگین زمان/تعداد
+ * در هر بازهٔ نمونه‌برداری است، نه بلندترین مکث واقعی.
+ *
+ * <p>{@link #frameRendered()} از هر ترد رندری قابل صدا زدن است؛ نمونه‌برداری و رسم روی EDT است.
+ */
+public final class PerfOverlay extends JComponent {
+    public static final int WINDOW_SECONDS = 5;
+    private static final int SAMPLE_MS = 1000;
+    private static final int RING = 4096;
+    private static final Font FONT = new Font(Font.MONOSPACED, Font.PLAIN, 12);
+    private static final Color BG = new Color(0, 0, 0, 170);
+
+    /* زمان ثبت هر فریم (nanoTime)؛ حلقه‌ای، با قفل روی خودش */
+    private final long[] frameAt = new long[RING];
+    private int frameHead, frameCount;
+
+    private volatile boolean shown;
+    private Timer sampler; // با اولین نمایش ساخته می‌شود
+
+    private LongSupplier ticks = () -> 0L;
+    private Supplier<List<WireModel>> wires = List::of;
+    private IntSupplier viewCount = () -> 0;
+
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+    private long lastSampleNanos, lastTick, lastAllocated, lastEdtAllocated;
+    private long[] lastGcCount, lastGcTime;
+    private long worstGcMs;
+
+    private volatile String[] lines = new String[0];
+
+    public PerfOverlay() {
+        setOpaque(false);
+        setVisible(false);
+    }
+
+    public void setSources(LongSupplier ticks, Supplier<List<WireModel>> wires, IntSupplier viewCount) {
+        this.ticks = ticks;
+        this.wires = wires;
+        this.viewCount = viewCount;
+    }
+
+    public boolean isOverlayShown() { return shown; }
+
+    public void setOverlayShown(boolean on) {
+        if (on == shown) return;
+        shown = on;
+        setVisible(on);
+        if (on) {
+            synchronized (frameAt) { frameCount = 0; }
+            resetBaselines();
+            lines = new String[]{"perf: sampling…"};
+            if (sampler == null) sampler = new Timer(SAMPLE_MS, e -> sample());
+            sampler.start();
+        } else if (sampler != null) {
+            sampler.stop();
+        }
+        repaint();
+    }
+
+    /** Records that a frame finished now. Cheap no-op while the overlay is off. */
+    public void frameRendered() {
+        if (!shown) return;
+        long now = System.nanoTime();
+        synchronized (frameAt) {
+            frameAt[frameHead] = now;
+            frameHead = (frameHead + 1) % RING;
+            if (frameCount < RING) frameCount++;
+        }
+    }
+
+    /** Latest text lines; the active renderer draws these itself. */
+    public String[] getLines() { return lines; }
+
+    @Override
+    public boolean contains(int x, int y) {
+        return false; // کلیک‌ها به زیر می‌رسند
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Graphics2D g2 = (Graphics2D) g.create();
+        try {
+            paintLines(g2, lines, getWidth());
+        } finally {
+            g2.dispose();
+        }
+    }
+
+    /** Draws {@code text} in a box at the top-right of a {@code width}-wide area. */
+    public static void paintLines(Graphics2D g2, String[] text, int width) {
+        if (text.length == 0) return;
+        g2.setFont(FONT);
+        FontMetrics fm = g2.getFontMetrics();
+        int w = 0;
+        for (String s : text) w = Math.max(w, fm.stringWidth(s));
+        int lh = fm.getHeight();
+        int x = width - w - 18, y = 6;
+        g2.setColor(BG);
+        g2.fillRoundRect(x, y, w + 12, lh * text.length + 8, 8, 8);
+        g2.setColor(Color.GREEN);
+        for (int i = 0; i < text.length; i++) {
+            g2.drawString(text[i], x + 6, y + 4 + fm.getAscent() + i * lh);
+        }
+    }
+
+    private void resetBaselines() {
+        lastSampleNanos = System.nanoTime();
+        lastTick = ticks.getAsLong();
+        lastAllocated = totalAllocated();
+        lastEdtAllocated = allocatedBy(Thread.currentThread());
+        lastGcCount = new long[collectors.size()];
+        lastGcTime = new long[collectors.size()];
+        for (int i = 0; i < collectors.size(); i++) {
+            lastGcCount[i] = collectors.get(i).getCollectionCount();
+            lastGcTime[i] = collectors.get(i).getCollectionTime();
+        }
+        worstGcMs = 0;
+    }
+
+    private void sample() {
+        long now = System.nanoTime();
+        double secs = Math.max(1e-3, (now - lastSampleNanos) / 1e9);
+
+        long tick = ticks.getAsLong();
+        double tps = Math.max(0, tick - lastTick) / secs;
+
+        long[] intervals = frameIntervals(now);
+        double fps = framesSince(now - (long) (secs * 1e9)) / secs;
+        Arrays.sort(intervals);
+
+        long allocated = totalAllocated();
+        long edtAllocated = allocatedBy(Thread.currentThread());
+        double allocMb = Math.max(0, allocated - lastAllocated) / secs / (1 << 20);
+        double edtMb = Math.max(0, edtAllocated - lastEdtAllocated) / secs / (1 << 20);
+
+        StringBuilder gc = new StringBuilder("gc ");
+        for (int i = 0; i < collectors.size(); i++) {
+            GarbageCollectorMXBean c = collectors.get(i);
+            long count = c.getCollectionCount(), time = c.getCollectionTime();
+            long dc = Math.max(0, count - lastGcCount[i]), dt = Math.max(0, time - lastGcTime[i]);
+            if (dc > 0) worstGcMs = Math.max(worstGcMs, dt / dc);
+            gc.append(c.getName()).append(' ').append(dc).append("x/").append(dt).append("ms  ");
+            lastGcCount[i] = count;
+            lastGcTime[i] = time;
+        }
+
+        int packets = 0;
+        List<WireModel> ws = wires.get();
+        for (WireModel w : ws) packets += w.getPackets().size();
+
+        lines = new String[]{
+                String.format("sim %.0f tps   render %.0f fps", tps, fps),
+                String.format("frame p50 %.1f ms  p99 %.1f ms  (%ds)",
+                        percentileMs(intervals, 0.50), percentileMs(intervals, 0.99), WINDOW_SECONDS),
+                String.format("alloc %.1f MB/s  (EDT %.1f MB/s)", allocMb, edtMb),
+                gc.toString().trim(),
+                String.format("gc ~pause (time/count, worst interval) %d ms", worstGcMs),
+                String.format("packets %d  wires %d  views %d", packets, ws.size(), viewCount.getAsInt())
+        };
+
+        lastSampleNanos = now;
+        lastTick = tick;
+        lastAllocated = allocated;
+        lastEdtAllocated = edtAllocated;
+        repaint();
+    }
+
+    /* فاصلهٔ فریم‌های متوالی در پنجرهٔ اخیر (نانوثانیه) */
+    private long[] frameIntervals(long now) {
+        long from = now - WINDOW_SECONDS * 1_000_000_000L;
+        synchronized (frameAt) {
+            long[] out = new long[Math.max(0, frameCount - 1)];
+            int n = 0;
+            for (int i = frameCount - 1; i > 0; i--) {
+                long t = frameAt[Math.floorMod(frameHead - i, RING)];
+                long prev = frameAt[Math.floorMod(frameHead - i - 1, RING)];
+                if (prev < from) continue;
+                out[n++] = t - prev;
+            }
+            return Arrays.copyOf(out, n);
+        }
+    }
+
+    private int framesSince(long from) {
+        synchronized (frameAt) {
+            int n = 0;
+            for (int i = 1; i <= frameCount; i++) {
+                if (frameAt[Math.floorMod(frameHead - i, RING)] < from) break;
+                n++;
+            }
+            return n;
+        }
+    }
+
+    private static double percentileMs(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        int idx = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+        return sorted[Math.max(0, idx)] / 1e6;
+    }
+
+    private long allocatedBy(Thread t) {
+        if (threads instanceof com.sun.management.ThreadMXBean sun && sun.isThreadAllocatedMemorySupported()) {
+            return sun.getThreadAllocatedBytes(t.threadId());
+        }
+        return 0;
+    }
+
+    private long totalAllocated() {
+        if (threads instanceof com.sun.management.ThreadMXBean sun && sun.isThreadAllocatedMemorySupported()) {
+            long sum = 0;
+            for (long b : sun.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+                if (b > 0) sum += b;
+            }
+            return sum;
+        }
+        return 0;
+    }
+}
@@ -2,7 +2,7 @@ package com.blueprinthell.view;
 
 import com.blueprinthell.config.Config;
 import com.blueprinthell.model.PortModel;
-import com.blueprinthell.model.PortShape;
+import com.blueprinthell.view.draw.BoxPainter;
 import java.awt.*;
 
 
@@ -14,21 +14,12 @@ public class PortView extends GameObjectView<PortModel> {
 
     @Override
     protected void paintComponent(Graphics g) {
+        // پورت جعبهٔ فعال در لایهٔ ایستا رسم شده؛ روی جعبهٔ غیرفعال دوباره کشیده می‌شود
+        if (Config.STATIC_LAYER_CACHE && model.getOwner() != null && model.getOwner().isEnabled()) return;
         Graphics2D g2 = (Graphics2D) g.create();
-        Color baseColor = model.isInput() ? Config.COLOR_PORT_INPUT : Config.COLOR_PORT_OUTPUT;
-        g2.setColor(baseColor);
-        int s = getWidth();
-
-        switch (model.getShape()) {
-            case SQUARE -> g2.fillRect(0, 0, s, s);
-            case TRIANGLE -> {
-                int[] xs = {0, s / 2, s};
-                int[] ys = {s, 0, s};
-                g2.fillPolygon(xs, ys, 3);
-            }
-            case CIRCLE -> g2.fillOval(0, 0, s, s);
-        }
-
+        double zoom = Camera.of(getParent()).zoom();
+        g2.scale(zoom, zoom);
+        BoxPainter.paintPort(g2, model.getShape(), model.isInput(), model.getWidth());
         g2.dispose();
     }
 
@@ -0,0 +1,53 @@
+package com.blueprinthell.view;
+
+import com.blueprinthell.controller.systems.SystemKind;
+import com.blueprinthell.model.PortShape;
+import com.blueprinthell.view.draw.PacketSpriteAtlas;
+
+import java.awt.*;
+import java.util.List;
+
+/**
+ * Immutable picture of the world published by the simulation thread once per tick and
+ * read by {@link ActiveRenderCanvas} on its own thread. Only plain values are copied;
+ * a packet's appearance (family, colour, noise level, badges) travels as its sprite key,
+ * so the render thread never reads a live model.
+ */
+public final class RenderFrame {
+
+    public record Port(int x, int y, int size, PortShape shape, boolean input) {}
+    public record Box(int x, int y, int w, int h, SystemKind kind, boolean enabled, List<Port> ports) {}
+    /** {@code heat} &gt; 0 marks a low-detail heat strip drawn instead of the wire's packets. */
+    public record Wire(List<Point> points, float heat) {}
+    /** {@code motion} is set while the simulation runs and lets the renderer interpolate within the step. */
+    public record Packet(PacketSpriteAtlas.Key sprite, int x, int y, int w, int h, PacketMotion motion) {}
+
+    public final long tick;
+    /** System.nanoTime() at publish. */
+    public final long publishedAtNanos;
+    /** {@link com.blueprinthell.view.draw.StaticLayerCache#generation()} the boxes/wires were captured at. */
+    public final long staticGeneration;
+    /** Length of one simulation step; packets are interpolated over it from {@link #publishedAtNanos}. */
+    public final long stepNanos;
+    public final List<Box> boxes;
+    public final List<Wire> wires;
+    public final List<Packet> packets;
+    public final int score;
+    public final int coins;
+    public final int packetLoss;
+
+    public RenderFrame(long tick, long publishedAtNanos, long staticGeneration, long stepNanos,
+                       List<Box> boxes, List<Wire> wires, List<Packet> packets,
+                       int score, int coins, int packetLoss) {
+        this.tick = tick;
+        this.publishedAtNanos = publishedAtNanos;
+        this.staticGeneration = staticGeneration;
+        this.stepNanos = stepNanos;
+        this.boxes = boxes;
+        this.wires = wires;
+        this.packets = packets;
+        this.score = score;
+        this.coins = coins;
+        this.packetLoss = packetLoss;
+    }
+}
@@ -2,27 +2,20 @@ package com.blueprinthell.view;
 
 import com.blueprinthell.config.Config;
 import com.blueprinthell.model.WireModel;
+import com.blueprinthell.view.draw.WirePainter;
 import javax.swing.*;
 import java.awt.*;
+import java.util.ArrayList;
 import java.util.List;
 
 
 public class WireView extends JComponent {
     private final WireModel model;
-    private final PortView  src;
-    private final PortView  dst;
-
-    private static final Color[] BEND_COLORS = {
-            Color.RED, Color.GREEN, Color.BLUE
-    };
-    private static final int BEND_RADIUS = 8;
 
     private static final int HIT_PAD = 8;
 
-    public WireView(WireModel model, PortView src, PortView dst) {
+    public WireView(WireModel model) {
         this.model = model;
-        this.src   = src;
-        this.dst   = dst;
         setOpaque(false);
     }
 
@@ -37,38 +30,38 @@ public class WireView extends JComponent {
         setBounds(0, 0, parent.getWidth(), parent.getHeight());
     }
 
-    @Override
-    protected void paintComponent(Graphics g) {
-        Graphics2D g2 = (Graphics2D) g.create();
-        g2.setStroke(new BasicStroke(Config.STROKE_WIDTH_WIRE));
-        g2.setColor(Config.COLOR_WIRE);
-
-        Point p1 = SwingUtilities.convertPoint(src, src.getWidth()/2, src.getHeight()/2, this);
-        Point p2 = SwingUtilities.convertPoint(dst, dst.getWidth()/2, dst.getHeight()/2, this);
-
-        List<Point> bends = model.getBendPoints();
+    /* نقاط مسیر (جهان) نگاشته به مختصات این کامپوننت که هم‌اندازهٔ gameArea و در (0,0) است */
+    private List<Point> screenPoints() {
+        Camera.State cam = Camera.of(getParent());
+        List<Point> world = model.getPath().getPoints();
+        List<Point> pts = new ArrayList<>(world.size());
+        for (Point p : world) pts.add(cam.toScreen(p));
+        return pts;
+    }
 
-        Point prev = p1;
-        if (bends != null) {
-            for (int i = 0; i < bends.size(); i++) {
-                Point bp = bends.get(i);
-                Point pb = SwingUtilities.convertPoint(getParent(), bp.x, bp.y, this);
-                g2.drawLine(prev.x, prev.y, pb.x, pb.y);
-                prev = pb;
-            }
-        }
-        g2.drawLine(prev.x, prev.y, p2.x, p2.y);
+    /** Screen-space bounding box of the wire, for viewport culling. */
+    public Rectangle screenBounds() {
+        return screenBounds(model, Camera.of(getParent()));
+    }
 
-        if (bends != null) {
-            for (int i = 0; i < bends.size(); i++) {
-                Point bp = bends.get(i);
-                Point pb = SwingUtilities.convertPoint(getParent(), bp.x, bp.y, this);
-                Color c = BEND_COLORS[i % BEND_COLORS.length];
-                g2.setColor(c);
-                g2.fillOval(pb.x - BEND_RADIUS/2, pb.y - BEND_RADIUS/2, BEND_RADIUS, BEND_RADIUS);
-            }
+    /** Screen-space bounding box of a wire under {@code cam}; needs no view, so culling can decide before creating one. */
+    public static Rectangle screenBounds(WireModel wire, Camera.State cam) {
+        Rectangle r = null;
+        for (Point p : wire.getPath().getPoints()) {
+            Point s = cam.toScreen(p);
+            if (r == null) r = new Rectangle(s);
+            else r.add(s);
         }
+        if (r == null) return new Rectangle();
+        r.grow(HIT_PAD, HIT_PAD);
+        return r;
+    }
 
+    @Override
+    protected void paintComponent(Graphics g) {
+        if (Config.STATIC_LAYER_CACHE) return; // در لایهٔ ایستای gameArea رسم می‌شود؛ این کامپوننت فقط hit-test است
+        Graphics2D g2 = (Graphics2D) g.create();
+        WirePainter.paint(g2, screenPoints());
         g2.dispose();
     }
 
@@ -76,22 +69,12 @@ public class WireView extends JComponent {
 
     @Override
     public boolean contains(int x, int y) {
-        Point p1 = SwingUtilities.convertPoint(src, src.getWidth()/2, src.getHeight()/2, this);
-        Point p2 = SwingUtilities.convertPoint(dst, dst.getWidth()/2, dst.getHeight()/2, this);
-
-        List<Point> bends = model.getBendPoints();
-
-        Point prev = p1;
-        if (bends != null) {
-            for (Point bp : bends) {
-                Point pb = SwingUtilities.convertPoint(getParent(), bp.x, bp.y, this);
-                if (isNearSegment(x, y, prev, pb)) return true;
-                prev = pb;
-            }
+        List<Point> pts = screenPoints();
+        for (int i = 1; i < pts.size(); i++) {
+            if (isNearSegment(x, y, pts.get(i - 1), pts.get(i))) return true;
         }
-        return isNearSegment(x, y, prev, p2);
+        return false;
     }
-
     private static boolean isNearSegment(int x, int y, Point a, Point b) {
         double dx = b.x - a.x;
         double dy = b.y - a.y;
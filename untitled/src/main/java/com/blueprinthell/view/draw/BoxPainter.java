@@ -0,0 +1,257 @@
+package com.blueprinthell.view.draw;
+
+import com.blueprinthell.config.Config;
+import com.blueprinthell.controller.systems.SystemKind;
+import com.blueprinthell.model.PortShape;
+
+import java.awt.*;
+
+/**
+ * رسم جعبهٔ سیستم و پورت‌ها از روی مقادیر سادهٔ مدل (بدون وابستگی به کامپوننت).
+ * SystemBoxView/PortView و رندرهای خارج از Swing از همین استفاده می‌کنند.
+ */
+public final class BoxPainter {
+    private BoxPainter() {}
+
+    /** Box body, label and indicators in local coordinates (0,0)-(w,h). Ports are drawn separately. */
+    public static void paint(Graphics2D g2, SystemKind kind, boolean enabled, int w, int h) {
+        // --- Draw box background with special colors ---
+        Color fillColor = getSystemFillColor(kind);
+        Color borderColor = getSystemBorderColor(kind);
+
+        g2.setColor(fillColor);
+        g2.fillRect(0, 0, w, h);
+
+        // Draw special effects for certain systems
+        drawSpecialEffects(g2, kind, enabled, w, h);
+
+        // Draw border
+        g2.setColor(borderColor);
+        g2.setStroke(new BasicStroke(2f));
+        g2.drawRect(1, 1, w - 2, h - 2);
+
+        // Draw disabled overlay if needed
+        if (!enabled) {
+            g2.setColor(new Color(50, 50, 50, 128));
+            g2.fillRect(0, 0, w, h);
+        }
+
+        // --- Draw system label ---
+        final String label = toDisplayName(kind);
+
+        g2.setFont(Config.FONT_SYSTEM_LABEL);
+        FontMetrics fm = g2.getFontMetrics();
+
+        int tx = (w - fm.stringWidth(label)) / 2;
+        int ty = (h + fm.getAscent() - fm.getDescent()) / 2;
+
+        // Label background
+        int padX = 6, padY = 3;
+        int bw = fm.stringWidth(label) + padX * 2;
+        int bh = fm.getAscent() + fm.getDescent() + padY * 2;
+        int bx = tx - padX;
+        int by = ty - fm.getAscent() - padY;
+
+        int bgAlpha = enabled ? 140 : 90;
+        g2.setColor(new Color(
+                Config.COLOR_BADGE_BG.getRed(),
+                Config.COLOR_BADGE_BG.getGreen(),
+                Config.COLOR_BADGE_BG.getBlue(),
+                bgAlpha
+        ));
+        g2.fillRoundRect(bx, by, bw, bh, Config.BADGE_CORNER_RADIUS, Config.BADGE_CORNER_RADIUS);
+
+        // Label text
+        g2.setColor(enabled ? getLabelColor(kind) : new Color(255, 255, 255, 180));
+        g2.drawString(label, tx, ty);
+
+        // Draw special indicators
+        drawSpecialIndicators(g2, kind, w);
+    }
+
+    /**
+     * Get fill color based on system kind
+     */
+    private static Color getSystemFillColor(SystemKind kind) {
+        if (kind == null) kind = SystemKind.NORMAL;
+
+        switch (kind) {
+            case SPY:
+                return new Color(60, 30, 60); // Dark purple
+            case MALICIOUS:
+                return new Color(80, 20, 20); // Dark red
+            case VPN:
+                return new Color(20, 60, 80); // Dark blue
+            case ANTI_TROJAN:
+                return new Color(20, 70, 40); // Dark green
+            case DISTRIBUTOR:
+                return new Color(80, 60, 20); // Dark yellow
+            case MERGER:
+                return new Color(80, 50, 20); // Dark orange
+            case PORT_RANDOMIZER:
+                return new Color(60, 60, 60); // Dark gray
+            case NORMAL:
+            default:
+                return Config.COLOR_BOX_FILL;
+        }
+    }
+
+    /**
+     * Get border color based on system kind
+     */
+    private static Color getSystemBorderColor(SystemKind kind) {
+        if (kind == null) kind = SystemKind.NORMAL;
+
+        switch (kind) {
+            case SPY:
+                return new Color(150, 50, 150); // Purple
+            case MALICIOUS:
+                return new Color(200, 50, 50); // Red
+            case VPN:
+                return new Color(50, 150, 200); // Blue
+            case ANTI_TROJAN:
+                return new Color(50, 200, 100); // Green
+            case DISTRIBUTOR:
+                return new Color(200, 150, 50); // Yellow
+            case MERGER:
+                return new Color(200, 120, 50); // Orange
+            case PORT_RANDOMIZER:
+                return new Color(150, 150, 150); // Gray
+            case NORMAL:
+            default:
+                return Config.COLOR_BOX_BORDER;
+        }
+    }
+
+    /**
+     * Get label color based on system kind
+     */
+    private static Color getLabelColor(SystemKind kind) {
+        if (kind == null || kind == SystemKind.NORMAL) {
+            return Config.COLOR_BADGE_FG;
+        }
+
+        // Special systems get brighter labels
+        return new Color(255, 255, 200); // Light yellow for visibility
+    }
+
+    /**
+     * Draw special visual effects for certain systems
+     */
+    private static void drawSpecialEffects(Graphics2D g2, SystemKind kind, boolean enabled, int w, int h) {
+        if (kind == null) return;
+
+        switch (kind) {
+            case ANTI_TROJAN:
+                // Draw range indicator
+                if (enabled) {
+                    g2.setColor(new Color(50, 200, 100, 30));
+                    int radius = (int) Config.ANTI_TROJAN_RADIUS_PX;
+                    g2.fillOval(
+                            w/2 - radius,
+                            h/2 - radius,
+                            radius * 2,
+                            radius * 2
+                    );
+                }
+                break;
+
+            case VPN:
+                // Draw shield pattern
+                g2.setColor(new Color(100, 150, 200, 40));
+                for (int i = 0; i < 3; i++) {
+                    g2.drawRect(5 + i*2, 5 + i*2,
+                            w - 10 - i*4,
+                            h - 10 - i*4);
+                }
+                break;
+
+            case SPY:
+                // Draw teleport effect corners
+                g2.setColor(new Color(200, 100, 200, 80));
+                int corner = 15;
+                // Top-left
+                g2.fillArc(0, 0, corner*2, corner*2, 90, 90);
+                // Top-right
+                g2.fillArc(w-corner*2, 0, corner*2, corner*2, 0, 90);
+                // Bottom-left
+                g2.fillArc(0, h-corner*2, corner*2, corner*2, 180, 90);
+                // Bottom-right
+                g2.fillArc(w-corner*2, h-corner*2, corner*2, corner*2, 270, 90);
+                break;
+        }
+    }
+
+    /**
+     * Draw special indicators (icons/symbols)
+     */
+    private static void drawSpecialIndicators(Graphics2D g2, SystemKind kind, int w) {
+        if (kind == null || kind == SystemKind.NORMAL) return;
+
+        // Draw small icon in top-right corner
+        int iconSize = 16;
+        int iconX = w - iconSize - 5;
+        int iconY = 5;
+
+        g2.setColor(new Color(255, 255, 255, 200));
+        g2.setFont(new Font("Dialog", Font.BOLD, 12));
+
+        String icon = getSystemIcon(kind);
+        if (!icon.isEmpty()) {
+            g2.drawString(icon, iconX, iconY + 12);
+        }
+    }
+
+    /**
+     * Get icon/symbol for system kind
+     */
+    private static String getSystemIcon(SystemKind kind) {
+        switch (kind) {
+            case SPY: return "◉";
+            case MALICIOUS: return "☠";
+            case VPN: return "⛨";
+            case ANTI_TROJAN: return "✚";
+            case DISTRIBUTOR: return "⊕";
+            case MERGER: return "⊗";
+            case PORT_RANDOMIZER: return "?";
+            default: return "";
+        }
+    }
+
+    /** Port glyph of size {@code s} at the origin. */
+    public static void paintPort(Graphics2D g2, PortShape shape, boolean input, int s) {
+        Color baseColor = input ? Config.COLOR_PORT_INPUT : Config.COLOR_PORT_OUTPUT;
+        g2.setColor(baseColor);
+
+        switch (shape) {
+            case SQUARE -> g2.fillRect(0, 0, s, s);
+            case TRIANGLE -> {
+                int[] xs = {0, s / 2, s};
+                int[] ys = {s, 0, s};
+                g2.fillPolygon(xs, ys, 3);
+            }
+            case CIRCLE -> g2.fillOval(0, 0, s, s);
+        }
+    }
+
+    private static String capitalize(String s) {
+        if (s == null || s.isEmpty()) return s;
+        s = s.toLowerCase().replace('_', ' ');
+        return Character.toUpperCase(s.charAt(0)) + s.substring(1);
+    }
+
+    private static String toDisplayName(SystemKind kind) {
+        if (kind == null) return "Normal";
+        switch (kind) {
+            case NORMAL:           return "Normal";
+            case VPN:              return "Vpn";
+            case SPY:              return "Spy";
+            case MALICIOUS:        return "Malicious";
+            case DISTRIBUTOR:      return "Distributor";
+            case MERGER:           return "Merger";
+            case ANTI_TROJAN:      return "Anti-Trojan";
+            case PORT_RANDOMIZER:  return "Port-Randomizer";
+            default:               return capitalize(kind.name());
+        }
+    }
+}
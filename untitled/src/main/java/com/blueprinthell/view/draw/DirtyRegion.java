@@ -0,0 +1,110 @@
+package com.blueprinthell.view.draw;
+
+import com.blueprinthell.config.Config;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * مستطیل‌های کثیف یک tick (در مختصات یک کامپوننت): جمع می‌شوند، روی کاشی‌های
+ * {@link Config#DIRTY_TILE_PX} پیکسلی ادغام می‌شوند و فقط همان ناحیه‌ها دوباره رسم می‌شوند.
+ * ادغام با کاشی خطی است، پس صدها پکت متحرک هم هزینهٔ کمی دارند. RepaintManager چند repaint یک
+ * کامپوننت را به یک مستطیل محیطی تبدیل می‌کند؛ برای همین ناحیه‌های جدا با paintImmediately
+ * جداگانه کشیده می‌شوند.
+ *
+ * <p>فقط روی EDT استفاده شود.
+ */
+public final class DirtyRegion {
+    private final List<Rectangle> rects = new ArrayList<>();
+    private final BitSet tiles = new BitSet();
+
+    public boolean isEmpty() { return rects.isEmpty(); }
+
+    public void add(int x, int y, int w, int h) {
+        if (w <= 0 || h <= 0) return;
+        int pad = Config.DIRTY_PAD_PX; // لبه‌های ضدپله و حاشیهٔ اسپرایت
+        rects.add(new Rectangle(x - pad, y - pad, w + 2 * pad, h + 2 * pad));
+    }
+
+    public void add(Rectangle r) {
+        if (r != null) add(r.x, r.y, r.width, r.height);
+    }
+
+    /**
+     * Coalesces the collected rectangles, clipped to {@code bounds}: each is snapped to tiles,
+     * horizontal runs of dirty tiles become strips, and identical strips on consecutive tile
+     * rows are joined. Returns the merged rectangles (this region keeps them until cleared).
+     */
+    public List<Rectangle> merge(Rectangle bounds) {
+        int t = Config.DIRTY_TILE_PX;
+        int cols = Math.max(1, (bounds.width + t - 1) / t);
+        int rows = Math.max(1, (bounds.height + t - 1) / t);
+        tiles.clear();
+        for (Rectangle r : rects) {
+            Rectangle c = r.intersection(bounds);
+            if (c.isEmpty()) continue;
+            int c0 = (c.x - bounds.x) / t, c1 = (c.x - bounds.x + c.width - 1) / t;
+            int r0 = (c.y - bounds.y) / t, r1 = (c.y - bounds.y + c.height - 1) / t;
+            for (int row = r0; row <= r1; row++) tiles.set(row * cols + c0, row * cols + c1 + 1);
+        }
+        rects.clear();
+        List<Rectangle> open = new ArrayList<>();  // نوارهای ردیف قبل که هنوز قابل ادامه‌اند
+        for (int row = 0; row < rows; row++) {
+            List<Rectangle> next = new ArrayList<>();
+            int from = row * cols, end = from + cols;
+            for (int i = tiles.nextSetBit(from); i >= 0 && i < end; i = tiles.nextSetBit(i)) {
+                int j = Math.min(end, tiles.nextClearBit(i));
+                Rectangle strip = new Rectangle(bounds.x + (i - from) * t, bounds.y + row * t, (j - i) * t, t);
+                Rectangle grown = null;
+                for (Rectangle o : open) {
+                    if (o.x == strip.x && o.width == strip.width && o.y + o.height == strip.y) { grown = o; break; }
+                }
+                if (grown != null) {
+                    grown.height += t;
+                    open.remove(grown);
+                    next.add(grown);
+                } else {
+                    rects.add(strip);
+                    next.add(strip);
+                }
+                i = j;
+            }
+            open = next;
+        }
+        if (rects.size() > Config.DIRTY_MAX_RECTS) {
+            Rectangle u = new Rectangle(rects.get(0));
+            for (Rectangle r : rects) u.add(r);
+            rects.clear();
+            rects.add(u);
+        }
+        for (Rectangle r : rects) r.setBounds(r.intersection(bounds));
+        return rects;
+    }
+
+    /**
+     * Repaints the merged regions of {@code target} and clears this region. Falls back to a
+     * single {@code repaint()} when the regions together cover most of the component anyway.
+     */
+    public void flush(JComponent target) {
+        if (rects.isEmpty()) return;
+        Rectangle bounds = new Rectangle(0, 0, target.getWidth(), target.getHeight());
+        merge(bounds);
+        long total = 0;
+        for (Rectangle r : rects) total += area(r);
+        if (total >= Config.DIRTY_FULL_FRACTION * area(bounds) || !target.isShowing()) {
+            target.repaint();
+        } else {
+            for (Rectangle r : rects) target.paintImmediately(r);
+        }
+        rects.clear();
+    }
+
+    public void clear() { rects.clear(); }
+
+    private static long area(Rectangle r) {
+        return (r.width <= 0 || r.height <= 0) ? 0 : (long) r.width * r.height;
+    }
+}
@@ -0,0 +1,251 @@
+package com.blueprinthell.view.draw;
+
+import com.blueprinthell.config.Config;
+import com.blueprinthell.model.ConfidentialPacket;
+import com.blueprinthell.model.PacketModel;
+import com.blueprinthell.model.PacketOps;
+import com.blueprinthell.model.ProtectedPacket;
+import com.blueprinthell.model.large.BitPacket;
+import com.blueprinthell.model.large.LargePacket;
+
+import java.awt.*;
+
+/**
+ * رسم یک پکت در مختصات محلی (0,0)-(w,h).
+ * هم PacketView (یک کامپوننت برای هر پکت) و هم PacketLayerView (یک بوم برای همه) از این استفاده می‌کنند.
+ * رسم برداری فقط یک بار برای هر کلید در {@link PacketSpriteAtlas} انجام می‌شود؛ paint تنها یک blit است.
+ */
+public final class PacketPainter {
+    private PacketPainter() {}
+
+    /** Pixel size the packet should have for its family, or -1 if its current size is authoritative. */
+    public static int expectedSize(PacketModel model) {
+        if (model instanceof LargePacket lp) {
+            return lp.getOriginalSizeUnits() * Config.PACKET_SIZE_MULTIPLIER;
+        }
+        if (model instanceof BitPacket) {
+            return Config.BIT_PACKET_SIZE * Config.PACKET_SIZE_MULTIPLIER;
+        }
+        if (model instanceof ConfidentialPacket) {
+            int units = PacketOps.isConfidentialVpn(model) ? 6 : 4; // 1.5×
+            return units * Config.PACKET_SIZE_MULTIPLIER;
+        }
+        int expected = model.getType().sizeUnits * Config.PACKET_SIZE_MULTIPLIER;
+        // اگر Protected است، اندازه باید 2× باشد
+        return (model instanceof ProtectedPacket) ? expected * 2 : expected;
+    }
+
+    /** Brings the model's size in line with {@link #expectedSize}; returns true if it changed. */
+    public static boolean syncSize(PacketModel model) {
+        int expected = expectedSize(model);
+        if (expected <= 0 || (model.getWidth() == expected && model.getHeight() == expected)) return false;
+        model.setWidth(expected);
+        model.setHeight(expected);
+        return true;
+    }
+
+    /**
+     * Draws the packet by blitting its pre-rasterized sprite from {@link PacketSpriteAtlas},
+     * or as a flat dot while {@link RenderDetail} is low.
+     */
+    public static void paint(Graphics2D g2, PacketModel model, int w, int h) {
+        if (w <= 0 || h <= 0) return;
+        if (RenderDetail.INSTANCE.isLow()) {
+            int d = Math.max(3, Math.min(w, h) / 2);
+            g2.setColor(flatColor(model));
+            g2.fillRect((w - d) / 2, (h - d) / 2, d, d);
+            return;
+        }
+        PacketSpriteAtlas.draw(g2, PacketSpriteAtlas.Key.of(model, w, h), w, h);
+    }
+
+    /**
+     * Same as {@link #paint(Graphics2D, PacketModel, int, int)} for a sprite key captured
+     * earlier; lets another thread draw the packet without touching its live model.
+     */
+    public static void paint(Graphics2D g2, PacketSpriteAtlas.Key key, int w, int h) {
+        if (w <= 0 || h <= 0) return;
+        if (RenderDetail.INSTANCE.isLow()) {
+            int d = Math.max(3, Math.min(w, h) / 2);
+            g2.setColor(flatColor(key));
+            g2.fillRect((w - d) / 2, (h - d) / 2, d, d);
+            return;
+        }
+        PacketSpriteAtlas.draw(g2, key, w, h);
+    }
+
+    private static Color flatColor(PacketSpriteAtlas.Key k) {
+        return switch (k.family()) {
+            case PacketSpriteAtlas.LARGE, PacketSpriteAtlas.BIT -> new Color(k.rgb(), true);
+            case PacketSpriteAtlas.CONFIDENTIAL -> k.has(PacketSpriteAtlas.VPN) ? Config.CONF_VPN_COLOR : CONF_FILL;
+            default -> switch (k.type()) {
+                case TRIANGLE -> Config.COLOR_PACKET_TRIANGLE;
+                case CIRCLE -> Config.COLOR_PACKET_CIRCLE;
+                default -> Config.COLOR_PACKET_SQUARE;
+            };
+        };
+    }
+
+    /** Body colour of the packet's family, for the low-detail dot. */
+    private static Color flatColor(PacketModel model) {
+        if (model instanceof LargePacket lp) return lp.getCustomColor();
+        if (model instanceof BitPacket bp) return bp.getColor();
+        if (model instanceof ConfidentialPacket) {
+            return PacketOps.isConfidentialVpn(model) ? Config.CONF_VPN_COLOR : CONF_FILL;
+        }
+        return switch (model.getType()) {
+            case TRIANGLE -> Config.COLOR_PACKET_TRIANGLE;
+            case CIRCLE -> Config.COLOR_PACKET_CIRCLE;
+            default -> Config.COLOR_PACKET_SQUARE;
+        };
+    }
+
+    private static final Font LARGE_LABEL_FONT = new Font("Arial", Font.BOLD, 16);
+    private static final Font BIT_INDEX_FONT   = new Font("Arial", Font.PLAIN, 8);
+    private static final Font CONF_FONT        = new Font("Arial", Font.BOLD, 12);
+    private static final Font CONF_VPN_FONT    = new Font("Arial", Font.BOLD, 14);
+    private static final BasicStroke STROKE_1   = new BasicStroke(1f);
+    private static final BasicStroke STROKE_2   = new BasicStroke(2f);
+    private static final BasicStroke STROKE_2_5 = new BasicStroke(2.5f);
+    private static final BasicStroke STROKE_3   = new BasicStroke(3f);
+    private static final Color CONF_FILL   = new Color(0x7C3AED);
+    private static final Color CONF_BORDER = new Color(0xA78BFA);
+    private static final Color CONF_VPN_BORDER = new Color(
+            Math.min(255, (int) (Config.CONF_VPN_COLOR.getRed()   * 1.15)),
+            Math.min(255, (int) (Config.CONF_VPN_COLOR.getGreen() * 1.15)),
+            Math.min(255, (int) (Config.CONF_VPN_COLOR.getBlue()  * 1.15)));
+    private static final Color NOISE_TINT = new Color(220, 40, 40);
+
+    /**
+     * Vector rendering of one sprite in local coordinates (0,0)-(w,h). Only the atlas calls
+     * this, once per key; everything it needs is in the key, not in a live model.
+     */
+    static void render(Graphics2D g2, PacketSpriteAtlas.Key k) {
+        final int w = k.w(), h = k.h();
+        switch (k.family()) {
+            /* ===================== LargePacket ===================== */
+            case PacketSpriteAtlas.LARGE -> {
+                final int sizeUnits = k.label(); // 8 یا 10
+                final int sides = (sizeUnits == 8) ? 8 : 10;
+
+                // بدنه
+                g2.setColor(new Color(k.rgb(), true));
+                Polygon poly = ShapeUtils.regularPolygon(sides, w, h, Config.POLY_INSET);
+                g2.fillPolygon(poly);
+
+                // حاشیه (قطر متناسب با اندازه)
+                g2.setStroke(sizeUnits == 8 ? STROKE_2 : STROKE_3);
+                g2.setColor(sizeUnits == 8 ? Color.WHITE : Color.YELLOW);
+                g2.drawPolygon(poly);
+
+                // شماره اندازه در مرکز
+                g2.setColor(Color.WHITE);
+                g2.setFont(LARGE_LABEL_FONT);
+                String sizeStr = String.valueOf(sizeUnits);
+                FontMetrics fm = g2.getFontMetrics();
+                int tx = (w - fm.stringWidth(sizeStr)) / 2;
+                int ty = (h + fm.getAscent()) / 2 - 2;
+                g2.drawString(sizeStr, tx, ty);
+            }
+
+            /* ===================== BitPacket ===================== */
+            case PacketSpriteAtlas.BIT -> {
+                // بدنه (رنگ گروه)
+                int m = 2;
+                g2.setColor(new Color(k.rgb(), true));
+                g2.fillRect(m, m, w - 2*m, h - 2*m);
+
+                // حاشیه سفید نازک
+                g2.setColor(Color.WHITE);
+                g2.setStroke(STROKE_1);
+                g2.drawRect(m, m, w - 2*m, h - 2*m);
+
+                // ایندکس کوچک
+                g2.setFont(BIT_INDEX_FONT);
+                g2.setColor(Color.WHITE);
+                g2.drawString(String.valueOf(k.label()), 3, 10);
+            }
+
+            /* ============= ConfidentialPacket (عادی/VPN) ============= */
+            case PacketSpriteAtlas.CONFIDENTIAL -> {
+                boolean isVpn = k.has(PacketSpriteAtlas.VPN);
+
+                // --- به‌جای پنج‌ضلعی، مربع رسم شود ---
+                int m = 2;
+                g2.setColor(isVpn ? Config.CONF_VPN_COLOR : CONF_FILL);
+                g2.fillRect(m, m, w - 2*m, h - 2*m);
+                g2.setStroke(isVpn ? STROKE_2_5 : STROKE_2);
+                g2.setColor(isVpn ? CONF_VPN_BORDER : CONF_BORDER);
+                g2.drawRect(m, m, w - 2*m, h - 2*m);
+
+                // برچسب «C» وسط مربع (برای هر دو حالت)
+                g2.setColor(Color.WHITE);
+                g2.setFont(isVpn ? CONF_VPN_FONT : CONF_FONT);
+                String label = "C";
+                FontMetrics fm = g2.getFontMetrics();
+                int tx = (w - fm.stringWidth(label)) / 2;
+                int ty = (h + fm.getAscent()) / 2 - 2;
+                g2.drawString(label, tx, ty);
+            }
+
+            default -> {
+                int s = Math.min(w, h);
+
+                // از اینجا به بعد رسم عادی: (اگر Protected بود، آلفا را کم می‌کنیم)
+                Composite savedComposite = null;
+                if (k.has(PacketSpriteAtlas.PROTECTED)) {
+                    savedComposite = g2.getComposite();
+                    g2.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.35f));
+                }
+
+                // رنگ بدنه بر اساس Type
+                switch (k.type()) {
+                    case SQUARE -> g2.setColor(Config.COLOR_PACKET_SQUARE);
+                    case TRIANGLE -> g2.setColor(Config.COLOR_PACKET_TRIANGLE);
+                    case CIRCLE -> g2.setColor(Config.COLOR_PACKET_CIRCLE);
+                    default -> g2.setColor(Config.COLOR_PACKET_SQUARE);
+                }
+
+                // رسم شکل
+                switch (k.type()) {
+                    case SQUARE -> g2.fillRect(0, 0, s, s);
+                    case TRIANGLE -> {
+                        int[] xs = {0, s / 2, s};
+                        int[] ys = {s, 0, s};
+                        g2.fillPolygon(xs, ys, 3);
+                    }
+                    case CIRCLE -> g2.fillOval(0, 0, s, s);
+                }
+
+                if (savedComposite != null) g2.setComposite(savedComposite);
+            }
+        }
+
+        // رنگ نویز فقط روی پیکسل‌های خود پکت (SrcAtop)، پیش از Badgeها
+        if (k.noiseLevel() > 0) {
+            Composite saved = g2.getComposite();
+            float alpha = 0.15f * k.noiseLevel();
+            g2.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_ATOP, alpha));
+            g2.setColor(NOISE_TINT);
+            g2.fillRect(0, 0, w, h);
+            g2.setComposite(saved);
+        }
+        drawPacketBadges(g2, k);
+    }
+
+    // رسم Badge "C" یا "P" در گوشه‌ی بالا-راست و "T" (تروجان) در بالا-چپ
+    private static void drawPacketBadges(Graphics2D g2, PacketSpriteAtlas.Key k) {
+        if (k.family() == PacketSpriteAtlas.BIT) return;
+        final int x = k.w() - (18 + Config.BADGE_MARGIN_X);
+        final int y = Config.BADGE_MARGIN_Y;
+
+        if (k.family() == PacketSpriteAtlas.CONFIDENTIAL) {
+            ShapeUtils.drawBadge(g2, "C", x, y);
+        } else if (k.has(PacketSpriteAtlas.PROTECTED)) {
+            ShapeUtils.drawBadge(g2, "P", x, y);
+        }
+        if (k.has(PacketSpriteAtlas.TROJAN)) {
+            ShapeUtils.drawBadge(g2, "T", Config.BADGE_MARGIN_X, y);
+        }
+    }
+}
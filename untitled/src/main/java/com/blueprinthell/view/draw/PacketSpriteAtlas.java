@@ -0,0 +1,146 @@
+package com.blueprinthell.view.draw;
+
+import com.blueprinthell.config.Config;
+import com.blueprinthell.model.ConfidentialPacket;
+import com.blueprinthell.model.PacketModel;
+import com.blueprinthell.model.PacketOps;
+import com.blueprinthell.model.PacketType;
+import com.blueprinthell.model.ProtectedPacket;
+import com.blueprinthell.model.large.BitPacket;
+import com.blueprinthell.model.large.LargePacket;
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * اطلس اسپرایت پکت‌ها: هر ترکیب خانواده/نوع/اندازه/رنگ/حالت (Protected، Confidential/VPN،
+ * تروجان، سطح نویز) یک بار با {@link PacketPainter#render} در مقیاس نمایشگر رسم می‌شود و
+ * رسم هر پکت فقط یک drawImage است.
+ *
+ * <p>پکت‌های عادی و محرمانه هنگام ساخت اطلس از پیش رسم می‌شوند؛ بیت‌ها و پکت‌های بزرگ که
+ * رنگ گروه دارند در اولین استفاده اضافه می‌شوند. اطلس فقط وقتی مقیاس UI عوض شود از نو ساخته می‌شود.
+ * از EDT و ترد رندر فعال هم‌زمان قابل استفاده است.
+ */
+public final class PacketSpriteAtlas {
+    private PacketSpriteAtlas() {}
+
+    /* خانواده‌ها */
+    static final int NORMAL = 0, CONFIDENTIAL = 1, BIT = 2, LARGE = 3;
+    /* پرچم‌های حالت */
+    static final int PROTECTED = 1, VPN = 1 << 1, TROJAN = 1 << 2;
+
+    static final int NOISE_LEVELS = 3;
+    /* سقف اسپرایت‌های تنبل (رنگ‌های گروه)؛ با عبور از آن فقط همان‌ها دور ریخته می‌شوند */
+    private static final int MAX_LAZY_SPRITES = 512;
+
+    /** Everything a sprite's pixels depend on; {@code rgb}/{@code label} are 0 where unused. */
+    public record Key(int family, PacketType type, int w, int h, int rgb, int label, int flags, int noiseLevel) {
+        boolean has(int flag) { return (flags & flag) != 0; }
+
+        public static Key of(PacketModel m, int w, int h) {
+            int noise = PacketSpriteAtlas.noiseLevel(m.getNoise());
+            int trojan = PacketOps.isTrojan(m) ? TROJAN : 0;
+            if (m instanceof LargePacket lp) {
+                return new Key(LARGE, null, w, h, lp.getCustomColor().getRGB(), lp.getOriginalSizeUnits(), trojan, noise);
+            }
+            if (m instanceof BitPacket bp) {
+                return new Key(BIT, null, w, h, bp.getColor().getRGB(), bp.getIndexInGroup(), trojan, noise);
+            }
+            if (m instanceof ConfidentialPacket) {
+                int vpn = PacketOps.isConfidentialVpn(m) ? VPN : 0;
+                return new Key(CONFIDENTIAL, null, w, h, 0, 0, vpn | trojan, noise);
+            }
+            int prot = (m instanceof ProtectedPacket) ? PROTECTED : 0;
+            return new Key(NORMAL, m.getType(), w, h, 0, 0, prot | trojan, noise);
+        }
+    }
+
+    private static final class Atlas {
+        final double scale;
+        final ConcurrentHashMap<Key, BufferedImage> fixed = new ConcurrentHashMap<>();
+        final ConcurrentHashMap<Key, BufferedImage> lazy = new ConcurrentHashMap<>();
+        Atlas(double scale) { this.scale = scale; }
+    }
+
+    private static volatile Atlas atlas;
+
+    /** Blits the sprite for {@code key} into (0,0)-(w,h), rebuilding the atlas if the UI scale changed. */
+    static void draw(Graphics2D g2, Key key, int w, int h) {
+        Atlas a = forScale(scaleOf(g2));
+        BufferedImage img = a.fixed.get(key);
+        if (img == null) {
+            if (a.lazy.size() >= MAX_LAZY_SPRITES) a.lazy.clear();
+            img = a.lazy.computeIfAbsent(key, k -> rasterize(k, a.scale));
+        }
+        g2.drawImage(img, 0, 0, w, h, null);
+    }
+
+    /** Forces the atlas to be rebuilt for the given scale now (e.g. at startup, off the first frame). */
+    public static void prewarm(double scale) {
+        forScale(scale);
+    }
+
+    private static Atlas forScale(double scale) {
+        Atlas a = atlas;
+        if (a != null && a.scale == scale) return a;
+        synchronized (PacketSpriteAtlas.class) {
+            a = atlas;
+            if (a == null || a.scale != scale) {
+                a = new Atlas(scale);
+                fill(a);
+                atlas = a;
+            }
+        }
+        return a;
+    }
+
+    /* همهٔ حالت‌های محدود پکت‌های عادی و محرمانه */
+    private static void fill(Atlas a) {
+        for (int noise = 0; noise <= NOISE_LEVELS; noise++) {
+            for (int trojan : new int[]{0, TROJAN}) {
+                for (PacketType t : PacketType.values()) {
+                    int s = t.sizeUnits * Config.PACKET_SIZE_MULTIPLIER;
+                    put(a, new Key(NORMAL, t, s, s, 0, 0, trojan, noise));
+                    put(a, new Key(NORMAL, t, s * 2, s * 2, 0, 0, PROTECTED | trojan, noise));
+                }
+                int conf = 4 * Config.PACKET_SIZE_MULTIPLIER, vpn = 6 * Config.PACKET_SIZE_MULTIPLIER;
+                put(a, new Key(CONFIDENTIAL, null, conf, conf, 0, 0, trojan, noise));
+                put(a, new Key(CONFIDENTIAL, null, vpn, vpn, 0, 0, VPN | trojan, noise));
+            }
+        }
+    }
+
+    private static void put(Atlas a, Key k) {
+        a.fixed.put(k, rasterize(k, a.scale));
+    }
+
+    private static BufferedImage rasterize(Key k, double scale) {
+        int sw = Math.max(1, (int) Math.ceil(k.w() * scale));
+        int sh = Math.max(1, (int) Math.ceil(k.h() * scale));
+        BufferedImage img = new BufferedImage(sw, sh, BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D g = img.createGraphics();
+        try {
+            ShapeUtils.enableFullQuality(g);
+            g.scale(scale, scale);
+            PacketPainter.render(g, k);
+        } finally {
+            g.dispose();
+        }
+        return img;
+    }
+
+    /* مقیاس دستگاه (HiDPI) از تبدیل فعلی، گرد به ربع؛ جابه‌جایی‌ها اهمیتی ندارند */
+    private static double scaleOf(Graphics2D g2) {
+        AffineTransform tx = g2.getTransform();
+        double s = Math.round(Math.hypot(tx.getScaleX(), tx.getShearY()) * 4) / 4.0;
+        return Math.max(0.25, s);
+    }
+
+    static int noiseLevel(double noise) {
+        if (noise <= 0) return 0;
+        double step = Config.MAX_NOISE_CAPACITY / NOISE_LEVELS;
+        return Math.min(NOISE_LEVELS, 1 + (int) (noise / step));
+    }
+}
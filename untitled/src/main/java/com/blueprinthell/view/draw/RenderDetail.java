@@ -0,0 +1,49 @@
+package com.blueprinthell.view.draw;
+
+import com.blueprinthell.config.Config;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * سطح جزئیات رندر (LOD). با تعداد زیاد پکت به حالت کم‌هزینه می‌رود: پکت‌ها نقطهٔ تخت، بدون
+ * anti-aliasing، بدون tooltip، و سیم‌های شلوغ به‌صورت نوار حرارتی. ورود و خروج آستانه‌های جدا
+ * و حداقل زمان ماندن دارند تا حالت پشت‌سرهم عوض نشود.
+ */
+public enum RenderDetail {
+    INSTANCE;
+
+    private volatile boolean low;
+    private int ticksInMode;
+    private final List<Consumer<Boolean>> listeners = new CopyOnWriteArrayList<>();
+
+    /** True while the cheap representation is in effect. Safe from any thread. */
+    public boolean isLow() { return low; }
+
+    /** Feeds this tick's live packet count; switches mode with hysteresis. Call once per tick. */
+    public void update(int packetCount) {
+        ticksInMode++;
+        if (ticksInMode < Config.LOD_MIN_HOLD_TICKS) return;
+        boolean next = low
+                ? packetCount > Config.LOD_EXIT_PACKETS
+                : packetCount >= Config.LOD_ENTER_PACKETS;
+        if (next != low) {
+            low = next;
+            ticksInMode = 0;
+            for (Consumer<Boolean> l : listeners) l.accept(next);
+        }
+    }
+
+    /** Back to full detail, e.g. on level change. */
+    public void reset() {
+        ticksInMode = 0;
+        if (low) {
+            low = false;
+            for (Consumer<Boolean> l : listeners) l.accept(false);
+        }
+    }
+
+    public void addListener(Consumer<Boolean> l)    { listeners.add(l); }
+    public void removeListener(Consumer<Boolean> l) { listeners.remove(l); }
+}
@@ -7,7 +7,20 @@ import com.blueprinthell.config.Config;
 public final class ShapeUtils {
     private ShapeUtils() {}
 
+    /** Quality hints for per-frame drawing; speed hints instead while {@link RenderDetail} is low. */
     public static void enableQuality(Graphics2D g2) {
+        if (RenderDetail.INSTANCE.isLow()) {
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING,      RenderingHints.VALUE_ANTIALIAS_OFF);
+            g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_OFF);
+            g2.setRenderingHint(RenderingHints.KEY_RENDERING,         RenderingHints.VALUE_RENDER_SPEED);
+            g2.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL,    RenderingHints.VALUE_STROKE_NORMALIZE);
+            return;
+        }
+        enableFullQuality(g2);
+    }
+
+    /** Quality hints regardless of LOD; for images rendered once and cached (sprites, static layer). */
+    public static void enableFullQuality(Graphics2D g2) {
         g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING,      RenderingHints.VALUE_ANTIALIAS_ON);
         g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
         g2.setRenderingHint(RenderingHints.KEY_RENDERING,         RenderingHints.VALUE_RENDER_QUALITY);
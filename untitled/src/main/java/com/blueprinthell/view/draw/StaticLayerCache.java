@@ -0,0 +1,77 @@
+package com.blueprinthell.view.draw;
+
+import com.blueprinthell.model.SystemBoxModel;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * لایهٔ ایستای صحنه (جعبه‌ها، پورت‌ها، سیم‌ها) که یک بار در یک تصویر سازگار با نمایشگر
+ * رسم می‌شود و هر فریم فقط blit می‌شود. پکت‌ها و افکت‌ها روی آن به‌صورت پویا کشیده می‌شوند.
+ *
+ * <p>نسخهٔ لایه یک شمارندهٔ سراسری است که فقط ویرایش‌های شبکه (ساخت/حذف/ویرایش سیم، جابه‌جایی
+ * جعبه، بازسازی صحنه) با {@link #invalidate()} جلو می‌برند؛ تغییر اندازه خودش باعث بازسازی می‌شود.
+ * تغییر شکل پورت در حین شبیه‌سازی کار مدل است و اینجا را صدا نمی‌زند؛ نماها آن را با
+ * {@link #generation(List)} از {@link SystemBoxModel#getPortShapeVersion()} جعبه‌هایشان می‌خوانند.
+ */
+public final class StaticLayerCache {
+    private static final AtomicLong GENERATION = new AtomicLong();
+
+    private BufferedImage image;
+    private long renderedGeneration = -1;
+
+    /** Marks every static layer stale; call after any edit to boxes, ports or wires. */
+    public static void invalidate() {
+        GENERATION.incrementAndGet();
+    }
+
+    public static long generation() {
+        return GENERATION.get();
+    }
+
+    /** {@link #generation()} combined with the port-shape versions of {@code boxes}. */
+    public static long generation(List<SystemBoxModel> boxes) {
+        // ضرب در عدد فرد بزرگ: جلو رفتن هر کدام از دو شمارنده کلید را عوض می‌کند
+        return GENERATION.get() * 0x9E3779B97F4A7C15L + SystemBoxModel.portShapeVersion(boxes);
+    }
+
+    /**
+     * Returns the cached layer for {@code generation}, re-rendering it through {@code painter}
+     * only when it is stale or the target size changed. {@code null} while the area is empty.
+     */
+    public BufferedImage get(GraphicsConfiguration gc, int w, int h, long generation,
+                             Consumer<Graphics2D> painter) {
+        if (w <= 0 || h <= 0) return null;
+        if (image == null || image.getWidth() != w || image.getHeight() != h) {
+            if (image != null) image.flush();
+            image = (gc != null)
+                    ? gc.createCompatibleImage(w, h, Transparency.TRANSLUCENT)
+                    : new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB_PRE);
+            renderedGeneration = -1;
+        }
+        if (renderedGeneration != generation) {
+            Graphics2D g2 = image.createGraphics();
+            try {
+                g2.setComposite(AlphaComposite.Clear);
+                g2.fillRect(0, 0, w, h);
+                g2.setComposite(AlphaComposite.SrcOver);
+                ShapeUtils.enableFullQuality(g2);
+                painter.accept(g2);
+            } finally {
+                g2.dispose();
+            }
+            renderedGeneration = generation;
+        }
+        return image;
+    }
+
+    /** Drops the image; the next {@link #get} renders from scratch. */
+    public void flush() {
+        if (image != null) image.flush();
+        image = null;
+        renderedGeneration = -1;
+    }
+}
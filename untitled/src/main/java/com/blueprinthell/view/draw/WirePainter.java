@@ -0,0 +1,61 @@
+package com.blueprinthell.view.draw;
+
+import com.blueprinthell.config.Config;
+
+import java.awt.*;
+import java.util.List;
+
+/** رسم یک سیم (خط‌های مسیر + نقاط خم) از روی نقاط در مختصات gameArea. */
+public final class WirePainter {
+    private WirePainter() {}
+
+    private static final Color[] BEND_COLORS = {
+            Color.RED, Color.GREEN, Color.BLUE
+    };
+    private static final int BEND_RADIUS = 8;
+    private static final BasicStroke WIRE_STROKE = new BasicStroke(Config.STROKE_WIDTH_WIRE);
+    public static final BasicStroke HEAT_STROKE =
+            new BasicStroke(7f, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND);
+    /* پکت در هر ۱۰۰ پیکسل که نوار را کاملاً قرمز می‌کند */
+    private static final double HEAT_FULL_DENSITY = 4.0;
+
+    /** {@code pts} = source centre, bends…, destination centre. */
+    public static void paint(Graphics2D g2, List<Point> pts) {
+        if (pts.size() < 2) return;
+        g2.setStroke(WIRE_STROKE);
+        g2.setColor(Config.COLOR_WIRE);
+
+        Point prev = pts.get(0);
+        for (int i = 1; i < pts.size(); i++) {
+            Point p = pts.get(i);
+            g2.drawLine(prev.x, prev.y, p.x, p.y);
+            prev = p;
+        }
+
+        for (int i = 1; i < pts.size() - 1; i++) {
+            Point bp = pts.get(i);
+            g2.setColor(BEND_COLORS[(i - 1) % BEND_COLORS.length]);
+            g2.fillOval(bp.x - BEND_RADIUS/2, bp.y - BEND_RADIUS/2, BEND_RADIUS, BEND_RADIUS);
+        }
+    }
+
+    /** Heat in (0,1] for a wire of {@code lengthPx} carrying {@code packets}, used for LOD strips. */
+    public static float heatOf(int packets, double lengthPx) {
+        double density = packets / Math.max(1.0, lengthPx / 100.0);
+        return (float) Math.max(0.05, Math.min(1.0, density / HEAT_FULL_DENSITY));
+    }
+
+    /** One translucent strip along the wire standing in for all of its packets (low detail). */
+    public static void paintHeat(Graphics2D g2, List<Point> pts, float heat) {
+        if (pts.size() < 2) return;
+        int green = (int) (220 * (1f - heat));
+        g2.setStroke(HEAT_STROKE);
+        g2.setColor(new Color(255, green, 0, 170));
+        Point prev = pts.get(0);
+        for (int i = 1; i < pts.size(); i++) {
+            Point p = pts.get(i);
+            g2.drawLine(prev.x, prev.y, p.x, p.y);
+            prev = p;
+        }
+    }
+}
@@ -1,14 +1,24 @@
 package com.blueprinthell.view.pvp;
 
 import com.blueprinthell.shared.protocol.NetworkProtocol.*;
+import com.blueprinthell.view.Camera;
+import com.blueprinthell.view.draw.DirtyRegion;
+import com.blueprinthell.view.draw.StaticLayerCache;
 import com.blueprinthell.view.screens.GameScreenView;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.geom.*;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * رندر کردن شبکه حریف به صورت کم‌رنگ و غیرقابل تعامل
+ *
+ * <p>چیدمان حریف فقط یک بار در MatchStart می‌رسد، پس سیم‌ها و جعبه‌ها یک بار در یک لایهٔ
+ * کش‌شده رسم می‌شوند (فقط با تغییر دوربین/اندازه دوباره ساخته می‌شود). هر Tick فقط نشان
+ * وضعیت (مهمات، cooldown) سیستم‌هایی که مقدار نمایشی‌شان عوض شده دوباره کشیده می‌شود.
  */
 public class OpponentNetworkRenderer extends JComponent {
 
@@ -19,10 +29,27 @@ public class OpponentNetworkRenderer extends JComponent {
             0, new float[]{5, 5}, 0
     );
 
+    private static final Font LABEL_FONT = new Font("Arial", Font.BOLD, 11);
+    private static final Font BADGE_FONT = new Font("Arial", Font.BOLD, 10);
+    private static final Stroke BOX_STROKE = new BasicStroke(2.0f);
+    private static final Color BOX_FILL = new Color(100, 50, 50, 60);
+    private static final Color LABEL_BG = new Color(0, 0, 0, 100);
+    private static final Color BADGE_BG = new Color(0, 0, 0, 150);
+    private static final Color COOLDOWN_COLOR = new Color(255, 170, 60);
+    private static final int BADGE_W = 46, BADGE_H = 14;
+    /* cooldown با این دقت نمایش داده می‌شود؛ تغییرات ریزتر بازرسم نمی‌خواهند */
+    private static final int COOLDOWN_STEP_MS = 100;
+
     private final List<SystemLayout> opponentBoxes;
     private final List<WireLayout> opponentWires;
     private final GameScreenView gameView;
 
+    private final StaticLayerCache layoutLayer = new StaticLayerCache();
+    private final Map<String, SystemLayout> boxById = new HashMap<>();
+    /* آخرین وضعیت نمایش‌داده‌شدهٔ هر سیستم: {مهمات, cooldown گردشده} */
+    private final Map<String, int[]> shownState = new HashMap<>();
+    private final DirtyRegion dirty = new DirtyRegion();
+
     /**
      * Constructor
      */
@@ -32,6 +59,11 @@ public class OpponentNetworkRenderer extends JComponent {
         this.opponentBoxes = boxes;
         this.opponentWires = wires;
         this.gameView = gameView;
+        if (boxes != null) {
+            for (SystemLayout box : boxes) {
+                if (box.id != null) boxById.put(box.id, box);
+            }
+        }
 
         setOpaque(false);
         setLayout(null);
@@ -64,11 +96,29 @@ public class OpponentNetworkRenderer extends JComponent {
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
 
-        Graphics2D g2 = (Graphics2D) g.create();
+        // Static layout: one blit of the cached layer
+        BufferedImage layer = layoutLayer.get(getGraphicsConfiguration(), getWidth(), getHeight(),
+                StaticLayerCache.generation(), this::paintLayout);
+        if (layer != null) g.drawImage(layer, 0, 0, null);
 
-        // Enable anti-aliasing
+        // Dynamic per-system badges
+        Graphics2D g2 = (Graphics2D) g.create();
         g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
                 RenderingHints.VALUE_ANTIALIAS_ON);
+        Camera.of(getParent()).apply(g2);
+        Rectangle clip = g2.getClipBounds();
+        for (Map.Entry<String, int[]> e : shownState.entrySet()) {
+            SystemLayout box = boxById.get(e.getKey());
+            if (box == null) continue;
+            Rectangle r = badgeBounds(box);
+            if (clip != null && !clip.intersects(r)) continue;
+            drawBadge(g2, r, e.getValue()[0], e.getValue()[1]);
+        }
+        g2.dispose();
+    }
+
+    private void paintLayout(Graphics2D g2) {
+        Camera.of(getParent()).apply(g2);
 
         // Set composite for transparency
         g2.setComposite(AlphaComposite.getInstance(
@@ -79,8 +129,49 @@ public class OpponentNetworkRenderer extends JComponent {
 
         // Draw boxes
         drawBoxes(g2);
+    }
 
-        g2.dispose();
+    /**
+     * Applies one tick's system states for {@code opponentSide} (1 or 2). Only badges whose
+     * displayed ammo or cooldown changed are repainted. Call on the EDT.
+     */
+    public void updateSystems(List<SystemState> states, int opponentSide) {
+        if (states == null) return;
+        Camera.State cam = Camera.of(getParent());
+        for (SystemState st : states) {
+            SystemLayout box = boxById.get(st.id);
+            if (box == null) continue;
+            int ammo = (opponentSide == 1) ? st.ammoP1 : st.ammoP2;
+            int cooldown = Math.max(st.systemCooldownMs,
+                    (opponentSide == 1) ? st.packetCooldownMsP1 : st.packetCooldownMsP2);
+            cooldown = (cooldown + COOLDOWN_STEP_MS - 1) / COOLDOWN_STEP_MS * COOLDOWN_STEP_MS;
+
+            int[] shown = shownState.get(st.id);
+            if (shown != null && shown[0] == ammo && shown[1] == cooldown) continue;
+            shownState.put(st.id, new int[]{ammo, cooldown});
+            Rectangle r = badgeBounds(box);
+            dirty.add(cam.toScreen(r.x, r.y, r.width, r.height));
+        }
+        if (isShowing()) dirty.flush(this);
+        else dirty.clear();
+    }
+
+    /* زیر جعبه، وسط‌چین */
+    private static Rectangle badgeBounds(SystemLayout box) {
+        return new Rectangle(box.x + (box.width - BADGE_W) / 2, box.y + box.height + 4, BADGE_W, BADGE_H);
+    }
+
+    private static void drawBadge(Graphics2D g2, Rectangle r, int ammo, int cooldownMs) {
+        g2.setColor(BADGE_BG);
+        g2.fillRoundRect(r.x, r.y, r.width, r.height, 6, 6);
+        g2.setFont(BADGE_FONT);
+        FontMetrics fm = g2.getFontMetrics();
+        String text = (cooldownMs > 0)
+                ? String.format("%.1fs", cooldownMs / 1000.0)
+                : "x" + ammo;
+        g2.setColor(cooldownMs > 0 ? COOLDOWN_COLOR : Color.WHITE);
+        g2.drawString(text, r.x + (r.width - fm.stringWidth(text)) / 2,
+                r.y + (r.height + fm.getAscent() - fm.getDescent()) / 2);
     }
 
     /**
@@ -124,25 +215,25 @@ public class OpponentNetworkRenderer extends JComponent {
 
         for (SystemLayout box : opponentBoxes) {
             // Box background
-            g2.setColor(new Color(100, 50, 50, 60));
+            g2.setColor(BOX_FILL);
             g2.fillRoundRect(box.x, box.y, box.width, box.height, 10, 10);
 
             // Box border
             g2.setColor(OPPONENT_COLOR);
-            g2.setStroke(new BasicStroke(2.0f));
+            g2.setStroke(BOX_STROKE);
             g2.drawRoundRect(box.x, box.y, box.width, box.height, 10, 10);
 
             // Label
             String label = getBoxLabel(box);
             if (label != null) {
-                g2.setFont(new Font("Arial", Font.BOLD, 11));
+                g2.setFont(LABEL_FONT);
                 FontMetrics fm = g2.getFontMetrics();
                 int textWidth = fm.stringWidth(label);
                 int textX = box.x + (box.width - textWidth) / 2;
                 int textY = box.y - 5;
 
                 // Background for label
-                g2.setColor(new Color(0, 0, 0, 100));
+                g2.setColor(LABEL_BG);
                 g2.fillRect(textX - 2, textY - fm.getHeight() + 2,
                         textWidth + 4, fm.getHeight());
 
@@ -239,6 +330,7 @@ public class OpponentNetworkRenderer extends JComponent {
      * Clean up
      */
     public void cleanup() {
+        layoutLayer.flush();
         if (gameView != null && gameView.getGameArea() != null) {
             gameView.getGameArea().remove(this);
             gameView.getGameArea().repaint();
@@ -150,14 +150,11 @@ public class PvPMatchView extends JPanel {
         if (gameView == null) return;
 
         // Find all system boxes in the game
-        for (Component comp : gameView.getGameArea().getComponents()) {
-            if (comp instanceof com.blueprinthell.view.SystemBoxView boxView) {
-                SystemBoxModel model = boxView.getModel();
+        for (SystemBoxModel model : gameView.getBoxes()) {
 
-                // Only add non-source, non-sink systems
-                if (!model.getInPorts().isEmpty() && !model.getOutPorts().isEmpty()) {
-                    createSystemButton(model);
-                }
+            // Only add non-source, non-sink systems
+            if (!model.getInPorts().isEmpty() && !model.getOutPorts().isEmpty()) {
+                createSystemButton(model);
             }
         }
     }
@@ -1,5 +1,6 @@
 package com.blueprinthell.view.screens;
 
+import com.blueprinthell.config.Config;
 import com.blueprinthell.config.KeyBindings;
 import com.blueprinthell.controller.gameplay.AccelerationFreezeController;
 import com.blueprinthell.controller.gameplay.EliphasCenteringController;
@@ -7,6 +8,9 @@ import com.blueprinthell.model.PortModel;
 import com.blueprinthell.model.SystemBoxModel;
 import com.blueprinthell.model.WireModel;
 import com.blueprinthell.view.*;
+import com.blueprinthell.view.draw.BoxPainter;
+import com.blueprinthell.view.draw.StaticLayerCache;
+import com.blueprinthell.view.draw.WirePainter;
 import com.blueprinthell.controller.ui.editor.SystemBoxDragController;
 import com.blueprinthell.controller.wire.WireEditorController;
 import com.blueprinthell.model.WireUsageModel;
@@ -14,9 +18,24 @@ import com.blueprinthell.model.CoinModel;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.event.InputEvent;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.image.BufferedImage;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
 
 
 public class GameScreenView extends JPanel {
@@ -26,6 +45,32 @@ public class GameScreenView extends JPanel {
     private final BiConsumer<Integer, Integer> keyListener = this::applyKeyBindings;
     private AccelerationFreezeController freezeController;
 
+    /* حالت رندر فعال: Canvas سنگین روی gameArea؛ کامپوننت‌های سبک فقط برای ورودی ماوس می‌مانند */
+    private ActiveRenderCanvas activeCanvas;
+    private final CanvasMouseForwarder mouseForwarder = new CanvasMouseForwarder();
+
+    /* جعبه/پورت/سیم‌ها یک بار در تصویر کش رسم می‌شوند؛ فقط پکت‌ها و افکت‌ها هر فریم */
+    private final StaticLayerCache staticLayer = new StaticLayerCache();
+    private List<SystemBoxModel> boxes = List.of();
+    private List<WireModel> wires = List.of();
+
+    /* پوشش کارایی (F3) */
+    private final PerfOverlay perfOverlay = new PerfOverlay();
+
+    /*
+     * دوربین و مجازی‌سازی: ویوی جعبه/سیم فقط برای موجودیت‌های داخل دید ساخته و با خروج از دید
+     * دور ریخته می‌شود. کنترلرها به مدل بسته می‌شوند و روی هر ویوی تازهٔ همان مدل نصب می‌شوند.
+     */
+    private final Camera camera = new Camera();
+    private final Map<SystemBoxModel, SystemBoxView> boxViews = new IdentityHashMap<>();
+    private final Map<WireModel, WireView> wireViews = new IdentityHashMap<>();
+    private final Map<SystemBoxModel, List<MouseAdapter>> boxControllers = new IdentityHashMap<>();
+    private final Map<WireModel, List<MouseAdapter>> wireControllers = new IdentityHashMap<>();
+    private final Set<PortModel> levelPorts = Collections.newSetFromMap(new IdentityHashMap<>());
+    private Consumer<PortView> portBinder;
+    private boolean virtualizing;
+    private Point panFrom;
+
     public GameScreenView(HudView hudView) {
         super(new BorderLayout());
         this.hudView = hudView;
@@ -34,8 +79,60 @@ public class GameScreenView extends JPanel {
         hudView.setPreferredSize(new Dimension(0, 50));
         add(hudView, BorderLayout.NORTH);
 
-        gameArea = new JPanel(null);
+        gameArea = new JPanel(null) {
+            @Override
+            protected void paintComponent(Graphics g) {
+                super.paintComponent(g);
+                perfOverlay.frameRendered();
+                if (!Config.STATIC_LAYER_CACHE || activeCanvas != null) return;
+                BufferedImage layer = staticLayer.get(getGraphicsConfiguration(), getWidth(), getHeight(),
+                        StaticLayerCache.generation(boxes), GameScreenView.this::paintStaticLayer);
+                if (layer != null) g.drawImage(layer, 0, 0, null);
+            }
+
+            @Override
+            protected void paintChildren(Graphics g) {
+                // در حالت فعال، Canvas همه‌چیز را خودش می‌کشد
+                if (activeCanvas == null) super.paintChildren(g);
+            }
+
+            @Override
+            protected void addImpl(Component comp, Object constraints, int index) {
+                super.addImpl(comp, constraints, index);
+                pinActiveCanvas();
+            }
+
+            @Override
+            public void remove(int index) {
+                // حذف واقعی (نه خروج از دید) ویو را از فهرست مجازی‌سازی هم بیرون می‌برد
+                if (!virtualizing) {
+                    Component comp = getComponent(index);
+                    if (comp instanceof SystemBoxView sbv) boxViews.remove(sbv.getModel(), sbv);
+                    else if (comp instanceof WireView wv) wireViews.remove(wv.getModel(), wv);
+                }
+                super.remove(index);
+            }
+
+            @Override
+            public void setComponentZOrder(Component comp, int index) {
+                super.setComponentZOrder(comp, index);
+                pinActiveCanvas();
+            }
+        };
         gameArea.setFocusable(false);
+        gameArea.addComponentListener(new ComponentAdapter() {
+            @Override public void componentResized(ComponentEvent e) {
+                if (activeCanvas != null) activeCanvas.setBounds(0, 0, gameArea.getWidth(), gameArea.getHeight());
+                perfOverlay.setBounds(0, 0, gameArea.getWidth(), gameArea.getHeight());
+                applyCamera();
+            }
+        });
+        gameArea.putClientProperty(Camera.CLIENT_KEY, camera);
+        camera.addListener(() -> {
+            StaticLayerCache.invalidate();
+            applyCamera();
+        });
+        installCameraControls();
         gameArea.setOpaque(false);
         add(gameArea, BorderLayout.CENTER);
 
@@ -50,12 +147,44 @@ public class GameScreenView extends JPanel {
         im.clear();
         im.put(KeyStroke.getKeyStroke(backKey, 0), "time-back");
         im.put(KeyStroke.getKeyStroke(forwardKey, 0), "time-forward");
+        im.put(KeyStroke.getKeyStroke(KeyEvent.VK_F3, 0), "toggle-perf");
+        im.put(KeyStroke.getKeyStroke(KeyEvent.VK_HOME, 0), "camera-reset");
+        im.put(KeyStroke.getKeyStroke(backKey, InputEvent.SHIFT_DOWN_MASK), "tick-back");
+        im.put(KeyStroke.getKeyStroke(forwardKey, InputEvent.SHIFT_DOWN_MASK), "tick-forward");
+        im.put(KeyStroke.getKeyStroke(KeyEvent.VK_F5, 0), "replay-export");
+        im.put(KeyStroke.getKeyStroke(KeyEvent.VK_F6, 0), "replay-play");
+        im.put(KeyStroke.getKeyStroke(KeyEvent.VK_F7, 0), "timeline-export");
+        im.put(KeyStroke.getKeyStroke(KeyEvent.VK_F8, 0), "timeline-import");
         am.put("time-back", new AbstractAction() {
             @Override public void actionPerformed(ActionEvent e) { navigateTime(-1); }
         });
         am.put("time-forward", new AbstractAction() {
             @Override public void actionPerformed(ActionEvent e) { navigateTime(1); }
         });
+        am.put("toggle-perf", new AbstractAction() {
+            @Override public void actionPerformed(ActionEvent e) { togglePerfOverlay(); }
+        });
+        am.put("camera-reset", new AbstractAction() {
+            @Override public void actionPerformed(ActionEvent e) { camera.reset(); }
+        });
+        am.put("tick-back", new AbstractAction() {
+            @Override public void actionPerformed(ActionEvent e) { if (replayListener != null) replayListener.onStepTick(-1); }
+        });
+        am.put("tick-forward", new AbstractAction() {
+            @Override public void actionPerformed(ActionEvent e) { if (replayListener != null) replayListener.onStepTick(1); }
+        });
+        am.put("replay-export", new AbstractAction() {
+            @Override public void actionPerformed(ActionEvent e) { if (replayListener != null) replayListener.onExportReplay(); }
+        });
+        am.put("replay-play", new AbstractAction() {
+            @Override public void actionPerformed(ActionEvent e) { if (replayListener != null) replayListener.onPlayReplay(); }
+        });
+        am.put("timeline-export", new AbstractAction() {
+            @Override public void actionPerformed(ActionEvent e) { if (replayListener != null) replayListener.onExportTimeline(); }
+        });
+        am.put("timeline-import", new AbstractAction() {
+            @Override public void actionPerformed(ActionEvent e) { if (replayListener != null) replayListener.onImportTimeline(); }
+        });
     }
 
     private TemporalNavigationListener temporalListener;
@@ -64,21 +193,206 @@ public class GameScreenView extends JPanel {
 
     public interface TemporalNavigationListener { void onNavigate(int direction); }
 
+    /**
+     * Shift+back/forward steps one simulation tick; F5 saves the run as a replay, F6 plays one;
+     * F7 saves the rewind timeline as an archive, F8 opens one for scrubbing.
+     */
+    public interface ReplayListener {
+        void onStepTick(int direction);
+        void onExportReplay();
+        void onPlayReplay();
+        void onExportTimeline();
+        void onImportTimeline();
+    }
 
-    public List<SystemBoxView> getSystemBoxViews() {
-        List<SystemBoxView> list = new ArrayList<>();
-        collectSystemBoxViews(gameArea, list);
-        return list;
+    private ReplayListener replayListener;
+    public void setReplayListener(ReplayListener l) { this.replayListener = l; }
+
+    /** Simulation tick counter for the performance overlay's ticks-per-second. */
+    public void setTickSource(LongSupplier ticks) {
+        perfOverlay.setSources(ticks, () -> wires, () -> countViews(gameArea));
+    }
+
+    public void togglePerfOverlay() {
+        perfOverlay.setOverlayShown(!perfOverlay.isOverlayShown());
     }
 
-    private void collectSystemBoxViews(Container c, List<SystemBoxView> list) {
+    public PerfOverlay getPerfOverlay() { return perfOverlay; }
+
+    private static int countViews(Container c) {
+        int n = 0;
         for (Component comp : c.getComponents()) {
-            if (comp instanceof SystemBoxView sbv) {
-                list.add(sbv);
-            } else if (comp instanceof Container inner) {
-                collectSystemBoxViews(inner, list);
+            n++;
+            if (comp instanceof Container inner) n += countViews(inner);
+        }
+        return n;
+    }
+
+
+    /** Box views of the entities currently in the viewport; off-screen boxes have none. */
+    public List<SystemBoxView> getSystemBoxViews() {
+        return new ArrayList<>(boxViews.values());
+    }
+
+    /** Wire views of the wires currently in the viewport; off-screen wires have none. */
+    public List<WireView> getWireViews() {
+        return new ArrayList<>(wireViews.values());
+    }
+
+    /** Every box of the level, on screen or not. */
+    public List<SystemBoxModel> getBoxes() { return boxes; }
+
+    public Camera getCamera() { return camera; }
+
+    /**
+     * Binds a mouse controller to a box. It is installed on the box's view now if the box is on
+     * screen, and on every view created for it later; a controller of the same class replaces
+     * the previous one.
+     */
+    public void bindBoxController(SystemBoxModel box, MouseAdapter controller) {
+        bind(boxControllers, box, boxViews.get(box), controller);
+    }
+
+    /** Same as {@link #bindBoxController} for a wire. */
+    public void bindWireController(WireModel wire, MouseAdapter controller) {
+        bind(wireControllers, wire, wireViews.get(wire), controller);
+    }
+
+    /** Called for every port view, present and future, e.g. to make ports clickable for wiring. */
+    public void setPortViewBinder(Consumer<PortView> binder) {
+        portBinder = binder;
+        if (binder == null) return;
+        for (SystemBoxView sbv : boxViews.values()) bindPorts(sbv);
+    }
+
+    private static <M> void bind(Map<M, List<MouseAdapter>> bindings, M model, JComponent view, MouseAdapter controller) {
+        List<MouseAdapter> list = bindings.computeIfAbsent(model, k -> new ArrayList<>());
+        for (Iterator<MouseAdapter> it = list.iterator(); it.hasNext(); ) {
+            MouseAdapter old = it.next();
+            if (old.getClass() != controller.getClass()) continue;
+            if (view != null) uninstall(view, old);
+            it.remove();
+        }
+        list.add(controller);
+        if (view != null) install(view, controller);
+    }
+
+    private static <M> boolean isBound(Map<M, List<MouseAdapter>> bindings, M model, Class<?> type) {
+        List<MouseAdapter> list = bindings.get(model);
+        if (list == null) return false;
+        for (MouseAdapter c : list) if (type.isInstance(c)) return true;
+        return false;
+    }
+
+    private static void install(JComponent view, MouseAdapter controller) {
+        view.addMouseListener(controller);
+        view.addMouseMotionListener(controller);
+    }
+
+    private static void uninstall(JComponent view, MouseAdapter controller) {
+        view.removeMouseListener(controller);
+        view.removeMouseMotionListener(controller);
+    }
+
+    private void bindPorts(SystemBoxView sbv) {
+        for (Component c : sbv.getComponents()) {
+            if (c instanceof PortView pv) portBinder.accept(pv);
+        }
+    }
+
+    private SystemBoxView createBoxView(SystemBoxModel m) {
+        SystemBoxView sbv = new SystemBoxView(m);
+        for (MouseAdapter c : boxControllers.getOrDefault(m, List.of())) install(sbv, c);
+        if (portBinder != null) bindPorts(sbv);
+        boxViews.put(m, sbv);
+        gameArea.add(sbv);
+        return sbv;
+    }
+
+    private void createWireView(WireModel w, Rectangle viewport) {
+        WireView wv = new WireView(w);
+        for (MouseAdapter c : wireControllers.getOrDefault(w, List.of())) install(wv, c);
+        wireViews.put(w, wv);
+        gameArea.add(wv, 0);
+        wv.setBounds(viewport);
+    }
+
+    /**
+     * Re-maps the level through the camera: creates views for the boxes and wires that
+     * intersect the viewport and drops the views of those that left it, so off-screen
+     * entities hold no Swing component at all. Call it after adding or moving entities.
+     */
+    public void applyCamera() {
+        Camera.State cam = camera.state();
+        Rectangle viewport = new Rectangle(0, 0, gameArea.getWidth(), gameArea.getHeight());
+        if (viewport.isEmpty()) return;
+
+        Set<WireModel> live = Collections.newSetFromMap(new IdentityHashMap<>());
+        live.addAll(wires);
+
+        virtualizing = true;
+        try {
+            // سیم‌های حذف‌شده: هم ویو و هم کنترلرهایشان کنار می‌روند
+            for (Iterator<Map.Entry<WireModel, WireView>> it = wireViews.entrySet().iterator(); it.hasNext(); ) {
+                Map.Entry<WireModel, WireView> e = it.next();
+                if (live.contains(e.getKey())) continue;
+                if (e.getValue().getParent() == gameArea) gameArea.remove(e.getValue());
+                it.remove();
             }
+            wireControllers.keySet().retainAll(live);
+
+            for (SystemBoxModel m : boxes) {
+                // پورت‌ها کمی بیرون از جعبه‌اند؛ با حاشیه بسنج
+                Rectangle r = cam.toScreen(m.getX(), m.getY(), m.getWidth(), m.getHeight());
+                r.grow(Config.PORT_SIZE, Config.PORT_SIZE);
+                SystemBoxView sbv = boxViews.get(m);
+                if (r.intersects(viewport)) {
+                    if (sbv == null) sbv = createBoxView(m);
+                    sbv.refresh();
+                } else if (sbv != null) {
+                    gameArea.remove(sbv);
+                    boxViews.remove(m);
+                }
+            }
+            for (WireModel w : wires) {
+                if (!levelPorts.contains(w.getSrcPort()) || !levelPorts.contains(w.getDstPort())) continue;
+                WireView wv = wireViews.get(w);
+                boolean visible = WireView.screenBounds(w, cam).intersects(viewport);
+                if (visible && wv == null) {
+                    createWireView(w, viewport);
+                } else if (!visible && wv != null) {
+                    gameArea.remove(wv);
+                    wireViews.remove(w);
+                }
+            }
+        } finally {
+            virtualizing = false;
         }
+        gameArea.revalidate();
+        gameArea.repaint();
+    }
+
+    /* چرخ ماوس: زوم حول نشانگر؛ کشیدن با دکمهٔ وسط: جابه‌جایی؛ Home: بازنشانی */
+    private void installCameraControls() {
+        gameArea.addMouseWheelListener(e -> {
+            double factor = Math.pow(Config.CAMERA_ZOOM_STEP, -e.getPreciseWheelRotation());
+            camera.zoomAt(factor, e.getPoint());
+        });
+        MouseAdapter pan = new MouseAdapter() {
+            @Override public void mousePressed(MouseEvent e) {
+                if (SwingUtilities.isMiddleMouseButton(e)) panFrom = e.getPoint();
+            }
+            @Override public void mouseDragged(MouseEvent e) {
+                if (panFrom == null) return;
+                camera.panBy(e.getX() - panFrom.x, e.getY() - panFrom.y);
+                panFrom = e.getPoint();
+            }
+            @Override public void mouseReleased(MouseEvent e) {
+                if (SwingUtilities.isMiddleMouseButton(e)) panFrom = null;
+            }
+        };
+        gameArea.addMouseListener(pan);
+        gameArea.addMouseMotionListener(pan);
     }
     public void setFreezeController(AccelerationFreezeController fc) {
         this.freezeController = fc;
@@ -86,45 +400,142 @@ public class GameScreenView extends JPanel {
 
     public void reset(List<SystemBoxModel> boxes, List<WireModel> wires) {
         gameArea.removeAll();
+        boxViews.clear();
+        wireViews.clear();
+        this.boxes = boxes;
+        this.wires = wires;
+        // کنترلرهای مدل‌هایی که در مرحلهٔ تازه نیستند رها می‌شوند
+        Set<SystemBoxModel> liveBoxes = Collections.newSetFromMap(new IdentityHashMap<>());
+        liveBoxes.addAll(boxes);
+        boxControllers.keySet().retainAll(liveBoxes);
+        levelPorts.clear();
+        for (SystemBoxModel b : boxes) {
+            levelPorts.addAll(b.getInPorts());
+            levelPorts.addAll(b.getOutPorts());
+        }
+        StaticLayerCache.invalidate();
         if (freezeController != null) {
             FreezePointRenderer renderer = new FreezePointRenderer(freezeController);
             renderer.setBounds(0, 0, gameArea.getWidth(), gameArea.getHeight());
             gameArea.add(renderer, 0);
 
             // تایمر برای به‌روزرسانی افکت
-            Timer updateTimer = new Timer(100, e -> renderer.repaint());
+            Timer updateTimer = new Timer(100, e -> renderer.repaintPoints());
             updateTimer.start();
         }
 
+        perfOverlay.setBounds(0, 0, gameArea.getWidth(), gameArea.getHeight());
+        gameArea.add(perfOverlay, 0);
+        if (activeCanvas != null) attachActiveCanvas();
+        applyCamera();
+        requestFocusInWindow();
+    }
 
-
+    /** Boxes (as enabled), their ports and all wires; disabled boxes are overdrawn live by SystemBoxView. */
+    private void paintStaticLayer(Graphics2D g2) {
+        Camera.State cam = camera.state();
+        Rectangle visible = cam.visibleWorld(gameArea.getWidth(), gameArea.getHeight());
+        cam.apply(g2);
+        int m = Config.PORT_SIZE;
         for (SystemBoxModel b : boxes) {
-            gameArea.add(new SystemBoxView(b));
+            if (!visible.intersects(b.getX() - m, b.getY() - m, b.getWidth() + 2 * m, b.getHeight() + 2 * m)) continue;
+            g2.translate(b.getX(), b.getY());
+            BoxPainter.paint(g2, b.getPrimaryKind(), true, b.getWidth(), b.getHeight());
+            g2.translate(-b.getX(), -b.getY());
+            for (PortModel p : b.getInPorts())  paintPort(g2, p);
+            for (PortModel p : b.getOutPorts()) paintPort(g2, p);
         }
-
         for (WireModel w : wires) {
-            PortView src = findPortView(gameArea, w.getSrcPort());
-            PortView dst = findPortView(gameArea, w.getDstPort());
-            if (src != null && dst != null) {
-                gameArea.add(new WireView(w, src, dst), 0);
-            }
+            WirePainter.paint(g2, w.getPath().getPoints());
+        }
+    }
+
+    private static void paintPort(Graphics2D g2, PortModel p) {
+        g2.translate(p.getX(), p.getY());
+        BoxPainter.paintPort(g2, p.getShape(), p.isInput(), p.getWidth());
+        g2.translate(-p.getX(), -p.getY());
+    }
+
+    /**
+     * Switches the game area to active rendering ({@code canvas != null}) or back to passive
+     * Swing painting ({@code null}). Mouse input on the canvas is forwarded to the
+     * lightweight views underneath, so the existing editor controllers keep working.
+     */
+    public void setActiveRendering(ActiveRenderCanvas canvas) {
+        if (activeCanvas != null) {
+            activeCanvas.removeMouseListener(mouseForwarder);
+            activeCanvas.removeMouseMotionListener(mouseForwarder);
+            activeCanvas.removeMouseWheelListener(mouseForwarder);
+            gameArea.remove(activeCanvas);
+        }
+        activeCanvas = canvas;
+        if (canvas != null) {
+            canvas.setPerfOverlay(perfOverlay);
+            canvas.setCamera(camera);
+            canvas.addMouseListener(mouseForwarder);
+            canvas.addMouseMotionListener(mouseForwarder);
+            canvas.addMouseWheelListener(mouseForwarder);
+            attachActiveCanvas();
         }
         gameArea.revalidate();
         gameArea.repaint();
-        requestFocusInWindow();
     }
 
-    private PortView findPortView(Container c, PortModel pm) {
-        for (Component comp : c.getComponents()) {
-            if (comp instanceof PortView pv && pv.getModel() == pm) {
-                return pv;
-            }
-            if (comp instanceof Container inner) {
-                PortView f = findPortView(inner, pm);
-                if (f != null) return f;
+    public boolean isActiveRendering() { return activeCanvas != null; }
+
+    private void attachActiveCanvas() {
+        if (activeCanvas.getParent() != gameArea) gameArea.add(activeCanvas, 0);
+        activeCanvas.setBounds(0, 0, gameArea.getWidth(), gameArea.getHeight());
+    }
+
+    private void pinActiveCanvas() {
+        if (activeCanvas != null && activeCanvas.getParent() == gameArea
+                && gameArea.getComponentZOrder(activeCanvas) != 0) {
+            gameArea.setComponentZOrder(activeCanvas, 0);
+        }
+    }
+
+    /** Re-targets canvas mouse events to the deepest lightweight view under the cursor. */
+    private final class CanvasMouseForwarder extends MouseAdapter {
+        private Component pressedTarget;
+
+        @Override public void mousePressed(MouseEvent e) {
+            pressedTarget = targetAt(e.getPoint());
+            forward(e, pressedTarget);
+        }
+        @Override public void mouseReleased(MouseEvent e) {
+            forward(e, (pressedTarget != null) ? pressedTarget : targetAt(e.getPoint()));
+            pressedTarget = null;
+        }
+        @Override public void mouseDragged(MouseEvent e) {
+            forward(e, (pressedTarget != null) ? pressedTarget : targetAt(e.getPoint()));
+        }
+        @Override public void mouseClicked(MouseEvent e)    { forward(e, targetAt(e.getPoint())); }
+        @Override public void mouseMoved(MouseEvent e)      { forward(e, targetAt(e.getPoint())); }
+        @Override public void mouseWheelMoved(MouseWheelEvent e) { forward(e, targetAt(e.getPoint())); }
+
+        private Component targetAt(Point p) {
+            for (Component c : gameArea.getComponents()) {
+                if (c == activeCanvas || !c.isVisible()) continue;
+                Point local = SwingUtilities.convertPoint(gameArea, p, c);
+                if (c.contains(local)) {
+                    Component deep = SwingUtilities.getDeepestComponentAt(c, local.x, local.y);
+                    return (deep != null) ? deep : c;
+                }
             }
+            return gameArea;
+        }
+
+        private void forward(MouseEvent e, Component target) {
+            if (target == null || activeCanvas == null) return;
+            Point p = SwingUtilities.convertPoint(activeCanvas, e.getPoint(), target);
+            MouseEvent copy = (e instanceof MouseWheelEvent w)
+                    ? new MouseWheelEvent(target, w.getID(), w.getWhen(), w.getModifiersEx(), p.x, p.y,
+                            w.getClickCount(), w.isPopupTrigger(), w.getScrollType(), w.getScrollAmount(), w.getWheelRotation())
+                    : new MouseEvent(target, e.getID(), e.getWhen(), e.getModifiersEx(), p.x, p.y,
+                            e.getClickCount(), e.isPopupTrigger(), e.getButton());
+            target.dispatchEvent(copy);
         }
-        return null;
     }
 
     public void showScreen() {
@@ -145,49 +556,18 @@ public class GameScreenView extends JPanel {
                                    WireUsageModel usageModel,
                                    CoinModel coinModel,
                                    Runnable networkChanged) {
-        // بازسازی SystemBoxDragController برای هر SystemBoxView
-        for (Component c : gameArea.getComponents()) {
-            if (c instanceof SystemBoxView sbv) {
-                // حذف listener های قبلی برای جلوگیری از duplicate
-                var listeners = sbv.getMouseListeners();
-                var motionListeners = sbv.getMouseMotionListeners();
-
-                // بررسی که آیا قبلاً controller دارد
-                boolean hasController = false;
-                for (var listener : listeners) {
-                    if (listener instanceof SystemBoxDragController) {
-                        hasController = true;
-                        break;
-                    }
-                }
-
-                if (!hasController) {
-                    new SystemBoxDragController(sbv.getModel(), sbv, wires, usageModel);
-                }
+        // کنترلر درگ برای هر جعبه‌ای که هنوز ندارد
+        for (SystemBoxModel b : boxes) {
+            if (!isBound(boxControllers, b, SystemBoxDragController.class)) {
+                bindBoxController(b, new SystemBoxDragController(b, wires, usageModel));
             }
         }
 
-        // بازسازی WireEditorController برای هر WireView
-        for (Component c : gameArea.getComponents()) {
-            if (c instanceof WireView wv) {
-                // حذف listener های قبلی
-                var listeners = wv.getMouseListeners();
-                var motionListeners = wv.getMouseMotionListeners();
-
-                // بررسی که آیا قبلاً controller دارد
-                boolean hasController = false;
-                for (var listener : listeners) {
-                    if (listener.getClass().getName().contains("WireEditorController")) {
-                        hasController = true;
-                        break;
-                    }
-                }
-
-                if (!hasController) {
-                    new WireEditorController(gameArea, wv.getModel(), wv,
-                            getSystemBoxViews(), coinModel, usageModel, networkChanged);
-                }
+        // ویرایشگر خم برای هر سیمی که هنوز ندارد
+        for (WireModel w : wires) {
+            if (!isBound(wireControllers, w, WireEditorController.class)) {
+                bindWireController(w, new WireEditorController(gameArea, w, boxes, coinModel, usageModel, networkChanged));
             }
         }
     }
-}
\ No newline at end of file
+}
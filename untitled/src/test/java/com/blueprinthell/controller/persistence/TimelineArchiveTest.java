@@ -0,0 +1,142 @@
+package com.blueprinthell.controller.persistence;
+
+import com.blueprinthell.snapshot.NetworkSnapshot;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class TimelineArchiveTest {
+    private static final int FRAMES = 2 * SnapshotManager.DECODED_CACHE_FRAMES + 8;
+
+    @Rule
+    public final TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void exportImportRoundTrip() throws IOException {
+        Path file = writeArchive(FRAMES);
+
+        try (TimelineArchive.Reader reader = new TimelineArchive.Reader(file)) {
+            assertEquals(FRAMES, reader.frameCount());
+            // random access, not just in file order
+            for (int i = FRAMES - 1; i >= 0; i -= 3) {
+                assertFrame(i, reader.readFrame(i));
+            }
+            assertFrame(0, reader.readFrame(0));
+        }
+    }
+
+    @Test
+    public void emptyTimelineRoundTrip() throws IOException {
+        Path file = writeArchive(0);
+
+        try (TimelineArchive.Reader reader = new TimelineArchive.Reader(file)) {
+            assertEquals(0, reader.frameCount());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsOtherFiles() throws IOException {
+        Path file = tmp.newFile("not-a-timeline.json").toPath();
+        Files.writeString(file, "{\"meta\":{},\"world\":{}}");
+
+        new TimelineArchive.Reader(file).close();
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsArchiveWithoutTrailer() throws IOException {
+        Path file = writeArchive(3);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, java.util.Arrays.copyOf(bytes, bytes.length - 4));
+
+        new TimelineArchive.Reader(file).close();
+    }
+
+    @Test
+    public void lazyImportKeepsDecodedFramesBounded() throws IOException {
+        Path file = writeArchive(FRAMES);
+        AtomicInteger loads = new AtomicInteger();
+
+        try (TimelineArchive.Reader reader = new TimelineArchive.Reader(file)) {
+            SnapshotManager snaps = new SnapshotManager();
+            snaps.loadLazily(reader.frameCount(), i -> {
+                loads.incrementAndGet();
+                return read(reader, i);
+            });
+            assertEquals(FRAMES, snaps.size());
+            assertEquals(0, snaps.decodedFrameCount());
+
+            for (int i = 0; i < FRAMES; i++) {
+                assertFrame(i, snaps.getSnapshotAt(i));
+                assertTrue(snaps.decodedFrameCount() <= SnapshotManager.DECODED_CACHE_FRAMES);
+            }
+            assertEquals(FRAMES, loads.get());
+            assertEquals(SnapshotManager.DECODED_CACHE_FRAMES, snaps.decodedFrameCount());
+
+            // recently used frames come from the cache, evicted ones are decoded again
+            assertFrame(FRAMES - 1, snaps.getSnapshotAt(FRAMES - 1));
+            assertEquals(FRAMES, loads.get());
+            assertFrame(0, snaps.getSnapshotAt(0));
+            assertEquals(FRAMES + 1, loads.get());
+
+            snaps.clear();
+            assertEquals(0, snaps.decodedFrameCount());
+        }
+    }
+
+    @Test
+    public void lazyImportKeepsNewestFramesWhenCapped() throws IOException {
+        Path file = writeArchive(FRAMES);
+
+        try (TimelineArchive.Reader reader = new TimelineArchive.Reader(file)) {
+            SnapshotManager snaps = new SnapshotManager(10);
+            snaps.loadLazily(reader.frameCount(), i -> read(reader, i));
+
+            assertEquals(10, snaps.size());
+            assertFrame(FRAMES - 10, snaps.getSnapshotAt(0));
+            assertFrame(FRAMES - 1, snaps.getCurrentSnapshot());
+        }
+    }
+
+    /* ---------- helpers ---------- */
+
+    private Path writeArchive(int frames) throws IOException {
+        Path file = tmp.newFile().toPath();
+        try (TimelineArchive.Writer writer = new TimelineArchive.Writer(file)) {
+            for (int i = 0; i < frames; i++) writer.append(frame(i));
+        }
+        return file;
+    }
+
+    private static NetworkSnapshot frame(int i) {
+        NetworkSnapshot snap = new NetworkSnapshot(i * 10);
+        snap.meta.tick = i;
+        snap.meta.timeSeconds = i / 60.0;
+        snap.world.coins = i % 7;
+        return snap;
+    }
+
+    private static void assertFrame(int i, NetworkSnapshot snap) {
+        assertNotNull("frame " + i, snap);
+        assertEquals(NetworkSnapshot.SCHEMA_VERSION, snap.meta.schemaVersion);
+        assertEquals(i, snap.meta.tick);
+        assertEquals(i / 60.0, snap.meta.timeSeconds, 0.0);
+        assertEquals(i * 10, snap.world.score);
+        assertEquals(i % 7, snap.world.coins);
+    }
+
+    private static NetworkSnapshot read(TimelineArchive.Reader reader, int i) {
+        try {
+            return reader.readFrame(i);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.blueprinthell.server.net;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class TimingWheelTest {
+    private static final long TICK_MS = 10;
+    /* scheduling slack on a loaded machine */
+    private static final long SLACK_MS = 1000;
+
+    private final BlockingQueue<String> expired = new LinkedBlockingQueue<>();
+    private final BlockingQueue<Long> expiredAtMs = new LinkedBlockingQueue<>();
+    // 8 slots * 10 ms: the timeouts below outlast one round of the wheel
+    private final TimingWheel<String> wheel = new TimingWheel<>("test-wheel", TICK_MS, 8, this::onExpired);
+
+    private void onExpired(List<String> owners) {
+        long now = nowMs();
+        for (String owner : owners) {
+            expired.add(owner);
+            expiredAtMs.add(now);
+        }
+    }
+
+    @After
+    public void stop() {
+        wheel.stop();
+    }
+
+    @Test
+    public void expiresAfterTimeout() throws InterruptedException {
+        long start = nowMs();
+        wheel.schedule("a", 150);
+
+        assertEquals("a", expired.poll(150 + SLACK_MS, TimeUnit.MILLISECONDS));
+        assertTrue(expiredAtMs.take() - start >= 150);
+    }
+
+    @Test
+    public void expiresInDeadlineOrder() throws InterruptedException {
+        wheel.schedule("late", 250);
+        wheel.schedule("early", 60);
+        wheel.schedule("middle", 130);
+
+        assertEquals("early", expired.poll(SLACK_MS, TimeUnit.MILLISECONDS));
+        assertEquals("middle", expired.poll(SLACK_MS, TimeUnit.MILLISECONDS));
+        assertEquals("late", expired.poll(SLACK_MS, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void touchPostponesExpiry() throws InterruptedException {
+        TimingWheel<String>.Timeout t = wheel.schedule("a", 100);
+        long start = nowMs();
+        while (nowMs() - start < 300) {
+            Thread.sleep(20);
+            t.touch();
+        }
+        long lastTouch = nowMs();
+
+        assertTrue(expired.isEmpty());
+        assertEquals("a", expired.poll(100 + SLACK_MS, TimeUnit.MILLISECONDS));
+        assertTrue(expiredAtMs.take() - lastTouch >= 100 - TICK_MS);
+    }
+
+    @Test
+    public void cancelledTimeoutNeverExpires() throws InterruptedException {
+        TimingWheel<String>.Timeout t = wheel.schedule("a", 50);
+        wheel.schedule("b", 120);
+        t.cancel();
+
+        assertEquals("b", expired.poll(120 + SLACK_MS, TimeUnit.MILLISECONDS));
+        assertNull(expired.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    private static long nowMs() {
+        return System.nanoTime() / 1_000_000L;
+    }
+}
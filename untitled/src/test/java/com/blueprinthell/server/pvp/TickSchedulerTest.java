@@ -0,0 +1,154 @@
+package com.blueprinthell.server.pvp;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class TickSchedulerTest {
+    private static final long PERIOD_MS = 10;
+    private static final long STALL_MS = 200;   // 20 periods
+    private static final long SLACK_MS = 2000;
+
+    private final TickScheduler scheduler = new TickScheduler("test-tick", 2);
+
+    @After
+    public void shutdown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void oneShotRunsOnce() throws InterruptedException {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(1);
+
+        TickScheduler.Task task = scheduler.schedule("m", () -> {
+            runs.incrementAndGet();
+            done.countDown();
+        }, 20);
+
+        assertTrue(done.await(SLACK_MS, TimeUnit.MILLISECONDS));
+        Thread.sleep(100);
+        assertEquals(1, runs.get());
+        assertEquals(1, task.runs());
+    }
+
+    @Test
+    public void sameKeyRunsOnOneThread() throws InterruptedException {
+        List<Thread> threads = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(6);
+        for (int i = 0; i < 3; i++) {
+            scheduler.schedule("match-7", () -> {
+                threads.add(Thread.currentThread());
+                done.countDown();
+            }, i);
+            scheduler.scheduleAtFixedRate("match-7", () -> {
+                if (done.getCount() > 0) {
+                    threads.add(Thread.currentThread());
+                    done.countDown();
+                }
+            }, 0, PERIOD_MS);
+        }
+
+        assertTrue(done.await(SLACK_MS, TimeUnit.MILLISECONDS));
+        for (Thread t : threads) assertSame(threads.get(0), t);
+    }
+
+    @Test
+    public void stalledTaskCatchesUpThenSkips() throws InterruptedException {
+        List<Long> startedAt = new CopyOnWriteArrayList<>();
+        int expectedRuns = 2 + TickScheduler.MAX_CATCH_UP;
+        CountDownLatch done = new CountDownLatch(expectedRuns);
+
+        TickScheduler.Task task = scheduler.scheduleAtFixedRate("m", () -> {
+            startedAt.add(System.nanoTime());
+            if (startedAt.size() == 1) sleep(STALL_MS);
+            done.countDown();
+        }, 0, PERIOD_MS);
+
+        assertTrue(done.await(SLACK_MS, TimeUnit.MILLISECONDS));
+        task.cancel();
+
+        // after the stall: MAX_CATCH_UP missed periods back to back, the rest skipped
+        long stallEnd = startedAt.get(0) + STALL_MS * 1_000_000L;
+        long burstNanos = startedAt.get(1 + TickScheduler.MAX_CATCH_UP) - startedAt.get(1);
+        assertTrue(startedAt.get(1) >= stallEnd);
+        assertTrue("catch-up runs were spread over " + burstNanos / 1_000_000 + " ms",
+                burstNanos < (TickScheduler.MAX_CATCH_UP * PERIOD_MS) * 1_000_000L);
+        long behind = STALL_MS / PERIOD_MS - 1;
+        assertTrue(task.skippedFrames() >= behind - TickScheduler.MAX_CATCH_UP);
+        assertTrue(task.skippedFrames() <= behind + SLACK_MS / PERIOD_MS);
+        assertTrue(task.maxRunNanos() >= STALL_MS * 1_000_000L);
+    }
+
+    @Test
+    public void failingTaskIsCancelledAndReported() throws InterruptedException {
+        AtomicInteger runs = new AtomicInteger();
+        AtomicReference<Throwable> reported = new AtomicReference<>();
+        CountDownLatch failed = new CountDownLatch(1);
+
+        TickScheduler.Task task = scheduler.scheduleAtFixedRate("m", () -> {
+            runs.incrementAndGet();
+            throw new IllegalStateException("expected by test");
+        }, 0, PERIOD_MS, t -> {
+            reported.set(t);
+            failed.countDown();
+        });
+
+        assertTrue(failed.await(SLACK_MS, TimeUnit.MILLISECONDS));
+        Thread.sleep(10 * PERIOD_MS);
+        assertEquals(1, runs.get());
+        assertEquals(1, task.runs());
+        assertTrue(reported.get() instanceof IllegalStateException);
+        assertSame(reported.get(), task.failure());
+    }
+
+    @Test
+    public void errorDoesNotKillTheShard() throws InterruptedException {
+        CountDownLatch failed = new CountDownLatch(1);
+        TickScheduler.Task bad = scheduler.schedule("m", () -> {
+            throw new AssertionError("expected by test");
+        }, 0, t -> failed.countDown());
+        assertTrue(failed.await(SLACK_MS, TimeUnit.MILLISECONDS));
+
+        // same key, so the same shard thread
+        CountDownLatch ran = new CountDownLatch(3);
+        TickScheduler.Task next = scheduler.scheduleAtFixedRate("m", ran::countDown, 0, PERIOD_MS);
+        assertTrue(ran.await(SLACK_MS, TimeUnit.MILLISECONDS));
+        next.cancel();
+        assertTrue(bad.failure() instanceof AssertionError);
+    }
+
+    @Test
+    public void cancelStopsFurtherRuns() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(2);
+        TickScheduler.Task task = scheduler.scheduleAtFixedRate("m", started::countDown, 0, PERIOD_MS);
+        assertTrue(started.await(SLACK_MS, TimeUnit.MILLISECONDS));
+
+        task.cancel();
+        Thread.sleep(5 * PERIOD_MS);   // a run in progress may still finish
+        long runs = task.runs();
+        Thread.sleep(10 * PERIOD_MS);
+        assertEquals(runs, task.runs());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNonPositivePeriod() {
+        scheduler.scheduleAtFixedRate("m", () -> { }, 0, 0);
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.blueprinthell.shared.protocol;
+
+import com.blueprinthell.shared.protocol.NetworkProtocol.*;
+import com.google.gson.Gson;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class BinaryCodecTest {
+    private final Gson gson = new Gson();
+    private final BinaryCodec codec = new BinaryCodec(gson);
+
+    @Test
+    public void tickRoundTrip() throws IOException {
+        Tick tick = new Tick("match-1", 1234);
+        tick.baseFrameId = 1200;
+        tick.systemCooldownStepMs = 50;
+        tick.packetCooldownStepMsP1 = 20;
+        tick.packetCooldownStepMsP2 = 25;
+        tick.scoreP1 = new PlayerScore();
+        tick.scoreP1.delivered = 9;
+        tick.scoreP1.lost = -1;              // zigzag keeps negatives short
+        tick.scoreP1.totalScore = 1 << 20;
+        tick.scoreP1.ammo = 3;
+        tick.systems = new ArrayList<>();
+        SystemState s = new SystemState();
+        s.id = "sys-ü";
+        s.ammoP1 = 4;
+        s.ammoP2 = 0;
+        s.systemCooldownMs = 1500;
+        s.packetCooldownMsP1 = 300;
+        s.packetCooldownMsP2 = 0;
+        tick.systems.add(s);
+        tick.globalSpeedMultiplier = 0.75;
+
+        Tick back = (Tick) roundTrip(tick);
+
+        assertEquals(MessageType.TICK, back.type);
+        assertEquals("match-1", back.matchId);
+        assertEquals(1234, back.frameId);
+        assertEquals(1200, back.baseFrameId);
+        assertEquals(50, back.systemCooldownStepMs);
+        assertEquals(20, back.packetCooldownStepMsP1);
+        assertEquals(25, back.packetCooldownStepMsP2);
+        assertEquals(9, back.scoreP1.delivered);
+        assertEquals(-1, back.scoreP1.lost);
+        assertEquals(1 << 20, back.scoreP1.totalScore);
+        assertEquals(3, back.scoreP1.ammo);
+        assertNull(back.scoreP2);
+        assertEquals(1, back.systems.size());
+        SystemState b = back.systems.get(0);
+        assertEquals("sys-ü", b.id);
+        assertEquals(4, b.ammoP1);
+        assertEquals(1500, b.systemCooldownMs);
+        assertEquals(300, b.packetCooldownMsP1);
+        assertEquals(0.75, back.globalSpeedMultiplier, 0.0);
+    }
+
+    @Test
+    public void deltaTickKeepsNullSystems() throws IOException {
+        Tick back = (Tick) roundTrip(new Tick("m", 7));
+
+        assertNull(back.systems);
+        assertNull(back.scoreP1);
+    }
+
+    @Test
+    public void smallMessagesRoundTrip() throws IOException {
+        Inject inject = (Inject) roundTrip(new Inject("m", "src-2"));
+        assertEquals("m", inject.matchId);
+        assertEquals("src-2", inject.systemId);
+
+        Inject nulls = (Inject) roundTrip(new Inject(null, ""));
+        assertNull(nulls.matchId);
+        assertEquals("", nulls.systemId);
+
+        TickAck ack = (TickAck) roundTrip(new TickAck("m", 99, true));
+        assertEquals(99, ack.frameId);
+        assertTrue(ack.resync);
+
+        StateSync sync = new StateSync("m", 12);
+        sync.compressedState = "eJwrSS0u0c0oyckBAA==";
+        StateSync syncBack = (StateSync) roundTrip(sync);
+        assertEquals(12, syncBack.frameId);
+        assertEquals(sync.compressedState, syncBack.compressedState);
+
+        assertEquals(MessageType.HEARTBEAT, roundTrip(new Heartbeat()).type);
+        assertEquals(MessageType.HEARTBEAT_ACK, roundTrip(new HeartbeatAck()).type);
+    }
+
+    @Test
+    public void messageIdsIncrease() throws IOException {
+        long first = Long.parseLong(roundTrip(new Heartbeat()).messageId);
+        long second = Long.parseLong(roundTrip(new Heartbeat()).messageId);
+
+        assertTrue(second > first);
+    }
+
+    @Test
+    public void otherMessagesTravelAsJson() throws IOException {
+        Hello hello = new Hello("1.0", "user-1");
+
+        byte[] body = body(codec.encode(hello));
+
+        assertEquals(BinaryCodec.TAG_JSON, body[0]);
+        Hello back = gson.fromJson(BinaryCodec.jsonPayload(body), Hello.class);
+        assertEquals("user-1", back.userId);
+        assertNull(BinaryCodec.jsonPayload(body(codec.encode(new Heartbeat()))));
+    }
+
+    @Test
+    public void truncatedFrameIsRejected() throws IOException {
+        byte[] body = body(codec.encode(new Inject("match", "system")));
+
+        for (int len = 1; len < body.length; len++) {
+            try {
+                codec.decode(Arrays.copyOf(body, len));
+                fail("decoded a frame cut at " + len);
+            } catch (IllegalArgumentException expected) {
+                // ok
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeStringLengthIsRejected() {
+        // length varint 0xFFFFFFFF: negative once truncated to int
+        codec.decode(new byte[]{BinaryCodec.TAG_INJECT, 1, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void oversizedSystemCountIsRejected() {
+        codec.decode(new byte[]{BinaryCodec.TAG_TICK, 1, 0, 0, 0, 0, 0, 0, 0, 0, (byte) 0xFF, (byte) 0xFF, 0x7F});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownTagIsRejected() {
+        codec.decode(new byte[]{99, 1});
+    }
+
+    @Test(expected = IOException.class)
+    public void oversizedFrameLengthIsRejected() throws IOException {
+        BinaryCodec.readFrame(new ByteArrayInputStream(new byte[]{(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x7F}));
+    }
+
+    /* ---------- helpers ---------- */
+
+    private Message roundTrip(Message msg) throws IOException {
+        return codec.decode(body(codec.encode(msg)));
+    }
+
+    private static byte[] body(byte[] frame) throws IOException {
+        ByteArrayInputStream in = new ByteArrayInputStream(frame);
+        byte[] body = BinaryCodec.readFrame(in);
+        assertEquals("frame has trailing bytes", 0, in.available());
+        return body;
+    }
+}
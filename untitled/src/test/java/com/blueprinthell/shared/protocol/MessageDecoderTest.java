@@ -0,0 +1,122 @@
+package com.blueprinthell.shared.protocol;
+
+import com.blueprinthell.shared.protocol.NetworkProtocol.*;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.*;
+
+public class MessageDecoderTest {
+    private final Gson gson = new Gson();
+    private final MessageDecoder decoder = new MessageDecoder(gson);
+
+    @Test
+    public void heartbeatRoundTrip() {
+        Heartbeat hb = new Heartbeat();
+
+        Message back = decoder.decode(gson.toJson(hb));
+
+        assertTrue(back instanceof Heartbeat);
+        assertEquals(MessageType.HEARTBEAT, back.type);
+        assertEquals(hb.messageId, back.messageId);
+        assertEquals(hb.timestamp, back.timestamp);
+    }
+
+    @Test
+    public void injectRoundTrip() {
+        Inject inject = new Inject("match-1", "sys-\"7\"");
+
+        Inject back = (Inject) decoder.decode(gson.toJson(inject));
+
+        assertEquals(MessageType.INJECT, back.type);
+        assertEquals("match-1", back.matchId);
+        assertEquals("sys-\"7\"", back.systemId);
+        assertEquals(inject.messageId, back.messageId);
+    }
+
+    @Test
+    public void tickRoundTrip() {
+        Tick tick = new Tick("match-1", 42);
+        tick.baseFrameId = 40;
+        tick.scoreP2 = new PlayerScore();
+        tick.scoreP2.delivered = 5;
+        tick.scoreP2.totalScore = 120;
+        tick.systems = new ArrayList<>();
+        SystemState s = new SystemState();
+        s.id = "sys-1";
+        s.ammoP1 = 2;
+        s.systemCooldownMs = 900;
+        tick.systems.add(s);
+        tick.globalSpeedMultiplier = 1.5;
+
+        Tick back = (Tick) decoder.decode(gson.toJson(tick));
+
+        assertEquals("match-1", back.matchId);
+        assertEquals(42, back.frameId);
+        assertEquals(40, back.baseFrameId);
+        assertNull(back.scoreP1);
+        assertEquals(5, back.scoreP2.delivered);
+        assertEquals(120, back.scoreP2.totalScore);
+        assertEquals(1, back.systems.size());
+        assertEquals("sys-1", back.systems.get(0).id);
+        assertEquals(2, back.systems.get(0).ammoP1);
+        assertEquals(900, back.systems.get(0).systemCooldownMs);
+        assertEquals(1.5, back.globalSpeedMultiplier, 0.0);
+    }
+
+    @Test
+    public void coldMessageGoesThroughGson() {
+        MatchFound found = new MatchFound("match-9", "u2", "bob", 2);
+
+        MatchFound back = (MatchFound) decoder.decode(gson.toJson(found));
+
+        assertEquals(MessageType.MATCH_FOUND, back.type);
+        assertEquals("match-9", back.matchId);
+        assertEquals("bob", back.opponentUsername);
+        assertEquals(2, back.playerSide);
+    }
+
+    @Test
+    public void typeInsideNestedObjectIsIgnored() {
+        String json = "{\"nested\":{\"type\":\"TICK\"},\"type\":\"HEARTBEAT\",\"messageId\":\"m\",\"timestamp\":1}";
+
+        assertEquals(MessageType.HEARTBEAT, MessageDecoder.scanType(json));
+        assertTrue(decoder.decode(json) instanceof Heartbeat);
+    }
+
+    @Test
+    public void malformedLinesAreRejected() {
+        assertRejected("");
+        assertRejected("[1,2]");
+        assertRejected("{\"type\":\"HEARTBEAT\"");                            // unterminated
+        assertRejected("{\"type\":\"HEARTBEAT}");                             // unterminated string
+        assertRejected("{\"type\":\"HEARTBEAT\"} {\"type\":\"HEARTBEAT\"}");  // two documents
+        assertRejected("{\"type\":\"NO_SUCH_TYPE\"}");
+        assertRejected("{\"messageId\":\"m\"}");                              // no type
+        assertRejected("{\"type\":\"INJECT\",\"matchId\":}");                 // bad value
+    }
+
+    @Test
+    public void decoderRecoversAfterMalformedLine() {
+        assertRejected("{\"type\":\"TICK\",\"matchId\":\"m\",\"frameId\":\"x\"}");
+
+        Inject back = (Inject) decoder.decode(gson.toJson(new Inject("match-2", "sys-3")));
+
+        assertEquals("match-2", back.matchId);
+        assertEquals("sys-3", back.systemId);
+    }
+
+    /* ---------- helpers ---------- */
+
+    private void assertRejected(String line) {
+        try {
+            decoder.decode(line);
+            fail("accepted: " + line);
+        } catch (JsonParseException expected) {
+            // ok
+        }
+    }
+}
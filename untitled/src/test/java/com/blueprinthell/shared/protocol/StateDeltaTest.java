@@ -0,0 +1,160 @@
+package com.blueprinthell.shared.protocol;
+
+import com.blueprinthell.shared.protocol.NetworkProtocol.*;
+import com.blueprinthell.shared.protocol.StateDelta.Snapshot;
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class StateDeltaTest {
+    private static final int SYSTEM_STEP = 50;
+    private static final int PACKET_STEP = 20;
+
+    @Test
+    public void diffCarriesOnlyWhatThePredictionMisses() {
+        Snapshot base = snapshot(10, score(1, 0, 5), score(0, 0, 5),
+                system("a", 3, 3, 500, 100, 0), system("b", 2, 2, 0, 0, 0));
+        // a decays exactly as predicted; b changes ammo
+        Snapshot current = snapshot(13, score(1, 0, 5), score(2, 1, 4),
+                system("a", 3, 3, 350, 40, 0), system("b", 1, 2, 0, 0, 0));
+
+        Tick delta = StateDelta.diff("m", base, current);
+
+        assertEquals(10, delta.baseFrameId);
+        assertEquals(13, delta.frameId);
+        assertNull(delta.scoreP1);
+        assertNotNull(delta.scoreP2);
+        assertEquals(1, delta.systems.size());
+        assertEquals("b", delta.systems.get(0).id);
+        assertSnapshotEquals(current, StateDelta.apply(base, delta));
+    }
+
+    @Test
+    public void unchangedStateGivesEmptyDelta() {
+        Snapshot base = snapshot(4, score(0, 0, 3), score(0, 0, 3), system("a", 3, 3, 0, 0, 0));
+        Snapshot current = snapshot(5, score(0, 0, 3), score(0, 0, 3), system("a", 3, 3, 0, 0, 0));
+
+        Tick delta = StateDelta.diff("m", base, current);
+
+        assertNull(delta.scoreP1);
+        assertNull(delta.scoreP2);
+        assertNull(delta.systems);
+        assertSnapshotEquals(current, StateDelta.apply(base, delta));
+    }
+
+    @Test
+    public void cooldownsDecayAcrossSkippedFrames() {
+        Snapshot base = snapshot(10, null, null, system("a", 3, 3, 120, 70, 30));
+
+        // the client acked frame 10 and missed 11..14; 5 frames of decay, clamped at zero
+        Map<String, SystemState> predicted = StateDelta.advance(base, 15);
+        SystemState a = predicted.get("a");
+        assertEquals(0, a.systemCooldownMs);
+        assertEquals(0, a.packetCooldownMsP1);
+        assertEquals(0, a.packetCooldownMsP2);
+
+        Snapshot current = snapshot(15, null, null, system("a", 3, 3, 0, 0, 0));
+        Tick delta = StateDelta.diff("m", base, current);
+        assertNull(delta.systems);
+        assertSnapshotEquals(current, StateDelta.apply(base, delta));
+    }
+
+    @Test
+    public void refreshedCooldownIsSentAfterSkippedFrames() {
+        Snapshot base = snapshot(10, null, null, system("a", 3, 3, 120, 0, 0));
+        // INJECT at frame 14 restarted the cooldown; the prediction says 0
+        Snapshot current = snapshot(15, null, null, system("a", 2, 3, 950, 0, 0));
+
+        Tick delta = StateDelta.diff("m", base, current);
+
+        assertEquals(1, delta.systems.size());
+        assertSnapshotEquals(current, StateDelta.apply(base, delta));
+    }
+
+    @Test
+    public void advanceToSameFrameKeepsSystems() {
+        SystemState a = system("a", 3, 3, 120, 70, 30);
+        Snapshot base = snapshot(10, null, null, a);
+
+        assertSame(a, StateDelta.advance(base, 10).get("a"));
+        assertSame(a, StateDelta.advance(base, 9).get("a"));
+    }
+
+    @Test
+    public void compressRoundTrip() {
+        Snapshot state = snapshot(42, score(7, 2, 60), score(3, 5, 10),
+                system("a", 3, 1, 250, 0, 80), system("b", 0, 4, 0, 60, 0));
+
+        Snapshot back = StateDelta.decompress(StateDelta.compress(state));
+
+        assertSnapshotEquals(state, back);
+        assertArrayEquals(new Object[]{"a", "b"}, back.systems.keySet().toArray());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void decompressRejectsGarbage() {
+        StateDelta.decompress("AAAAAAAA");
+    }
+
+    /* ---------- helpers ---------- */
+
+    private static Snapshot snapshot(int frame, PlayerScore p1, PlayerScore p2, SystemState... systems) {
+        Map<String, SystemState> map = new LinkedHashMap<>();
+        for (SystemState s : systems) map.put(s.id, s);
+        return new Snapshot(frame, p1, p2, map, 1.0, SYSTEM_STEP, PACKET_STEP, PACKET_STEP);
+    }
+
+    private static PlayerScore score(int delivered, int lost, int ammo) {
+        PlayerScore s = new PlayerScore();
+        s.delivered = delivered;
+        s.lost = lost;
+        s.totalScore = delivered * 10;
+        s.ammo = ammo;
+        return s;
+    }
+
+    private static SystemState system(String id, int ammoP1, int ammoP2, int cooldown, int packetP1, int packetP2) {
+        SystemState s = new SystemState();
+        s.id = id;
+        s.ammoP1 = ammoP1;
+        s.ammoP2 = ammoP2;
+        s.systemCooldownMs = cooldown;
+        s.packetCooldownMsP1 = packetP1;
+        s.packetCooldownMsP2 = packetP2;
+        return s;
+    }
+
+    private static void assertSnapshotEquals(Snapshot expected, Snapshot actual) {
+        assertEquals(expected.frameId, actual.frameId);
+        assertScoreEquals(expected.scoreP1, actual.scoreP1);
+        assertScoreEquals(expected.scoreP2, actual.scoreP2);
+        assertEquals(expected.globalSpeedMultiplier, actual.globalSpeedMultiplier, 0.0);
+        assertEquals(expected.systemCooldownStepMs, actual.systemCooldownStepMs);
+        assertEquals(expected.packetCooldownStepMsP1, actual.packetCooldownStepMsP1);
+        assertEquals(expected.packetCooldownStepMsP2, actual.packetCooldownStepMsP2);
+        assertEquals(expected.systems.keySet(), actual.systems.keySet());
+        for (SystemState e : expected.systems.values()) {
+            SystemState a = actual.systems.get(e.id);
+            assertEquals(e.id, e.ammoP1, a.ammoP1);
+            assertEquals(e.id, e.ammoP2, a.ammoP2);
+            assertEquals(e.id, e.systemCooldownMs, a.systemCooldownMs);
+            assertEquals(e.id, e.packetCooldownMsP1, a.packetCooldownMsP1);
+            assertEquals(e.id, e.packetCooldownMsP2, a.packetCooldownMsP2);
+        }
+    }
+
+    private static void assertScoreEquals(PlayerScore expected, PlayerScore actual) {
+        if (expected == null) {
+            assertNull(actual);
+            return;
+        }
+        assertNotNull(actual);
+        assertEquals(expected.delivered, actual.delivered);
+        assertEquals(expected.lost, actual.lost);
+        assertEquals(expected.totalScore, actual.totalScore);
+        assertEquals(expected.ammo, actual.ammo);
+    }
+}